@@ -6,8 +6,10 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
 
 import lombok.EqualsAndHashCode;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -44,6 +46,15 @@ public final class ETag
 		return new ETag(version, ImmutableMap.copyOf(attributes));
 	}
 
+	/**
+	 * @return ETag which is computed from given content, so it's the same for the same content, no matter when or on which node it's computed
+	 */
+	public static final ETag ofContentHash(@NonNull final byte[] content)
+	{
+		final long contentHash = Hashing.sha256().hashBytes(content).asLong();
+		return new ETag(contentHash, ImmutableMap.of());
+	}
+
 	private final long version;
 	private final ImmutableMap<String, String> attributes;
 
@@ -140,12 +140,16 @@ public class ETagResponseEntityBuilder<T extends ETagAware, R>
 
 	private final ResponseEntity.BodyBuilder newResponse(final HttpStatus status, final String etag)
 	{
+		final String adLanguage = getJSONOptions().getAD_Language();
+		return newResponse(status, etag, cacheMaxAgeSec, adLanguage);
+	}
 
+	/* package */static final ResponseEntity.BodyBuilder newResponse(final HttpStatus status, final String etag, final int cacheMaxAgeSec, final String adLanguage)
+	{
 		ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
 				.eTag(etag)
 				.cacheControl(CacheControl.maxAge(cacheMaxAgeSec, TimeUnit.SECONDS));
 
-		final String adLanguage = getJSONOptions().getAD_Language();
 		if (adLanguage != null && !adLanguage.isEmpty())
 		{
 			final String contentLanguage = ADLanguageList.toHttpLanguageTag(adLanguage);
@@ -0,0 +1,84 @@
+package de.metas.ui.web.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A JSON object, serialized to bytes (plain and gzipped), together with an {@link ETag} which is computed from the serialized content.
+ * <p>
+ * The gzipped bytes have their own {@link ETag} because they are a different representation of the same resource.
+ */
+@Value
+public final class SerializedJSON
+{
+	public static final SerializedJSON serialize(@NonNull final ObjectMapper jsonObjectMapper, @NonNull final Object json)
+	{
+		final byte[] bytes;
+		try
+		{
+			bytes = jsonObjectMapper.writeValueAsBytes(json);
+		}
+		catch (final IOException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+
+		final ETag etag = ETag.ofContentHash(bytes);
+		final ETag gzippedEtag = etag.overridingAttributes(ImmutableMap.of(ETAG_ATTRIBUTE_Encoding, ENCODING_GZIP));
+		return new SerializedJSON(etag, bytes, gzippedEtag, gzip(bytes));
+	}
+
+	private static final String ETAG_ATTRIBUTE_Encoding = "enc";
+	/* package */ static final String ENCODING_GZIP = "gzip";
+
+	private static final byte[] gzip(final byte[] bytes)
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+		try (final GZIPOutputStream gzipOut = new GZIPOutputStream(out))
+		{
+			gzipOut.write(bytes);
+		}
+		catch (final IOException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		return out.toByteArray();
+	}
+
+	ETag etag;
+	byte[] bytes;
+
+	ETag gzippedEtag;
+	byte[] gzippedBytes;
+}
@@ -0,0 +1,73 @@
+package de.metas.ui.web.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.compiere.util.Util.ArrayKey;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Caches {@link SerializedJSON}s.
+ * <p>
+ * It's meant to be held by a descriptor (e.g. the layouts of a window), so when the descriptor is reloaded, its serialized JSONs are dropped too.
+ */
+public final class SerializedJSONCache
+{
+	public static final SerializedJSONCache newInstance()
+	{
+		return new SerializedJSONCache();
+	}
+
+	private final ConcurrentHashMap<ArrayKey, SerializedJSON> serializedJSONsByKey = new ConcurrentHashMap<>();
+
+	private SerializedJSONCache()
+	{
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[size=" + serializedJSONsByKey.size() + "]";
+	}
+
+	/**
+	 * @param key cache key; it shall contain everything the JSON depends on (e.g. language, options)
+	 */
+	public SerializedJSON getOrSerialize(
+			@NonNull final ArrayKey key,
+			@NonNull final ObjectMapper jsonObjectMapper,
+			@NonNull final Supplier<Object> jsonSupplier)
+	{
+		return serializedJSONsByKey.computeIfAbsent(key, k -> SerializedJSON.serialize(jsonObjectMapper, jsonSupplier.get()));
+	}
+
+	public void clear()
+	{
+		serializedJSONsByKey.clear();
+	}
+}
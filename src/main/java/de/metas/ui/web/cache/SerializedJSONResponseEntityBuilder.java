@@ -0,0 +1,201 @@
+package de.metas.ui.web.cache;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.lang.ExtendedMemorizingSupplier;
+import org.compiere.util.Util.ArrayKey;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Builds JSON responses which are serialized only once and then served from a {@link SerializedJSONCache}.
+ * <p>
+ * Compared with {@link ETagResponseEntityBuilder}, the ETag is computed from the serialized JSON content,
+ * so it does not change after a restart or a cache reset (if the content did not change) and it's the same on all nodes.
+ */
+public class SerializedJSONResponseEntityBuilder
+{
+	public static final SerializedJSONResponseEntityBuilder of(
+			@NonNull final WebRequest request,
+			@NonNull final SerializedJSONCache cache,
+			@NonNull final ObjectMapper jsonObjectMapper)
+	{
+		return new SerializedJSONResponseEntityBuilder(request, cache, jsonObjectMapper);
+	}
+
+	private static final Splitter ACCEPT_ENCODING_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+	private static final Splitter ACCEPT_ENCODING_PARAMS_SPLITTER = Splitter.on(';').trimResults();
+
+	private final WebRequest request;
+	private final SerializedJSONCache cache;
+	private final ObjectMapper jsonObjectMapper;
+	private Supplier<JSONOptions> jsonOptions = () -> null;
+	private int cacheMaxAgeSec = 10;
+
+	private SerializedJSONResponseEntityBuilder(final WebRequest request, final SerializedJSONCache cache, final ObjectMapper jsonObjectMapper)
+	{
+		this.request = request;
+		this.cache = cache;
+		this.jsonObjectMapper = jsonObjectMapper;
+	}
+
+	public SerializedJSONResponseEntityBuilder cacheMaxAge(final int cacheMaxAgeSec)
+	{
+		this.cacheMaxAgeSec = cacheMaxAgeSec >= 0 ? cacheMaxAgeSec : 0;
+		return this;
+	}
+
+	public SerializedJSONResponseEntityBuilder jsonOptions(@NonNull final Supplier<JSONOptions> jsonOptions)
+	{
+		this.jsonOptions = ExtendedMemorizingSupplier.of(jsonOptions);
+		return this;
+	}
+
+	private JSONOptions getJSONOptions()
+	{
+		final JSONOptions jsonOptions = this.jsonOptions.get();
+		if (jsonOptions == null)
+		{
+			throw new IllegalStateException("jsonOptions not configured");
+		}
+		return jsonOptions;
+	}
+
+	/**
+	 * @param jsonKey identifies the JSON inside the cache (e.g. the tab ID); language and JSON options are added to it
+	 * @param toJsonMapper creates the JSON object; it's called only if the JSON was not already serialized
+	 */
+	public ResponseEntity<byte[]> toJson(@NonNull final Object jsonKey, @NonNull final Function<JSONOptions, Object> toJsonMapper)
+	{
+		final JSONOptions jsonOpts = getJSONOptions();
+		final ArrayKey cacheKey = ArrayKey.of(jsonKey, jsonOpts.getAD_Language(), jsonOpts.isShowAdvancedFields(), jsonOpts.isDebugShowColumnNamesForCaption());
+		final SerializedJSON serializedJSON = cache.getOrSerialize(cacheKey, jsonObjectMapper, () -> toJsonMapper.apply(jsonOpts));
+
+		// NOTE: the gzipped and the plain variant have different ETags, so we check against the ETag of the variant we would send
+		final boolean gzip = isGzipAccepted(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+		final String etag = (gzip ? serializedJSON.getGzippedEtag() : serializedJSON.getEtag()).toETagString();
+
+		// Check ETag
+		if (request.checkNotModified(etag))
+		{
+			// Response: 304 Not Modified
+			return newResponse(HttpStatus.NOT_MODIFIED, etag).build();
+		}
+
+		final ResponseEntity.BodyBuilder response = newResponse(HttpStatus.OK, etag)
+				.contentType(MediaType.APPLICATION_JSON_UTF8);
+		if (gzip)
+		{
+			return response
+					.header(HttpHeaders.CONTENT_ENCODING, SerializedJSON.ENCODING_GZIP)
+					.body(serializedJSON.getGzippedBytes());
+		}
+		else
+		{
+			return response.body(serializedJSON.getBytes());
+		}
+	}
+
+	/**
+	 * @param acceptEncoding the Accept-Encoding header value (e.g. <code>gzip;q=1.0, identity; q=0.5, *;q=0</code>)
+	 * @return true if gzip is accepted, i.e. it's explicitly listed or covered by <code>*</code>, and its quality value is not zero
+	 */
+	@VisibleForTesting
+	static boolean isGzipAccepted(@Nullable final String acceptEncoding)
+	{
+		if (acceptEncoding == null || acceptEncoding.trim().isEmpty())
+		{
+			return false;
+		}
+
+		Boolean gzipAccepted = null;
+		Boolean anyAccepted = null;
+		for (final String codingAndParams : ACCEPT_ENCODING_SPLITTER.split(acceptEncoding))
+		{
+			final List<String> parts = ACCEPT_ENCODING_PARAMS_SPLITTER.splitToList(codingAndParams);
+			final String coding = parts.get(0).toLowerCase();
+			final boolean accepted = !isZeroQuality(parts.subList(1, parts.size()));
+
+			if (SerializedJSON.ENCODING_GZIP.equals(coding) || "x-gzip".equals(coding))
+			{
+				gzipAccepted = accepted;
+			}
+			else if ("*".equals(coding))
+			{
+				anyAccepted = accepted;
+			}
+		}
+
+		if (gzipAccepted != null)
+		{
+			return gzipAccepted;
+		}
+		return anyAccepted != null && anyAccepted;
+	}
+
+	private static boolean isZeroQuality(final List<String> params)
+	{
+		for (final String param : params)
+		{
+			final int idx = param.indexOf('=');
+			if (idx <= 0 || !"q".equalsIgnoreCase(param.substring(0, idx).trim()))
+			{
+				continue;
+			}
+
+			try
+			{
+				return Double.parseDouble(param.substring(idx + 1).trim()) <= 0;
+			}
+			catch (final NumberFormatException ex)
+			{
+				return false; // invalid quality value => consider the default, i.e. 1
+			}
+		}
+
+		return false; // no quality value => the default is 1
+	}
+
+	private ResponseEntity.BodyBuilder newResponse(final HttpStatus status, final String etag)
+	{
+		// NOTE: Vary shall be the same for 200 and 304 responses
+		return ETagResponseEntityBuilder.newResponse(status, etag, cacheMaxAgeSec, getJSONOptions().getAD_Language())
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING); // the response depends on the Accept-Encoding (gzip or not)
+	}
+}
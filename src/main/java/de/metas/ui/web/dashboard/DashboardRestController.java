@@ -4,7 +4,6 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 
-import org.elasticsearch.client.Client;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -71,7 +70,7 @@ public class DashboardRestController
 	@Autowired
 	private UserDashboardRepository userDashboardRepo;
 	@Autowired
-	private Client elasticsearchClient;
+	private KPIDataProvider kpiDataProvider;
 	@Autowired
 	private WebsocketSender websocketSender;
 
@@ -204,14 +203,8 @@ public class DashboardRestController
 		final UserDashboardItem dashboardItem = getUserDashboardForReading()
 				.getItemById(widgetType, itemId);
 
-		final KPI kpi = dashboardItem.getKPI();
-		final TimeRange timeRange = dashboardItem.getTimeRangeDefaults().createTimeRange(fromMillis, toMillis);
-
-		return KPIDataLoader.newInstance(elasticsearchClient, kpi)
-				.setTimeRange(timeRange)
-				.setFormatValues(prettyValues)
-				.retrieveData()
-				.setItemId(dashboardItem.getId());
+		return kpiDataProvider.getKPIData(dashboardItem.getKPI(), dashboardItem.getTimeRangeDefaults(), fromMillis, toMillis, prettyValues)
+				.withItemId(dashboardItem.getId());
 	}
 
 	@DeleteMapping("/kpis/{itemId}")
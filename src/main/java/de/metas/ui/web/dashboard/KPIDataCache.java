@@ -0,0 +1,365 @@
+package de.metas.ui.web.dashboard;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.adempiere.util.time.SystemTime;
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Caches {@link KPIDataResult}s.
+ *
+ * Each entry has its own time to live. When an expired entry is requested, the stale data is returned right away and a refresh is scheduled in background.
+ * Entries which were not requested for longer than the idle timeout are evicted by {@link #refreshExpiredAndEvictIdle()}.
+ */
+public final class KPIDataCache
+{
+	private static final Logger logger = LogManager.getLogger(KPIDataCache.class);
+
+	private final Duration idleTimeout;
+	private final Executor refreshExecutor;
+
+	private final ConcurrentHashMap<Key, CacheEntry> entries = new ConcurrentHashMap<>();
+
+	private final AtomicLong countHits = new AtomicLong();
+	private final AtomicLong countStaleHits = new AtomicLong();
+	private final AtomicLong countMisses = new AtomicLong();
+	private final AtomicLong countLoads = new AtomicLong();
+	private final AtomicLong countLoadsFailed = new AtomicLong();
+	private final AtomicLong loadMillisTotal = new AtomicLong();
+	private final AtomicLong loadMillisMax = new AtomicLong();
+	private final AtomicLong countEvicted = new AtomicLong();
+
+	@Builder
+	private KPIDataCache(
+			@NonNull final Duration idleTimeout,
+			@NonNull final Executor refreshExecutor)
+	{
+		this.idleTimeout = idleTimeout;
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("size", entries.size())
+				.add("idleTimeout", idleTimeout)
+				.toString();
+	}
+
+	/**
+	 * @param ttl how long the loaded data is considered up to date
+	 * @param loader used to load the data now and to refresh it later, in background.
+	 *            It's bound to the cache entry when the entry is created, so it shall load the data for given key only (e.g. using the context of that key).
+	 *            In case the KPI definition changes, the cache shall be cleared (see {@link #clear()}).
+	 */
+	public KPIDataResult getOrLoad(@NonNull final Key key, @NonNull final Duration ttl, @NonNull final Supplier<KPIDataResult> loader)
+	{
+		final long now = SystemTime.millis();
+
+		final CacheEntry entry = entries.computeIfAbsent(key, k -> new CacheEntry(k, loader));
+		entry.setTTL(ttl);
+		entry.setLastAccessMillis(now);
+
+		final KPIDataResult data = entry.getDataOrNull();
+		if (data == null)
+		{
+			countMisses.incrementAndGet();
+			return loadIfNeeded(entry);
+		}
+		else if (entry.isExpired(now))
+		{
+			countStaleHits.incrementAndGet();
+			scheduleRefresh(entry);
+			return data;
+		}
+		else
+		{
+			countHits.incrementAndGet();
+			return data;
+		}
+	}
+
+	/**
+	 * Refreshes in background all expired entries and evicts the ones which were not accessed recently.
+	 * This method is called periodically, so the KPIs which are displayed on dashboards are already up to date when they are requested.
+	 */
+	public void refreshExpiredAndEvictIdle()
+	{
+		try
+		{
+			final long now = SystemTime.millis();
+			final long lastAccessMillisMin = now - idleTimeout.toMillis();
+
+			for (final CacheEntry entry : entries.values())
+			{
+				if (entry.getLastAccessMillis() < lastAccessMillisMin)
+				{
+					if (entries.remove(entry.getKey(), entry))
+					{
+						countEvicted.incrementAndGet();
+						logger.trace("Evicted idle {}", entry);
+					}
+				}
+				else if (entry.isExpired(now))
+				{
+					scheduleRefresh(entry);
+				}
+			}
+		}
+		catch (final Exception ex)
+		{
+			// NOTE: don't propagate the exception, else the periodic execution would be canceled
+			logger.warn("Failed refreshing expired KPI data. Ignored.", ex);
+		}
+	}
+
+	public void clear()
+	{
+		entries.clear();
+	}
+
+	public int size()
+	{
+		return entries.size();
+	}
+
+	private KPIDataResult loadIfNeeded(final CacheEntry entry)
+	{
+		synchronized (entry)
+		{
+			// Check again, maybe it was loaded by another thread meanwhile
+			final KPIDataResult data = entry.getDataOrNull();
+			if (data != null)
+			{
+				return data;
+			}
+
+			return load(entry);
+		}
+	}
+
+	private KPIDataResult load(final CacheEntry entry)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			final KPIDataResult data = entry.getLoader().get();
+			entry.setData(data, SystemTime.millis());
+			return data;
+		}
+		catch (final RuntimeException ex)
+		{
+			countLoadsFailed.incrementAndGet();
+			throw ex;
+		}
+		finally
+		{
+			final long loadMillis = stopwatch.stop().elapsed(TimeUnit.MILLISECONDS);
+			countLoads.incrementAndGet();
+			loadMillisTotal.addAndGet(loadMillis);
+			loadMillisMax.accumulateAndGet(loadMillis, Math::max);
+		}
+	}
+
+	private void scheduleRefresh(final CacheEntry entry)
+	{
+		if (!entry.startRefreshing())
+		{
+			return; // already refreshing
+		}
+
+		try
+		{
+			refreshExecutor.execute(() -> refreshNow(entry));
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			entry.stopRefreshing();
+			logger.warn("Failed scheduling refresh of {}. Ignored.", entry, ex);
+		}
+	}
+
+	private void refreshNow(final CacheEntry entry)
+	{
+		try
+		{
+			synchronized (entry)
+			{
+				load(entry);
+			}
+			logger.trace("Refreshed {}", entry);
+		}
+		catch (final Exception ex)
+		{
+			// NOTE: keep serving the stale data
+			logger.warn("Failed refreshing {}. Keeping the stale data.", entry, ex);
+		}
+		finally
+		{
+			entry.stopRefreshing();
+		}
+	}
+
+	public Map<String, Object> getStatistics()
+	{
+		final long loadsCount = countLoads.get();
+		return ImmutableMap.<String, Object> builder()
+				.put("entries", entries.size())
+				.put("idleTimeoutMillis", idleTimeout.toMillis())
+				.put("hits", countHits.get())
+				.put("staleHits", countStaleHits.get())
+				.put("misses", countMisses.get())
+				.put("loads", loadsCount)
+				.put("loadsFailed", countLoadsFailed.get())
+				.put("loadMillisAvg", loadsCount > 0 ? loadMillisTotal.get() / loadsCount : 0)
+				.put("loadMillisMax", loadMillisMax.get())
+				.put("evicted", countEvicted.get())
+				.build();
+	}
+
+	@Value
+	@Builder
+	public static final class Key
+	{
+		private final int kpiId;
+
+		/**
+		 * Values of the context variables which are used by the KPI's query (variable name to value).
+		 * Only those are part of the key, so users with the same values are sharing the same data.
+		 */
+		@NonNull
+		private final ImmutableMap<String, String> ctxVariables;
+		@NonNull
+		private final KPITimeRangeDefaults timeRangeDefaults;
+		/** requested range start; <code>0</code> means calculated from {@link #timeRangeDefaults} on each load */
+		private final long fromMillis;
+		/** requested range end; <code>0</code> means calculated from {@link #timeRangeDefaults} on each load */
+		private final long toMillis;
+		private final boolean formatValues;
+	}
+
+	private static final class CacheEntry
+	{
+		private final Key key;
+		private final Supplier<KPIDataResult> loader;
+
+		private volatile Duration ttl;
+
+		private volatile KPIDataResult data;
+		private volatile long loadedMillis;
+		private volatile long lastAccessMillis;
+		private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+		private CacheEntry(@NonNull final Key key, @NonNull final Supplier<KPIDataResult> loader)
+		{
+			this.key = key;
+			this.loader = loader;
+		}
+
+		@Override
+		public String toString()
+		{
+			return MoreObjects.toStringHelper(this)
+					.add("key", key)
+					.add("loadedMillis", loadedMillis)
+					.add("lastAccessMillis", lastAccessMillis)
+					.toString();
+		}
+
+		public Key getKey()
+		{
+			return key;
+		}
+
+		public void setTTL(final Duration ttl)
+		{
+			this.ttl = ttl;
+		}
+
+		public Supplier<KPIDataResult> getLoader()
+		{
+			return loader;
+		}
+
+		private Duration getTTL()
+		{
+			return ttl;
+		}
+
+		public KPIDataResult getDataOrNull()
+		{
+			return data;
+		}
+
+		public void setData(final KPIDataResult data, final long loadedMillis)
+		{
+			this.data = data;
+			this.loadedMillis = loadedMillis;
+		}
+
+		public boolean isExpired(final long now)
+		{
+			return data != null && now >= loadedMillis + getTTL().toMillis();
+		}
+
+		public long getLastAccessMillis()
+		{
+			return lastAccessMillis;
+		}
+
+		public void setLastAccessMillis(final long lastAccessMillis)
+		{
+			this.lastAccessMillis = lastAccessMillis;
+		}
+
+		public boolean startRefreshing()
+		{
+			return refreshing.compareAndSet(false, true);
+		}
+
+		public void stopRefreshing()
+		{
+			refreshing.set(false);
+		}
+	}
+}
@@ -3,6 +3,7 @@ package de.metas.ui.web.dashboard;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.function.BiFunction;
 
 import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
@@ -25,6 +26,7 @@ import org.slf4j.Logger;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.logging.LogManager;
 
@@ -59,6 +61,13 @@ public class KPIDataLoader
 
 	private static final Logger logger = LogManager.getLogger(KPIDataLoader.class);
 
+	private static final String PARAM_MainFromMillis = "MainFromMillis";
+	private static final String PARAM_MainToMillis = "MainToMillis";
+	private static final String PARAM_FromMillis = "FromMillis";
+	private static final String PARAM_ToMillis = "ToMillis";
+	/** Parameters of the KPI's query which are provided from the time range and not from the context */
+	public static final Set<String> TIME_RANGE_PARAMETER_NAMES = ImmutableSet.of(PARAM_MainFromMillis, PARAM_MainToMillis, PARAM_FromMillis, PARAM_ToMillis);
+
 	private final Client elasticsearchClient;
 
 	private final KPI kpi;
@@ -205,10 +214,10 @@ public class KPIDataLoader
 		//
 		// Create query evaluation context
 		final Evaluatee evalCtx = Evaluatees.mapBuilder()
-				.put("MainFromMillis", data.getRange().getFromMillis())
-				.put("MainToMillis", data.getRange().getToMillis())
-				.put("FromMillis", timeRange.getFromMillis())
-				.put("ToMillis", timeRange.getToMillis())
+				.put(PARAM_MainFromMillis, data.getRange().getFromMillis())
+				.put(PARAM_MainToMillis, data.getRange().getToMillis())
+				.put(PARAM_FromMillis, timeRange.getFromMillis())
+				.put(PARAM_ToMillis, timeRange.getToMillis())
 				.build()
 				// Fallback to user context
 				.andComposeWith(Evaluatees.ofCtx(Env.getCtx()));
@@ -0,0 +1,188 @@
+package de.metas.ui.web.dashboard;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.expression.api.IStringExpression;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.CacheMgt;
+import org.compiere.util.Env;
+import org.compiere.util.Evaluatee;
+import org.compiere.util.Evaluatees;
+import org.elasticsearch.client.Client;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.base.model.I_WEBUI_KPI;
+import de.metas.ui.web.base.model.I_WEBUI_KPI_Field;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Provides {@link KPIDataResult}s using {@link KPIDataLoader}, caching them in a {@link KPIDataCache}.
+ *
+ * The TTL of a KPI's data is the KPI's poll interval, or the configured default if the KPI has none.
+ * Expired data of KPIs which were recently requested is refreshed periodically in background.
+ */
+@Service
+public class KPIDataProvider
+{
+	private static final Logger logger = LogManager.getLogger(KPIDataProvider.class);
+
+	private final Client elasticsearchClient;
+	private final Duration defaultTTL;
+	private final KPIDataCache cache;
+
+	public KPIDataProvider(
+			@NonNull final Client elasticsearchClient,
+			@Value("${metasfresh.webui.dashboard.kpi.cacheTTLSeconds:60}") final int defaultTTLSeconds,
+			@Value("${metasfresh.webui.dashboard.kpi.cacheIdleTimeoutSeconds:1800}") final int idleTimeoutSeconds,
+			@Value("${metasfresh.webui.dashboard.kpi.refreshIntervalSeconds:10}") final int refreshIntervalSeconds,
+			@Value("${metasfresh.webui.dashboard.kpi.refreshThreads:2}") final int refreshThreads)
+	{
+		this.elasticsearchClient = elasticsearchClient;
+		this.defaultTTL = Duration.ofSeconds(Math.max(defaultTTLSeconds, 0));
+
+		final ScheduledExecutorService executor = Executors.newScheduledThreadPool(
+				Math.max(refreshThreads, 1),
+				CustomizableThreadFactory.builder()
+						.setDaemon(true)
+						.setThreadNamePrefix(KPIDataProvider.class.getSimpleName())
+						.build());
+
+		cache = KPIDataCache.builder()
+				.idleTimeout(Duration.ofSeconds(idleTimeoutSeconds))
+				.refreshExecutor(executor)
+				.build();
+
+		// The cached data (and its loaders) are bound to the KPI definition, so drop them when the KPI definitions are changed
+		CacheMgt.get().addCacheResetListener(I_WEBUI_KPI.Table_Name, request -> clearCache());
+		CacheMgt.get().addCacheResetListener(I_WEBUI_KPI_Field.Table_Name, request -> clearCache());
+
+		if (refreshIntervalSeconds > 0)
+		{
+			executor.scheduleWithFixedDelay(cache::refreshExpiredAndEvictIdle, refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+		}
+		logger.info("Using defaultTTL={}, refreshIntervalSeconds={}, cache={}", defaultTTL, refreshIntervalSeconds, cache);
+	}
+
+	public KPIDataResult getKPIData(
+			@NonNull final KPI kpi,
+			@NonNull final KPITimeRangeDefaults timeRangeDefaults,
+			final long fromMillis,
+			final long toMillis,
+			final boolean formatValues)
+	{
+		final Properties ctx = Env.getCtx();
+		final KPIDataCache.Key key = KPIDataCache.Key.builder()
+				.kpiId(kpi.getId())
+				.ctxVariables(extractCtxVariables(kpi.getESQuery(), Evaluatees.ofCtx(ctx)))
+				.timeRangeDefaults(timeRangeDefaults)
+				.fromMillis(fromMillis)
+				.toMillis(toMillis)
+				.formatValues(formatValues)
+				.build();
+
+		// NOTE: the loader might be also called later, from a background thread, so we need a copy of current context.
+		// The loader is bound to the cache entry of this key, so it's always called with a context which has the same query variables as this key.
+		final Properties ctxCopy = new Properties();
+		ctxCopy.putAll(ctx);
+
+		return cache.getOrLoad(key, getTTL(kpi), () -> retrieveKPIData(ctxCopy, kpi, timeRangeDefaults, fromMillis, toMillis, formatValues));
+	}
+
+	/**
+	 * @return values of the context variables which are used by given KPI query, i.e. the same values which {@link KPIDataLoader} will resolve from context
+	 */
+	@VisibleForTesting
+	static ImmutableMap<String, String> extractCtxVariables(@NonNull final IStringExpression esQuery, @NonNull final Evaluatee ctx)
+	{
+		final ImmutableMap.Builder<String, String> ctxVariables = ImmutableMap.builder();
+		for (final String parameterName : ImmutableSortedSet.copyOf(esQuery.getParameterNames()))
+		{
+			if (KPIDataLoader.TIME_RANGE_PARAMETER_NAMES.contains(parameterName))
+			{
+				continue; // part of the time range
+			}
+
+			final String value = ctx.get_ValueAsString(parameterName);
+			ctxVariables.put(parameterName, value != null ? value : "");
+		}
+		return ctxVariables.build();
+	}
+
+	private Duration getTTL(final KPI kpi)
+	{
+		final int pollIntervalSec = kpi.getPollIntervalSec();
+		return pollIntervalSec > 0 ? Duration.ofSeconds(pollIntervalSec) : defaultTTL;
+	}
+
+	private KPIDataResult retrieveKPIData(
+			final Properties ctx,
+			final KPI kpi,
+			final KPITimeRangeDefaults timeRangeDefaults,
+			final long fromMillis,
+			final long toMillis,
+			final boolean formatValues)
+	{
+		try (final IAutoCloseable c = Env.switchContext(ctx))
+		{
+			// NOTE: calculate the time range on each load, so the default (relative) time ranges are moving forward on refresh
+			final TimeRange timeRange = timeRangeDefaults.createTimeRange(fromMillis, toMillis);
+
+			return KPIDataLoader.newInstance(elasticsearchClient, kpi)
+					.setTimeRange(timeRange)
+					.setFormatValues(formatValues)
+					.retrieveData();
+		}
+	}
+
+	public void cacheReset()
+	{
+		cache.clear();
+	}
+
+	private int clearCache()
+	{
+		final int count = cache.size();
+		cache.clear();
+		return count;
+	}
+
+	public Map<String, Object> getStatistics()
+	{
+		return cache.getStatistics();
+	}
+}
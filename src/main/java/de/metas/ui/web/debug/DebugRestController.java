@@ -45,6 +45,7 @@ import de.metas.notification.UserNotificationRequest.TargetRecordAction;
 import de.metas.notification.UserNotificationRequest.UserNotificationRequestBuilder;
 import de.metas.notification.UserNotificationTargetType;
 import de.metas.ui.web.config.WebConfig;
+import de.metas.ui.web.dashboard.KPIDataProvider;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.menu.MenuTreeRepository;
 import de.metas.ui.web.process.ProcessRestController;
@@ -121,6 +122,10 @@ public class DebugRestController
 	@Lazy
 	private WebsocketSender websocketSender;
 
+	@Autowired
+	@Lazy
+	private KPIDataProvider kpiDataProvider;
+
 	@RequestMapping(value = "/cacheReset", method = RequestMethod.GET)
 	public void cacheReset()
 	{
@@ -128,6 +133,7 @@ public class DebugRestController
 		documentCollection.cacheReset();
 		menuTreeRepo.cacheReset();
 		processesController.cacheReset();
+		kpiDataProvider.cacheReset();
 		ViewColumnHelper.cacheReset();
 		Services.get(IUserRolePermissionsDAO.class).resetLocalCache();
 
@@ -185,6 +191,12 @@ public class DebugRestController
 				.collect(GuavaCollectors.toImmutableList());
 	}
 
+	@GetMapping("/views/stats")
+	public Map<String, Object> getViewsStatistics()
+	{
+		return viewsRepo.getStatistics();
+	}
+
 	@PostMapping("/viewDefaultProfile/{windowId}")
 	public void setDefaultViewProfile(@PathVariable("windowId") final String windowIdStr, @RequestBody final String profileIdStr)
 	{
@@ -405,4 +417,16 @@ public class DebugRestController
 		return websocketSender.getLoggedEvents(destinationFilter);
 	}
 
+	@GetMapping("websocketStats")
+	public Map<String, Object> getWebsocketStatistics()
+	{
+		return websocketSender.getStatistics();
+	}
+
+	@GetMapping("kpiDataCacheStats")
+	public Map<String, Object> getKPIDataCacheStatistics()
+	{
+		return kpiDataProvider.getStatistics();
+	}
+
 }
@@ -0,0 +1,317 @@
+package de.metas.ui.web.handlingunits;
+
+import static org.adempiere.model.InterfaceWrapperHelper.getContextAware;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.service.IADReferenceDAO;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.util.Check;
+import org.adempiere.util.GuavaCollectors;
+import org.adempiere.util.Services;
+import org.adempiere.util.lang.IContextAware;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_Product;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.I_M_HU_Storage;
+import de.metas.handlingunits.model.I_M_Locator;
+import de.metas.handlingunits.model.I_M_Warehouse;
+import de.metas.ui.web.window.datatypes.json.JSONLookupValue;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * HU trees, product storages and locators of a set of top level HUs, loaded using a few set based queries.
+ *
+ * Used by {@link SqlHUEditorViewRepository} to assemble the {@link HUEditorRow}s in memory, instead of querying the database for each HU and each included HU.
+ * <p>
+ * HUs, storages, products and UOMs are loaded in the transaction of the top level HUs, locators and warehouses are loaded out of transaction.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ *
+ */
+final class HUEditorRowsPrefetchedData
+{
+	public static HUEditorRowsPrefetchedData prefetch(@NonNull final List<I_M_HU> topLevelHUs, final boolean prefetchLocators)
+	{
+		return new HUEditorRowsPrefetchedData(topLevelHUs, prefetchLocators);
+	}
+
+	private final ImmutableListMultimap<Integer, I_M_HU> includedHUsByParentHUId;
+	private final ImmutableListMultimap<Integer, HUProductStorageData> productStoragesByHUId;
+	private final ImmutableMap<Integer, JSONLookupValue> locatorsById;
+	private final Map<String, JSONLookupValue> huStatusesByKey = new ConcurrentHashMap<>();
+
+	private HUEditorRowsPrefetchedData(@NonNull final List<I_M_HU> topLevelHUs, final boolean prefetchLocators)
+	{
+		final Map<Integer, I_M_HU> husById = new LinkedHashMap<>();
+		topLevelHUs.forEach(hu -> husById.put(hu.getM_HU_ID(), hu));
+
+		final IContextAware context = !topLevelHUs.isEmpty() ? getContextAware(topLevelHUs.get(0)) : PlainContextAware.newOutOfTrx();
+		includedHUsByParentHUId = retrieveIncludedHUsRecursively(context, husById);
+		productStoragesByHUId = retrieveProductStorages(context, husById);
+		locatorsById = prefetchLocators ? retrieveLocators(husById.values()) : ImmutableMap.of();
+	}
+
+	private static IQueryBL queryBL()
+	{
+		return Services.get(IQueryBL.class);
+	}
+
+	/**
+	 * Retrieves the included HUs level by level, i.e. two queries for each HU level (M_HU_Items and M_HUs).
+	 *
+	 * @param husById the top level HUs; the included HUs will be added to it
+	 */
+	private static ImmutableListMultimap<Integer, I_M_HU> retrieveIncludedHUsRecursively(final IContextAware context, final Map<Integer, I_M_HU> husById)
+	{
+		final ImmutableListMultimap.Builder<Integer, I_M_HU> includedHUsByParentHUId = ImmutableListMultimap.builder();
+
+		Set<Integer> parentHUIds = ImmutableSet.copyOf(husById.keySet());
+		while (!parentHUIds.isEmpty())
+		{
+			final Map<Integer, Integer> parentHUIdsByItemId = queryBL()
+					.createQueryBuilder(I_M_HU_Item.class, context)
+					.addInArrayFilter(I_M_HU_Item.COLUMN_M_HU_ID, parentHUIds)
+					.create()
+					.stream(I_M_HU_Item.class)
+					.collect(ImmutableMap.toImmutableMap(I_M_HU_Item::getM_HU_Item_ID, I_M_HU_Item::getM_HU_ID));
+			if (parentHUIdsByItemId.isEmpty())
+			{
+				break;
+			}
+
+			final List<I_M_HU> includedHUs = queryBL()
+					.createQueryBuilder(I_M_HU.class, context)
+					.addInArrayFilter(I_M_HU.COLUMN_M_HU_Item_Parent_ID, parentHUIdsByItemId.keySet())
+					.orderBy()
+					.addColumn(I_M_HU.COLUMN_M_HU_ID)
+					.endOrderBy()
+					.create()
+					.list(I_M_HU.class);
+
+			final ImmutableSet.Builder<Integer> nextParentHUIds = ImmutableSet.builder();
+			for (final I_M_HU includedHU : includedHUs)
+			{
+				final int includedHUId = includedHU.getM_HU_ID();
+				if (husById.putIfAbsent(includedHUId, includedHU) != null)
+				{
+					continue; // already loaded, shall not happen
+				}
+
+				final int parentHUId = parentHUIdsByItemId.get(includedHU.getM_HU_Item_Parent_ID());
+				includedHUsByParentHUId.put(parentHUId, includedHU);
+				nextParentHUIds.add(includedHUId);
+			}
+
+			parentHUIds = nextParentHUIds.build();
+		}
+
+		return includedHUsByParentHUId.build();
+	}
+
+	private static ImmutableListMultimap<Integer, HUProductStorageData> retrieveProductStorages(final IContextAware context, final Map<Integer, I_M_HU> husById)
+	{
+		if (husById.isEmpty())
+		{
+			return ImmutableListMultimap.of();
+		}
+
+		final List<I_M_HU_Storage> storages = queryBL()
+				.createQueryBuilder(I_M_HU_Storage.class, context)
+				.addInArrayFilter(I_M_HU_Storage.COLUMN_M_HU_ID, husById.keySet())
+				.orderBy()
+				.addColumn(I_M_HU_Storage.COLUMN_M_HU_ID)
+				.addColumn(I_M_HU_Storage.COLUMN_M_Product_ID)
+				.endOrderBy()
+				.create()
+				.list(I_M_HU_Storage.class);
+		if (storages.isEmpty())
+		{
+			return ImmutableListMultimap.of();
+		}
+
+		final Map<Integer, JSONLookupValue> productsById = retrieveProductLookupValues(context, storages.stream().map(I_M_HU_Storage::getM_Product_ID));
+		final Map<Integer, JSONLookupValue> uomsById = retrieveUOMLookupValues(context, storages.stream().map(I_M_HU_Storage::getC_UOM_ID));
+
+		return storages.stream()
+				.map(storage -> HUProductStorageData.builder()
+						.hu(husById.get(storage.getM_HU_ID()))
+						.productId(storage.getM_Product_ID())
+						.product(productsById.get(storage.getM_Product_ID()))
+						.uom(uomsById.get(storage.getC_UOM_ID()))
+						.qty(storage.getQty())
+						.build())
+				.collect(GuavaCollectors.toImmutableListMultimap(HUProductStorageData::getHuId));
+	}
+
+	private static <T> IQueryBuilder<T> queryByIds(final IContextAware context, final Class<T> modelClass, final String keyColumnName, final Collection<Integer> ids)
+	{
+		return queryBL()
+				.createQueryBuilder(modelClass, context)
+				.addInArrayFilter(keyColumnName, ids);
+	}
+
+	private static Set<Integer> toValidIds(final Stream<Integer> ids)
+	{
+		return ids.filter(id -> id != null && id > 0).collect(ImmutableSet.toImmutableSet());
+	}
+
+	private static Map<Integer, JSONLookupValue> retrieveProductLookupValues(final IContextAware context, final Stream<Integer> productIds)
+	{
+		final Set<Integer> productIdsToLoad = toValidIds(productIds);
+		if (productIdsToLoad.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		return queryByIds(context, I_M_Product.class, I_M_Product.COLUMNNAME_M_Product_ID, productIdsToLoad)
+				.create()
+				.stream(I_M_Product.class)
+				.collect(ImmutableMap.toImmutableMap(I_M_Product::getM_Product_ID, product -> JSONLookupValue.of(product.getM_Product_ID(), product.getValue() + "_" + product.getName())));
+	}
+
+	private static Map<Integer, JSONLookupValue> retrieveUOMLookupValues(final IContextAware context, final Stream<Integer> uomIds)
+	{
+		final Set<Integer> uomIdsToLoad = toValidIds(uomIds);
+		if (uomIdsToLoad.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		return queryByIds(context, I_C_UOM.class, I_C_UOM.COLUMNNAME_C_UOM_ID, uomIdsToLoad)
+				.create()
+				.stream(I_C_UOM.class)
+				.collect(ImmutableMap.toImmutableMap(I_C_UOM::getC_UOM_ID, uom -> JSONLookupValue.of(uom.getC_UOM_ID(), uom.getUOMSymbol())));
+	}
+
+	private static ImmutableMap<Integer, JSONLookupValue> retrieveLocators(final Collection<I_M_HU> hus)
+	{
+		final Set<Integer> locatorIds = toValidIds(hus.stream().map(I_M_HU::getM_Locator_ID));
+		if (locatorIds.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final IContextAware context = PlainContextAware.newOutOfTrx();
+		final List<I_M_Locator> locators = queryByIds(context, I_M_Locator.class, I_M_Locator.COLUMNNAME_M_Locator_ID, locatorIds)
+				.create()
+				.list(I_M_Locator.class);
+
+		final Set<Integer> warehouseIds = toValidIds(locators.stream().map(I_M_Locator::getM_Warehouse_ID));
+		final Map<Integer, I_M_Warehouse> warehousesById = warehouseIds.isEmpty()
+				? ImmutableMap.of()
+				: queryByIds(context, I_M_Warehouse.class, I_M_Warehouse.COLUMNNAME_M_Warehouse_ID, warehouseIds)
+						.create()
+						.stream(I_M_Warehouse.class)
+						.collect(ImmutableMap.toImmutableMap(I_M_Warehouse::getM_Warehouse_ID, Function.identity()));
+
+		return locators.stream()
+				.collect(ImmutableMap.toImmutableMap(I_M_Locator::getM_Locator_ID, locator -> createLocatorLookupValue(locator, warehousesById.get(locator.getM_Warehouse_ID()))));
+	}
+
+	private static JSONLookupValue createLocatorLookupValue(final I_M_Locator locator, final I_M_Warehouse warehouse)
+	{
+		final String warehouseName = warehouse != null ? warehouse.getName() : null;
+		final String caption = Stream.of(warehouseName, locator.getValue(), locator.getX(), locator.getX1(), locator.getY(), locator.getZ())
+				.filter(part -> !Check.isEmpty(part, true))
+				.map(String::trim)
+				.collect(Collectors.joining("_"));
+
+		return JSONLookupValue.of(locator.getM_Locator_ID(), caption);
+	}
+
+	public List<I_M_HU> getIncludedHUs(@NonNull final I_M_HU hu)
+	{
+		return includedHUsByParentHUId.get(hu.getM_HU_ID());
+	}
+
+	public List<HUProductStorageData> getProductStorages(@NonNull final I_M_HU hu)
+	{
+		return productStoragesByHUId.get(hu.getM_HU_ID());
+	}
+
+	/**
+	 * @return the product storage if given HU stores exactly one product, else <code>null</code>
+	 */
+	public HUProductStorageData getSingleProductStorageOrNull(@NonNull final I_M_HU hu)
+	{
+		final List<HUProductStorageData> productStorages = getProductStorages(hu);
+		return productStorages.size() == 1 ? productStorages.get(0) : null;
+	}
+
+	public JSONLookupValue getLocator(final int locatorId)
+	{
+		if (locatorId <= 0)
+		{
+			return null;
+		}
+
+		final JSONLookupValue locator = locatorsById.get(locatorId);
+		return locator != null ? locator : JSONLookupValue.unknown(locatorId);
+	}
+
+	public JSONLookupValue getHUStatus(@NonNull final I_M_HU hu)
+	{
+		return huStatusesByKey.computeIfAbsent(hu.getHUStatus(), huStatusKey -> {
+			final String huStatusDisplayName = Services.get(IADReferenceDAO.class).retrieveListNameTrl(HUEditorRow.HUSTATUS_AD_Reference_ID, huStatusKey);
+			return JSONLookupValue.of(huStatusKey, huStatusDisplayName);
+		});
+	}
+
+	@lombok.Value
+	@lombok.Builder
+	public static final class HUProductStorageData
+	{
+		@NonNull
+		private final I_M_HU hu;
+		private final int productId;
+		private final JSONLookupValue product;
+		private final JSONLookupValue uom;
+		@NonNull
+		private final BigDecimal qty;
+
+		public int getHuId()
+		{
+			return hu.getM_HU_ID();
+		}
+	}
+}
@@ -76,6 +76,8 @@ public class HUEditorView implements IView
 		return (HUEditorView)view;
 	}
 
+	private static final ImmutableSet<String> TABLENAMES_NotifyRecordsChanged = ImmutableSet.of(I_M_HU.Table_Name);
+
 	private final ViewId parentViewId;
 	private final DocumentId parentRowId;
 
@@ -398,6 +400,12 @@ public class HUEditorView implements IView
 		invalidateAll();
 	}
 
+	@Override
+	public Set<String> getNotifyRecordsChangedTableNamesOrNull()
+	{
+		return TABLENAMES_NotifyRecordsChanged;
+	}
+
 	@Override
 	public Stream<HUEditorRow> streamByIds(final DocumentIdsSelection rowIds)
 	{
@@ -2,7 +2,6 @@ package de.metas.ui.web.handlingunits;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -22,6 +21,8 @@ import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.handlingunits.HUIdsFilterHelper.HUIdsFilterData;
 import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.ViewRowsSortedIndex;
+import de.metas.ui.web.view.ViewRowsSortedIndexes;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.model.DocumentQueryOrderBy;
@@ -67,6 +68,8 @@ class HUEditorViewBuffer_FullyCached implements HUEditorViewBuffer
 	private final HUIdsFilterData huIdsFilterData;
 	private final ExtendedMemorizingSupplier<CopyOnWriteArraySet<Integer>> huIdsSupplier;
 	private final ExtendedMemorizingSupplier<IndexedHUEditorRows> rowsSupplier = ExtendedMemorizingSupplier.of(() -> retrieveHUEditorRows());
+	/** Top level row IDs sorted by orderBys, built lazily for the current rows */
+	private final ViewRowsSortedIndexes sortedIndexes = new ViewRowsSortedIndexes();
 
 	private final ImmutableList<DocumentQueryOrderBy> defaultOrderBys;
 
@@ -154,31 +157,35 @@ class HUEditorViewBuffer_FullyCached implements HUEditorViewBuffer
 	public Stream<HUEditorRow> streamPage(final int firstRow, final int pageLength, @NonNull final HUEditorRowFilter filter, final List<DocumentQueryOrderBy> orderBys)
 	{
 		final List<DocumentQueryOrderBy> orderBysEffective = !orderBys.isEmpty() ? orderBys : defaultOrderBys;
-		Stream<HUEditorRow> stream = getRows().stream()
-				.skip(firstRow)
-				.limit(pageLength)
-				.filter(HUEditorRowFilters.toPredicate(filter));
+		final IndexedHUEditorRows rows = getRows();
 
-		final Comparator<HUEditorRow> comparator = createComparatorOrNull(orderBysEffective);
-		if (comparator != null)
+		final Stream<HUEditorRow> stream;
+		if (orderBysEffective.isEmpty())
 		{
-			stream = stream.sorted(comparator);
+			stream = rows.stream()
+					.skip(firstRow)
+					.limit(pageLength);
+		}
+		else
+		{
+			stream = getSortedIndex(rows, orderBysEffective)
+					.getPage(firstRow, pageLength)
+					.stream()
+					.map(rows::getByIdOrNull)
+					.filter(Predicates.notNull());
 		}
 
-		return stream;
+		return stream.filter(HUEditorRowFilters.toPredicate(filter));
 	}
 
-	private static final Comparator<HUEditorRow> createComparatorOrNull(final List<DocumentQueryOrderBy> orderBys)
+	private ViewRowsSortedIndex getSortedIndex(final IndexedHUEditorRows rows, final List<DocumentQueryOrderBy> orderBys)
 	{
-		if (orderBys == null || orderBys.isEmpty())
-		{
-			return null;
-		}
+		return sortedIndexes.getSortedIndex(rows.getTopLevelRows(), orderBys);
+	}
 
-		return orderBys.stream()
-				.map(orderBy -> orderBy.asComparator(HUEditorRow::getFieldValueAsJson))
-				.reduce((cmp1, cmp2) -> cmp1.thenComparing(cmp2))
-				.orElse(null);
+	private void forgetSortedIndexes()
+	{
+		sortedIndexes.clear();
 	}
 
 	@Override
@@ -199,6 +206,7 @@ class HUEditorViewBuffer_FullyCached implements HUEditorViewBuffer
 		huIdsSupplier.forget();
 		huEditorRepo.invalidateCache();
 		rowsSupplier.forget();
+		forgetSortedIndexes();
 	}
 
 	@Override
@@ -210,6 +218,7 @@ class HUEditorViewBuffer_FullyCached implements HUEditorViewBuffer
 		}
 
 		getHUIdsFilterData().mustHUIds(huIdsToAdd);
+		forgetSortedIndexes();
 		return getHUIds().addAll(huIdsToAdd);
 	}
 
@@ -222,6 +231,7 @@ class HUEditorViewBuffer_FullyCached implements HUEditorViewBuffer
 		}
 
 		getHUIdsFilterData().shallNotHUIds(huIdsToRemove);
+		forgetSortedIndexes();
 		return getHUIds().removeAll(huIdsToRemove);
 	}
 
@@ -283,6 +293,11 @@ class HUEditorViewBuffer_FullyCached implements HUEditorViewBuffer
 			return record;
 		}
 
+		public HUEditorRow getByIdOrNull(final DocumentId rowId)
+		{
+			return allRowsById.get(rowId);
+		}
+
 		public Stream<HUEditorRow> streamByIdsExcludingIncludedRows(final HUEditorRowFilter filter)
 		{
 			final ImmutableSet<HUEditorRowId> onlyRowIds = filter.getOnlyRowIds();
@@ -338,6 +353,11 @@ class HUEditorViewBuffer_FullyCached implements HUEditorViewBuffer
 			return rows.stream();
 		}
 
+		public List<HUEditorRow> getTopLevelRows()
+		{
+			return rows;
+		}
+
 		public Stream<HUEditorRow> streamRecursive()
 		{
 			return stream()
@@ -10,22 +10,17 @@ import java.util.Date;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.dao.IQueryBuilder;
-import org.adempiere.ad.service.IADReferenceDAO;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.model.PlainContextAware;
-import org.adempiere.util.Check;
 import org.adempiere.util.GuavaCollectors;
 import org.adempiere.util.Services;
 import org.adempiere.util.collections.PagedIterator.Page;
-import org.compiere.model.I_C_UOM;
-import org.compiere.model.I_M_Product;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
@@ -37,16 +32,12 @@ import de.metas.handlingunits.IHandlingUnitsBL;
 import de.metas.handlingunits.IHandlingUnitsDAO;
 import de.metas.handlingunits.exceptions.HUException;
 import de.metas.handlingunits.model.I_M_HU;
-import de.metas.handlingunits.model.I_M_Locator;
-import de.metas.handlingunits.model.I_M_Warehouse;
 import de.metas.handlingunits.model.X_M_HU_PI_Version;
-import de.metas.handlingunits.storage.IHUProductStorage;
-import de.metas.handlingunits.storage.IHUStorage;
-import de.metas.handlingunits.storage.IHUStorageFactory;
 import de.metas.logging.LogManager;
 import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverter;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverters;
+import de.metas.ui.web.handlingunits.HUEditorRowsPrefetchedData.HUProductStorageData;
 import de.metas.ui.web.handlingunits.HUIdsFilterHelper.HUIdsFilterData;
 import de.metas.ui.web.handlingunits.util.HUPackingInfoFormatter;
 import de.metas.ui.web.handlingunits.util.HUPackingInfos;
@@ -146,10 +137,13 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 	@Override
 	public List<HUEditorRow> retrieveHUEditorRows(@NonNull final Set<Integer> huIds, @NonNull final HUEditorRowFilter filter)
 	{
+		final List<I_M_HU> topLevelHUs = retrieveTopLevelHUs(huIds, filter);
+		final HUEditorRowsPrefetchedData prefetchedData = HUEditorRowsPrefetchedData.prefetch(topLevelHUs, showLocator);
+
 		final int topLevelHUId = -1;
-		return retrieveTopLevelHUs(huIds, filter)
+		return topLevelHUs
 				.stream()
-				.map(hu -> createHUEditorRow(hu, topLevelHUId))
+				.map(hu -> createHUEditorRow(hu, topLevelHUId, prefetchedData))
 				.collect(GuavaCollectors.toImmutableList());
 	}
 
@@ -164,8 +158,9 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 		// TODO: check if the huId is part of our collection
 
 		final I_M_HU hu = loadOutOfTrx(huId, I_M_HU.class);
+		final HUEditorRowsPrefetchedData prefetchedData = HUEditorRowsPrefetchedData.prefetch(ImmutableList.of(hu), showLocator);
 		final int topLevelHUId = -1; // assume given huId is a top level HU
-		return createHUEditorRow(hu, topLevelHUId);
+		return createHUEditorRow(hu, topLevelHUId, prefetchedData);
 	}
 
 	private static List<I_M_HU> retrieveTopLevelHUs(@NonNull final Collection<Integer> huIds, @NonNull final HUEditorRowFilter filter)
@@ -193,7 +188,8 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 
 	private HUEditorRow createHUEditorRow(
 			@NonNull final I_M_HU hu,
-			final int topLevelHUId)
+			final int topLevelHUId,
+			@NonNull final HUEditorRowsPrefetchedData prefetchedData)
 	{
 		// final Stopwatch stopwatch = Stopwatch.createStarted();
 
@@ -212,7 +208,7 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 		final String huUnitTypeDisplayName = huRecordType.getName();
 		final JSONLookupValue huUnitTypeLookupValue = JSONLookupValue.of(huUnitTypeCode, huUnitTypeDisplayName);
 
-		final JSONLookupValue huStatus = createHUStatusLookupValue(hu);
+		final JSONLookupValue huStatus = prefetchedData.getHUStatus(hu);
 		final boolean processed = rowProcessedPredicate.isProcessed(hu);
 		final int huId = hu.getM_HU_ID();
 		final HUEditorRowId rowId = HUEditorRowId.ofHU(huId, topLevelHUId);
@@ -241,17 +237,17 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 		// Locator
 		if (showLocator)
 		{
-			huEditorRow.setLocator(createLocatorLookupValue(hu.getM_Locator_ID()));
+			huEditorRow.setLocator(prefetchedData.getLocator(hu.getM_Locator_ID()));
 		}
 
 		//
 		// Product/UOM/Qty if there is only one product stored
-		final IHUProductStorage singleProductStorage = getSingleProductStorage(hu);
+		final HUProductStorageData singleProductStorage = prefetchedData.getSingleProductStorageOrNull(hu);
 		if (singleProductStorage != null)
 		{
 			huEditorRow
-					.setProduct(createProductLookupValue(singleProductStorage.getM_Product()))
-					.setUOM(createUOMLookupValue(singleProductStorage.getC_UOM()))
+					.setProduct(singleProductStorage.getProduct())
+					.setUOM(singleProductStorage.getUom())
 					.setQtyCU(singleProductStorage.getQty());
 		}
 
@@ -260,32 +256,25 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 		final int topLevelHUIdEffective = topLevelHUId > 0 ? topLevelHUId : huId;
 		if (aggregatedTU)
 		{
-			final IHUStorageFactory storageFactory = handlingUnitsBL.getStorageFactory();
-			storageFactory
-					.getStorage(hu)
-					.getProductStorages()
+			prefetchedData.getProductStorages(hu)
 					.stream()
-					.map(huStorage -> createHUEditorRow(huId, topLevelHUIdEffective, huStorage, processed))
+					.map(huStorage -> createHUEditorRow(huId, topLevelHUIdEffective, huStorage, processed, prefetchedData))
 					.forEach(huEditorRow::addIncludedRow);
 
 		}
 		else if (X_M_HU_PI_Version.HU_UNITTYPE_LoadLogistiqueUnit.equals(huUnitTypeCode))
 		{
-			final IHandlingUnitsDAO handlingUnitsDAO = Services.get(IHandlingUnitsDAO.class);
-			handlingUnitsDAO.retrieveIncludedHUs(hu)
+			prefetchedData.getIncludedHUs(hu)
 					.stream()
-					.map(includedHU -> createHUEditorRow(includedHU, topLevelHUIdEffective))
+					.map(includedHU -> createHUEditorRow(includedHU, topLevelHUIdEffective, prefetchedData))
 					.forEach(huEditorRow::addIncludedRow);
 		}
 		else if (X_M_HU_PI_Version.HU_UNITTYPE_TransportUnit.equals(huUnitTypeCode))
 		{
-			final IHandlingUnitsDAO handlingUnitsDAO = Services.get(IHandlingUnitsDAO.class);
-			final IHUStorageFactory storageFactory = handlingUnitsBL.getStorageFactory();
-			handlingUnitsDAO.retrieveIncludedHUs(hu)
+			prefetchedData.getIncludedHUs(hu)
 					.stream()
-					.map(includedVHU -> storageFactory.getStorage(includedVHU))
-					.flatMap(vhuStorage -> vhuStorage.getProductStorages().stream())
-					.map(vhuProductStorage -> createHUEditorRow(huId, topLevelHUIdEffective, vhuProductStorage, processed))
+					.flatMap(includedVHU -> prefetchedData.getProductStorages(includedVHU).stream())
+					.map(vhuProductStorage -> createHUEditorRow(huId, topLevelHUIdEffective, vhuProductStorage, processed, prefetchedData))
 					.forEach(huEditorRow::addIncludedRow);
 		}
 		else if (X_M_HU_PI_Version.HU_UNITTYPE_VirtualPI.equals(huUnitTypeCode))
@@ -329,36 +318,21 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 		}
 	}
 
-	private IHUProductStorage getSingleProductStorage(final I_M_HU hu)
-	{
-		final IHUStorage huStorage = Services.get(IHandlingUnitsBL.class).getStorageFactory()
-				.getStorage(hu);
-
-		final I_M_Product product = huStorage.getSingleProductOrNull();
-		if (product == null)
-		{
-			return null;
-		}
-
-		final IHUProductStorage productStorage = huStorage.getProductStorage(product);
-		return productStorage;
-	}
-
 	private HUEditorRow createHUEditorRow(
 			final int parent_HU_ID,
 			final int topLevelHUId,
-			@NonNull final IHUProductStorage huStorage,
-			final boolean processed)
+			@NonNull final HUProductStorageData huStorage,
+			final boolean processed,
+			@NonNull final HUEditorRowsPrefetchedData prefetchedData)
 	{
 		// final Stopwatch stopwatch = Stopwatch.createStarted();
 
-		final I_M_HU hu = huStorage.getM_HU();
+		final I_M_HU hu = huStorage.getHu();
 		final int huId = hu.getM_HU_ID();
-		final I_M_Product product = huStorage.getM_Product();
 		final HUEditorRowAttributesProvider attributesProviderEffective = huId != parent_HU_ID ? attributesProvider : null;
 
 		final HUEditorRow huEditorRow = HUEditorRow.builder(windowId)
-				.setRowId(HUEditorRowId.ofHUStorage(huId, topLevelHUId, product.getM_Product_ID()))
+				.setRowId(HUEditorRowId.ofHUStorage(huId, topLevelHUId, huStorage.getProductId()))
 				.setType(HUEditorRowType.HUStorage)
 				.setTopLevel(false)
 				.setProcessed(processed)
@@ -367,10 +341,10 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 				// .setHUId(huId)
 				// .setCode(hu.getValue()) // NOTE: don't show value on storage level
 				.setHUUnitType(JSONLookupValue.of(X_M_HU_PI_Version.HU_UNITTYPE_VirtualPI, "CU"))
-				.setHUStatus(createHUStatusLookupValue(hu))
+				.setHUStatus(prefetchedData.getHUStatus(hu))
 				//
-				.setProduct(createProductLookupValue(product))
-				.setUOM(createUOMLookupValue(huStorage.getC_UOM()))
+				.setProduct(huStorage.getProduct())
+				.setUOM(huStorage.getUom())
 				.setQtyCU(huStorage.getQty())
 				//
 				.build();
@@ -379,34 +353,6 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 		return huEditorRow;
 	}
 
-	private static JSONLookupValue createHUStatusLookupValue(final I_M_HU hu)
-	{
-		final String huStatusKey = hu.getHUStatus();
-		final String huStatusDisplayName = Services.get(IADReferenceDAO.class).retrieveListNameTrl(HUEditorRow.HUSTATUS_AD_Reference_ID, huStatusKey);
-		return JSONLookupValue.of(huStatusKey, huStatusDisplayName);
-	}
-
-	private static JSONLookupValue createProductLookupValue(final I_M_Product product)
-	{
-		if (product == null)
-		{
-			return null;
-		}
-
-		final String displayName = product.getValue() + "_" + product.getName();
-		return JSONLookupValue.of(product.getM_Product_ID(), displayName);
-	}
-
-	private static JSONLookupValue createUOMLookupValue(final I_C_UOM uom)
-	{
-		if (uom == null)
-		{
-			return null;
-		}
-
-		return JSONLookupValue.of(uom.getC_UOM_ID(), uom.getUOMSymbol());
-	}
-
 	private static Date extractBestBeforeDate(final HUEditorRowAttributesProvider attributesProvider, final HUEditorRowId rowId)
 	{
 		if (attributesProvider == null)
@@ -419,29 +365,6 @@ public class SqlHUEditorViewRepository implements HUEditorViewRepository
 		return attributes.getBestBeforeDate().orElse(null);
 	}
 
-	private static JSONLookupValue createLocatorLookupValue(final int locatorId)
-	{
-		if (locatorId <= 0)
-		{
-			return null;
-		}
-
-		final I_M_Locator locator = loadOutOfTrx(locatorId, I_M_Locator.class);
-		if (locator == null)
-		{
-			return JSONLookupValue.unknown(locatorId);
-		}
-
-		final I_M_Warehouse warehouse = loadOutOfTrx(locator.getM_Warehouse_ID(), I_M_Warehouse.class);
-
-		final String caption = Stream.of(warehouse.getName(), locator.getValue(), locator.getX(), locator.getX1(), locator.getY(), locator.getZ())
-				.filter(part -> !Check.isEmpty(part, true))
-				.map(String::trim)
-				.collect(Collectors.joining("_"));
-
-		return JSONLookupValue.of(locatorId, caption);
-	}
-
 	@Override
 	public List<Integer> retrieveHUIdsEffective(
 			@NonNull final HUIdsFilterData huIdsFilter,
@@ -25,6 +25,7 @@ import de.metas.dimension.DimensionSpecGroup;
 import de.metas.i18n.IMsgBL;
 import de.metas.material.cockpit.model.I_MD_Cockpit;
 import de.metas.material.cockpit.model.I_MD_Stock;
+import de.metas.ui.web.material.cockpit.rowfactory.MainRowBucketId;
 import de.metas.ui.web.view.IViewRow;
 import de.metas.ui.web.view.IViewRowType;
 import de.metas.ui.web.view.ViewRow.DefaultRowType;
@@ -75,6 +76,22 @@ public class MaterialCockpitRow implements IViewRow
 	private static final String SEPARATOR = "-";
 	private static final Joiner DOCUMENT_ID_JOINER = Joiner.on(SEPARATOR).skipNulls();
 
+	/**
+	 * @return the ID of the main row which is or would be created for given bucket
+	 */
+	public static DocumentId createMainRowId(@NonNull final MainRowBucketId mainRowBucketId)
+	{
+		return createMainRowId(mainRowBucketId.getDate(), mainRowBucketId.getProductId());
+	}
+
+	private static DocumentId createMainRowId(final Timestamp date, final int productId)
+	{
+		return DocumentId.of(DOCUMENT_ID_JOINER.join(
+				"main",
+				date,
+				productId));
+	}
+
 	private final Timestamp date;
 	@Getter
 	private final int productId;
@@ -178,10 +195,7 @@ public class MaterialCockpitRow implements IViewRow
 		this.date = extractDate(includedRows);
 		this.productId = extractProductId(includedRows);
 
-		this.documentId = DocumentId.of(DOCUMENT_ID_JOINER.join(
-				"main",
-				date,
-				productId));
+		this.documentId = createMainRowId(date, productId);
 
 		this.documentPath = DocumentPath.rootDocumentPath(
 				MaterialCockpitConstants.WINDOWID_MaterialCockpitView,
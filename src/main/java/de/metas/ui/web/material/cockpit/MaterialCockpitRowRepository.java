@@ -1,36 +1,52 @@
 package de.metas.ui.web.material.cockpit;
 
-import java.util.Collection;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 import org.adempiere.ad.dao.ICompositeQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequest;
+import org.adempiere.ad.dao.cache.CacheInvalidateRequest;
+import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.Services;
-import org.adempiere.util.lang.ExtendedMemorizingSupplier;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_M_Product;
-import org.compiere.util.CCache;
+import org.compiere.util.CacheMgt;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Repository;
 
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import de.metas.material.cockpit.model.I_MD_Cockpit;
 import de.metas.material.cockpit.model.I_MD_Stock;
 import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.material.cockpit.filters.MaterialCockpitFilters;
+import de.metas.ui.web.material.cockpit.filters.ProductsCatalog;
+import de.metas.ui.web.material.cockpit.filters.ProductsCatalogEntry;
 import de.metas.ui.web.material.cockpit.filters.StockFilters;
+import de.metas.ui.web.material.cockpit.rowfactory.MainRowBucketId;
 import de.metas.ui.web.material.cockpit.rowfactory.MaterialCockpitRowFactory;
 import de.metas.ui.web.material.cockpit.rowfactory.MaterialCockpitRowFactory.CreateRowsRequest;
 import de.metas.ui.web.view.AbstractCustomView.IRowsData;
+import de.metas.ui.web.view.AbstractIndexedRowsData;
 import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -57,87 +73,81 @@ import lombok.NonNull;
 @Repository
 public class MaterialCockpitRowRepository
 {
-	private final transient CCache<Integer, List<I_M_Product>> orgIdToproducts = CCache.newCache(
-			I_M_Product.Table_Name + "#by#" + I_M_Product.COLUMNNAME_AD_Org_ID,
-			10, // initial size
-			CCache.EXPIREMINUTES_Never);
+	/** Products which can be displayed in material cockpit, by AD_Client_ID/AD_Org_ID. Incrementally updated when products are changed. */
+	private final ConcurrentHashMap<ProductsCatalogKey, ProductsCatalog> productsCatalogs = new ConcurrentHashMap<>();
 
 	private final MaterialCockpitFilters materialCockpitFilters;
 
 	private final MaterialCockpitRowFactory materialCockpitRowFactory;
 
+	/** Changed records which were loaded once for all views of current thread (see {@link #preloadChangedRecords(Set)}) */
+	private final ThreadLocal<ChangedRecords> preloadedChangedRecords = new ThreadLocal<>();
+
 	public MaterialCockpitRowRepository(
 			@NonNull final MaterialCockpitFilters materialCockpitFilters,
 			@NonNull final MaterialCockpitRowFactory materialCockpitRowFactory)
 	{
 		this.materialCockpitFilters = materialCockpitFilters;
 		this.materialCockpitRowFactory = materialCockpitRowFactory;
+
+		CacheMgt.get().addCacheResetListener(I_M_Product.Table_Name, this::onProductsChanged);
 	}
 
 	public IRowsData<MaterialCockpitRow> createRowsData(@NonNull final List<DocumentFilter> filters)
 	{
-		return new IRowsData<MaterialCockpitRow>()
-		{
-			private final ExtendedMemorizingSupplier<List<MaterialCockpitRow>> topLevelRows = //
-					ExtendedMemorizingSupplier.of(() -> retrieveRows(filters));
-
-			@Override
-			public Map<DocumentId, MaterialCockpitRow> getDocumentId2TopLevelRows()
-			{
-				return Maps.uniqueIndex(topLevelRows.get(), row -> row.getId());
-			}
-
-			@Override
-			public ListMultimap<TableRecordReference, MaterialCockpitRow> getTableRecordReference2rows()
-			{
-				return extractTableRecordReference2DocumentId2(getAllRows());
-			}
-
-			@Override
-			public void invalidateAll()
-			{
-				topLevelRows.forget();
-			}
-		};
+		return new MaterialCockpitRowsData(filters);
 	}
 
-	private List<MaterialCockpitRow> retrieveRows(@NonNull final List<DocumentFilter> filters)
+	/**
+	 * @param onlyProductIds if not empty, only the rows of those products are retrieved
+	 */
+	private List<MaterialCockpitRow> retrieveRows(@NonNull final List<DocumentFilter> filters, @NonNull final Set<Integer> onlyProductIds)
 	{
-		final Date date = materialCockpitFilters.getFilterByDate(filters);
+		final Timestamp date = extractDayOrNull(filters);
 		if (date == null)
 		{
 			return ImmutableList.of();
 		}
 
 		final List<I_MD_Cockpit> cockpitRecords = materialCockpitFilters
-				.createQuery(filters)
+				.createQuery(filters, onlyProductIds)
 				.list();
 
 		final List<I_MD_Stock> stockRecords = StockFilters
-				.createStockQueryFor(filters)
+				.createStockQueryFor(filters, onlyProductIds)
 				.list();
 
+		final Set<Integer> productIdsToListEvenIfEmpty = retrieveRelevantProductIds(filters, onlyProductIds);
+
 		final CreateRowsRequest request = CreateRowsRequest.builder()
-				.date(TimeUtil.asTimestamp(date))
-				.productsToListEvenIfEmpty(retrieveRelevantProducts(filters))
+				.date(date)
+				.productIdsToListEvenIfEmpty(productIdsToListEvenIfEmpty)
 				.cockpitRecords(cockpitRecords)
 				.stockRecords(stockRecords)
 				.build();
 		return materialCockpitRowFactory.createRows(request);
 	}
 
-	private List<I_M_Product> retrieveRelevantProducts(@NonNull final List<DocumentFilter> filters)
+	private Timestamp extractDayOrNull(@NonNull final List<DocumentFilter> filters)
 	{
-		final int orgId = Env.getAD_Org_ID(Env.getCtx());
-		final List<I_M_Product> allProducts = orgIdToproducts
-				.getOrLoad(orgId, () -> retrieveAllProducts(orgId));
+		final Date date = materialCockpitFilters.getFilterByDate(filters);
+		return date != null ? TimeUtil.getDay(date) : null;
+	}
 
-		return allProducts.stream()
-				.filter(materialCockpitFilters.toProductFilterPredicate(filters))
-				.collect(ImmutableList.toImmutableList());
+	private Set<Integer> retrieveRelevantProductIds(@NonNull final List<DocumentFilter> filters, @NonNull final Set<Integer> onlyProductIds)
+	{
+		final ProductsCatalogKey key = ProductsCatalogKey.ofContext(Env.getCtx());
+		final ProductsCatalog productsCatalog = productsCatalogs.computeIfAbsent(key, MaterialCockpitRowRepository::retrieveProductsCatalog);
+
+		final ImmutableSet<Integer> productIds = materialCockpitFilters.getMatchingProductIds(productsCatalog, filters);
+		if (onlyProductIds.isEmpty())
+		{
+			return productIds;
+		}
+		return Sets.intersection(onlyProductIds, productIds).immutableCopy();
 	}
 
-	private List<I_M_Product> retrieveAllProducts(final int adOrgId)
+	private static ProductsCatalog retrieveProductsCatalog(@NonNull final ProductsCatalogKey key)
 	{
 		final IQueryBL queryBL = Services.get(IQueryBL.class);
 		final ICompositeQueryFilter<I_M_Product> relevantProductFilter = //
@@ -147,34 +157,329 @@ public class MaterialCockpitRowRepository
 						.addEqualsFilter(I_M_Product.COLUMN_IsPurchased, true)
 						.addEqualsFilter(I_M_Product.COLUMN_IsStocked, true);
 
-		final List<I_M_Product> products = //
-				queryBL.createQueryBuilder(I_M_Product.class)
-						.addOnlyActiveRecordsFilter()
-						.addInArrayFilter(I_M_Product.COLUMN_AD_Org_ID, adOrgId, 0)
-						.filter(relevantProductFilter)
-						.create()
-						.list();
-		return products;
+		// NOTE: we iterate, in order to not have all product models in memory at once
+		final Iterator<I_M_Product> products = queryBL.createQueryBuilder(I_M_Product.class)
+				.addOnlyActiveRecordsFilter()
+				.addInArrayFilter(I_M_Product.COLUMN_AD_Client_ID, key.getAdClientId(), 0)
+				.addInArrayFilter(I_M_Product.COLUMN_AD_Org_ID, key.getAdOrgId(), 0)
+				.filter(relevantProductFilter)
+				.create()
+				.iterate(I_M_Product.class);
+
+		final List<ProductsCatalogEntry> entries = new ArrayList<>();
+		products.forEachRemaining(product -> entries.add(toProductsCatalogEntry(product)));
+		return ProductsCatalog.of(entries);
+	}
+
+	private static ProductsCatalogEntry toProductsCatalogEntry(@NonNull final I_M_Product product)
+	{
+		return ProductsCatalogEntry.builder()
+				.productId(product.getM_Product_ID())
+				.productCategoryId(product.getM_Product_Category_ID())
+				.value(product.getValue())
+				.name(product.getName())
+				.sold(product.isSold())
+				.purchased(product.isPurchased())
+				.build();
+	}
+
+	/** Shall be in sync with {@link #retrieveProductsCatalog(ProductsCatalogKey)} */
+	private static boolean isRelevantProduct(@NonNull final I_M_Product product, @NonNull final ProductsCatalogKey key)
+	{
+		return product.isActive()
+				&& (product.getAD_Client_ID() == key.getAdClientId() || product.getAD_Client_ID() == 0)
+				&& (product.getAD_Org_ID() == key.getAdOrgId() || product.getAD_Org_ID() == 0)
+				&& (product.isSold() || product.isPurchased() || product.isStocked());
+	}
+
+	/**
+	 * Refreshes the products catalogs. This is the only place where they are refreshed, for all notified views.
+	 * Each product is refreshed only once per event, even if it was changed more times.
+	 */
+	private int onProductsChanged(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		final Set<Integer> productIds = new HashSet<>();
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			if (request.isAll() || request.getRootTableName() == null || request.getRootRecordId() < 0)
+			{
+				final int count = productsCatalogs.size();
+				productsCatalogs.clear();
+				return count;
+			}
+			else if (I_M_Product.Table_Name.equals(request.getRootTableName()))
+			{
+				productIds.add(request.getRootRecordId());
+			}
+		}
+
+		refreshProducts(productIds);
+		return productIds.size();
+	}
+
+	private void refreshProducts(final Set<Integer> productIds)
+	{
+		if (productIds.isEmpty() || productsCatalogs.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableMap<Integer, I_M_Product> productsById = retrieveRecordsByIds(I_M_Product.class, I_M_Product.COLUMNNAME_M_Product_ID, productIds);
+		for (final ProductsCatalogKey key : productsCatalogs.keySet())
+		{
+			productsCatalogs.computeIfPresent(key, (k, productsCatalog) -> {
+				ProductsCatalog productsCatalogChanged = productsCatalog;
+				for (final int productId : productIds)
+				{
+					final I_M_Product product = productsById.get(productId);
+					final ProductsCatalogEntry entry = product != null && isRelevantProduct(product, key) ? toProductsCatalogEntry(product) : null;
+					productsCatalogChanged = productsCatalogChanged.withChangedEntry(productId, entry);
+				}
+				return productsCatalogChanged;
+			});
+		}
+	}
+
+	@Value
+	private static class ProductsCatalogKey
+	{
+		public static ProductsCatalogKey ofContext(final Properties ctx)
+		{
+			return new ProductsCatalogKey(Env.getAD_Client_ID(ctx), Env.getAD_Org_ID(ctx));
+		}
+
+		int adClientId;
+		int adOrgId;
+	}
+
+	/**
+	 * Rows data which, when {@link I_MD_Cockpit}, {@link I_MD_Stock} or {@link I_M_Product} records are changed, recomputes only the main rows (i.e. {@link MainRowBucketId}s) of the affected products.
+	 */
+	private final class MaterialCockpitRowsData extends AbstractIndexedRowsData<MaterialCockpitRow>
+	{
+		private final ImmutableList<DocumentFilter> filters;
+		private final Timestamp date;
+
+		private final ConcurrentHashMap<DocumentId, Integer> productIdsByMainRowId = new ConcurrentHashMap<>();
+
+		private MaterialCockpitRowsData(@NonNull final List<DocumentFilter> filters)
+		{
+			this.filters = ImmutableList.copyOf(filters);
+			this.date = extractDayOrNull(filters);
+		}
+
+		@Override
+		protected List<MaterialCockpitRow> retrieveAllRows()
+		{
+			final List<MaterialCockpitRow> rows = retrieveRows(filters, ImmutableSet.of());
+			rows.forEach(row -> productIdsByMainRowId.put(row.getId(), row.getProductId()));
+			return rows;
+		}
+
+		@Override
+		protected List<MaterialCockpitRow> retrieveRowsByIdsOrNull(@NonNull final DocumentIdsSelection mainRowIds)
+		{
+			final ImmutableSet.Builder<Integer> productIds = ImmutableSet.builder();
+			for (final DocumentId mainRowId : mainRowIds.toSet())
+			{
+				final Integer productId = productIdsByMainRowId.get(mainRowId);
+				if (productId == null)
+				{
+					return null; // we don't know how to recompute this row => reload all
+				}
+				productIds.add(productId);
+			}
+
+			final List<MaterialCockpitRow> rows = retrieveRows(filters, productIds.build());
+			rows.forEach(row -> productIdsByMainRowId.put(row.getId(), row.getProductId()));
+			return rows;
+		}
+
+		@Override
+		protected Stream<TableRecordReference> extractRecordRefs(@NonNull final MaterialCockpitRow row)
+		{
+			return extractTableRecordReferences(row);
+		}
+
+		@Override
+		public Stream<DocumentId> streamDocumentIdsToInvalidate(@NonNull final TableRecordReference recordRef)
+		{
+			// NOTE: we also consider the rows which currently contain the given record, in case the record was deleted or moved to another bucket
+			final Stream<DocumentId> currentRowIds = super.streamDocumentIdsToInvalidate(recordRef);
+
+			final MainRowBucketId mainRowBucketId = extractMainRowBucketIdOrNull(recordRef);
+			if (mainRowBucketId == null)
+			{
+				return currentRowIds;
+			}
+
+			final DocumentId mainRowId = MaterialCockpitRow.createMainRowId(mainRowBucketId);
+			productIdsByMainRowId.put(mainRowId, mainRowBucketId.getProductId());
+
+			return Stream.concat(currentRowIds, Stream.of(mainRowId)).distinct();
+		}
+
+		private MainRowBucketId extractMainRowBucketIdOrNull(final TableRecordReference recordRef)
+		{
+			if (date == null)
+			{
+				return null;
+			}
+
+			final ChangedRecords changedRecords = getChangedRecords(recordRef);
+
+			final String tableName = recordRef.getTableName();
+			if (I_MD_Cockpit.Table_Name.equals(tableName))
+			{
+				final I_MD_Cockpit cockpitRecord = changedRecords.getCockpitRecordOrNull(recordRef.getRecord_ID());
+				if (cockpitRecord == null)
+				{
+					return null;
+				}
+
+				final MainRowBucketId mainRowBucketId = MainRowBucketId.createInstanceForCockpitRecord(cockpitRecord);
+				return date.equals(mainRowBucketId.getDate()) ? mainRowBucketId : null;
+			}
+			else if (I_MD_Stock.Table_Name.equals(tableName))
+			{
+				final I_MD_Stock stockRecord = changedRecords.getStockRecordOrNull(recordRef.getRecord_ID());
+				if (stockRecord == null)
+				{
+					return null;
+				}
+
+				return MainRowBucketId.createInstanceForStockRecord(stockRecord, date);
+			}
+			else if (I_M_Product.Table_Name.equals(tableName))
+			{
+				// NOTE: the products catalog was already refreshed when the product's cache was reset (see onProductsChanged)
+				return MainRowBucketId.createPlainInstance(recordRef.getRecord_ID(), date);
+			}
+			else
+			{
+				return null;
+			}
+		}
 	}
 
-	private static ListMultimap<TableRecordReference, MaterialCockpitRow> extractTableRecordReference2DocumentId2(
-			@NonNull final Collection<MaterialCockpitRow> allRows)
+	/**
+	 * Loads the given changed records once and makes them available to all material cockpit rows data which are notified about them in current thread,
+	 * until the returned scope is closed.
+	 * <p>
+	 * Without this, each view would query each changed record again.
+	 *
+	 * @see MaterialCockpitViewsIndexStorage#notifyRecordsChanged(Set, Set)
+	 */
+	public IAutoCloseable preloadChangedRecords(@NonNull final Set<TableRecordReference> recordRefs)
 	{
-		final ListMultimap<TableRecordReference, MaterialCockpitRow> recordReference2DocumentId = ArrayListMultimap.create();
+		final ChangedRecords changedRecords = loadChangedRecords(recordRefs);
+
+		final ChangedRecords previousChangedRecords = preloadedChangedRecords.get();
+		preloadedChangedRecords.set(changedRecords);
+		return () -> {
+			if (previousChangedRecords != null)
+			{
+				preloadedChangedRecords.set(previousChangedRecords);
+			}
+			else
+			{
+				preloadedChangedRecords.remove();
+			}
+		};
+	}
 
-		for (final MaterialCockpitRow materialCockpitRow : allRows)
+	private ChangedRecords getChangedRecords(@NonNull final TableRecordReference recordRef)
+	{
+		final ChangedRecords preloaded = preloadedChangedRecords.get();
+		if (preloaded != null && preloaded.contains(recordRef))
+		{
+			return preloaded;
+		}
+
+		return loadChangedRecords(ImmutableSet.of(recordRef));
+	}
+
+	private ChangedRecords loadChangedRecords(@NonNull final Set<TableRecordReference> recordRefs)
+	{
+		final Set<Integer> cockpitRecordIds = new HashSet<>();
+		final Set<Integer> stockRecordIds = new HashSet<>();
+		for (final TableRecordReference recordRef : recordRefs)
+		{
+			final String tableName = recordRef.getTableName();
+			if (I_MD_Cockpit.Table_Name.equals(tableName))
+			{
+				cockpitRecordIds.add(recordRef.getRecord_ID());
+			}
+			else if (I_MD_Stock.Table_Name.equals(tableName))
+			{
+				stockRecordIds.add(recordRef.getRecord_ID());
+			}
+		}
+
+		return new ChangedRecords(
+				recordRefs,
+				retrieveRecordsByIds(I_MD_Cockpit.class, I_MD_Cockpit.COLUMNNAME_MD_Cockpit_ID, cockpitRecordIds),
+				retrieveRecordsByIds(I_MD_Stock.class, I_MD_Stock.COLUMNNAME_MD_Stock_ID, stockRecordIds));
+	}
+
+	private static <T> ImmutableMap<Integer, T> retrieveRecordsByIds(final Class<T> modelClass, final String keyColumnName, final Set<Integer> recordIds)
+	{
+		if (recordIds.isEmpty())
 		{
-			materialCockpitRow
-					.getAllIncludedCockpitRecordIds()
-					.forEach(cockpitRecordId -> recordReference2DocumentId
-							.put(TableRecordReference.of(I_MD_Cockpit.Table_Name, cockpitRecordId), materialCockpitRow));
+			return ImmutableMap.of();
+		}
+
+		final List<T> records = Services.get(IQueryBL.class)
+				.createQueryBuilder(modelClass)
+				.addInArrayFilter(keyColumnName, recordIds)
+				.create()
+				.list(modelClass);
+		return Maps.uniqueIndex(records, InterfaceWrapperHelper::getId);
+	}
+
+	/** {@link I_MD_Cockpit} and {@link I_MD_Stock} records which were loaded because they were changed */
+	private static final class ChangedRecords
+	{
+		private final ImmutableSet<TableRecordReference> recordRefs;
+		private final ImmutableMap<Integer, I_MD_Cockpit> cockpitRecordsById;
+		private final ImmutableMap<Integer, I_MD_Stock> stockRecordsById;
 
-			materialCockpitRow
-					.getAllIncludedStockRecordIds()
-					.forEach(stockRecordId -> recordReference2DocumentId
-							.put(TableRecordReference.of(I_MD_Stock.Table_Name, stockRecordId), materialCockpitRow));
+		private ChangedRecords(
+				@NonNull final Set<TableRecordReference> recordRefs,
+				@NonNull final ImmutableMap<Integer, I_MD_Cockpit> cockpitRecordsById,
+				@NonNull final ImmutableMap<Integer, I_MD_Stock> stockRecordsById)
+		{
+			this.recordRefs = ImmutableSet.copyOf(recordRefs);
+			this.cockpitRecordsById = cockpitRecordsById;
+			this.stockRecordsById = stockRecordsById;
+		}
+
+		public boolean contains(final TableRecordReference recordRef)
+		{
+			return recordRefs.contains(recordRef);
 		}
 
-		return recordReference2DocumentId;
+		public I_MD_Cockpit getCockpitRecordOrNull(final int cockpitRecordId)
+		{
+			return cockpitRecordsById.get(cockpitRecordId);
+		}
+
+		public I_MD_Stock getStockRecordOrNull(final int stockRecordId)
+		{
+			return stockRecordsById.get(stockRecordId);
+		}
+	}
+
+	private static Stream<TableRecordReference> extractTableRecordReferences(@NonNull final MaterialCockpitRow materialCockpitRow)
+	{
+		return Stream.concat(
+				materialCockpitRow
+						.getAllIncludedCockpitRecordIds()
+						.stream()
+						.map(cockpitRecordId -> TableRecordReference.of(I_MD_Cockpit.Table_Name, cockpitRecordId)),
+				materialCockpitRow
+						.getAllIncludedStockRecordIds()
+						.stream()
+						.map(stockRecordId -> TableRecordReference.of(I_MD_Stock.Table_Name, stockRecordId)));
 	}
 }
@@ -3,6 +3,7 @@ package de.metas.ui.web.material.cockpit;
 import java.util.List;
 
 import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_M_Product;
 
 import com.google.common.collect.ImmutableList;
 
@@ -93,7 +94,8 @@ public class MaterialCockpitView extends AbstractCustomView<MaterialCockpitRow>
 	{
 		final String tableName = recordRef.getTableName();
 		return I_MD_Cockpit.Table_Name.equals(tableName)
-				|| I_MD_Stock.Table_Name.equals(tableName);
+				|| I_MD_Stock.Table_Name.equals(tableName)
+				|| I_M_Product.Table_Name.equals(tableName);
 	}
 
 	@Override
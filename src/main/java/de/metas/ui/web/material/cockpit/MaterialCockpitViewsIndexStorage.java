@@ -1,7 +1,11 @@
 package de.metas.ui.web.material.cockpit;
 
+import java.util.Set;
 import java.util.stream.Stream;
 
+import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequest;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_M_Product;
 import org.compiere.util.CacheMgt;
 import org.springframework.stereotype.Service;
@@ -11,8 +15,11 @@ import de.metas.material.cockpit.model.I_MD_Stock;
 import de.metas.ui.web.view.DefaultViewsRepositoryStorage;
 import de.metas.ui.web.view.IView;
 import de.metas.ui.web.view.IViewsIndexStorage;
+import de.metas.ui.web.view.ViewCloseReason;
 import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.ViewsStorageLimits;
 import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -47,22 +54,34 @@ import de.metas.ui.web.window.datatypes.WindowId;
 public class MaterialCockpitViewsIndexStorage implements IViewsIndexStorage
 {
 
-	private final IViewsIndexStorage defaultViewsRepositoryStorage = new DefaultViewsRepositoryStorage();;
+	private final IViewsIndexStorage defaultViewsRepositoryStorage;
 
-	public MaterialCockpitViewsIndexStorage()
+	private final MaterialCockpitRowRepository materialCockpitRowRepository;
+
+	public MaterialCockpitViewsIndexStorage(
+			@NonNull final MaterialCockpitRowRepository materialCockpitRowRepository,
+			@NonNull final ViewsStorageLimits viewsStorageLimits)
 	{
-		CacheMgt.get().addCacheResetListener(I_MD_Cockpit.Table_Name, cacheInvalidateRequest -> {
-			streamAllViews().forEach(IView::invalidateAll);
-			return 0;
-		});
-		CacheMgt.get().addCacheResetListener(I_MD_Stock.Table_Name, cacheInvalidateRequest -> {
-			streamAllViews().forEach(IView::invalidateAll);
-			return 0;
-		});
-		CacheMgt.get().addCacheResetListener(I_M_Product.Table_Name, cacheInvalidateRequest -> {
+		this.materialCockpitRowRepository = materialCockpitRowRepository;
+		this.defaultViewsRepositoryStorage = new DefaultViewsRepositoryStorage(viewsStorageLimits); // limits are shared with the other views storages
+
+		// NOTE: single MD_Cockpit/MD_Stock/M_Product record changes are forwarded to our views by the ViewsRepository (see IView#notifyRecordsChanged),
+		// which recomputes only the affected rows. Here we have to handle only the table-wide cache resets.
+		CacheMgt.get().addCacheResetListener(I_MD_Cockpit.Table_Name, this::invalidateAllViewsIfTableWideReset);
+		CacheMgt.get().addCacheResetListener(I_MD_Stock.Table_Name, this::invalidateAllViewsIfTableWideReset);
+		CacheMgt.get().addCacheResetListener(I_M_Product.Table_Name, this::invalidateAllViewsIfTableWideReset);
+	}
+
+	private int invalidateAllViewsIfTableWideReset(final CacheInvalidateMultiRequest multiRequest)
+	{
+		final boolean tableWideReset = multiRequest.getRequests()
+				.stream()
+				.anyMatch(request -> request.isAll() || request.getRootTableName() == null || request.getRootRecordId() < 0);
+		if (tableWideReset)
+		{
 			streamAllViews().forEach(IView::invalidateAll);
-			return 0;
-		});
+		}
+		return 0;
 	}
 
 	/**
@@ -99,10 +118,51 @@ public class MaterialCockpitViewsIndexStorage implements IViewsIndexStorage
 		return defaultViewsRepositoryStorage.streamAllViews();
 	}
 
+	@Override
+	public Stream<IView> streamViewsToNotify(final Set<String> tableNames)
+	{
+		return defaultViewsRepositoryStorage.streamViewsToNotify(tableNames);
+	}
+
+	/**
+	 * Loads the changed records only once, with one query per table, and shares them with all our views which are notified.
+	 */
+	@Override
+	public int notifyRecordsChanged(@NonNull final Set<TableRecordReference> recordRefs, @NonNull final Set<String> tableNames)
+	{
+		if (size() <= 0)
+		{
+			return 0;
+		}
+
+		try (final IAutoCloseable preloadedChangedRecords = materialCockpitRowRepository.preloadChangedRecords(recordRefs))
+		{
+			return IViewsIndexStorage.super.notifyRecordsChanged(recordRefs, tableNames);
+		}
+	}
+
+	@Override
+	public long size()
+	{
+		return defaultViewsRepositoryStorage.size();
+	}
+
 	@Override
 	public void invalidateView(ViewId viewId)
 	{
 		defaultViewsRepositoryStorage.invalidateView(viewId);
 	}
 
+	@Override
+	public void cleanup()
+	{
+		defaultViewsRepositoryStorage.cleanup();
+	}
+
+	@Override
+	public ViewCloseReason getEvictedViewCloseReasonOrNull(final ViewId viewId)
+	{
+		return defaultViewsRepositoryStorage.getEvictedViewCloseReasonOrNull(viewId);
+	}
+
 }
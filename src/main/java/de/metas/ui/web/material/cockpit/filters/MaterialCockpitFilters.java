@@ -3,7 +3,7 @@ package de.metas.ui.web.material.cockpit.filters;
 import java.sql.Timestamp;
 import java.util.Date;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Set;
 
 import org.adempiere.ad.dao.ConstantQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
@@ -16,6 +16,7 @@ import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.material.cockpit.model.I_MD_Cockpit;
 import de.metas.ui.web.document.filter.DocumentFilter;
@@ -80,6 +81,14 @@ public class MaterialCockpitFilters
 	}
 
 	public IQuery<I_MD_Cockpit> createQuery(@NonNull final List<DocumentFilter> filters)
+	{
+		return createQuery(filters, ImmutableSet.of());
+	}
+
+	/**
+	 * @param onlyProductIds if not empty, only the records of those products are matched
+	 */
+	public IQuery<I_MD_Cockpit> createQuery(@NonNull final List<DocumentFilter> filters, @NonNull final Set<Integer> onlyProductIds)
 	{
 		final IQueryBuilder<I_MD_Cockpit> queryBuilder = createInitialQueryBuilder();
 
@@ -92,6 +101,11 @@ public class MaterialCockpitFilters
 		{
 			anyRestrictionAdded = true;
 		}
+		if (!onlyProductIds.isEmpty())
+		{
+			queryBuilder.addInArrayFilter(I_MD_Cockpit.COLUMN_M_Product_ID, onlyProductIds);
+			anyRestrictionAdded = true;
+		}
 
 		if (anyRestrictionAdded)
 		{
@@ -163,9 +177,13 @@ public class MaterialCockpitFilters
 		return dateFilterVO.getDate();
 	}
 
-	public Predicate<I_M_Product> toProductFilterPredicate(@NonNull final List<DocumentFilter> filters)
+	/**
+	 * @return IDs of the products from given catalog which are matching the product filter
+	 */
+	public ImmutableSet<Integer> getMatchingProductIds(@NonNull final ProductsCatalog productsCatalog, @NonNull final List<DocumentFilter> filters)
 	{
-		return ProductFilterUtil.toPredicate(filters);
+		final ProductFilterVO productFilterVO = ProductFilterUtil.extractProductFilterVO(filters);
+		return productsCatalog.getProductIds(productFilterVO);
 	}
 
 }
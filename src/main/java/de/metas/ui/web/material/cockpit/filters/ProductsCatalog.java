@@ -0,0 +1,545 @@
+package de.metas.ui.web.material.cockpit.filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import org.adempiere.util.Check;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Compact, immutable snapshot of the products which can be displayed in material cockpit.
+ * <p>
+ * The product data is kept in primitive arrays (one entry per product, sorted by product ID) instead of product model objects.
+ * Products can be filtered by {@link ProductFilterVO} using following indexes:
+ * <ul>
+ * <li>product category ID to products
+ * <li>trigram of the lower case product value, respectively name, to products
+ * </ul>
+ * The matching products are found by intersecting the index entries and then checking only the remaining candidates.
+ * The matching semantic is the same as {@link ProductFilterUtil#doesProductMatchFilter(org.compiere.model.I_M_Product, ProductFilterVO)}.
+ * <p>
+ * Changed products are not indexed right away but kept aside (see {@link #withChangedEntry(int, ProductsCatalogEntry)}) until there are too many of them.
+ */
+@Immutable
+public final class ProductsCatalog
+{
+	public static ProductsCatalog of(@NonNull final Collection<ProductsCatalogEntry> entries)
+	{
+		return new ProductsCatalog(entries);
+	}
+
+	private static final int NGRAM_LENGTH = 3;
+	private static final int[] EMPTY_ORDINALS = new int[] {};
+
+	private static final byte FLAG_Sold = 1;
+	private static final byte FLAG_Purchased = 2;
+
+	/** When there are more changed entries than this, the indexes are rebuilt */
+	private static final int MAX_CHANGED_ENTRIES = 1000;
+
+	//
+	// Product data, by ordinal (i.e. index in the arrays)
+	private final int[] productIds;
+	private final int[] productCategoryIds;
+	private final byte[] flags;
+	private final String[] valuesNorm;
+	private final String[] namesNorm;
+
+	//
+	// Indexes: ascending ordinals, by key
+	private final ImmutableMap<Integer, int[]> ordinalsByProductCategoryId;
+	private final ImmutableMap<String, int[]> ordinalsByValueNGram;
+	private final ImmutableMap<String, int[]> ordinalsByNameNGram;
+
+	//
+	// Products which were changed after the indexes were built
+	/** IDs of the changed or removed products. Their ordinals are outdated and shall be ignored. */
+	private final ImmutableSet<Integer> changedProductIds;
+	/** Current version of the changed products. Removed products are not included. */
+	private final ImmutableList<ProductsCatalogEntry> changedEntries;
+
+	private ProductsCatalog(final Collection<ProductsCatalogEntry> entries)
+	{
+		final ProductsCatalogEntry[] entriesSorted = entries.stream()
+				.sorted(Comparator.comparing(ProductsCatalogEntry::getProductId))
+				.toArray(ProductsCatalogEntry[]::new);
+
+		final int size = entriesSorted.length;
+		productIds = new int[size];
+		productCategoryIds = new int[size];
+		flags = new byte[size];
+		valuesNorm = new String[size];
+		namesNorm = new String[size];
+
+		final Map<Integer, IntList> ordinalsByProductCategoryIdBuilder = new HashMap<>();
+		final Map<String, IntList> ordinalsByValueNGramBuilder = new HashMap<>();
+		final Map<String, IntList> ordinalsByNameNGramBuilder = new HashMap<>();
+		for (int ordinal = 0; ordinal < size; ordinal++)
+		{
+			final ProductsCatalogEntry entry = entriesSorted[ordinal];
+			Check.assume(ordinal == 0 || productIds[ordinal - 1] != entry.getProductId(), "Product ID is unique: {}", entry);
+
+			productIds[ordinal] = entry.getProductId();
+			productCategoryIds[ordinal] = entry.getProductCategoryId();
+			flags[ordinal] = extractFlags(entry);
+			valuesNorm[ordinal] = normalize(entry.getValue());
+			namesNorm[ordinal] = normalize(entry.getName());
+
+			ordinalsByProductCategoryIdBuilder.computeIfAbsent(entry.getProductCategoryId(), k -> new IntList()).addIfNotLast(ordinal);
+			indexNGrams(ordinalsByValueNGramBuilder, valuesNorm[ordinal], ordinal);
+			indexNGrams(ordinalsByNameNGramBuilder, namesNorm[ordinal], ordinal);
+		}
+
+		ordinalsByProductCategoryId = toImmutableMap(ordinalsByProductCategoryIdBuilder);
+		ordinalsByValueNGram = toImmutableMap(ordinalsByValueNGramBuilder);
+		ordinalsByNameNGram = toImmutableMap(ordinalsByNameNGramBuilder);
+
+		changedProductIds = ImmutableSet.of();
+		changedEntries = ImmutableList.of();
+	}
+
+	private ProductsCatalog(
+			final ProductsCatalog from,
+			final ImmutableSet<Integer> changedProductIds,
+			final ImmutableList<ProductsCatalogEntry> changedEntries)
+	{
+		productIds = from.productIds;
+		productCategoryIds = from.productCategoryIds;
+		flags = from.flags;
+		valuesNorm = from.valuesNorm;
+		namesNorm = from.namesNorm;
+
+		ordinalsByProductCategoryId = from.ordinalsByProductCategoryId;
+		ordinalsByValueNGram = from.ordinalsByValueNGram;
+		ordinalsByNameNGram = from.ordinalsByNameNGram;
+
+		this.changedProductIds = changedProductIds;
+		this.changedEntries = changedEntries;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("indexedProductsCount", productIds.length)
+				.add("changedProductsCount", changedProductIds.size())
+				.toString();
+	}
+
+	private static void indexNGrams(final Map<String, IntList> ordinalsByNGram, final String stringNorm, final int ordinal)
+	{
+		for (int i = 0; i + NGRAM_LENGTH <= stringNorm.length(); i++)
+		{
+			// NOTE: same trigram could occur more then once in a string
+			ordinalsByNGram.computeIfAbsent(stringNorm.substring(i, i + NGRAM_LENGTH), k -> new IntList()).addIfNotLast(ordinal);
+		}
+	}
+
+	private static <K> ImmutableMap<K, int[]> toImmutableMap(final Map<K, IntList> map)
+	{
+		final ImmutableMap.Builder<K, int[]> result = ImmutableMap.builder();
+		map.forEach((key, ordinals) -> result.put(key, ordinals.toArray()));
+		return result.build();
+	}
+
+	private static byte extractFlags(final ProductsCatalogEntry entry)
+	{
+		byte flags = 0;
+		if (entry.isSold())
+		{
+			flags |= FLAG_Sold;
+		}
+		if (entry.isPurchased())
+		{
+			flags |= FLAG_Purchased;
+		}
+		return flags;
+	}
+
+	/**
+	 * @return lower case string; never returns <code>null</code>
+	 */
+	private static String normalize(@Nullable final String string)
+	{
+		return string == null ? "" : string.toLowerCase();
+	}
+
+	public int size()
+	{
+		return productIds.length - (int)IntStream.of(productIds).filter(changedProductIds::contains).count() + changedEntries.size();
+	}
+
+	/**
+	 * @param productId the changed product
+	 * @param entry the product's current data or <code>null</code> if the product shall be removed from catalog
+	 * @return new catalog which contains the given change
+	 */
+	public ProductsCatalog withChangedEntry(final int productId, @Nullable final ProductsCatalogEntry entry)
+	{
+		Check.assume(entry == null || entry.getProductId() == productId, "Entry {} shall have M_Product_ID={}", entry, productId);
+
+		if (entry == null && !changedProductIds.contains(productId) && Arrays.binarySearch(productIds, productId) < 0)
+		{
+			return this; // product is not in catalog
+		}
+
+		final ImmutableSet<Integer> changedProductIds = ImmutableSet.<Integer> builder()
+				.addAll(this.changedProductIds)
+				.add(productId)
+				.build();
+		final ImmutableList<ProductsCatalogEntry> changedEntries = Stream.concat(
+				this.changedEntries.stream().filter(changedEntry -> changedEntry.getProductId() != productId),
+				entry != null ? Stream.of(entry) : Stream.empty())
+				.collect(ImmutableList.toImmutableList());
+
+		if (changedProductIds.size() > MAX_CHANGED_ENTRIES)
+		{
+			final List<ProductsCatalogEntry> entries = new ArrayList<>(productIds.length + changedEntries.size());
+			streamIndexedEntries()
+					.filter(indexedEntry -> !changedProductIds.contains(indexedEntry.getProductId()))
+					.forEach(entries::add);
+			entries.addAll(changedEntries);
+			return new ProductsCatalog(entries);
+		}
+
+		return new ProductsCatalog(this, changedProductIds, changedEntries);
+	}
+
+	/**
+	 * @return indexed entries, incl. the outdated ones. Note that value and name are the normalized ones.
+	 */
+	private Stream<ProductsCatalogEntry> streamIndexedEntries()
+	{
+		return IntStream.range(0, productIds.length)
+				.mapToObj(ordinal -> ProductsCatalogEntry.builder()
+						.productId(productIds[ordinal])
+						.productCategoryId(productCategoryIds[ordinal])
+						.value(valuesNorm[ordinal])
+						.name(namesNorm[ordinal])
+						.sold((flags[ordinal] & FLAG_Sold) != 0)
+						.purchased((flags[ordinal] & FLAG_Purchased) != 0)
+						.build());
+	}
+
+	/**
+	 * @return IDs of the products which are matching given filter; the indexed products come first, ordered by product ID
+	 */
+	ImmutableSet<Integer> getProductIds(@NonNull final ProductFilterVO filter)
+	{
+		final ProductMatcher matcher = new ProductMatcher(filter);
+		final ImmutableSet.Builder<Integer> result = ImmutableSet.builder();
+
+		final int[] candidateOrdinals = getCandidateOrdinalsOrNull(matcher);
+		if (candidateOrdinals == null)
+		{
+			for (int ordinal = 0; ordinal < productIds.length; ordinal++)
+			{
+				addProductIdIfMatches(result, ordinal, matcher);
+			}
+		}
+		else
+		{
+			for (final int ordinal : candidateOrdinals)
+			{
+				addProductIdIfMatches(result, ordinal, matcher);
+			}
+		}
+
+		for (final ProductsCatalogEntry changedEntry : changedEntries)
+		{
+			if (matcher.matches(changedEntry))
+			{
+				result.add(changedEntry.getProductId());
+			}
+		}
+
+		return result.build();
+	}
+
+	private void addProductIdIfMatches(final ImmutableSet.Builder<Integer> result, final int ordinal, final ProductMatcher matcher)
+	{
+		final int productId = productIds[ordinal];
+		if (!changedProductIds.isEmpty() && changedProductIds.contains(productId))
+		{
+			return; // outdated; the current version, if any, is in changedEntries
+		}
+
+		if (matcher.matches(productCategoryIds[ordinal], flags[ordinal], valuesNorm[ordinal], namesNorm[ordinal]))
+		{
+			result.add(productId);
+		}
+	}
+
+	/**
+	 * @return ascending ordinals of the products which could match; <code>null</code> if the indexes cannot restrict the candidates
+	 */
+	private int[] getCandidateOrdinalsOrNull(final ProductMatcher matcher)
+	{
+		final List<int[]> ordinalsToIntersect = new ArrayList<>();
+
+		if (matcher.getProductCategoryId() > 0)
+		{
+			ordinalsToIntersect.add(ordinalsByProductCategoryId.getOrDefault(matcher.getProductCategoryId(), EMPTY_ORDINALS));
+		}
+		if (matcher.getNameMatcher() != null)
+		{
+			addNGramOrdinals(ordinalsToIntersect, ordinalsByNameNGram, matcher.getNameMatcher().getLongestLiteral());
+		}
+		if (matcher.getValueMatcher() != null)
+		{
+			addNGramOrdinals(ordinalsToIntersect, ordinalsByValueNGram, matcher.getValueMatcher().getLongestLiteral());
+		}
+
+		if (ordinalsToIntersect.isEmpty())
+		{
+			return null;
+		}
+
+		ordinalsToIntersect.sort(Comparator.comparingInt(ordinals -> ordinals.length));
+		int[] result = ordinalsToIntersect.get(0);
+		for (int i = 1; i < ordinalsToIntersect.size() && result.length > 0; i++)
+		{
+			result = intersect(result, ordinalsToIntersect.get(i));
+		}
+		return result;
+	}
+
+	private static void addNGramOrdinals(final List<int[]> ordinalsToIntersect, final Map<String, int[]> ordinalsByNGram, final String literalNorm)
+	{
+		for (int i = 0; i + NGRAM_LENGTH <= literalNorm.length(); i++)
+		{
+			ordinalsToIntersect.add(ordinalsByNGram.getOrDefault(literalNorm.substring(i, i + NGRAM_LENGTH), EMPTY_ORDINALS));
+		}
+	}
+
+	/**
+	 * @param smaller ascending ordinals
+	 * @param larger ascending ordinals
+	 * @return ascending ordinals which are contained in both arrays
+	 */
+	private static int[] intersect(final int[] smaller, final int[] larger)
+	{
+		final IntList result = new IntList();
+		int fromIndex = 0;
+		for (final int ordinal : smaller)
+		{
+			final int index = Arrays.binarySearch(larger, fromIndex, larger.length, ordinal);
+			if (index >= 0)
+			{
+				result.addIfNotLast(ordinal);
+				fromIndex = index + 1;
+			}
+			else
+			{
+				fromIndex = -index - 1;
+			}
+
+			if (fromIndex >= larger.length)
+			{
+				break;
+			}
+		}
+		return result.toArray();
+	}
+
+	private static final class ProductMatcher
+	{
+		private final int productCategoryId;
+		private final Boolean isPurchased;
+		private final Boolean isSold;
+		private final LikeMatcher valueMatcher;
+		private final LikeMatcher nameMatcher;
+
+		private ProductMatcher(final ProductFilterVO filter)
+		{
+			productCategoryId = filter.getProductCategoryId();
+			isPurchased = filter.getIsPurchased();
+			isSold = filter.getIsSold();
+			valueMatcher = LikeMatcher.ofLikePatternOrNull(filter.getProductValue());
+			nameMatcher = LikeMatcher.ofLikePatternOrNull(filter.getProductName());
+		}
+
+		public int getProductCategoryId()
+		{
+			return productCategoryId;
+		}
+
+		public LikeMatcher getValueMatcher()
+		{
+			return valueMatcher;
+		}
+
+		public LikeMatcher getNameMatcher()
+		{
+			return nameMatcher;
+		}
+
+		public boolean matches(final ProductsCatalogEntry entry)
+		{
+			return matches(entry.getProductCategoryId(), extractFlags(entry), normalize(entry.getValue()), normalize(entry.getName()));
+		}
+
+		public boolean matches(final int productCategoryId, final byte flags, final String valueNorm, final String nameNorm)
+		{
+			if (this.productCategoryId > 0 && this.productCategoryId != productCategoryId)
+			{
+				return false;
+			}
+			if (isPurchased != null && isPurchased != ((flags & FLAG_Purchased) != 0))
+			{
+				return false;
+			}
+			if (isSold != null && isSold != ((flags & FLAG_Sold) != 0))
+			{
+				return false;
+			}
+			if (valueMatcher != null && !valueMatcher.matches(valueNorm))
+			{
+				return false;
+			}
+			if (nameMatcher != null && !nameMatcher.matches(nameNorm))
+			{
+				return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Case insensitive SQL LIKE matcher. Same as {@link org.adempiere.ad.dao.impl.StringLikeFilter}, the pattern is matched anywhere in the string.
+	 */
+	private static final class LikeMatcher
+	{
+		public static LikeMatcher ofLikePatternOrNull(@Nullable final String likePattern)
+		{
+			if (Check.isEmpty(likePattern, true))
+			{
+				return null;
+			}
+			return new LikeMatcher(normalize(likePattern));
+		}
+
+		/** Longest part of the pattern which has no wildcards. All matching strings contain it. */
+		private final String longestLiteral;
+		/** Pattern to match against; <code>null</code> if the pattern has no inner wildcards, so checking if the string contains {@link #longestLiteral} is enough */
+		private final Pattern regexp;
+
+		private LikeMatcher(final String likePatternNorm)
+		{
+			int start = 0;
+			int end = likePatternNorm.length();
+			while (start < end && likePatternNorm.charAt(start) == '%')
+			{
+				start++;
+			}
+			while (end > start && likePatternNorm.charAt(end - 1) == '%')
+			{
+				end--;
+			}
+			final String innerPattern = likePatternNorm.substring(start, end);
+
+			String longestLiteral = "";
+			final StringBuilder regexp = new StringBuilder(".*");
+			final StringBuilder literal = new StringBuilder();
+			for (final char ch : innerPattern.toCharArray())
+			{
+				if (ch == '%' || ch == '_')
+				{
+					if (literal.length() > longestLiteral.length())
+					{
+						longestLiteral = literal.toString();
+					}
+					regexp.append(Pattern.quote(literal.toString())).append(ch == '%' ? ".*" : ".");
+					literal.setLength(0);
+				}
+				else
+				{
+					literal.append(ch);
+				}
+			}
+			if (literal.length() > longestLiteral.length())
+			{
+				longestLiteral = literal.toString();
+			}
+			regexp.append(Pattern.quote(literal.toString())).append(".*");
+
+			this.longestLiteral = longestLiteral;
+			this.regexp = longestLiteral.equals(innerPattern) ? null : Pattern.compile(regexp.toString(), Pattern.DOTALL);
+		}
+
+		public String getLongestLiteral()
+		{
+			return longestLiteral;
+		}
+
+		public boolean matches(final String stringNorm)
+		{
+			return regexp == null ? stringNorm.contains(longestLiteral) : regexp.matcher(stringNorm).matches();
+		}
+	}
+
+	/** Growable array of primitive ints */
+	private static final class IntList
+	{
+		private int[] values = new int[4];
+		private int size = 0;
+
+		public void addIfNotLast(final int value)
+		{
+			if (size > 0 && values[size - 1] == value)
+			{
+				return;
+			}
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size] = value;
+			size++;
+		}
+
+		public int[] toArray()
+		{
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package de.metas.ui.web.material.cockpit.filters;
+
+import javax.annotation.Nullable;
+
+import lombok.Builder;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The product fields which are needed to filter the products of a {@link ProductsCatalog}.
+ */
+@Value
+@Builder
+public class ProductsCatalogEntry
+{
+	int productId;
+
+	int productCategoryId;
+
+	@Nullable
+	String value;
+
+	@Nullable
+	String name;
+
+	boolean sold;
+
+	boolean purchased;
+}
@@ -1,6 +1,7 @@
 package de.metas.ui.web.material.cockpit.filters;
 
 import java.util.List;
+import java.util.Set;
 
 import org.adempiere.ad.dao.ConstantQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
@@ -9,6 +10,8 @@ import org.adempiere.util.Services;
 import org.compiere.model.IQuery;
 import org.compiere.model.I_M_Product;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.material.cockpit.model.I_MD_Stock;
 import de.metas.ui.web.document.filter.DocumentFilter;
 import lombok.NonNull;
@@ -38,6 +41,14 @@ import lombok.NonNull;
 public class StockFilters
 {
 	public static IQuery<I_MD_Stock> createStockQueryFor(@NonNull final List<DocumentFilter> filters)
+	{
+		return createStockQueryFor(filters, ImmutableSet.of());
+	}
+
+	/**
+	 * @param onlyProductIds if not empty, only the records of those products are matched
+	 */
+	public static IQuery<I_MD_Stock> createStockQueryFor(@NonNull final List<DocumentFilter> filters, @NonNull final Set<Integer> onlyProductIds)
 	{
 		final IQueryBL queryBL = Services.get(IQueryBL.class);
 
@@ -50,6 +61,11 @@ public class StockFilters
 		{
 			anyRestrictionAdded = true;
 		}
+		if (!onlyProductIds.isEmpty())
+		{
+			queryBuilder.addInArrayFilter(I_MD_Stock.COLUMN_M_Product_ID, onlyProductIds);
+			anyRestrictionAdded = true;
+		}
 
 		if (anyRestrictionAdded)
 		{
@@ -1,6 +1,7 @@
 package de.metas.ui.web.material.cockpit.rowfactory;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -8,7 +9,6 @@ import java.util.Map;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.util.Check;
 import org.adempiere.util.Services;
-import org.compiere.model.I_M_Product;
 import org.compiere.model.I_S_Resource;
 import org.compiere.model.X_S_Resource;
 import org.springframework.stereotype.Service;
@@ -62,7 +62,7 @@ public class MaterialCockpitRowFactory
 		Timestamp date;
 
 		@NonNull
-		List<I_M_Product> productsToListEvenIfEmpty;
+		Collection<Integer> productIdsToListEvenIfEmpty;
 
 		@NonNull
 		List<I_MD_Cockpit> cockpitRecords;
@@ -74,7 +74,7 @@ public class MaterialCockpitRowFactory
 	public List<MaterialCockpitRow> createRows(@NonNull final CreateRowsRequest request)
 	{
 		final Map<MainRowBucketId, MainRowWithSubRows> emptyRowBuckets = createEmptyRowBuckets(
-				request.getProductsToListEvenIfEmpty(),
+				request.getProductIdsToListEvenIfEmpty(),
 				request.getDate());
 
 		final DimensionSpec dimensionSpec = Services.get(IDimensionspecDAO.class).retrieveForInternalNameOrNull(DIM_SPEC_INTERNAL_NAME);
@@ -93,7 +93,7 @@ public class MaterialCockpitRowFactory
 
 	@VisibleForTesting
 	Map<MainRowBucketId, MainRowWithSubRows> createEmptyRowBuckets(
-			@NonNull final List<I_M_Product> products,
+			@NonNull final Collection<Integer> productIds,
 			@NonNull final Timestamp timestamp)
 	{
 		final DimensionSpec dimensionSpec = Services.get(IDimensionspecDAO.class).retrieveForInternalNameOrNull(DIM_SPEC_INTERNAL_NAME);
@@ -103,9 +103,9 @@ public class MaterialCockpitRowFactory
 		final List<I_S_Resource> plants = retrieveCountingPlants();
 
 		final Builder<MainRowBucketId, MainRowWithSubRows> result = ImmutableMap.builder();
-		for (final I_M_Product product : products)
+		for (final int productId : productIds)
 		{
-			final MainRowBucketId key = MainRowBucketId.createPlainInstance(product.getM_Product_ID(), timestamp);
+			final MainRowBucketId key = MainRowBucketId.createPlainInstance(productId, timestamp);
 			final MainRowWithSubRows mainRowBucket = MainRowWithSubRows.create(key);
 
 			for (final I_S_Resource plant : plants)
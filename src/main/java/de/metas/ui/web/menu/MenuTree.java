@@ -1,10 +1,10 @@
 package de.metas.ui.web.menu;
 
-import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import org.compiere.util.Util;
@@ -15,6 +15,7 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 
 import de.metas.logging.LogManager;
@@ -65,6 +66,8 @@ public final class MenuTree
 	private final ListMultimap<ArrayKey, MenuNode> nodesByTypeAndElementId;
 	private final ListMultimap<String, MenuNode> nodesByMainTableName;
 
+	private final MenuTreeSearchIndex searchIndex;
+
 	private MenuTree(final long version, final MenuNode rootNode)
 	{
 		super();
@@ -88,6 +91,8 @@ public final class MenuTree
 		nodesById = nodesByIdBuilder.build();
 		nodesByTypeAndElementId = nodesByTypeAndElementIdBuilder.build();
 		nodesByMainTableName = nodesByMainTableNameBuilder.build();
+
+		searchIndex = MenuTreeSearchIndex.build(rootNode);
 	}
 
 	private static final ArrayKey mkTypeAndElementIdKey(final MenuNodeType type, final DocumentId elementId)
@@ -238,13 +243,22 @@ public final class MenuTree
 	 */
 	public MenuNode filter(final String nameQuery, final boolean includeLeafsIfGroupAccepted)
 	{
-		if (Check.isEmpty(nameQuery, true))
-		{
-			throw new IllegalArgumentException("Invalid name query '" + nameQuery + "'");
-		}
+		final int limit = 0; // no limit
+		return filter(nameQuery, includeLeafsIfGroupAccepted, limit);
+	}
 
-		final String nameQueryLC = nameQuery.toLowerCase();
-		logger.trace("Filtering using nameQueryLC={}", nameQueryLC);
+	/**
+	 * Same as {@link #filter(String, boolean)} but considers only the best <code>limit</code> matching nodes (see {@link #search(String, int)}).
+	 *
+	 * @param limit max number of matching nodes to consider; zero or negative means no limit
+	 */
+	public MenuNode filter(final String nameQuery, final boolean includeLeafsIfGroupAccepted, final int limit)
+	{
+		final Set<String> matchingNodeIds = search(nameQuery, limit)
+				.stream()
+				.map(MenuNode::getId)
+				.collect(ImmutableSet.toImmutableSet());
+		logger.trace("Filtering using nameQuery={}: matchingNodeIds={}", nameQuery, matchingNodeIds);
 
 		return getRootNode()
 				.deepCopy(node -> {
@@ -254,7 +268,7 @@ public final class MenuTree
 						return MenuNodeFilterResolution.Accept;
 					}
 
-					final boolean matches = matchesNameQuery(node, nameQueryLC);
+					final boolean matches = matchingNodeIds.contains(node.getId());
 					if (matches)
 					{
 						logger.trace("Filter: accept node because matches: {}", node);
@@ -279,18 +293,20 @@ public final class MenuTree
 				});
 	}
 
-	private static final boolean matchesNameQuery(final MenuNode node, final String nameQueryLC)
+	/**
+	 * Searches the nodes (except the root node) whose caption contains given query (case and diacritics insensitive).
+	 *
+	 * @param limit max number of nodes to return; zero or negative means no limit
+	 * @return matching nodes, best matches first (i.e. captions starting with the query, then captions having a word starting with the query, then the rest)
+	 */
+	public List<MenuNode> search(final String nameQuery, final int limit)
 	{
-		final String captionNorm = stripDiacritics(node.getCaption().toLowerCase());
-		final String queryNorm = stripDiacritics(nameQueryLC);
-		return captionNorm.indexOf(queryNorm) >= 0;
-	}
+		if (Check.isEmpty(nameQuery, true))
+		{
+			throw new IllegalArgumentException("Invalid name query '" + nameQuery + "'");
+		}
 
-	private static final String stripDiacritics(final String string)
-	{
-		String s = Normalizer.normalize(string, Normalizer.Form.NFD);
-		s = s.replaceAll("[\\p{InCombiningDiacriticalMarks}]", "");
-		return s;
+		return searchIndex.search(nameQuery, limit);
 	}
 
 	public MenuNode getRootNodeWithFavoritesOnly(@NonNull final MenuNodeFavoriteProvider menuNodeFavoriteProvider)
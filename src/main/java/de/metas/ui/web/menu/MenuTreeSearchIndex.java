@@ -0,0 +1,254 @@
+package de.metas.ui.web.menu;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Caption search index of a {@link MenuTree}.
+ * <p>
+ * The node captions are normalized (lower case, without diacritics) and split into trigrams only once, when the index is built.
+ * A query is matched by looking up the nodes which contain query's rarest trigram and then checking only those nodes.
+ * <p>
+ * The matching semantic is the same as a plain "caption contains" check (e.g. "rder" matches "Sales Order").
+ * The results are ranked: captions starting with the query come first, then captions having a word which starts with the query and then the rest.
+ * Within the same rank, the nodes are kept in menu tree order.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ *
+ */
+@Immutable
+final class MenuTreeSearchIndex
+{
+	public static MenuTreeSearchIndex build(@NonNull final MenuNode rootNode)
+	{
+		return new MenuTreeSearchIndex(rootNode);
+	}
+
+	private static final int NGRAM_LENGTH = 3;
+	private static final Pattern PATTERN_DiacriticalMarks = Pattern.compile("[\\p{InCombiningDiacriticalMarks}]");
+
+	private static final int RANK_CaptionPrefix = 0;
+	private static final int RANK_WordPrefix = 1;
+	private static final int RANK_Contains = 2;
+
+	/** Indexed nodes, in menu tree order. Root node is not indexed. */
+	private final ImmutableList<MenuNode> nodes;
+	/** Normalized caption, by node ordinal (i.e. index in {@link #nodes}) */
+	private final String[] captionsNorm;
+	/** Node ordinals, ascending, by trigram */
+	private final ImmutableMap<String, int[]> nodeOrdinalsByNGram;
+
+	private MenuTreeSearchIndex(final MenuNode rootNode)
+	{
+		final ImmutableList.Builder<MenuNode> nodesBuilder = ImmutableList.builder();
+		rootNode.iterate(node -> {
+			if (!node.isRoot())
+			{
+				nodesBuilder.add(node);
+			}
+		});
+		nodes = nodesBuilder.build();
+
+		captionsNorm = new String[nodes.size()];
+		final Map<String, List<Integer>> nodeOrdinalsByNGramBuilder = new HashMap<>();
+		for (int ordinal = 0; ordinal < nodes.size(); ordinal++)
+		{
+			final String captionNorm = normalize(nodes.get(ordinal).getCaption());
+			captionsNorm[ordinal] = captionNorm;
+
+			for (int i = 0; i + NGRAM_LENGTH <= captionNorm.length(); i++)
+			{
+				final List<Integer> nodeOrdinals = nodeOrdinalsByNGramBuilder.computeIfAbsent(captionNorm.substring(i, i + NGRAM_LENGTH), k -> new ArrayList<>());
+				if (nodeOrdinals.isEmpty() || nodeOrdinals.get(nodeOrdinals.size() - 1) != ordinal) // same trigram could occur more then once in a caption
+				{
+					nodeOrdinals.add(ordinal);
+				}
+			}
+		}
+
+		final ImmutableMap.Builder<String, int[]> nodeOrdinalsByNGram = ImmutableMap.builder();
+		nodeOrdinalsByNGramBuilder.forEach((ngram, nodeOrdinals) -> nodeOrdinalsByNGram.put(ngram, nodeOrdinals.stream().mapToInt(Integer::intValue).toArray()));
+		this.nodeOrdinalsByNGram = nodeOrdinalsByNGram.build();
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("nodesCount", nodes.size())
+				.add("ngramsCount", nodeOrdinalsByNGram.size())
+				.toString();
+	}
+
+	/**
+	 * @return lower case string, without diacritics
+	 */
+	static String normalize(final String string)
+	{
+		if (string == null || string.isEmpty())
+		{
+			return "";
+		}
+
+		final String stringNFD = Normalizer.normalize(string.toLowerCase(), Normalizer.Form.NFD);
+		return PATTERN_DiacriticalMarks.matcher(stringNFD).replaceAll("");
+	}
+
+	/**
+	 * @param limit max number of nodes to return; zero or negative means no limit
+	 * @return best matching nodes first
+	 */
+	public List<MenuNode> search(@NonNull final String query, final int limit)
+	{
+		final String queryNorm = normalize(query);
+		if (queryNorm.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final List<Match> matches = new ArrayList<>();
+		final int[] candidateOrdinals = getCandidateNodeOrdinalsOrNull(queryNorm);
+		if (candidateOrdinals == null)
+		{
+			// query is too short to use the index => check all nodes
+			for (int ordinal = 0; ordinal < captionsNorm.length; ordinal++)
+			{
+				addMatchIfAny(matches, ordinal, queryNorm);
+			}
+		}
+		else
+		{
+			for (final int ordinal : candidateOrdinals)
+			{
+				addMatchIfAny(matches, ordinal, queryNorm);
+			}
+		}
+
+		// NOTE: the matches are already sorted by ordinal, so a stable sort by rank is enough
+		return matches.stream()
+				.sorted(Comparator.comparing(Match::getRank))
+				.limit(limit > 0 ? limit : Long.MAX_VALUE)
+				.map(match -> nodes.get(match.getOrdinal()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * @return ordinals of the nodes which contain query's rarest trigram; <code>null</code> if the query has no trigrams
+	 */
+	private int[] getCandidateNodeOrdinalsOrNull(final String queryNorm)
+	{
+		if (queryNorm.length() < NGRAM_LENGTH)
+		{
+			return null;
+		}
+
+		int[] candidateOrdinals = null;
+		for (int i = 0; i + NGRAM_LENGTH <= queryNorm.length(); i++)
+		{
+			final int[] nodeOrdinals = nodeOrdinalsByNGram.get(queryNorm.substring(i, i + NGRAM_LENGTH));
+			if (nodeOrdinals == null)
+			{
+				return new int[] {}; // no node contains this trigram => no node can match
+			}
+
+			if (candidateOrdinals == null || nodeOrdinals.length < candidateOrdinals.length)
+			{
+				candidateOrdinals = nodeOrdinals;
+			}
+		}
+		return candidateOrdinals;
+	}
+
+	private void addMatchIfAny(final List<Match> matches, final int ordinal, final String queryNorm)
+	{
+		final int rank = rank(captionsNorm[ordinal], queryNorm);
+		if (rank >= 0)
+		{
+			matches.add(new Match(ordinal, rank));
+		}
+	}
+
+	/**
+	 * @return rank (lower is better) or <code>-1</code> if the caption does not match
+	 */
+	private static int rank(final String captionNorm, final String queryNorm)
+	{
+		int index = captionNorm.indexOf(queryNorm);
+		if (index < 0)
+		{
+			return -1;
+		}
+		if (index == 0)
+		{
+			return RANK_CaptionPrefix;
+		}
+
+		while (index > 0)
+		{
+			if (!Character.isLetterOrDigit(captionNorm.charAt(index - 1)))
+			{
+				return RANK_WordPrefix;
+			}
+			index = captionNorm.indexOf(queryNorm, index + 1);
+		}
+
+		return RANK_Contains;
+	}
+
+	private static final class Match
+	{
+		private final int ordinal;
+		private final int rank;
+
+		private Match(final int ordinal, final int rank)
+		{
+			this.ordinal = ordinal;
+			this.rank = rank;
+		}
+
+		public int getOrdinal()
+		{
+			return ordinal;
+		}
+
+		public int getRank()
+		{
+			return rank;
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package de.metas.ui.web.notification;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * "Mark as read" changes of {@link UserNotificationsQueue} which were not yet written to database.
+ * <p>
+ * The changes are dropped only after they were successfully written (see {@link #flush(PendingReadsWriter)}),
+ * so on failure they will be written again on next flush.
+ */
+/* package */ final class UserNotificationsPendingReads
+{
+	@FunctionalInterface
+	public interface PendingReadsWriter
+	{
+		void write(boolean markAllAsRead, Set<Integer> notificationIds);
+	}
+
+	// guarded by "this"
+	private final Set<Integer> notificationIds = new LinkedHashSet<>();
+	private boolean markAllAsRead = false;
+
+	@Override
+	public synchronized String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("markAllAsRead", markAllAsRead)
+				.add("notificationIds", notificationIds)
+				.toString();
+	}
+
+	public synchronized boolean isEmpty()
+	{
+		return !markAllAsRead && notificationIds.isEmpty();
+	}
+
+	public synchronized boolean isMarkAllAsRead()
+	{
+		return markAllAsRead;
+	}
+
+	public synchronized ImmutableSet<Integer> getNotificationIds()
+	{
+		return ImmutableSet.copyOf(notificationIds);
+	}
+
+	/** @return true if the notification was not already pending */
+	public synchronized boolean markAsRead(final int notificationId)
+	{
+		return notificationIds.add(notificationId);
+	}
+
+	public synchronized void markAllAsRead()
+	{
+		notificationIds.clear();
+		markAllAsRead = true;
+	}
+
+	public synchronized void remove(final int notificationId)
+	{
+		notificationIds.remove(notificationId);
+	}
+
+	public synchronized void clear()
+	{
+		notificationIds.clear();
+		markAllAsRead = false;
+	}
+
+	/**
+	 * Writes the pending changes using given writer.
+	 * <p>
+	 * The changes which were made meanwhile are kept for next flush.
+	 * If the writer fails, the changes are put back so they will be written on next flush, and the exception is propagated.
+	 *
+	 * @return true if there was something to write
+	 */
+	public boolean flush(@NonNull final PendingReadsWriter writer)
+	{
+		final boolean markAllAsReadToWrite;
+		final ImmutableSet<Integer> notificationIdsToWrite;
+		synchronized (this)
+		{
+			if (isEmpty())
+			{
+				return false;
+			}
+
+			markAllAsReadToWrite = markAllAsRead;
+			notificationIdsToWrite = ImmutableSet.copyOf(notificationIds);
+			clear();
+		}
+
+		try
+		{
+			writer.write(markAllAsReadToWrite, notificationIdsToWrite);
+			return true;
+		}
+		catch (final RuntimeException ex)
+		{
+			putBack(markAllAsReadToWrite, notificationIdsToWrite);
+			throw ex;
+		}
+	}
+
+	private synchronized void putBack(final boolean markAllAsReadNotWritten, final Set<Integer> notificationIdsNotWritten)
+	{
+		if (markAllAsReadNotWritten)
+		{
+			markAllAsRead = true;
+		}
+
+		// NOTE: if "mark all as read" is pending, the notification IDs would be covered anyways,
+		// but we keep them, in order to have the same state as if the flush was not attempted.
+		notificationIds.addAll(notificationIdsNotWritten);
+	}
+}
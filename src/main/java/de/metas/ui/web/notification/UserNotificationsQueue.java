@@ -4,10 +4,14 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.util.Check;
+import org.adempiere.util.Services;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.logging.LogManager;
 import de.metas.notification.INotificationRepository;
@@ -42,10 +46,25 @@ import lombok.NonNull;
  * #L%
  */
 
+/**
+ * Notifications of a given user.
+ * <p>
+ * To avoid querying the database each time the frontend polls, this queue keeps in memory:
+ * <ul>
+ * <li>the unread and total notifications count
+ * <li>the most recent {@value #RECENT_NOTIFICATIONS_CAPACITY} notifications
+ * </ul>
+ * Those are loaded lazily and then updated from the notification events we forward to websocket.
+ * They are periodically reconciled against the database (see {@link #reconcile()}), in case the notifications were changed by somebody else.
+ * <p>
+ * Marking notifications as read is done write-behind: the counters are updated right away, but the database is updated in batches (see {@link #flushPendingReads()}).
+ */
 public class UserNotificationsQueue
 {
 	private static final Logger logger = LogManager.getLogger(UserNotificationsQueue.class);
 
+	private static final int RECENT_NOTIFICATIONS_CAPACITY = 50;
+
 	private final int adUserId;
 	private String adLanguage;
 
@@ -56,6 +75,15 @@ public class UserNotificationsQueue
 	private final WebsocketSender websocketSender;
 	private final String websocketEndpoint;
 
+	//
+	// Cached state (guarded by "this"); null means "not loaded"
+	private Integer unreadCount;
+	private Integer totalCount;
+	private ImmutableList<UserNotification> recentNotifications; // most recent first
+	//
+	// Pending write-behind changes
+	private final UserNotificationsPendingReads pendingReads = new UserNotificationsPendingReads();
+
 	@Builder
 	private UserNotificationsQueue(
 			final int adUserId,
@@ -100,6 +128,21 @@ public class UserNotificationsQueue
 	}
 
 	public UserNotificationsList getNotificationsAsList(final int limit)
+	{
+		// Make sure the read flags we are about to return are up to date
+		flushPendingReads();
+
+		if (limit <= 0 || limit > RECENT_NOTIFICATIONS_CAPACITY)
+		{
+			return retrieveNotificationsAsList(limit);
+		}
+
+		final List<UserNotification> recentNotifications = getRecentNotifications();
+		final List<UserNotification> notifications = recentNotifications.size() > limit ? recentNotifications.subList(0, limit) : recentNotifications;
+		return UserNotificationsList.of(notifications, getTotalCount(), getUnreadCount());
+	}
+
+	private UserNotificationsList retrieveNotificationsAsList(final int limit)
 	{
 		final List<UserNotification> notifications = notificationsRepo.getByUserId(adUserId, limit);
 		final boolean fullyLoaded = limit <= 0 || notifications.size() <= limit;
@@ -113,13 +156,22 @@ public class UserNotificationsQueue
 		}
 		else
 		{
-			totalCount = notificationsRepo.getTotalCountByUserId(adUserId);
-			unreadCount = notificationsRepo.getUnreadCountByUserId(adUserId);
+			totalCount = getTotalCount();
+			unreadCount = getUnreadCount();
 		}
 
 		return UserNotificationsList.of(notifications, totalCount, unreadCount);
 	}
 
+	private synchronized List<UserNotification> getRecentNotifications()
+	{
+		if (recentNotifications == null)
+		{
+			recentNotifications = ImmutableList.copyOf(notificationsRepo.getByUserId(adUserId, RECENT_NOTIFICATIONS_CAPACITY));
+		}
+		return recentNotifications;
+	}
+
 	public void addActiveSessionId(final String sessionId)
 	{
 		Check.assumeNotNull(sessionId, "Parameter sessionId is not null");
@@ -143,26 +195,185 @@ public class UserNotificationsQueue
 		final int adUserId = getAD_User_ID();
 		Check.assume(notification.getRecipientUserId() == adUserId, "notification's recipient user ID shall be {}: {}", adUserId, notification);
 
+		// Make sure a pending "mark all as read" will not also mark this notification as read
+		// NOTE: if the flush fails, the "mark all as read" is retried later and it will also cover this notification.
+		flushPendingReads();
+
+		synchronized (this)
+		{
+			if (totalCount != null)
+			{
+				totalCount++;
+			}
+			if (unreadCount != null && notification.isNotRead())
+			{
+				unreadCount++;
+			}
+			if (recentNotifications != null)
+			{
+				recentNotifications = ImmutableList.<UserNotification> builder()
+						.add(notification)
+						.addAll(recentNotifications.size() >= RECENT_NOTIFICATIONS_CAPACITY ? recentNotifications.subList(0, RECENT_NOTIFICATIONS_CAPACITY - 1) : recentNotifications)
+						.build();
+			}
+		}
+
 		final JSONNotification jsonNotification = JSONNotification.of(notification, adLanguage);
 		fireEventOnWebsocket(JSONNotificationEvent.eventNew(jsonNotification, getUnreadCount()));
 	}
 
 	public void markAsRead(final String notificationId)
 	{
-		notificationsRepo.markAsReadById(Integer.parseInt(notificationId));
+		final int notificationIdInt = Integer.parseInt(notificationId);
+
+		synchronized (this)
+		{
+			if (pendingReads.markAsRead(notificationIdInt) && unreadCount != null)
+			{
+				final UserNotification notification = recentNotifications == null ? null : recentNotifications.stream()
+						.filter(recentNotification -> recentNotification.getId() == notificationIdInt)
+						.findFirst()
+						.orElse(null);
+				if (notification == null)
+				{
+					// we don't know if it was already read => reload the counter (after flushing)
+					unreadCount = null;
+				}
+				else if (notification.isNotRead())
+				{
+					unreadCount = Math.max(unreadCount - 1, 0);
+				}
+			}
+		}
+
 		fireEventOnWebsocket(JSONNotificationEvent.eventRead(notificationId, getUnreadCount()));
 	}
 
 	public void markAllAsRead()
 	{
 		logger.trace("Marking all notifications as read (if any) for {}...", this);
-		notificationsRepo.markAllAsReadByUserId(getAD_User_ID());
+		synchronized (this)
+		{
+			pendingReads.markAllAsRead();
+			unreadCount = 0;
+		}
+
 		fireEventOnWebsocket(JSONNotificationEvent.eventReadAll());
 	}
 
+	/**
+	 * Writes the pending "mark as read" changes to database, in one transaction.
+	 * <p>
+	 * If writing fails, the changes are kept and they will be written on next flush.
+	 */
+	public void flushPendingReads()
+	{
+		if (pendingReads.isEmpty())
+		{
+			return;
+		}
+
+		synchronized (this)
+		{
+			recentNotifications = null; // the read flags are no longer accurate
+		}
+
+		try
+		{
+			pendingReads.flush((markAllAsRead, notificationIdsToMarkAsRead) -> {
+				Services.get(ITrxManager.class).run(ITrx.TRXNAME_ThreadInherited, () -> {
+					if (markAllAsRead)
+					{
+						notificationsRepo.markAllAsReadByUserId(getAD_User_ID());
+					}
+					notificationIdsToMarkAsRead.forEach(notificationsRepo::markAsReadById);
+				});
+				logger.trace("Flushed pending reads for {}: markAllAsRead={}, notificationIds={}", this, markAllAsRead, notificationIdsToMarkAsRead);
+			});
+		}
+		catch (final Exception ex)
+		{
+			// NOTE: we keep the counters because they already consider the pending reads, which will be retried
+			logger.warn("Failed marking notifications as read for {} ({}). Will retry.", this, pendingReads, ex);
+		}
+	}
+
+	/**
+	 * Flushes the pending changes and reloads the counters from database.
+	 */
+	public void reconcile()
+	{
+		flushPendingReads();
+
+		final int unreadCountActual = notificationsRepo.getUnreadCountByUserId(getAD_User_ID());
+		final int totalCountActual = notificationsRepo.getTotalCountByUserId(getAD_User_ID());
+		synchronized (this)
+		{
+			if (!pendingReads.isEmpty())
+			{
+				return; // changed meanwhile or failed flushing, we will reconcile next time
+			}
+
+			if (unreadCount != null && unreadCount != unreadCountActual
+					|| totalCount != null && totalCount != totalCountActual)
+			{
+				logger.debug("Reconciled {}: unreadCount {}->{}, totalCount {}->{}", this, unreadCount, unreadCountActual, totalCount, totalCountActual);
+				recentNotifications = null;
+			}
+
+			unreadCount = unreadCountActual;
+			totalCount = totalCountActual;
+		}
+	}
+
+	private synchronized void invalidateCache()
+	{
+		unreadCount = null;
+		totalCount = null;
+		recentNotifications = null;
+	}
+
 	public int getUnreadCount()
 	{
-		return notificationsRepo.getUnreadCountByUserId(getAD_User_ID());
+		synchronized (this)
+		{
+			if (unreadCount != null)
+			{
+				return unreadCount;
+			}
+		}
+
+		flushPendingReads();
+		final int unreadCountActual = notificationsRepo.getUnreadCountByUserId(getAD_User_ID());
+		synchronized (this)
+		{
+			if (unreadCount == null)
+			{
+				unreadCount = unreadCountActual;
+			}
+			return unreadCount;
+		}
+	}
+
+	private int getTotalCount()
+	{
+		synchronized (this)
+		{
+			if (totalCount != null)
+			{
+				return totalCount;
+			}
+		}
+
+		final int totalCountActual = notificationsRepo.getTotalCountByUserId(getAD_User_ID());
+		synchronized (this)
+		{
+			if (totalCount == null)
+			{
+				totalCount = totalCountActual;
+			}
+			return totalCount;
+		}
 	}
 
 	public void setLanguage(@NonNull final String adLanguage)
@@ -172,13 +383,28 @@ public class UserNotificationsQueue
 
 	public void delete(final String notificationId)
 	{
-		notificationsRepo.deleteById(Integer.parseInt(notificationId));
+		final int notificationIdInt = Integer.parseInt(notificationId);
+		synchronized (this)
+		{
+			pendingReads.remove(notificationIdInt);
+		}
+
+		notificationsRepo.deleteById(notificationIdInt);
+		invalidateCache();
+
 		fireEventOnWebsocket(JSONNotificationEvent.eventDeleted(notificationId, getUnreadCount()));
 	}
-	
+
 	public void deleteAll()
 	{
+		synchronized (this)
+		{
+			pendingReads.clear();
+		}
+
 		notificationsRepo.deleteAllByUserId(getAD_User_ID());
+		invalidateCache();
+
 		fireEventOnWebsocket(JSONNotificationEvent.eventDeletedAll());
 	}
 
@@ -1,11 +1,19 @@
 package de.metas.ui.web.notification;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import org.adempiere.util.Services;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
@@ -54,6 +62,83 @@ public class UserNotificationsService
 
 	private final AtomicBoolean subscribedToEventBus = new AtomicBoolean(false);
 
+	@Value("${metasfresh.notifications.flushPendingReadsRateInSeconds:2}")
+	private int flushPendingReadsRateInSeconds;
+	@Value("${metasfresh.notifications.reconcileRateInSeconds:60}")
+	private int reconcileRateInSeconds;
+	private ScheduledExecutorService scheduledExecutor;
+
+	@PostConstruct
+	private void postConstruct()
+	{
+		scheduledExecutor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+				.setDaemon(true)
+				.setThreadNamePrefix(UserNotificationsService.class.getName())
+				.build());
+
+		if (flushPendingReadsRateInSeconds > 0)
+		{
+			scheduledExecutor.scheduleWithFixedDelay(
+					this::flushPendingReadsNoFail, // command, don't fail because on failure the task won't be re-scheduled
+					flushPendingReadsRateInSeconds, // initialDelay
+					flushPendingReadsRateInSeconds, // delay
+					TimeUnit.SECONDS);
+			logger.info("Flushing notifications pending reads each {} seconds", flushPendingReadsRateInSeconds);
+		}
+
+		if (reconcileRateInSeconds > 0)
+		{
+			scheduledExecutor.scheduleWithFixedDelay(
+					this::reconcileNoFail, // command, don't fail because on failure the task won't be re-scheduled
+					reconcileRateInSeconds, // initialDelay
+					reconcileRateInSeconds, // delay
+					TimeUnit.SECONDS);
+			logger.info("Reconciling notification counters each {} seconds", reconcileRateInSeconds);
+		}
+	}
+
+	@PreDestroy
+	private void preDestroy()
+	{
+		scheduledExecutor.shutdown();
+		flushPendingReadsNoFail();
+	}
+
+	private void flushPendingReadsNoFail()
+	{
+		for (final UserNotificationsQueue notificationsQueue : adUserId2notifications.values())
+		{
+			try
+			{
+				notificationsQueue.flushPendingReads();
+			}
+			catch (final Throwable ex)
+			{
+				logger.warn("Failed flushing pending reads for {}. Ignored.", notificationsQueue, ex);
+			}
+		}
+	}
+
+	private void reconcileNoFail()
+	{
+		for (final UserNotificationsQueue notificationsQueue : adUserId2notifications.values())
+		{
+			if (!notificationsQueue.hasActiveSessions())
+			{
+				continue;
+			}
+
+			try
+			{
+				notificationsQueue.reconcile();
+			}
+			catch (final Throwable ex)
+			{
+				logger.warn("Failed reconciling {}. Ignored.", notificationsQueue, ex);
+			}
+		}
+	}
+
 	@EventListener
 	private void onUserLanguageChanged(final LanguagedChangedEvent event)
 	{
@@ -56,13 +56,15 @@ public class PurchaseCandidates2PurchaseViewFactory extends PurchaseViewFactoryT
 			@NonNull final PurchaseDemandWithCandidatesService purchaseDemandWithCandidatesService,
 			@NonNull final AvailabilityCheckService availabilityCheckService,
 			@NonNull final PurchaseCandidateRepository purchaseCandidatesRepo,
-			@NonNull final PurchaseRowFactory purchaseRowFactory)
+			@NonNull final PurchaseRowFactory purchaseRowFactory,
+			@NonNull final PurchaseRowsAvailabilityCheckExecutors availabilityCheckExecutors)
 	{
 		super(WINDOW_ID,
 				WEBUI_PurchaseCandidates_PurchaseView_Launcher.class, // launcherProcessClass
 				purchaseDemandWithCandidatesService,
 				availabilityCheckService,
-				purchaseRowFactory);
+				purchaseRowFactory,
+				availabilityCheckExecutors);
 
 		this.purchaseCandidatesRepo = purchaseCandidatesRepo;
 	}
@@ -0,0 +1,90 @@
+package de.metas.ui.web.order.sales.purchasePlanning.view;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import de.metas.logging.LogManager;
+import lombok.Getter;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Executors used by {@link PurchaseRowsLoader} to run the (per vendor) availability checks and their timeouts.
+ */
+@Component
+public class PurchaseRowsAvailabilityCheckExecutors
+{
+	private static final Logger logger = LogManager.getLogger(PurchaseRowsAvailabilityCheckExecutors.class);
+
+	/**
+	 * Runs the availability checks.
+	 * The checks are mostly waiting for vendor's endpoint, but we are bounding the number of threads, so a burst of purchase views won't start a thread for each check.
+	 * The checks which can't be started right away are queued. If the queue is full, the check is rejected.
+	 */
+	@Getter
+	private final ExecutorService checkExecutor;
+
+	@Getter
+	private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+			.setDaemon(true)
+			.setThreadNamePrefix(PurchaseRowsLoader.class.getSimpleName() + "-availabilityCheckTimeout")
+			.build());
+
+	public PurchaseRowsAvailabilityCheckExecutors(
+			@Value("${metasfresh.webui.purchase.availabilityCheck.threads:10}") final int threads,
+			@Value("${metasfresh.webui.purchase.availabilityCheck.queueCapacity:1000}") final int queueCapacity)
+	{
+		final int threadsEffective = Math.max(threads, 1);
+		final ThreadPoolExecutor checkExecutor = new ThreadPoolExecutor(
+				threadsEffective, // corePoolSize
+				threadsEffective, // maximumPoolSize
+				60, TimeUnit.SECONDS, // keepAliveTime
+				new LinkedBlockingQueue<>(Math.max(queueCapacity, 1)),
+				CustomizableThreadFactory.builder()
+						.setDaemon(true)
+						.setThreadNamePrefix(PurchaseRowsLoader.class.getSimpleName() + "-availabilityCheck")
+						.build());
+		checkExecutor.allowCoreThreadTimeOut(true); // don't keep idle threads
+		this.checkExecutor = checkExecutor;
+
+		logger.info("Using threads={}, queueCapacity={}", threadsEffective, queueCapacity);
+	}
+
+	@PreDestroy
+	public void shutdown()
+	{
+		checkExecutor.shutdownNow();
+		timeoutScheduler.shutdownNow();
+	}
+}
@@ -1,16 +1,24 @@
 package de.metas.ui.web.order.sales.purchasePlanning.view;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
-import javax.annotation.Nullable;
-
+import org.adempiere.bpartner.BPartnerId;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.Services;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.util.Env;
-import org.compiere.util.Util;
 import org.slf4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -63,8 +71,12 @@ class PurchaseRowsLoader
 	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 	private final PurchaseRowFactory purchaseRowFactory;
 	private final AvailabilityCheckService availabilityCheckService;
+	private final PurchaseRowsAvailabilityCheckExecutors availabilityCheckExecutors;
 
 	private static final String SYSCONFIG_ASYNC_AVAILIABILITY_CHECK = "de.metas.ui.web.order.sales.purchasePlanning.view.SalesOrder2PurchaseViewFactory.AsyncAvailiabilityCheck";
+	@VisibleForTesting
+	static final String SYSCONFIG_AVAILIABILITY_CHECK_TIMEOUT_MILLIS = "de.metas.ui.web.order.sales.purchasePlanning.view.SalesOrder2PurchaseViewFactory.AvailiabilityCheckTimeoutMillis";
+	private static final int DEFAULT_AVAILIABILITY_CHECK_TIMEOUT_MILLIS = 30 * 1000;
 
 	// parameters
 	private final Supplier<IView> viewSupplier;
@@ -76,18 +88,36 @@ class PurchaseRowsLoader
 			@NonNull final Supplier<IView> viewSupplier,
 			//
 			@NonNull final PurchaseRowFactory purchaseRowFactory,
-			@NonNull final AvailabilityCheckService availabilityCheckService)
+			@NonNull final AvailabilityCheckService availabilityCheckService,
+			@NonNull final PurchaseRowsAvailabilityCheckExecutors availabilityCheckExecutors)
 	{
 		this.purchaseDemandWithCandidatesList = ImmutableList.copyOf(purchaseDemandWithCandidatesList);
 		this.viewSupplier = viewSupplier;
 
 		this.purchaseRowFactory = purchaseRowFactory;
 		this.availabilityCheckService = availabilityCheckService;
+		this.availabilityCheckExecutors = availabilityCheckExecutors;
 	}
 
+	// state
+	private final List<VendorAvailabilityCheck> availabilityChecks = new CopyOnWriteArrayList<>();
+
 	public PurchaseRowsSupplier createPurchaseRowsSupplier()
 	{
-		return this::loadAndCheckAvailability;
+		return new PurchaseRowsSupplier()
+		{
+			@Override
+			public List<PurchaseRow> retrieveRows()
+			{
+				return loadAndCheckAvailability();
+			}
+
+			@Override
+			public void close()
+			{
+				cancelAvailabilityChecks();
+			}
+		};
 	}
 
 	private List<PurchaseRow> loadAndCheckAvailability()
@@ -147,6 +177,23 @@ class PurchaseRowsLoader
 		return PurchaseCandidatesAvailabilityRequest.of(rows.getPurchaseCandidatesGroups());
 	}
 
+	/**
+	 * @return one availability request per vendor, so that a slow vendor is not delaying the results of the other vendors
+	 */
+	@VisibleForTesting
+	ImmutableList<PurchaseCandidatesAvailabilityRequest> createAvailabilityRequestsPerVendor(@NonNull final PurchaseRowsList rows)
+	{
+		final Map<BPartnerId, ImmutableMap.Builder<TrackingId, PurchaseCandidatesGroup>> groupsByVendorId = new LinkedHashMap<>();
+		rows.getPurchaseCandidatesGroups().forEach((trackingId, purchaseCandidatesGroup) -> groupsByVendorId
+				.computeIfAbsent(purchaseCandidatesGroup.getVendorId(), vendorId -> ImmutableMap.builder())
+				.put(trackingId, purchaseCandidatesGroup));
+
+		return groupsByVendorId.values()
+				.stream()
+				.map(groups -> PurchaseCandidatesAvailabilityRequest.of(groups.build()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	private boolean isMakeAsynchronousAvailiabilityCheck()
 	{
 		final Properties ctx = Env.getCtx();
@@ -160,40 +207,88 @@ class PurchaseRowsLoader
 		return result;
 	}
 
+	private int getAvailabilityCheckTimeoutMillis()
+	{
+		final Properties ctx = Env.getCtx();
+
+		final int timeoutMillis = sysConfigBL.getIntValue(
+				SYSCONFIG_AVAILIABILITY_CHECK_TIMEOUT_MILLIS,
+				DEFAULT_AVAILIABILITY_CHECK_TIMEOUT_MILLIS,
+				Env.getAD_Client_ID(ctx),
+				Env.getAD_Org_ID(ctx));
+
+		return timeoutMillis > 0 ? timeoutMillis : DEFAULT_AVAILIABILITY_CHECK_TIMEOUT_MILLIS;
+	}
+
+	/**
+	 * Checks the availability (in parallel, per vendor) and waits until all vendors responded or timed out.
+	 */
 	@VisibleForTesting
 	void createAndAddAvailabilityResultRows(final PurchaseRowsList rows)
 	{
-		try
-		{
-			final AvailabilityMultiResult availabilityCheckResult = availabilityCheckService.checkAvailability(createAvailabilityRequest(rows));
-			handleResultForAsyncAvailabilityCheck_Success(rows, availabilityCheckResult);
-		}
-		catch (final Throwable throwable)
-		{
-			handleResultForAsyncAvailabilityCheck_Error(rows, throwable);
-		}
+		final CompletableFuture<?>[] doneFutures = startAvailabilityChecks(rows)
+				.stream()
+				.map(VendorAvailabilityCheck::getDoneFuture)
+				.toArray(CompletableFuture[]::new);
+
+		CompletableFuture.allOf(doneFutures).join();
 	}
 
-	private void createAndAddAvailabilityResultRowsAsync(final PurchaseRowsList rows)
+	/**
+	 * Starts checking the availability (in parallel, per vendor) and returns right away.
+	 * Each vendor's results are added to the rows as soon as they arrive.
+	 */
+	@VisibleForTesting
+	void createAndAddAvailabilityResultRowsAsync(final PurchaseRowsList rows)
 	{
-		availabilityCheckService.checkAvailabilityAsync(
-				createAvailabilityRequest(rows),
-				(result, error) -> handleResultForAsyncAvailabilityCheck(rows, result, error));
+		startAvailabilityChecks(rows);
 	}
 
-	private void handleResultForAsyncAvailabilityCheck(
-			@NonNull final PurchaseRowsList rows,
-			@Nullable final AvailabilityMultiResult availabilityMultiResult,
-			@Nullable final Throwable error)
+	private List<VendorAvailabilityCheck> startAvailabilityChecks(final PurchaseRowsList rows)
 	{
-		if (availabilityMultiResult != null)
+		final int timeoutMillis = getAvailabilityCheckTimeoutMillis();
+
+		final List<VendorAvailabilityCheck> checks = new ArrayList<>();
+		for (final PurchaseCandidatesAvailabilityRequest request : createAvailabilityRequestsPerVendor(rows))
 		{
-			handleResultForAsyncAvailabilityCheck_Success(rows, availabilityMultiResult);
+			final VendorAvailabilityCheck check = new VendorAvailabilityCheck(rows, request);
+			availabilityChecks.add(check);
+			check.start(timeoutMillis);
+			checks.add(check);
 		}
-		if (error != null)
+
+		return checks;
+	}
+
+	@VisibleForTesting
+	int getRunningAvailabilityChecksCount()
+	{
+		return availabilityChecks.size();
+	}
+
+	@VisibleForTesting
+	void cancelAvailabilityChecks()
+	{
+		// NOTE: the checks are removing themselves from availabilityChecks
+		availabilityChecks.forEach(VendorAvailabilityCheck::cancel);
+	}
+
+	private void handleAvailabilityCheckTimeout(final PurchaseRowsList rows, final PurchaseCandidatesAvailabilityRequest request, final int timeoutMillis)
+	{
+		final AdempiereException timeoutException = new AdempiereException("Availability check timed out")
+				.setParameter("timeoutMillis", timeoutMillis);
+
+		final List<DocumentId> changedRowIds = new ArrayList<>();
+		for (final TrackingId trackingId : request.getTrackingIds())
 		{
-			handleResultForAsyncAvailabilityCheck_Error(rows, Util.coalesce(error.getCause(), error));
+			final DocumentId changedRowId = setAvailabilityErrorRow(rows, trackingId, timeoutException);
+			if (changedRowId != null)
+			{
+				changedRowIds.add(changedRowId);
+			}
 		}
+
+		notifyViewOfChanges(changedRowIds);
 	}
 
 	private void handleResultForAsyncAvailabilityCheck_Success(
@@ -236,22 +331,11 @@ class PurchaseRowsLoader
 
 			for (final AvailabilityException.ErrorItem errorItem : availabilityException.getErrorItems())
 			{
-				final TrackingId trackingId = errorItem.getTrackingId();
-				final PurchaseRow lineRow = rows.getPurchaseRowByTrackingId(trackingId);
-				if (lineRow == null)
+				final DocumentId changedRowId = setAvailabilityErrorRow(rows, errorItem.getTrackingId(), errorItem.getError());
+				if (changedRowId != null)
 				{
-					logger.warn("No line row found for {}. Skip updating the row with availability errors: {}", trackingId, errorItem);
-					continue;
+					changedRowIds.add(changedRowId);
 				}
-
-				final PurchaseRow availabilityResultRow = purchaseRowFactory.availabilityDetailErrorBuilder()
-						.lineRow(lineRow)
-						.throwable(errorItem.getError())
-						.build();
-
-				lineRow.setAvailabilityInfoRow(availabilityResultRow);
-
-				changedRowIds.add(rows.getTopLevelDocumentIdByTrackingId(trackingId, lineRow.getId()));
 			}
 
 			notifyViewOfChanges(changedRowIds);
@@ -263,8 +347,35 @@ class PurchaseRowsLoader
 		}
 	}
 
+	/**
+	 * @return changed top level row ID or <code>null</code>
+	 */
+	private DocumentId setAvailabilityErrorRow(final PurchaseRowsList rows, final TrackingId trackingId, final Throwable error)
+	{
+		final PurchaseRow lineRow = rows.getPurchaseRowByTrackingId(trackingId);
+		if (lineRow == null)
+		{
+			logger.warn("No line row found for {}. Skip updating the row with availability error: {}", trackingId, error);
+			return null;
+		}
+
+		final PurchaseRow availabilityResultRow = purchaseRowFactory.availabilityDetailErrorBuilder()
+				.lineRow(lineRow)
+				.throwable(error)
+				.build();
+
+		lineRow.setAvailabilityInfoRow(availabilityResultRow);
+
+		return rows.getTopLevelDocumentIdByTrackingId(trackingId, lineRow.getId());
+	}
+
 	private void notifyViewOfChanges(final List<DocumentId> changedRowIds)
 	{
+		if (changedRowIds.isEmpty())
+		{
+			return;
+		}
+
 		final IView view = viewSupplier.get();
 		if (view != null)
 		{
@@ -274,6 +385,151 @@ class PurchaseRowsLoader
 		}
 	}
 
+	/**
+	 * Availability check of one vendor. Exactly one of "results arrived", "timed out" or "cancelled" is applied.
+	 */
+	private final class VendorAvailabilityCheck
+	{
+		private final PurchaseRowsList rows;
+		private final PurchaseCandidatesAvailabilityRequest request;
+
+		private final AtomicBoolean handled = new AtomicBoolean(false);
+		@Getter
+		private final CompletableFuture<Void> doneFuture = new CompletableFuture<>();
+		private volatile Future<?> checkFuture;
+		private volatile Future<?> timeoutFuture;
+
+		private VendorAvailabilityCheck(final PurchaseRowsList rows, final PurchaseCandidatesAvailabilityRequest request)
+		{
+			this.rows = rows;
+			this.request = request;
+		}
+
+		public void start(final int timeoutMillis)
+		{
+			final Properties ctx = Env.copyCtx(Env.getCtx());
+			try
+			{
+				checkFuture = availabilityCheckExecutors.getCheckExecutor().submit(() -> runInContext(ctx, this::check));
+			}
+			catch (final RejectedExecutionException ex)
+			{
+				onRejected(ex);
+				return;
+			}
+			timeoutFuture = availabilityCheckExecutors.getTimeoutScheduler().schedule(() -> runInContext(ctx, () -> onTimeout(timeoutMillis)), timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+
+		/** Runs given task using the context of the user who started the check, because we are called from other threads. */
+		private void runInContext(final Properties ctx, final Runnable task)
+		{
+			try (final IAutoCloseable c = Env.switchContext(ctx))
+			{
+				task.run();
+			}
+		}
+
+		private void check()
+		{
+			AvailabilityMultiResult result = null;
+			Throwable error = null;
+			try
+			{
+				result = availabilityCheckService.checkAvailability(request);
+			}
+			catch (final Throwable ex)
+			{
+				error = ex;
+			}
+
+			if (!handled.compareAndSet(false, true))
+			{
+				return; // timed out or cancelled meanwhile
+			}
+
+			try
+			{
+				if (error == null)
+				{
+					handleResultForAsyncAvailabilityCheck_Success(rows, result);
+				}
+				else
+				{
+					handleResultForAsyncAvailabilityCheck_Error(rows, error);
+				}
+			}
+			finally
+			{
+				cancelFuture(timeoutFuture);
+				markDone();
+			}
+		}
+
+		private void onRejected(final RejectedExecutionException ex)
+		{
+			if (!handled.compareAndSet(false, true))
+			{
+				return;
+			}
+
+			try
+			{
+				logger.warn("Availability check rejected because too many checks are pending: {}", request);
+				handleResultForAsyncAvailabilityCheck_Error(rows, ex);
+			}
+			finally
+			{
+				markDone();
+			}
+		}
+
+		private void onTimeout(final int timeoutMillis)
+		{
+			if (!handled.compareAndSet(false, true))
+			{
+				return;
+			}
+
+			try
+			{
+				cancelFuture(checkFuture);
+				logger.warn("Availability check timed out after {}ms for {}", timeoutMillis, request);
+				handleAvailabilityCheckTimeout(rows, request, timeoutMillis);
+			}
+			finally
+			{
+				markDone();
+			}
+		}
+
+		public void cancel()
+		{
+			if (!handled.compareAndSet(false, true))
+			{
+				return;
+			}
+
+			cancelFuture(checkFuture);
+			cancelFuture(timeoutFuture);
+			markDone();
+		}
+
+		private void markDone()
+		{
+			availabilityChecks.remove(this);
+			doneFuture.complete(null);
+		}
+
+		private void cancelFuture(final Future<?> future)
+		{
+			if (future != null)
+			{
+				final boolean mayInterruptIfRunning = true;
+				future.cancel(mayInterruptIfRunning);
+			}
+		}
+	}
+
 	@VisibleForTesting
 	static class PurchaseRowsList
 	{
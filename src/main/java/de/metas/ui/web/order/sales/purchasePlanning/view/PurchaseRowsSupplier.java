@@ -28,4 +28,12 @@ import java.util.List;
 public interface PurchaseRowsSupplier
 {
 	List<PurchaseRow> retrieveRows();
+
+	/**
+	 * Called when the rows are no longer needed (e.g. the view was closed), so any pending background loading can be cancelled.
+	 */
+	default void close()
+	{
+		// nothing
+	}
 }
@@ -16,6 +16,7 @@ import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.view.IEditableView;
 import de.metas.ui.web.view.IViewRow;
+import de.metas.ui.web.view.ViewCloseReason;
 import de.metas.ui.web.view.ViewId;
 import de.metas.ui.web.view.ViewResult;
 import de.metas.ui.web.view.event.ViewChangesCollector;
@@ -61,6 +62,7 @@ public class PurchaseView implements IEditableView
 	}
 
 	private final ViewId viewId;
+	private final PurchaseRowsSupplier rowsSupplier;
 	private final PurchaseRowsCollection rows;
 	private final List<RelatedProcessDescriptor> additionalRelatedProcessDescriptors;
 
@@ -71,6 +73,7 @@ public class PurchaseView implements IEditableView
 			@Singular final List<RelatedProcessDescriptor> additionalRelatedProcessDescriptors)
 	{
 		this.viewId = viewId;
+		this.rowsSupplier = rowsSupplier;
 		this.rows = PurchaseRowsCollection.ofSupplier(rowsSupplier);
 		this.additionalRelatedProcessDescriptors = ImmutableList.copyOf(additionalRelatedProcessDescriptors);
 	}
@@ -87,6 +90,12 @@ public class PurchaseView implements IEditableView
 		return JSONViewDataType.grid;
 	}
 
+	@Override
+	public void close(final ViewCloseReason reason)
+	{
+		rowsSupplier.close();
+	}
+
 	@Override
 	public Set<DocumentPath> getReferencingDocumentPaths()
 	{
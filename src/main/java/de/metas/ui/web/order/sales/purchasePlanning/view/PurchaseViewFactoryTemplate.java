@@ -64,6 +64,7 @@ public abstract class PurchaseViewFactoryTemplate implements IViewFactory, IView
 	private final PurchaseDemandWithCandidatesService purchaseDemandWithCandidatesService;
 	private final AvailabilityCheckService availabilityCheckService;
 	private final PurchaseRowFactory purchaseRowFactory;
+	private final PurchaseRowsAvailabilityCheckExecutors availabilityCheckExecutors;
 	private final PurchaseViewLayoutFactory viewLayoutFactory;
 	private final IADProcessDAO adProcessRepo = Services.get(IADProcessDAO.class);
 
@@ -82,13 +83,15 @@ public abstract class PurchaseViewFactoryTemplate implements IViewFactory, IView
 			// services:
 			@NonNull final PurchaseDemandWithCandidatesService purchaseDemandWithCandidatesService,
 			@NonNull final AvailabilityCheckService availabilityCheckService,
-			@NonNull final PurchaseRowFactory purchaseRowFactory)
+			@NonNull final PurchaseRowFactory purchaseRowFactory,
+			@NonNull final PurchaseRowsAvailabilityCheckExecutors availabilityCheckExecutors)
 	{
 		this.windowId = windowId;
 
 		this.purchaseDemandWithCandidatesService = purchaseDemandWithCandidatesService;
 		this.availabilityCheckService = availabilityCheckService;
 		this.purchaseRowFactory = purchaseRowFactory;
+		this.availabilityCheckExecutors = availabilityCheckExecutors;
 
 		// caption
 		final ITranslatableString caption = adProcessRepo
@@ -202,6 +205,7 @@ public abstract class PurchaseViewFactoryTemplate implements IViewFactory, IView
 				.viewSupplier(() -> getByIdOrNull(viewId)) // needed for async stuff
 				.purchaseRowFactory(purchaseRowFactory)
 				.availabilityCheckService(availabilityCheckService)
+				.availabilityCheckExecutors(availabilityCheckExecutors)
 				.build()
 				.createPurchaseRowsSupplier();
 		return rowsSupplier;
@@ -77,13 +77,15 @@ public class SalesOrder2PurchaseViewFactory extends PurchaseViewFactoryTemplate
 			@NonNull final AvailabilityCheckService availabilityCheckService,
 			@NonNull final PurchaseCandidateRepository purchaseCandidatesRepo,
 			@NonNull final PurchaseRowFactory purchaseRowFactory,
+			@NonNull final PurchaseRowsAvailabilityCheckExecutors availabilityCheckExecutors,
 			@NonNull final SalesOrderLineRepository salesOrderLineRepository)
 	{
 		super(WINDOW_ID,
 				WEBUI_SalesOrder_PurchaseView_Launcher.class, // launcherProcessClass
 				purchaseDemandWithCandidatesService,
 				availabilityCheckService,
-				purchaseRowFactory);
+				purchaseRowFactory,
+				availabilityCheckExecutors);
 
 		this.salesOrderLineRepository = salesOrderLineRepository;
 		this.purchaseCandidatesRepo = purchaseCandidatesRepo;
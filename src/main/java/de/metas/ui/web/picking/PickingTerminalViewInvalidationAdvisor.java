@@ -45,6 +45,8 @@ import de.metas.ui.web.window.datatypes.WindowId;
 @Component
 class PickingTerminalViewInvalidationAdvisor implements IViewInvalidationAdvisor
 {
+	private static final ImmutableSet<String> TABLENAMES = ImmutableSet.of(I_M_ShipmentSchedule.Table_Name, I_M_Picking_Candidate.Table_Name);
+
 	@Autowired
 	private PickingCandidateRepository pickingCandidateRepository;
 
@@ -67,6 +69,12 @@ class PickingTerminalViewInvalidationAdvisor implements IViewInvalidationAdvisor
 		return SqlViewRowIdsOrderedSelectionFactory.retrieveRowIdsForLineIds(keyColumnNamesMap, view.getViewId(), shipmentScheduleIds);
 	}
 
+	@Override
+	public Set<String> getTableNamesOrNull(final IView view)
+	{
+		return TABLENAMES;
+	}
+
 	private Set<Integer> extractShipmentScheduleIds(final Set<TableRecordReference> recordRefs)
 	{
 		if (recordRefs.isEmpty())
@@ -1,22 +1,21 @@
 package de.metas.ui.web.picking.packageable;
 
 import java.util.List;
-import java.util.Map;
-import java.util.function.Supplier;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
-import org.adempiere.util.GuavaCollectors;
-import org.adempiere.util.lang.ExtendedMemorizingSupplier;
 import org.adempiere.util.lang.impl.TableRecordReference;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Maps;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
 import de.metas.ui.web.view.AbstractCustomView.IRowsData;
+import de.metas.ui.web.view.AbstractIndexedRowsData;
 import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import lombok.NonNull;
 import lombok.ToString;
 
@@ -42,12 +41,14 @@ import lombok.ToString;
  * #L%
  */
 
-@ToString
-final class PackageableRowsData implements IRowsData<PackageableRow>
+@ToString(callSuper = true, of = "shipmentScheduleIds")
+final class PackageableRowsData extends AbstractIndexedRowsData<PackageableRow>
 {
-	public static PackageableRowsData ofSupplier(final Supplier<List<PackageableRow>> rowsSupplier)
+	public static PackageableRowsData of(
+			final Set<Integer> shipmentScheduleIds,
+			final Function<Set<Integer>, List<PackageableRow>> rowsByShipmentScheduleIdsSupplier)
 	{
-		return new PackageableRowsData(rowsSupplier);
+		return new PackageableRowsData(shipmentScheduleIds, rowsByShipmentScheduleIdsSupplier);
 	}
 
 	public static PackageableRowsData cast(final IRowsData<PackageableRow> rowsData)
@@ -55,15 +56,19 @@ final class PackageableRowsData implements IRowsData<PackageableRow>
 		return (PackageableRowsData)rowsData;
 	}
 
-	public static final PackageableRowsData EMPTY = new PackageableRowsData(ImmutableList::of);
+	public static final PackageableRowsData EMPTY = new PackageableRowsData(ImmutableSet.of(), shipmentScheduleIds -> ImmutableList.of());
 
-	private final ExtendedMemorizingSupplier<Map<DocumentId, PackageableRow>> topLevelRows;
+	private final ImmutableSet<Integer> shipmentScheduleIds;
+	private final Function<Set<Integer>, List<PackageableRow>> rowsByShipmentScheduleIdsSupplier;
 
 	private final ImmutableListMultimap<TableRecordReference, DocumentId> initialDocumentIdsByRecordRef;
 
-	private PackageableRowsData(@NonNull final Supplier<List<PackageableRow>> rowsSupplier)
+	private PackageableRowsData(
+			@NonNull final Set<Integer> shipmentScheduleIds,
+			@NonNull final Function<Set<Integer>, List<PackageableRow>> rowsByShipmentScheduleIdsSupplier)
 	{
-		topLevelRows = ExtendedMemorizingSupplier.of(() -> Maps.uniqueIndex(rowsSupplier.get(), PackageableRow::getId));
+		this.shipmentScheduleIds = ImmutableSet.copyOf(shipmentScheduleIds);
+		this.rowsByShipmentScheduleIdsSupplier = rowsByShipmentScheduleIdsSupplier;
 
 		//
 		// Remember initial rows
@@ -76,23 +81,22 @@ final class PackageableRowsData implements IRowsData<PackageableRow>
 	}
 
 	@Override
-	public Map<DocumentId, PackageableRow> getDocumentId2TopLevelRows()
+	protected List<PackageableRow> retrieveAllRows()
 	{
-		return topLevelRows.get();
+		return rowsByShipmentScheduleIdsSupplier.apply(shipmentScheduleIds);
 	}
 
 	@Override
-	public ListMultimap<TableRecordReference, PackageableRow> getTableRecordReference2rows()
+	protected List<PackageableRow> retrieveRowsByIdsOrNull(@NonNull final DocumentIdsSelection topLevelRowIds)
 	{
-		return getAllRows()
-				.stream()
-				.collect(GuavaCollectors.toImmutableListMultimap(PackageableRow::getTableRecordReference));
+		// NOTE: the row ID is the M_ShipmentSchedule_ID (see PackageableRow.createRowIdFromShipmentScheduleId)
+		return rowsByShipmentScheduleIdsSupplier.apply(topLevelRowIds.toIntSet());
 	}
 
 	@Override
-	public void invalidateAll()
+	protected Stream<TableRecordReference> extractRecordRefs(@NonNull final PackageableRow row)
 	{
-		topLevelRows.forget();
+		return Stream.of(row.getTableRecordReference());
 	}
 
 	@Override
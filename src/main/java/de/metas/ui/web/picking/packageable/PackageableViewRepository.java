@@ -3,6 +3,7 @@ package de.metas.ui.web.picking.packageable;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.util.Services;
@@ -16,6 +17,7 @@ import com.google.common.collect.ImmutableSet;
 
 import de.metas.inoutcandidate.model.I_M_Packageable_V;
 import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
 import de.metas.ui.web.window.descriptor.LookupDescriptorProvider.LookupScope;
 import de.metas.ui.web.window.descriptor.sql.SqlLookupDescriptor;
@@ -95,16 +97,38 @@ public class PackageableViewRepository
 			return ImmutableList.of();
 		}
 
-		return Services.get(IQueryBL.class)
+		final List<I_M_Packageable_V> packageables = Services.get(IQueryBL.class)
 				.createQueryBuilder(I_M_Packageable_V.class)
 				.addInArrayFilter(I_M_Packageable_V.COLUMN_M_ShipmentSchedule_ID, shipmentScheduleIds)
 				.create()
-				.stream(I_M_Packageable_V.class)
-				.map(packageable -> createPickingRow(viewId, packageable))
+				.list(I_M_Packageable_V.class);
+
+		//
+		// Resolve the lookup values in bulk instead of one by one for each row
+		final LookupValuesList orders = orderLookup.get().findByIds(extractIds(packageables, I_M_Packageable_V::getC_Order_ID));
+		final LookupValuesList products = productLookup.get().findByIds(extractIds(packageables, I_M_Packageable_V::getM_Product_ID));
+		final LookupValuesList bpartners = bpartnerLookup.get().findByIds(extractIds(packageables, I_M_Packageable_V::getC_BPartner_ID));
+
+		return packageables.stream()
+				.map(packageable -> createPickingRow(viewId, packageable, orders, products, bpartners))
 				.collect(ImmutableList.toImmutableList());
 	}
 
-	private PackageableRow createPickingRow(final ViewId viewId, final I_M_Packageable_V packageable)
+	private static Set<Integer> extractIds(final List<I_M_Packageable_V> packageables, final ToIntFunction<I_M_Packageable_V> idExtractor)
+	{
+		return packageables.stream()
+				.mapToInt(idExtractor)
+				.filter(id -> id > 0)
+				.boxed()
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	private static PackageableRow createPickingRow(
+			final ViewId viewId,
+			final I_M_Packageable_V packageable,
+			final LookupValuesList orders,
+			final LookupValuesList products,
+			final LookupValuesList bpartners)
 	{
 		final BigDecimal qtyPicked = packageable.getQtyPicked().add(packageable.getQtyPickedPlanned());
 		
@@ -112,9 +136,9 @@ public class PackageableViewRepository
 				.shipmentScheduleId(packageable.getM_ShipmentSchedule_ID())
 				.viewId(viewId)
 				//
-				.order(orderLookup.get().findById(packageable.getC_Order_ID()))
-				.product(productLookup.get().findById(packageable.getM_Product_ID()))
-				.bpartner(bpartnerLookup.get().findById(packageable.getC_BPartner_ID()))
+				.order(orders.getById(packageable.getC_Order_ID()))
+				.product(products.getById(packageable.getM_Product_ID()))
+				.bpartner(bpartners.getById(packageable.getC_BPartner_ID()))
 				.preparationDate(packageable.getPreparationDate())
 				.qtyOrdered(packageable.getQtyOrdered())
 				.qtyPicked(qtyPicked)
@@ -131,7 +155,6 @@ public class PackageableViewRepository
 			return PackageableRowsData.EMPTY;
 		}
 
-		final Set<Integer> shipmentScheduleIdsCopy = ImmutableSet.copyOf(shipmentScheduleIds);
-		return PackageableRowsData.ofSupplier(() -> retrieveRowsByShipmentScheduleIds(viewId, shipmentScheduleIdsCopy));
+		return PackageableRowsData.of(shipmentScheduleIds, shipmentScheduleIdsToLoad -> retrieveRowsByShipmentScheduleIds(viewId, shipmentScheduleIdsToLoad));
 	}
 }
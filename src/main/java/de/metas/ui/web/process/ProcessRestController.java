@@ -23,8 +23,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import de.metas.logging.LogManager;
-import de.metas.ui.web.cache.ETagResponseEntityBuilder;
+import de.metas.ui.web.cache.SerializedJSONResponseEntityBuilder;
 import de.metas.ui.web.config.WebConfig;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.process.ProcessInstanceResult.OpenReportAction;
@@ -92,6 +94,8 @@ public class ProcessRestController
 	private IViewsRepository viewsRepo;
 	@Autowired
 	private DocumentCollection documentsCollection;
+	@Autowired
+	private ObjectMapper jsonObjectMapper;
 
 	private final ConcurrentHashMap<String, IProcessInstancesRepository> pinstancesRepositoriesByHandlerType = new ConcurrentHashMap<>();
 
@@ -139,7 +143,7 @@ public class ProcessRestController
 	}
 
 	@RequestMapping(value = "/{processId}/layout", method = RequestMethod.GET)
-	public ResponseEntity<JSONProcessLayout> getLayout(
+	public ResponseEntity<byte[]> getLayout(
 			@PathVariable("processId") final String adProcessIdStr,
 			final WebRequest request)
 	{
@@ -149,12 +153,10 @@ public class ProcessRestController
 		final IProcessInstancesRepository instancesRepository = getRepository(processId);
 		final ProcessDescriptor descriptor = instancesRepository.getProcessDescriptor(processId);
 
-		return ETagResponseEntityBuilder.ofETagAware(request, descriptor)
-				.includeLanguageInETag()
+		return SerializedJSONResponseEntityBuilder.of(request, descriptor.getSerializedLayoutsCache(), jsonObjectMapper)
 				.cacheMaxAge(userSession.getHttpCacheMaxAge())
-				.map(ProcessDescriptor::getLayout)
 				.jsonOptions(() -> newJSONOptions())
-				.toJson(JSONProcessLayout::of);
+				.toJson(processId, jsonOpts -> JSONProcessLayout.of(descriptor.getLayout(), jsonOpts));
 	}
 
 	@RequestMapping(value = "/{processId}", method = RequestMethod.POST)
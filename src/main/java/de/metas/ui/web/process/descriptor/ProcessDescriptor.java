@@ -1,7 +1,6 @@
 package de.metas.ui.web.process.descriptor;
 
 import java.util.Optional;
-import java.util.function.Supplier;
 
 import org.adempiere.ad.security.IUserRolePermissions;
 import org.adempiere.exceptions.AdempiereException;
@@ -16,8 +15,7 @@ import de.metas.process.IProcessDefaultParametersProvider;
 import de.metas.process.IProcessPreconditionsContext;
 import de.metas.process.ProcessPreconditionChecker;
 import de.metas.process.ProcessPreconditionsResolution;
-import de.metas.ui.web.cache.ETag;
-import de.metas.ui.web.cache.ETagAware;
+import de.metas.ui.web.cache.SerializedJSONCache;
 import de.metas.ui.web.process.ProcessId;
 import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
 
@@ -43,7 +41,7 @@ import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
  * #L%
  */
 
-public final class ProcessDescriptor implements ETagAware
+public final class ProcessDescriptor
 {
 	private static final Logger logger = LogManager.getLogger(ProcessDescriptor.class);
 
@@ -65,9 +63,8 @@ public final class ProcessDescriptor implements ETagAware
 	private final DocumentEntityDescriptor parametersDescriptor;
 	private final ProcessLayout layout;
 
-	// ETag support
-	private static final Supplier<ETag> nextETagSupplier = ETagAware.newETagGenerator();
-	private final ETag eTag = nextETagSupplier.get();
+	/** serialized layout JSONs; they are dropped together with this descriptor */
+	private final SerializedJSONCache serializedLayoutsCache = SerializedJSONCache.newInstance();
 
 	private ProcessDescriptor(final Builder builder)
 	{
@@ -95,10 +92,9 @@ public final class ProcessDescriptor implements ETagAware
 		return processId;
 	}
 
-	@Override
-	public ETag getETag()
+	public SerializedJSONCache getSerializedLayoutsCache()
 	{
-		return eTag;
+		return serializedLayoutsCache;
 	}
 
 	public ITranslatableString getCaption()
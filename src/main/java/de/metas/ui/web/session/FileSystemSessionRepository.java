@@ -0,0 +1,1094 @@
+package de.metas.ui.web.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.slf4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.session.ExpiringSession;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.events.SessionCreatedEvent;
+import org.springframework.session.events.SessionDeletedEvent;
+import org.springframework.session.events.SessionExpiredEvent;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Session repository which keeps the sessions in memory and also persists them, one binary file per session, in a given directory.
+ * <p>
+ * Sessions are surviving a restart and, if the directory is shared, they can be used by several nodes at the same time.
+ * <p>
+ * Persisting is done "write-behind", by calling {@link #flush()} periodically:
+ * <ul>
+ * <li>if the session attributes were not changed since last write (which is the case for most requests), only the last accessed time is updated in place, in file's header
+ * <li>else the whole file is rewritten
+ * </ul>
+ * Attributes which are not {@link Serializable} are kept only in memory.
+ * <p>
+ * Sharing between nodes: each full write gets a new write ID, which is stored in file's header.
+ * Before writing, while holding the directory lock (see {@link #LOCK_FILENAME}), we check if the write ID from file is still the one we lastly read or wrote.
+ * If not, the session was changed by another node and its changes are merged into ours before writing:
+ * the attributes we changed since we lastly read or wrote the file are kept, all the other ones are taken from file.
+ * The same merge is done when a session is requested and its file was modified meanwhile.
+ * A session deleted by another node (e.g. logout) is not written back.
+ * If two nodes are changing the same attribute at the same time, the last one which writes wins, like it happens with concurrent requests on one node.
+ * <p>
+ * Security: the session files and the directory we create are readable and writable only by the owner (on file systems which support POSIX permissions),
+ * and when reading the attributes back only the classes from {@link ClassLoaderAwareObjectInputStream#ALLOWED_CLASSNAMES} and
+ * {@link ClassLoaderAwareObjectInputStream#ALLOWED_PACKAGE_PREFIXES} are deserialized. Attributes of other classes are skipped.
+ * <p>
+ * File layout: magic (int), lastAccessedTime (long), maxInactiveIntervalInSeconds (int), writeId (long), creationTime (long), id (UTF), attributes count (int),
+ * and for each attribute: name (UTF), value length (int), value (java serialized bytes).
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ *
+ */
+@ToString(of = { "directory", "defaultMaxInactiveInterval" })
+/* package */class FileSystemSessionRepository implements SessionRepository<ExpiringSession>
+{
+	private static final Logger logger = LogManager.getLogger(FileSystemSessionRepository.class);
+
+	private static final int MAGIC = 0x4d465332; // "MFS2"
+	private static final int HEADER_OFFSET_LastAccessedTime = 4;
+	private static final int HEADER_LENGTH = 4 + 8 + 4 + 8; // magic, lastAccessedTime, maxInactiveIntervalInSeconds, writeId
+	private static final String FILE_SUFFIX = ".session";
+	private static final String LOCK_FILENAME = "sessions.lock";
+	private static final Pattern PATTERN_ValidSessionId = Pattern.compile("[A-Za-z0-9_\\-]+");
+	private static final String PERMISSIONS_Directory = "rwx------";
+	private static final String PERMISSIONS_File = "rw-------";
+	private static final int PURGE_BatchSize = 500;
+
+	private final ApplicationEventPublisher applicationEventPublisher;
+	private final Integer defaultMaxInactiveInterval;
+	private final File directory;
+	private final Path lockFile;
+	/** Lock between the threads of this node; {@link FileLock}s are held on behalf of the whole JVM */
+	private final Object directoryLock = new Object();
+
+	private final Map<String, SessionEntry> sessions = new ConcurrentHashMap<>();
+
+	@Builder
+	private FileSystemSessionRepository(
+			@NonNull final ApplicationEventPublisher applicationEventPublisher,
+			@Nullable final Integer defaultMaxInactiveInterval,
+			@NonNull final File directory)
+	{
+		this.applicationEventPublisher = applicationEventPublisher;
+		this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+
+		if (!directory.isDirectory())
+		{
+			try
+			{
+				Files.createDirectories(directory.toPath(), ownerOnlyPermissions(PERMISSIONS_Directory));
+			}
+			catch (final IOException ex)
+			{
+				throw new AdempiereException("Cannot create sessions directory", ex)
+						.setParameter("directory", directory);
+			}
+		}
+		this.directory = directory;
+
+		lockFile = new File(directory, LOCK_FILENAME).toPath();
+		try
+		{
+			if (!Files.exists(lockFile))
+			{
+				Files.createFile(lockFile, ownerOnlyPermissions(PERMISSIONS_File));
+			}
+		}
+		catch (final IOException ex)
+		{
+			// NOTE: another node might have created it meanwhile
+			if (!Files.exists(lockFile))
+			{
+				throw new AdempiereException("Cannot create sessions lock file", ex)
+						.setParameter("lockFile", lockFile);
+			}
+		}
+	}
+
+	private static FileAttribute<?>[] ownerOnlyPermissions(final String permissions)
+	{
+		if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix"))
+		{
+			return new FileAttribute<?>[] {};
+		}
+
+		final Set<PosixFilePermission> posixPermissions = PosixFilePermissions.fromString(permissions);
+		return new FileAttribute<?>[] { PosixFilePermissions.asFileAttribute(posixPermissions) };
+	}
+
+	@FunctionalInterface
+	private interface IOCallable<T>
+	{
+		T call() throws IOException, ClassNotFoundException;
+	}
+
+	/**
+	 * Calls given callable while holding the directory lock, which is shared by all nodes using the same directory.
+	 */
+	private <T> T callInDirectoryLock(final IOCallable<T> callable) throws IOException, ClassNotFoundException
+	{
+		synchronized (directoryLock)
+		{
+			try (final FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE);
+					final FileLock lock = channel.lock())
+			{
+				return callable.call();
+			}
+		}
+	}
+
+	/**
+	 * Writes all pending sessions when the application context is closed.
+	 */
+	@PreDestroy
+	public void flushOnShutdown()
+	{
+		logger.info("Flushing sessions on shutdown");
+		flushNoFail();
+	}
+
+	@Override
+	public void save(final ExpiringSession session)
+	{
+		final SessionEntry entry = sessions.computeIfAbsent(session.getId(), SessionEntry::new);
+		entry.setSessionAndMarkDirty(new MapSession(session));
+	}
+
+	@Override
+	public ExpiringSession getSession(final String id)
+	{
+		final SessionEntry entry = getSessionEntryOrNull(id);
+		if (entry == null)
+		{
+			return null;
+		}
+
+		final MapSession saved = entry.getSession();
+		if (saved.isExpired())
+		{
+			final boolean expired = true;
+			deleteAndFireEvent(id, expired);
+			return null;
+		}
+
+		return new MapSession(saved);
+	}
+
+	private SessionEntry getSessionEntryOrNull(final String id)
+	{
+		// NOTE: the session ID is coming from request (i.e. cookie), so we shall not trust it when building the file path
+		if (id == null || !PATTERN_ValidSessionId.matcher(id).matches())
+		{
+			return null;
+		}
+
+		final File file = getFile(id);
+		final SessionEntry entry = sessions.get(id);
+
+		//
+		// Check if the session was changed or deleted by another node.
+		// NOTE: we are trusting our in memory version if it was not written yet
+		if (entry != null)
+		{
+			if (!entry.isWritten())
+			{
+				return entry;
+			}
+
+			final long fileLastModified = file.lastModified(); // 0 if file does not exist
+			if (fileLastModified == entry.getFileLastModified())
+			{
+				return entry;
+			}
+			else if (fileLastModified == 0)
+			{
+				logger.debug("Session file was deleted by somebody else. Forgetting session: {}", id);
+				sessions.remove(id);
+				return null;
+			}
+
+			try
+			{
+				synchronized (entry)
+				{
+					callInDirectoryLock(() -> mergeFromFileIfChanged(entry, file));
+				}
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed merging session {} from {}. Using the in memory version.", id, file, ex);
+			}
+			return entry;
+		}
+
+		//
+		// Load it from file
+		if (!file.exists())
+		{
+			return null;
+		}
+
+		try
+		{
+			final SessionEntry loadedEntry = new SessionEntry(id);
+			loadedEntry.setLoaded(readSessionFile(file));
+			sessions.put(id, loadedEntry);
+			return loadedEntry;
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed loading session from {}. Considering it missing.", file, ex);
+			return null;
+		}
+	}
+
+	@Override
+	public void delete(final String id)
+	{
+		final boolean expired = false;
+		deleteAndFireEvent(id, expired);
+	}
+
+	private void deleteAndFireEvent(final String id, final boolean expired)
+	{
+		final SessionEntry deletedEntry = sessions.remove(id);
+		final boolean fileDeleted = PATTERN_ValidSessionId.matcher(id).matches() && getFile(id).delete();
+
+		// Fire event
+		if (deletedEntry != null || fileDeleted)
+		{
+			if (expired)
+			{
+				applicationEventPublisher.publishEvent(new SessionExpiredEvent(this, id));
+			}
+			else
+			{
+				applicationEventPublisher.publishEvent(new SessionDeletedEvent(this, id));
+			}
+		}
+	}
+
+	@Override
+	public ExpiringSession createSession()
+	{
+		final ExpiringSession result = new MapSession();
+		if (defaultMaxInactiveInterval != null)
+		{
+			result.setMaxInactiveIntervalInSeconds(defaultMaxInactiveInterval);
+		}
+
+		// Fire event
+		applicationEventPublisher.publishEvent(new SessionCreatedEvent(this, result.getId()));
+
+		return result;
+	}
+
+	private File getFile(final String sessionId)
+	{
+		return new File(directory, sessionId + FILE_SUFFIX);
+	}
+
+	public void flushNoFail()
+	{
+		try
+		{
+			flush();
+		}
+		catch (final Throwable ex)
+		{
+			logger.warn("Failed flushing sessions. Ignored.", ex);
+		}
+	}
+
+	private enum WriteResult
+	{
+		NOTHING, FULL_WRITE, HEADER_WRITE, DELETED_BY_OTHER_NODE
+	}
+
+	/**
+	 * Writes all sessions which were saved since last flush.
+	 */
+	public void flush()
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		int countFullWrites = 0;
+		int countHeaderWrites = 0;
+
+		for (final SessionEntry entry : new ArrayList<>(sessions.values()))
+		{
+			if (!entry.isDirty())
+			{
+				continue;
+			}
+
+			try
+			{
+				final WriteResult result = writeSessionIfDirty(entry);
+				if (result == WriteResult.FULL_WRITE)
+				{
+					countFullWrites++;
+				}
+				else if (result == WriteResult.HEADER_WRITE)
+				{
+					countHeaderWrites++;
+				}
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed writing session {}. Will retry later.", entry.getSessionId(), ex);
+			}
+		}
+
+		logger.debug("Flushed sessions in {}: {} full writes, {} last accessed time updates", stopwatch, countFullWrites, countHeaderWrites);
+	}
+
+	private WriteResult writeSessionIfDirty(final SessionEntry entry) throws IOException, ClassNotFoundException
+	{
+		// NOTE: we hold the entry lock while writing, so no request can save the session in the meantime
+		synchronized (entry)
+		{
+			if (!entry.clearDirtyFlag())
+			{
+				return WriteResult.NOTHING;
+			}
+
+			try
+			{
+				final WriteResult result = callInDirectoryLock(() -> writeSession(entry));
+				if (result == WriteResult.DELETED_BY_OTHER_NODE)
+				{
+					logger.debug("Session file was deleted by somebody else. Forgetting session: {}", entry.getSessionId());
+					sessions.remove(entry.getSessionId(), entry);
+				}
+				return result;
+			}
+			catch (final IOException | ClassNotFoundException | RuntimeException ex)
+			{
+				entry.markDirty(); // retry next time
+				throw ex;
+			}
+		}
+	}
+
+	/**
+	 * Writes the session. Shall be called while holding the entry lock and the directory lock.
+	 */
+	private WriteResult writeSession(final SessionEntry entry) throws IOException, ClassNotFoundException
+	{
+		final File file = getFile(entry.getSessionId());
+
+		//
+		// Check if the session was changed or deleted by another node since we lastly read or wrote it
+		FileHeader fileHeader = null;
+		if (entry.isWritten())
+		{
+			fileHeader = readFileHeaderOrNull(file);
+			if (fileHeader == null)
+			{
+				return WriteResult.DELETED_BY_OTHER_NODE;
+			}
+			if (fileHeader.getWriteId() != entry.getWriteId())
+			{
+				mergeFromFile(entry, readSessionFile(file));
+				fileHeader = null; // we have the content from file now
+			}
+		}
+
+		final MapSession session = entry.getSession();
+		final Map<String, byte[]> attributeBytes = serializeAttributes(session);
+		final byte[] attributesBytes = toAttributesBytes(attributeBytes);
+		final HashCode attributesHash = Hashing.murmur3_128().hashBytes(attributesBytes);
+
+		//
+		// Attributes not changed => update only the header
+		if (entry.isWritten() && attributesHash.equals(entry.getWrittenAttributesHash()))
+		{
+			final long lastAccessedTime = fileHeader != null ? Math.max(session.getLastAccessedTime(), fileHeader.getLastAccessedTime()) : session.getLastAccessedTime();
+			try (final RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+			{
+				raf.seek(HEADER_OFFSET_LastAccessedTime);
+				raf.writeLong(lastAccessedTime);
+				raf.writeInt(session.getMaxInactiveIntervalInSeconds());
+			}
+			entry.setFileLastModified(file.lastModified());
+			return WriteResult.HEADER_WRITE;
+		}
+
+		//
+		// Rewrite the whole file
+		final long writeId = ThreadLocalRandom.current().nextLong();
+		final Path tempFile = new File(directory, session.getId() + FILE_SUFFIX + ".tmp").toPath();
+		Files.deleteIfExists(tempFile);
+		Files.createFile(tempFile, ownerOnlyPermissions(PERMISSIONS_File));
+		try (final DataOutputStream out = new DataOutputStream(Files.newOutputStream(tempFile)))
+		{
+			out.writeInt(MAGIC);
+			out.writeLong(session.getLastAccessedTime());
+			out.writeInt(session.getMaxInactiveIntervalInSeconds());
+			out.writeLong(writeId);
+			out.writeLong(session.getCreationTime());
+			out.writeUTF(session.getId());
+			out.write(attributesBytes);
+		}
+		Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		entry.setWritten(writeId, attributesHash, toHashes(attributeBytes), file.lastModified());
+		return WriteResult.FULL_WRITE;
+	}
+
+	/**
+	 * Merges the session from file into given entry, if it was changed by another node. Shall be called while holding the entry lock and the directory lock.
+	 */
+	private Void mergeFromFileIfChanged(final SessionEntry entry, final File file) throws IOException, ClassNotFoundException
+	{
+		final FileHeader fileHeader = readFileHeaderOrNull(file);
+		if (fileHeader == null)
+		{
+			return null; // deleted meanwhile; it will be forgotten on next access or write
+		}
+		if (fileHeader.getWriteId() == entry.getWriteId())
+		{
+			// only the last accessed time was updated
+			entry.getSession().setLastAccessedTime(Math.max(entry.getSession().getLastAccessedTime(), fileHeader.getLastAccessedTime()));
+			entry.setFileLastModified(file.lastModified());
+			return null;
+		}
+
+		mergeFromFile(entry, readSessionFile(file));
+		return null;
+	}
+
+	/**
+	 * Merges the session written by another node into given entry.
+	 * <p>
+	 * The attributes which were changed by us since we lastly read or wrote the file are kept. All the other ones are taken from file.
+	 * The attributes which are not serializable are kept, because they are known only by us.
+	 */
+	private static void mergeFromFile(final SessionEntry entry, final SessionFileContent fileContent) throws IOException
+	{
+		final MapSession ours = entry.getSession();
+		final MapSession theirs = fileContent.getSession();
+		final Map<String, HashCode> ourHashes = toHashes(serializeAttributes(ours));
+		final Map<String, HashCode> baseHashes = entry.getWrittenAttributeHashes();
+		final Map<String, HashCode> theirHashes = fileContent.getAttributeHashes();
+
+		final MapSession merged = new MapSession(ours);
+		merged.setLastAccessedTime(Math.max(ours.getLastAccessedTime(), theirs.getLastAccessedTime()));
+
+		final Set<String> attributeNames = new LinkedHashSet<>();
+		attributeNames.addAll(ours.getAttributeNames());
+		attributeNames.addAll(baseHashes.keySet());
+		attributeNames.addAll(theirHashes.keySet());
+
+		final Map<String, Object> replacedValues = new HashMap<>();
+		for (final String attributeName : attributeNames)
+		{
+			final Object ourValue = ours.getAttribute(attributeName);
+			final HashCode ourHash = ourHashes.get(attributeName);
+			if (ourValue != null && ourHash == null)
+			{
+				continue; // not serializable, known only by us
+			}
+			if (!Objects.equals(ourHash, baseHashes.get(attributeName)))
+			{
+				continue; // changed by us
+			}
+			if (Objects.equals(ourHash, theirHashes.get(attributeName)))
+			{
+				continue; // same value
+			}
+
+			final Object theirValue = theirs.getAttribute(attributeName);
+			replacedValues.put(attributeName, ourValue != null ? ourValue : SessionEntry.NO_VALUE);
+			if (theirValue != null)
+			{
+				merged.setAttribute(attributeName, theirValue);
+			}
+			else
+			{
+				merged.removeAttribute(attributeName);
+			}
+		}
+
+		logger.debug("Merged session {} changed by another node. Attributes taken from file: {}", entry.getSessionId(), replacedValues.keySet());
+		entry.setMerged(merged, replacedValues, fileContent);
+	}
+
+	private static FileHeader readFileHeaderOrNull(final File file) throws IOException
+	{
+		final byte[] headerBytes = new byte[HEADER_LENGTH];
+		try (final DataInputStream in = new DataInputStream(Files.newInputStream(file.toPath())))
+		{
+			in.readFully(headerBytes);
+		}
+		catch (final NoSuchFileException ex)
+		{
+			return null;
+		}
+
+		final DataInputStream header = new DataInputStream(new ByteArrayInputStream(headerBytes));
+		if (header.readInt() != MAGIC)
+		{
+			throw new IOException("Invalid session file: " + file);
+		}
+		final long lastAccessedTime = header.readLong();
+		final int maxInactiveIntervalInSeconds = header.readInt();
+		final long writeId = header.readLong();
+		return new FileHeader(lastAccessedTime, maxInactiveIntervalInSeconds, writeId);
+	}
+
+	/** @return serialized attribute values, sorted by name; the attributes which are not serializable are skipped */
+	private static Map<String, byte[]> serializeAttributes(final MapSession session) throws IOException
+	{
+		final List<String> attributeNames = new ArrayList<>(session.getAttributeNames());
+		attributeNames.sort(null); // stable order, so the bytes (and their hash) are the same if the attributes did not change
+
+		final Map<String, byte[]> attributeBytes = new LinkedHashMap<>(attributeNames.size());
+		for (final String attributeName : attributeNames)
+		{
+			final Object attributeValue = session.getAttribute(attributeName);
+			try
+			{
+				attributeBytes.put(attributeName, serializeValue(attributeValue));
+			}
+			catch (final NotSerializableException ex)
+			{
+				logger.debug("Skip persisting session attribute {} because it's not serializable: {}", attributeName, ex.getLocalizedMessage());
+			}
+		}
+		return attributeBytes;
+	}
+
+	private static byte[] toAttributesBytes(final Map<String, byte[]> attributeBytes) throws IOException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeInt(attributeBytes.size());
+		for (final Map.Entry<String, byte[]> attribute : attributeBytes.entrySet())
+		{
+			final byte[] valueBytes = attribute.getValue();
+			out.writeUTF(attribute.getKey());
+			out.writeInt(valueBytes.length);
+			out.write(valueBytes);
+		}
+
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static ImmutableMap<String, HashCode> toHashes(final Map<String, byte[]> attributeBytes)
+	{
+		final ImmutableMap.Builder<String, HashCode> hashes = ImmutableMap.builder();
+		attributeBytes.forEach((attributeName, valueBytes) -> hashes.put(attributeName, Hashing.murmur3_128().hashBytes(valueBytes)));
+		return hashes.build();
+	}
+
+	private static byte[] serializeValue(final Object value) throws IOException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(value);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static SessionFileContent readSessionFile(final File file) throws IOException, ClassNotFoundException
+	{
+		final long fileLastModified = file.lastModified();
+		final byte[] fileBytes = Files.readAllBytes(file.toPath());
+
+		final MapSession session = new MapSession();
+		final long writeId;
+		final int attributesOffset;
+		final ImmutableMap.Builder<String, HashCode> attributeHashes = ImmutableMap.builder();
+		try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(fileBytes)))
+		{
+			final int magic = in.readInt();
+			if (magic != MAGIC)
+			{
+				throw new IOException("Invalid session file: " + file);
+			}
+			session.setLastAccessedTime(in.readLong());
+			session.setMaxInactiveIntervalInSeconds(in.readInt());
+			writeId = in.readLong();
+			session.setCreationTime(in.readLong());
+			session.setId(in.readUTF());
+
+			attributesOffset = fileBytes.length - in.available();
+
+			final int attributesCount = in.readInt();
+			for (int i = 0; i < attributesCount; i++)
+			{
+				final String attributeName = in.readUTF();
+				final byte[] valueBytes = new byte[in.readInt()];
+				in.readFully(valueBytes);
+				attributeHashes.put(attributeName, Hashing.murmur3_128().hashBytes(valueBytes));
+				try
+				{
+					session.setAttribute(attributeName, deserializeValue(valueBytes));
+				}
+				catch (final InvalidClassException ex)
+				{
+					logger.warn("Skip loading session attribute {} from {} because it's not allowed: {}", attributeName, file, ex.getLocalizedMessage());
+				}
+			}
+		}
+
+		final HashCode attributesHash = Hashing.murmur3_128().hashBytes(fileBytes, attributesOffset, fileBytes.length - attributesOffset);
+		return new SessionFileContent(session, writeId, attributesHash, attributeHashes.build(), fileLastModified);
+	}
+
+	private static Object deserializeValue(final byte[] valueBytes) throws IOException, ClassNotFoundException
+	{
+		try (final ObjectInputStream in = new ClassLoaderAwareObjectInputStream(new ByteArrayInputStream(valueBytes)))
+		{
+			return in.readObject();
+		}
+	}
+
+	public void purgeExpiredSessionsNoFail()
+	{
+		try
+		{
+			purgeExpiredSessions();
+		}
+		catch (final Throwable ex)
+		{
+			logger.warn("Failed purging expired sessions. Ignored.", ex);
+		}
+	}
+
+	/**
+	 * Deletes the expired sessions, including the ones which are only persisted (e.g. created by another node or before restart).
+	 * <p>
+	 * The session files are iterated lazily and the expired ones are deleted in batches of {@value #PURGE_BatchSize},
+	 * so we never hold the whole directory listing in memory.
+	 * Only the file headers are read, and not even those for the sessions we have in memory and which were not changed by another node.
+	 */
+	public void purgeExpiredSessions()
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final long now = System.currentTimeMillis();
+
+		int countFiles = 0;
+		int countExpired = 0;
+		final List<String> expiredSessionIds = new ArrayList<>(PURGE_BatchSize);
+		try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory.toPath(), "*" + FILE_SUFFIX))
+		{
+			for (final Path file : files)
+			{
+				countFiles++;
+
+				final String filename = file.getFileName().toString();
+				final String sessionId = filename.substring(0, filename.length() - FILE_SUFFIX.length());
+				if (isExpired(sessionId, file.toFile(), now))
+				{
+					expiredSessionIds.add(sessionId);
+				}
+
+				if (expiredSessionIds.size() >= PURGE_BatchSize)
+				{
+					countExpired += deleteExpiredSessions(expiredSessionIds);
+				}
+			}
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed listing the session files", ex)
+					.setParameter("directory", directory);
+		}
+		countExpired += deleteExpiredSessions(expiredSessionIds);
+
+		// Sessions which were not persisted yet
+		for (final SessionEntry entry : new ArrayList<>(sessions.values()))
+		{
+			if (!entry.isWritten() && entry.getSession().isExpired())
+			{
+				expiredSessionIds.add(entry.getSessionId());
+			}
+		}
+		countExpired += deleteExpiredSessions(expiredSessionIds);
+
+		logger.debug("Purged {}/{} expired sessions in {}", countExpired, countFiles, stopwatch);
+	}
+
+	/** Deletes given sessions and clears the list */
+	private int deleteExpiredSessions(final List<String> expiredSessionIds)
+	{
+		final int count = expiredSessionIds.size();
+		expiredSessionIds.forEach(sessionId -> deleteAndFireEvent(sessionId, true /* expired */));
+		expiredSessionIds.clear();
+		return count;
+	}
+
+	private boolean isExpired(final String sessionId, final File file, final long now)
+	{
+		// Our in memory version is newer or the same as the file
+		final SessionEntry entry = sessions.get(sessionId);
+		if (entry != null && (entry.isDirty() || file.lastModified() == entry.getFileLastModified()))
+		{
+			return entry.getSession().isExpired();
+		}
+
+		try (final InputStream in = Files.newInputStream(file.toPath()))
+		{
+			final byte[] headerBytes = new byte[HEADER_LENGTH];
+			final DataInputStream headerIn = new DataInputStream(in);
+			headerIn.readFully(headerBytes);
+
+			final DataInputStream header = new DataInputStream(new ByteArrayInputStream(headerBytes));
+			if (header.readInt() != MAGIC)
+			{
+				logger.warn("Invalid session file {}. Considering it expired.", file);
+				return true;
+			}
+			final long lastAccessedTime = header.readLong();
+			final int maxInactiveIntervalInSeconds = header.readInt();
+			return maxInactiveIntervalInSeconds >= 0 && now - maxInactiveIntervalInSeconds * 1000L >= lastAccessedTime;
+		}
+		catch (final NoSuchFileException ex)
+		{
+			return false; // deleted meanwhile
+		}
+		catch (final IOException ex)
+		{
+			logger.warn("Failed reading session file header {}. Considering it expired.", file, ex);
+			return true;
+		}
+	}
+
+	@Value
+	private static final class FileHeader
+	{
+		private final long lastAccessedTime;
+		private final int maxInactiveIntervalInSeconds;
+		private final long writeId;
+	}
+
+	@Value
+	private static final class SessionFileContent
+	{
+		private final MapSession session;
+		private final long writeId;
+		private final HashCode attributesHash;
+		private final ImmutableMap<String, HashCode> attributeHashes;
+		private final long fileLastModified;
+	}
+
+	private static final class SessionEntry
+	{
+		/** Marker for "attribute was not set" in {@link #replacedByMerge} */
+		private static final Object NO_VALUE = new Object();
+
+		private final String sessionId;
+		private volatile MapSession session;
+		private volatile boolean dirty;
+
+		private volatile long writeId;
+		private volatile HashCode writtenAttributesHash;
+		private volatile ImmutableMap<String, HashCode> writtenAttributeHashes = ImmutableMap.of();
+		private volatile long fileLastModified;
+
+		/** Our previous values of the attributes which were lastly taken from another node's version of this session */
+		private Map<String, Object> replacedByMerge = ImmutableMap.of();
+
+		private SessionEntry(final String sessionId)
+		{
+			this.sessionId = sessionId;
+		}
+
+		public String getSessionId()
+		{
+			return sessionId;
+		}
+
+		public MapSession getSession()
+		{
+			return session;
+		}
+
+		/**
+		 * Sets the session saved by a request.
+		 * <p>
+		 * If the request got its session before we merged the changes of another node, it still has our previous values of the merged attributes.
+		 * Those values are not considered changed by the request, so the merged values are kept.
+		 */
+		public synchronized void setSessionAndMarkDirty(final MapSession newSession)
+		{
+			final MapSession currentSession = this.session;
+			if (currentSession != null)
+			{
+				for (final Map.Entry<String, Object> replaced : replacedByMerge.entrySet())
+				{
+					final String attributeName = replaced.getKey();
+					final Object previousValue = replaced.getValue() != NO_VALUE ? replaced.getValue() : null;
+					final Object requestValue = newSession.getAttribute(attributeName);
+					if (requestValue != previousValue)
+					{
+						continue; // changed by the request
+					}
+
+					final Object currentValue = currentSession.getAttribute(attributeName);
+					if (currentValue != null)
+					{
+						newSession.setAttribute(attributeName, currentValue);
+					}
+					else
+					{
+						newSession.removeAttribute(attributeName);
+					}
+				}
+			}
+
+			this.session = newSession;
+			this.dirty = true;
+		}
+
+		public synchronized void setLoaded(final SessionFileContent fileContent)
+		{
+			this.session = fileContent.getSession();
+			setWritten(fileContent.getWriteId(), fileContent.getAttributesHash(), fileContent.getAttributeHashes(), fileContent.getFileLastModified());
+		}
+
+		public synchronized void setMerged(final MapSession mergedSession, final Map<String, Object> replacedValues, final SessionFileContent fileContent)
+		{
+			this.session = mergedSession;
+			this.replacedByMerge = replacedValues;
+			setWritten(fileContent.getWriteId(), fileContent.getAttributesHash(), fileContent.getAttributeHashes(), fileContent.getFileLastModified());
+		}
+
+		public synchronized void markDirty()
+		{
+			this.dirty = true;
+		}
+
+		public boolean isDirty()
+		{
+			return dirty;
+		}
+
+		/** @return true if it was dirty */
+		public synchronized boolean clearDirtyFlag()
+		{
+			if (!dirty)
+			{
+				return false;
+			}
+			dirty = false;
+			return true;
+		}
+
+		public void setWritten(final long writeId, final HashCode writtenAttributesHash, final ImmutableMap<String, HashCode> writtenAttributeHashes, final long fileLastModified)
+		{
+			this.writeId = writeId;
+			this.writtenAttributesHash = writtenAttributesHash;
+			this.writtenAttributeHashes = writtenAttributeHashes;
+			this.fileLastModified = fileLastModified;
+		}
+
+		public void setFileLastModified(final long fileLastModified)
+		{
+			this.fileLastModified = fileLastModified;
+		}
+
+		public boolean isWritten()
+		{
+			return writtenAttributesHash != null;
+		}
+
+		public long getWriteId()
+		{
+			return writeId;
+		}
+
+		public HashCode getWrittenAttributesHash()
+		{
+			return writtenAttributesHash;
+		}
+
+		public ImmutableMap<String, HashCode> getWrittenAttributeHashes()
+		{
+			return writtenAttributeHashes;
+		}
+
+		public long getFileLastModified()
+		{
+			return fileLastModified;
+		}
+	}
+
+	/**
+	 * Resolves the classes using the class loader of this class (and not the "latest user defined" one), which is required when running from the spring boot executable jar.
+	 * <p>
+	 * Only the classes which can be found in our session attributes are allowed, because the session files could be tampered with.
+	 */
+	@VisibleForTesting
+	static final class ClassLoaderAwareObjectInputStream extends ObjectInputStream
+	{
+		/** Classes which can be referenced by our session attributes (e.g. {@link InternalUserSessionData}) */
+		static final ImmutableSet<String> ALLOWED_CLASSNAMES = ImmutableSet.of(
+				"java.lang.String",
+				"java.lang.Boolean",
+				"java.lang.Character",
+				"java.lang.Number",
+				"java.lang.Byte",
+				"java.lang.Short",
+				"java.lang.Integer",
+				"java.lang.Long",
+				"java.lang.Float",
+				"java.lang.Double",
+				"java.lang.Enum",
+				"java.math.BigDecimal",
+				"java.math.BigInteger",
+				"java.util.Locale",
+				"java.util.Hashtable",
+				"java.util.Properties",
+				"java.util.HashMap",
+				"java.util.LinkedHashMap",
+				"java.util.ArrayList",
+				"java.util.HashSet",
+				"java.util.LinkedHashSet",
+				"java.util.Date",
+				"java.sql.Timestamp");
+
+		/** Packages of our session attributes (e.g. {@link InternalUserSessionData} and its UserPreference) */
+		static final ImmutableSet<String> ALLOWED_PACKAGE_PREFIXES = ImmutableSet.of(
+				"de.metas.ui.web.");
+
+		public ClassLoaderAwareObjectInputStream(final InputStream in) throws IOException
+		{
+			super(in);
+		}
+
+		static boolean isAllowedClassName(final String className)
+		{
+			// Arrays: check the component type (e.g. "[B", "[Ljava.lang.String;")
+			String componentClassName = className;
+			while (componentClassName.startsWith("["))
+			{
+				componentClassName = componentClassName.substring(1);
+			}
+			if (componentClassName.length() == 1)
+			{
+				return className.length() > 1; // primitive arrays
+			}
+			if (componentClassName.length() != className.length())
+			{
+				if (!componentClassName.startsWith("L") || !componentClassName.endsWith(";"))
+				{
+					return false;
+				}
+				componentClassName = componentClassName.substring(1, componentClassName.length() - 1);
+			}
+
+			if (ALLOWED_CLASSNAMES.contains(componentClassName))
+			{
+				return true;
+			}
+			return ALLOWED_PACKAGE_PREFIXES.stream().anyMatch(componentClassName::startsWith);
+		}
+
+		@Override
+		protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException
+		{
+			if (!isAllowedClassName(desc.getName()))
+			{
+				throw new InvalidClassException(desc.getName(), "Class not allowed in session attributes");
+			}
+
+			try
+			{
+				return Class.forName(desc.getName(), false, FileSystemSessionRepository.class.getClassLoader());
+			}
+			catch (final ClassNotFoundException ex)
+			{
+				return super.resolveClass(desc);
+			}
+		}
+
+		@Override
+		protected Class<?> resolveProxyClass(final String[] interfaces) throws IOException, ClassNotFoundException
+		{
+			throw new InvalidClassException("Proxy classes are not allowed in session attributes");
+		}
+	}
+}
@@ -1,9 +1,11 @@
 package de.metas.ui.web.session;
 
+import java.io.File;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.adempiere.util.Check;
 import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
@@ -52,30 +54,73 @@ public class SessionConfig
 	@Value("${metasfresh.session.checkExpiredSessionsRateInMinutes:10}")
 	private int checkExpiredSessionsRateInMinutes;
 
+	/** If set, the sessions will be persisted in this directory (see {@link FileSystemSessionRepository}) */
+	@Value("${metasfresh.session.store.directory:}")
+	private String sessionStoreDirectory;
+
+	@Value("${metasfresh.session.store.writeBehindRateInSeconds:5}")
+	private int sessionStoreWriteBehindRateInSeconds;
+
 	@Bean
 	public SessionRepository<ExpiringSession> sessionRepository(
 			final SessionProperties properties,
 			final ApplicationEventPublisher applicationEventPublisher)
 	{
+		if (!Check.isEmpty(sessionStoreDirectory, true))
+		{
+			return createFileSystemSessionRepository(properties, applicationEventPublisher);
+		}
+
 		final FixedMapSessionRepository sessionRepository = FixedMapSessionRepository.builder()
 				.applicationEventPublisher(applicationEventPublisher)
 				.defaultMaxInactiveInterval(properties.getTimeout())
 				.build();
 		logger.info("Using session repository: {}", sessionRepository);
 
+		schedulePurgeExpiredSessions(sessionRepository::purgeExpiredSessionsNoFail);
+
+		return sessionRepository;
+	}
+
+	private SessionRepository<ExpiringSession> createFileSystemSessionRepository(
+			final SessionProperties properties,
+			final ApplicationEventPublisher applicationEventPublisher)
+	{
+		final FileSystemSessionRepository sessionRepository = FileSystemSessionRepository.builder()
+				.applicationEventPublisher(applicationEventPublisher)
+				.defaultMaxInactiveInterval(properties.getTimeout())
+				.directory(new File(sessionStoreDirectory.trim()))
+				.build();
+		logger.info("Using session repository: {}", sessionRepository);
+
+		final int writeBehindRateInSeconds = sessionStoreWriteBehindRateInSeconds > 0 ? sessionStoreWriteBehindRateInSeconds : 1;
+		sessionScheduledExecutorService().scheduleWithFixedDelay(
+				sessionRepository::flushNoFail, // command, don't fail because on failure the task won't be re-scheduled
+				writeBehindRateInSeconds, // initialDelay
+				writeBehindRateInSeconds, // delay
+				TimeUnit.SECONDS // timeUnit
+		);
+		// NOTE: on shutdown the sessions are flushed by the application context (see FileSystemSessionRepository#flushOnShutdown)
+		logger.info("Flushing sessions each {} seconds", writeBehindRateInSeconds);
+
+		schedulePurgeExpiredSessions(sessionRepository::purgeExpiredSessionsNoFail);
+
+		return sessionRepository;
+	}
+
+	private void schedulePurgeExpiredSessions(final Runnable purgeExpiredSessionsCommand)
+	{
 		if (checkExpiredSessionsRateInMinutes > 0)
 		{
 			final ScheduledExecutorService scheduledExecutor = sessionScheduledExecutorService();
 			scheduledExecutor.scheduleAtFixedRate(
-					sessionRepository::purgeExpiredSessionsNoFail, // command, don't fail because on failure the task won't be re-scheduled so it's game over
+					purgeExpiredSessionsCommand, // command, don't fail because on failure the task won't be re-scheduled so it's game over
 					checkExpiredSessionsRateInMinutes, // initialDelay
 					checkExpiredSessionsRateInMinutes, // period
 					TimeUnit.MINUTES // timeUnit
 			);
 			logger.info("Checking expired sessions each {} minutes", checkExpiredSessionsRateInMinutes);
 		}
-
-		return sessionRepository;
 	}
 
 	@Bean(BEANNAME_SessionScheduledExecutorService)
@@ -13,6 +13,7 @@ import org.adempiere.util.Check;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.util.Evaluatee;
 
+import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -31,7 +32,6 @@ import de.metas.ui.web.window.datatypes.DocumentPath;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.json.JSONDocumentChangedEvent;
 import de.metas.ui.web.window.model.DocumentQueryOrderBy;
-import de.metas.ui.web.window.model.DocumentQueryOrderBys;
 import de.metas.ui.web.window.model.sql.SqlOptions;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -77,6 +77,9 @@ public abstract class AbstractCustomView<T extends IViewRow> implements IView
 
 	private final DocumentFilterDescriptorsProvider viewFilterDescriptors;
 
+	/** Top level row IDs sorted by orderBys, built lazily for the current top level rows */
+	private final ViewRowsSortedIndexes sortedIndexes = new ViewRowsSortedIndexes();
+
 	/**
 	 *
 	 * @param viewId
@@ -136,6 +139,7 @@ public abstract class AbstractCustomView<T extends IViewRow> implements IView
 	public void invalidateAll()
 	{
 		rowsData.invalidateAll();
+		sortedIndexes.clear();
 		ViewChangesCollector
 				.getCurrentOrAutoflush()
 				.collectFullyChanged(this);
@@ -226,20 +230,29 @@ public abstract class AbstractCustomView<T extends IViewRow> implements IView
 
 	/**
 	 * Simple in-memory implementation with paging and ordering.
+	 * <p>
+	 * The sorted row IDs are kept for each <code>orderBys</code> list, as long as the top level rows are not changed.
 	 */
 	@Override
 	public final ViewResult getPage(final int firstRow, final int pageLength, @NonNull final List<DocumentQueryOrderBy> orderBys)
 	{
-		final List<IViewRow> pageRows = getRows()
+		final Map<DocumentId, T> rowsById = rowsData.getDocumentId2AllRows();
+		final List<IViewRow> pageRows = getSortedIndex(orderBys)
+				.getPage(firstRow >= 0 ? firstRow : 0, pageLength > 0 ? pageLength : 30)
 				.stream()
-				.sorted(DocumentQueryOrderBys.asComparator(orderBys))
-				.skip(firstRow >= 0 ? firstRow : 0)
-				.limit(pageLength > 0 ? pageLength : 30)
+				.map(rowsById::get)
+				.filter(Predicates.notNull())
 				.collect(ImmutableList.toImmutableList());
 
 		return ViewResult.ofViewAndPage(this, firstRow, pageLength, orderBys, pageRows);
 	}
 
+	private ViewRowsSortedIndex getSortedIndex(final List<DocumentQueryOrderBy> orderBys)
+	{
+		// NOTE: rows data implementations which are not caching their rows will return a new collection each time, so the index is rebuilt each time.
+		return sortedIndexes.getSortedIndex(getRows(), orderBys);
+	}
+
 	@Override
 	public final T getById(@NonNull final DocumentId rowId) throws EntityNotFoundException
 	{
@@ -277,10 +290,11 @@ public abstract class AbstractCustomView<T extends IViewRow> implements IView
 			return; // nothing to do
 		}
 
-		rowsData.invalidateAll();
+		final DocumentIdsSelection affectedRowIdsSelection = DocumentIdsSelection.of(affectedRowIds);
+		rowsData.invalidate(affectedRowIdsSelection);
 		ViewChangesCollector
 				.getCurrentOrAutoflush()
-				.collectRowsChanged(this, DocumentIdsSelection.of(affectedRowIds));
+				.collectRowsChanged(this, affectedRowIdsSelection);
 	}
 
 	protected boolean isEligibleInvalidateEvent(final TableRecordReference recordRef)
@@ -346,6 +360,18 @@ public abstract class AbstractCustomView<T extends IViewRow> implements IView
 
 		void invalidateAll();
 
+		/**
+		 * Invalidates given rows (top level or included rows).
+		 * <p>
+		 * The default implementation invalidates all rows. Implementations which can reload only the affected rows shall override it.
+		 *
+		 * @see AbstractIndexedRowsData
+		 */
+		default void invalidate(@NonNull final DocumentIdsSelection rowIds)
+		{
+			invalidateAll();
+		}
+
 		default int size()
 		{
 			return getDocumentId2TopLevelRows().size();
@@ -0,0 +1,328 @@
+package de.metas.ui.web.view;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Sets;
+
+import de.metas.ui.web.exceptions.EntityNotFoundException;
+import de.metas.ui.web.view.AbstractCustomView.IRowsData;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * {@link IRowsData} base implementation which loads the rows lazily and keeps them indexed by row ID (top level and included rows) and by {@link TableRecordReference}.
+ * <p>
+ * When only some rows are invalidated (see {@link #invalidate(DocumentIdsSelection)}), only those top level rows are reloaded, on next access,
+ * using {@link #retrieveRowsByIdsOrNull(DocumentIdsSelection)}. If the implementation does not support that, all rows will be reloaded.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ *
+ * @param <T> row type
+ */
+public abstract class AbstractIndexedRowsData<T extends IViewRow> implements IRowsData<T>
+{
+	private volatile RowsIndex<T> _index; // lazy; null means "reload all"
+	private final Set<DocumentId> staleTopLevelRowIds = Sets.newConcurrentHashSet();
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.omitNullValues()
+				.add("index", _index)
+				.add("staleTopLevelRowIds", staleTopLevelRowIds.isEmpty() ? null : staleTopLevelRowIds)
+				.toString();
+	}
+
+	/** @return all top level rows, in the order they shall be displayed */
+	protected abstract List<T> retrieveAllRows();
+
+	/**
+	 * Retrieves the current version of given top level rows. Rows which no longer exist shall not be returned.
+	 *
+	 * @return rows or {@code null} if this rows data does not support reloading only some rows, in which case all rows will be reloaded.
+	 */
+	@Nullable
+	protected List<T> retrieveRowsByIdsOrNull(@NonNull final DocumentIdsSelection topLevelRowIds)
+	{
+		return null;
+	}
+
+	/**
+	 * @return the records which were used to build the given row (top level or included row); the included rows are not considered.
+	 */
+	protected Stream<TableRecordReference> extractRecordRefs(@NonNull final T row)
+	{
+		return Stream.empty();
+	}
+
+	private RowsIndex<T> getIndex()
+	{
+		final RowsIndex<T> index = _index;
+		if (index != null && staleTopLevelRowIds.isEmpty())
+		{
+			return index;
+		}
+
+		synchronized (this)
+		{
+			if (_index == null)
+			{
+				staleTopLevelRowIds.clear();
+				_index = RowsIndex.of(retrieveAllRows(), this::extractRecordRefs);
+			}
+			else if (!staleTopLevelRowIds.isEmpty())
+			{
+				final DocumentIdsSelection rowIdsToReload = DocumentIdsSelection.of(ImmutableSet.copyOf(staleTopLevelRowIds));
+
+				final List<T> reloadedRows = retrieveRowsByIdsOrNull(rowIdsToReload);
+				_index = reloadedRows != null
+						? _index.replacingTopLevelRows(rowIdsToReload.toSet(), reloadedRows, this::extractRecordRefs)
+						: RowsIndex.of(retrieveAllRows(), this::extractRecordRefs);
+
+				// NOTE: mark the rows as not stale only after they were reloaded, so in case of failure they will be reloaded on next access
+				staleTopLevelRowIds.removeAll(rowIdsToReload.toSet());
+			}
+
+			return _index;
+		}
+	}
+
+	@Override
+	public final void invalidateAll()
+	{
+		synchronized (this)
+		{
+			_index = null;
+			staleTopLevelRowIds.clear();
+		}
+	}
+
+	@Override
+	public final void invalidate(@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isAll())
+		{
+			invalidateAll();
+			return;
+		}
+
+		final RowsIndex<T> index = _index;
+		if (index == null)
+		{
+			return; // nothing loaded yet
+		}
+
+		// NOTE: row IDs which are not indexed are also considered, because those could be top level rows which appeared meanwhile
+		rowIds.stream()
+				.map(index::getTopLevelRowIdOrSame)
+				.forEach(staleTopLevelRowIds::add);
+	}
+
+	@Override
+	public final int size()
+	{
+		return getIndex().getTopLevelRows().size();
+	}
+
+	@Override
+	public final Map<DocumentId, T> getDocumentId2TopLevelRows()
+	{
+		return getIndex().getTopLevelRows();
+	}
+
+	@Override
+	public final Map<DocumentId, T> getDocumentId2AllRows()
+	{
+		return getIndex().getAllRows();
+	}
+
+	@Override
+	public final Collection<T> getTopLevelRows()
+	{
+		return getIndex().getTopLevelRows().values();
+	}
+
+	@Override
+	public final Collection<T> getAllRows()
+	{
+		return getIndex().getAllRows().values();
+	}
+
+	@Override
+	public final T getById(@NonNull final DocumentId rowId) throws EntityNotFoundException
+	{
+		final T row = getIndex().getAllRows().get(rowId);
+		if (row == null)
+		{
+			throw new EntityNotFoundException("Row not found")
+					.appendParametersToMessage().setParameter("rowId", rowId);
+		}
+		return row;
+	}
+
+	@Override
+	public final ListMultimap<TableRecordReference, T> getTableRecordReference2rows()
+	{
+		return getIndex().getRowsByRecordRef();
+	}
+
+	@FunctionalInterface
+	private static interface RecordRefsExtractor<T>
+	{
+		Stream<TableRecordReference> extractRecordRefs(T row);
+	}
+
+	private static final class RowsIndex<T extends IViewRow>
+	{
+		public static <T extends IViewRow> RowsIndex<T> of(final Collection<T> topLevelRows, final RecordRefsExtractor<T> recordRefsExtractor)
+		{
+			return new RowsIndex<>(topLevelRows, recordRefsExtractor);
+		}
+
+		private final ImmutableMap<DocumentId, T> topLevelRows;
+		private final ImmutableMap<DocumentId, T> allRows;
+		private final ImmutableMap<DocumentId, DocumentId> topLevelRowIdsByIncludedRowId;
+		private final ImmutableListMultimap<TableRecordReference, T> rowsByRecordRef;
+
+		private RowsIndex(final Collection<T> topLevelRows, final RecordRefsExtractor<T> recordRefsExtractor)
+		{
+			final ImmutableMap.Builder<DocumentId, T> topLevelRowsBuilder = ImmutableMap.builder();
+			final ImmutableMap.Builder<DocumentId, T> allRowsBuilder = ImmutableMap.builder();
+			final ImmutableMap.Builder<DocumentId, DocumentId> topLevelRowIdsByIncludedRowIdBuilder = ImmutableMap.builder();
+			final ImmutableListMultimap.Builder<TableRecordReference, T> rowsByRecordRefBuilder = ImmutableListMultimap.builder();
+
+			for (final T topLevelRow : topLevelRows)
+			{
+				final DocumentId topLevelRowId = topLevelRow.getId();
+				topLevelRowsBuilder.put(topLevelRowId, topLevelRow);
+				allRowsBuilder.put(topLevelRowId, topLevelRow);
+				recordRefsExtractor.extractRecordRefs(topLevelRow).forEach(recordRef -> rowsByRecordRefBuilder.put(recordRef, topLevelRow));
+
+				indexIncludedRows(topLevelRowId, topLevelRow, recordRefsExtractor, allRowsBuilder, topLevelRowIdsByIncludedRowIdBuilder, rowsByRecordRefBuilder);
+			}
+
+			this.topLevelRows = topLevelRowsBuilder.build();
+			this.allRows = allRowsBuilder.build();
+			this.topLevelRowIdsByIncludedRowId = topLevelRowIdsByIncludedRowIdBuilder.build();
+			this.rowsByRecordRef = rowsByRecordRefBuilder.build();
+		}
+
+		private static <T extends IViewRow> void indexIncludedRows(
+				final DocumentId topLevelRowId,
+				final T row,
+				final RecordRefsExtractor<T> recordRefsExtractor,
+				final ImmutableMap.Builder<DocumentId, T> allRowsBuilder,
+				final ImmutableMap.Builder<DocumentId, DocumentId> topLevelRowIdsByIncludedRowIdBuilder,
+				final ImmutableListMultimap.Builder<TableRecordReference, T> rowsByRecordRefBuilder)
+		{
+			@SuppressWarnings("unchecked")
+			final Collection<T> includedRows = (Collection<T>)row.getIncludedRows();
+			for (final T includedRow : includedRows)
+			{
+				final DocumentId includedRowId = includedRow.getId();
+				allRowsBuilder.put(includedRowId, includedRow);
+				topLevelRowIdsByIncludedRowIdBuilder.put(includedRowId, topLevelRowId);
+				recordRefsExtractor.extractRecordRefs(includedRow).forEach(recordRef -> rowsByRecordRefBuilder.put(recordRef, includedRow));
+
+				indexIncludedRows(topLevelRowId, includedRow, recordRefsExtractor, allRowsBuilder, topLevelRowIdsByIncludedRowIdBuilder, rowsByRecordRefBuilder);
+			}
+		}
+
+		@Override
+		public String toString()
+		{
+			return MoreObjects.toStringHelper(this)
+					.add("topLevelRowsCount", topLevelRows.size())
+					.add("allRowsCount", allRows.size())
+					.toString();
+		}
+
+		public ImmutableMap<DocumentId, T> getTopLevelRows()
+		{
+			return topLevelRows;
+		}
+
+		public ImmutableMap<DocumentId, T> getAllRows()
+		{
+			return allRows;
+		}
+
+		public ImmutableListMultimap<TableRecordReference, T> getRowsByRecordRef()
+		{
+			return rowsByRecordRef;
+		}
+
+		public DocumentId getTopLevelRowIdOrSame(final DocumentId rowId)
+		{
+			final DocumentId topLevelRowId = topLevelRowIdsByIncludedRowId.get(rowId);
+			return topLevelRowId != null ? topLevelRowId : rowId;
+		}
+
+		/**
+		 * @param replacedRowIds top level row IDs which were reloaded
+		 * @param reloadedRows the reloaded rows; replaced rows which are missing from this list will be removed, new rows will be appended
+		 */
+		public RowsIndex<T> replacingTopLevelRows(final Set<DocumentId> replacedRowIds, final List<T> reloadedRows, final RecordRefsExtractor<T> recordRefsExtractor)
+		{
+			final Map<DocumentId, T> reloadedRowsById = new LinkedHashMap<>();
+			reloadedRows.forEach(row -> reloadedRowsById.put(row.getId(), row));
+
+			final LinkedHashMap<DocumentId, T> newTopLevelRows = new LinkedHashMap<>(topLevelRows);
+			for (final DocumentId replacedRowId : replacedRowIds)
+			{
+				final T reloadedRow = reloadedRowsById.remove(replacedRowId);
+				if (reloadedRow != null)
+				{
+					newTopLevelRows.put(replacedRowId, reloadedRow); // NOTE: existing rows are keeping their position
+				}
+				else
+				{
+					newTopLevelRows.remove(replacedRowId);
+				}
+			}
+
+			// Rows which were not asked for, but were returned
+			reloadedRowsById.forEach(newTopLevelRows::put);
+
+			return new RowsIndex<>(newTopLevelRows.values(), recordRefsExtractor);
+		}
+	}
+}
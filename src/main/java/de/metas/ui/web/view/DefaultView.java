@@ -9,6 +9,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -158,7 +159,23 @@ public final class DefaultView implements IEditableView
 						ImmutableList.copyOf(Iterables.concat(stickyFilters, filters)),
 						applySecurityRestrictions);
 
-				return new ViewRowIdsOrderedSelections(defaultSelection);
+				final ViewRowIdsOrderedSelections selections = new ViewRowIdsOrderedSelections(defaultSelection);
+				if (!defaultSelection.isFullyLoaded())
+				{
+					viewDataRepository.getFullyLoadedSelection(defaultSelection)
+							.whenCompleteAsync((fullyLoadedSelection, ex) -> {
+								if (ex != null)
+								{
+									onDefaultSelectionLoadFailed(ex);
+								}
+								else
+								{
+									onDefaultSelectionFullyLoaded(selections, fullyLoadedSelection);
+								}
+							});
+				}
+
+				return selections;
 			});
 		}
 
@@ -249,6 +266,13 @@ public final class DefaultView implements IEditableView
 		return defaultSelection.getSize();
 	}
 
+	@Override
+	public boolean isSizeEstimated()
+	{
+		final ViewRowIdsOrderedSelection defaultSelection = selectionsRef.get().getDefaultSelection();
+		return !defaultSelection.isFullyLoaded();
+	}
+
 	@Override
 	public List<DocumentQueryOrderBy> getDefaultOrderBys()
 	{
@@ -309,6 +333,12 @@ public final class DefaultView implements IEditableView
 		logger.debug("View closed with reason={}: {}", reason, this);
 	}
 
+	@Override
+	public int getCachedRowsCount()
+	{
+		return cache_rowsById.size();
+	}
+
 	@Override
 	public void invalidateAll()
 	{
@@ -334,6 +364,33 @@ public final class DefaultView implements IEditableView
 				.collectFullyChanged(this);
 	}
 
+	private void onDefaultSelectionFullyLoaded(final ViewRowIdsOrderedSelections selections, final ViewRowIdsOrderedSelection fullyLoadedSelection)
+	{
+		selections.setDefaultSelection(fullyLoadedSelection);
+		_toString = null;
+
+		if (closed.get())
+		{
+			return;
+		}
+
+		// Notify the frontend, because the view size has changed
+		ViewChangesCollector.getCurrentOrAutoflush()
+				.collectFullyChanged(this);
+	}
+
+	private void onDefaultSelectionLoadFailed(final Throwable ex)
+	{
+		if (closed.get())
+		{
+			return;
+		}
+
+		// Don't serve a truncated selection as complete: drop it, so it will be created again on next access
+		logger.warn("Failed loading the default selection of {}. Invalidating it.", viewId, ex);
+		invalidateSelection();
+	}
+
 	private final void assertNotClosed()
 	{
 		if (closed.get())
@@ -370,6 +427,16 @@ public final class DefaultView implements IEditableView
 				.build();
 	}
 
+	@Override
+	public void forEachRow(@NonNull final List<DocumentQueryOrderBy> orderBys, @NonNull final Consumer<IViewRow> consumer)
+	{
+		assertNotClosed();
+
+		// NOTE: we are not adding the rows to cache because we expect to be called for all rows (e.g. on export)
+		final ViewRowIdsOrderedSelection orderedSelection = getOrderedSelection(orderBys);
+		viewDataRepository.forEachRow(getViewEvaluationCtx(), orderedSelection, consumer);
+	}
+
 	private List<ViewResultColumn> extractViewResultColumns(final List<IViewRow> rows)
 	{
 		if (rows.isEmpty())
@@ -453,7 +520,7 @@ public final class DefaultView implements IEditableView
 		return selectionsRef.get()
 				.computeIfAbsent(
 						orderBys,
-						(defaultSelection, orderBysImmutable) -> viewDataRepository.createOrderedSelectionFromSelection(getViewEvaluationCtx(), defaultSelection, orderBysImmutable));
+						(defaultSelection, orderBysImmutable) -> viewDataRepository.createOrderedSelectionFromSelection(getViewEvaluationCtx(), defaultSelection, orderBysImmutable, cache_rowsById::get));
 	}
 
 	@Override
@@ -542,6 +609,12 @@ public final class DefaultView implements IEditableView
 		ViewChangesCollector.getCurrentOrAutoflush().collectRowsChanged(this, rowIds);
 	}
 
+	@Override
+	public Set<String> getNotifyRecordsChangedTableNamesOrNull()
+	{
+		return viewInvalidationAdvisor.getTableNamesOrNull(this);
+	}
+
 	@Override
 	public void patchViewRow(final RowEditingContext ctx, final List<JSONDocumentChangedEvent> fieldChangeRequests)
 	{
@@ -609,7 +682,7 @@ public final class DefaultView implements IEditableView
 	private static final class ViewRowIdsOrderedSelections
 	{
 		@Getter
-		private final ViewRowIdsOrderedSelection defaultSelection;
+		private volatile ViewRowIdsOrderedSelection defaultSelection;
 		private final ConcurrentHashMap<ImmutableList<DocumentQueryOrderBy>, ViewRowIdsOrderedSelection> selectionsByOrderBys = new ConcurrentHashMap<>();
 
 		public ViewRowIdsOrderedSelections(@NonNull final ViewRowIdsOrderedSelection defaultSelection)
@@ -617,8 +690,21 @@ public final class DefaultView implements IEditableView
 			this.defaultSelection = defaultSelection;
 		}
 
+		/** Replaces the default selection with a newer version of it (e.g. after it was fully loaded) */
+		public void setDefaultSelection(@NonNull final ViewRowIdsOrderedSelection defaultSelection)
+		{
+			if (!Objects.equals(this.defaultSelection.getSelectionId(), defaultSelection.getSelectionId()))
+			{
+				throw new AdempiereException("Changing the default selection ID is not allowed")
+						.setParameter("defaultSelection", this.defaultSelection)
+						.setParameter("newDefaultSelection", defaultSelection);
+			}
+			this.defaultSelection = defaultSelection;
+		}
+
 		public ViewRowIdsOrderedSelection computeIfAbsent(final List<DocumentQueryOrderBy> orderBys, @NonNull final ViewRowIdsOrderedSelectionFactory factory)
 		{
+			final ViewRowIdsOrderedSelection defaultSelection = this.defaultSelection;
 			if (orderBys == null || orderBys.isEmpty())
 			{
 				return defaultSelection;
@@ -632,6 +718,7 @@ public final class DefaultView implements IEditableView
 			return selectionsByOrderBys.computeIfAbsent(ImmutableList.copyOf(orderBys), orderBysImmutable -> factory.create(defaultSelection, orderBysImmutable));
 		}
 
+
 		public Set<String> getSelectionIds()
 		{
 			final ImmutableSet.Builder<String> selectionIds = ImmutableSet.builder();
@@ -62,4 +62,11 @@ public final class DefaultViewInvalidationAdvisor implements IViewInvalidationAd
 				.collect(ImmutableSet.toImmutableSet());
 	}
 
+	@Override
+	public Set<String> getTableNamesOrNull(final IView view)
+	{
+		final String viewTableName = view.getTableNameOrNull();
+		return viewTableName != null ? ImmutableSet.of(viewTableName) : ImmutableSet.of();
+	}
+
 }
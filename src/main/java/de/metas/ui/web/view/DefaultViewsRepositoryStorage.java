@@ -1,12 +1,25 @@
 package de.metas.ui.web.view;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
+import org.adempiere.util.time.SystemTime;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableMap;
 
+import de.metas.logging.LogManager;
+import de.metas.ui.web.session.UserSession;
 import de.metas.ui.web.window.datatypes.WindowId;
 import lombok.NonNull;
 
@@ -33,12 +46,69 @@ import lombok.NonNull;
  */
 
 // NOTE: don't add it to spring context! i.e. don't annotate it with @Component or similar
+/**
+ * Default {@link IViewsIndexStorage}.
+ *
+ * Views are expired if they were not accessed for a given time. Besides that, the storage can be bounded (see {@link ViewsStorageLimits}):
+ * <ul>
+ * <li>if a user has more than <code>maxViewsPerUser</code> views, the user's least recently used views are closed ({@link ViewCloseReason#USER_VIEWS_LIMIT_EXCEEDED})
+ * <li>if there are more than <code>maxViews</code> views or their cached rows (see {@link IView#getCachedRowsCount()}) are exceeding <code>maxCachedRows</code>,
+ * the least recently used views are closed ({@link ViewCloseReason#MEMORY_LIMIT_EXCEEDED})
+ * </ul>
+ * The limits are enforced each time a view is added and also by {@link #cleanup()}, which is expected to be called periodically.
+ * Storages which are sharing the same {@link ViewsStorageLimits} are enforcing the limits together, i.e. they are counting and evicting each other's views too.
+ * <p>
+ * The views are kept in access ordered maps, so the least recently used view is always the first one and evicting it does not require any sorting.
+ * The cached rows count of a view is sampled when the view is added or accessed and when {@link #cleanup()} is called.
+ */
 public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 {
-	private final Cache<ViewId, IView> views = CacheBuilder.newBuilder()
-			.expireAfterAccess(1, TimeUnit.HOURS)
-			.removalListener(notification -> onViewRemoved(notification))
+	private static final Logger logger = LogManager.getLogger(DefaultViewsRepositoryStorage.class);
+
+	private final ViewsStorageLimits limits;
+
+	/** All views. Used for lock-free lookups and streaming; changed only while holding the {@link ViewsStorageLimits#lock}. */
+	private final ConcurrentHashMap<ViewId, ViewEntry> views = new ConcurrentHashMap<>();
+
+	/** Views which were recently closed automatically, so we can tell the user why the view is no longer available */
+	private final Cache<ViewId, ViewCloseReason> evictedViewCloseReasons = CacheBuilder.newBuilder()
+			.maximumSize(1000)
+			.expireAfterWrite(1, TimeUnit.HOURS)
 			.build();
+	private final ConcurrentHashMap<ViewCloseReason, AtomicLong> evictedViewsCountByReason = new ConcurrentHashMap<>();
+
+	/**
+	 * Reverse index: table name to the views which want to be notified when a record of that table was changed.
+	 * We keep the view references (and not only the IDs) because fetching from {@link #views} would be considered an access and would prevent expiration.
+	 *
+	 * @see IView#getNotifyRecordsChangedTableNamesOrNull()
+	 */
+	private final ConcurrentHashMap<String, ConcurrentHashMap<ViewId, IView>> viewsByTableName = new ConcurrentHashMap<>();
+	/** Views which want to be notified about changes of any table */
+	private final ConcurrentHashMap<ViewId, IView> viewsToNotifyForAnyTable = new ConcurrentHashMap<>();
+
+	/** Creates an unbounded storage, having views expired after one hour */
+	public DefaultViewsRepositoryStorage()
+	{
+		this(ViewsStorageLimits.unbounded());
+	}
+
+	/**
+	 * @param limits the limits to enforce; pass the same instance to more storages to enforce the limits across all of them
+	 */
+	public DefaultViewsRepositoryStorage(@NonNull final ViewsStorageLimits limits)
+	{
+		this.limits = limits;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("size", views.size())
+				.add("limits", limits)
+				.toString();
+	}
 
 	@Override
 	public WindowId getWindowId()
@@ -46,30 +116,185 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 		throw new UnsupportedOperationException("windowId not available");
 	}
 
-	private final void onViewRemoved(final RemovalNotification<Object, Object> notification)
+	/** NOTE: shall be called without holding the {@link ViewsStorageLimits#lock}, because closing a view might be expensive */
+	private void onViewRemoved(final ViewEntry entry, final ViewCloseReason closeReason)
 	{
-		final IView view = (IView)notification.getValue();
-		final ViewCloseReason closeReason = ViewCloseReason.fromCacheEvictedFlag(notification.wasEvicted());
+		final IView view = entry.getView();
+		unindex(view);
+
+		if (closeReason.isEvicted())
+		{
+			evictedViewCloseReasons.put(view.getViewId(), closeReason);
+			evictedViewsCountByReason.computeIfAbsent(closeReason, k -> new AtomicLong()).incrementAndGet();
+			logger.debug("Closing view because {}: {}", closeReason, view);
+		}
+
 		view.close(closeReason);
 	}
 
+	/** Notifies the storages of given entries, which might be also other storages sharing our {@link #limits} */
+	private static void onViewsRemoved(final Map<ViewEntry, ViewCloseReason> removedEntries)
+	{
+		removedEntries.forEach((entry, closeReason) -> entry.getStorage().onViewRemoved(entry, closeReason));
+	}
+
 	@Override
 	public void put(@NonNull final IView view)
 	{
-		views.put(view.getViewId(), view);
+		put(view, getCurrentUserId());
+	}
+
+	@VisibleForTesting
+	void put(@NonNull final IView view, final int ownerUserId)
+	{
+		final long now = SystemTime.millis();
+		final ViewEntry entry = new ViewEntry(this, view, ownerUserId, now);
+		final Map<ViewEntry, ViewCloseReason> removedEntries = new LinkedHashMap<>();
+
+		index(view);
+		synchronized (limits.lock)
+		{
+			final ViewEntry previousEntry = views.get(view.getViewId());
+			if (previousEntry != null)
+			{
+				removeEntry(previousEntry);
+				if (previousEntry.getView() != view)
+				{
+					removedEntries.put(previousEntry, ViewCloseReason.USER_REQUEST);
+				}
+			}
+
+			views.put(entry.getViewId(), entry);
+			limits.addEntry(entry);
+			limits.enforceAfterAdd(entry, now, removedEntries);
+		}
+
+		onViewsRemoved(removedEntries);
+	}
+
+	private static int getCurrentUserId()
+	{
+		final UserSession userSession = UserSession.getCurrentOrNull();
+		return userSession != null ? userSession.getAD_User_ID() : ViewsStorageLimits.OWNER_USER_ID_NONE;
+	}
+
+	private void index(final IView view)
+	{
+		final ViewId viewId = view.getViewId();
+		final Set<String> tableNames = view.getNotifyRecordsChangedTableNamesOrNull();
+		if (tableNames == null)
+		{
+			viewsToNotifyForAnyTable.put(viewId, view);
+		}
+		else
+		{
+			tableNames.forEach(tableName -> viewsByTableName.compute(tableName, (k, viewsById) -> {
+				final ConcurrentHashMap<ViewId, IView> viewsByIdEffective = viewsById != null ? viewsById : new ConcurrentHashMap<>();
+				viewsByIdEffective.put(viewId, view);
+				return viewsByIdEffective;
+			}));
+		}
+	}
+
+	/**
+	 * Removes given view from index.
+	 * NOTE: in case the view was replaced by a new view with the same viewId, the new view's index entries are preserved.
+	 */
+	private void unindex(final IView view)
+	{
+		final ViewId viewId = view.getViewId();
+		final Set<String> tableNames = view.getNotifyRecordsChangedTableNamesOrNull();
+		if (tableNames == null)
+		{
+			viewsToNotifyForAnyTable.remove(viewId, view);
+		}
+		else
+		{
+			tableNames.forEach(tableName -> viewsByTableName.computeIfPresent(tableName, (k, viewsById) -> {
+				viewsById.remove(viewId, view);
+				return viewsById.isEmpty() ? null : viewsById;
+			}));
+		}
+	}
+
+	/** NOTE: shall be called while holding the {@link ViewsStorageLimits#lock} */
+	void removeEntry(final ViewEntry entry)
+	{
+		views.remove(entry.getViewId(), entry);
+		limits.removeEntry(entry);
+	}
+
+	/**
+	 * Closes the expired views and, because views are caching more rows while they are used, enforces the limits again.
+	 * Shall be called periodically.
+	 * <p>
+	 * NOTE: this is also cleaning up the views of the other storages which are sharing our {@link ViewsStorageLimits}.
+	 */
+	@Override
+	public void cleanup()
+	{
+		final long now = SystemTime.millis();
+		final Map<ViewEntry, ViewCloseReason> removedEntries = new LinkedHashMap<>();
+
+		synchronized (limits.lock)
+		{
+			limits.cleanup(now, removedEntries);
+		}
+
+		onViewsRemoved(removedEntries);
+		if (!removedEntries.isEmpty())
+		{
+			logger.debug("Cleanup closed {} views", removedEntries.size());
+		}
 	}
 
 	@Override
 	public IView getByIdOrNull(@NonNull final ViewId viewId)
 	{
-		return views.getIfPresent(viewId);
+		if (!views.containsKey(viewId))
+		{
+			return null;
+		}
+
+		final long now = SystemTime.millis();
+		final ViewEntry entry;
+		synchronized (limits.lock)
+		{
+			entry = views.get(viewId);
+			if (entry == null)
+			{
+				return null;
+			}
+
+			if (!limits.isExpired(entry, now))
+			{
+				limits.touchEntry(entry, now);
+				return entry.getView();
+			}
+
+			removeEntry(entry);
+		}
+
+		onViewRemoved(entry, ViewCloseReason.CLEANUP);
+		return null;
 	}
 
 	@Override
 	public void removeById(@NonNull final ViewId viewId)
 	{
-		views.invalidate(viewId);
-		views.cleanUp(); // also cleanup to prevent views cache to grow.
+		final ViewEntry entry;
+		synchronized (limits.lock)
+		{
+			entry = views.get(viewId);
+			if (entry == null)
+			{
+				return;
+			}
+
+			removeEntry(entry);
+		}
+
+		onViewRemoved(entry, ViewCloseReason.USER_REQUEST);
 	}
 
 	@Override
@@ -84,10 +309,121 @@ public final class DefaultViewsRepositoryStorage implements IViewsIndexStorage
 		view.invalidateAll();
 	}
 
+	@Override
+	public ViewCloseReason getEvictedViewCloseReasonOrNull(@NonNull final ViewId viewId)
+	{
+		return evictedViewCloseReasons.getIfPresent(viewId);
+	}
+
 	@Override
 	public Stream<IView> streamAllViews()
 	{
-		return views.asMap().values().stream();
+		return views.values().stream().map(ViewEntry::getView);
+	}
+
+	@Override
+	public Stream<IView> streamViewsToNotify(@NonNull final Set<String> tableNames)
+	{
+		final Stream<IView> viewsForTableNames = tableNames.stream()
+				.map(viewsByTableName::get)
+				.filter(viewsById -> viewsById != null)
+				.map(Map::values)
+				.flatMap(Collection::stream);
+
+		return Stream.concat(viewsToNotifyForAnyTable.values().stream(), viewsForTableNames)
+				.distinct();
+	}
+
+	@Override
+	public long size()
+	{
+		return views.size();
+	}
+
+	/**
+	 * @return statistics of this storage; the views, users and cached rows are counted across all storages which are sharing the same {@link ViewsStorageLimits}
+	 */
+	public Map<String, Object> getStatistics()
+	{
+		final ImmutableMap.Builder<String, Object> stats = ImmutableMap.<String, Object> builder();
+		synchronized (limits.lock)
+		{
+			stats.putAll(limits.getStatistics());
+		}
+		stats.put("storageViews", views.size());
+		for (final ViewCloseReason closeReason : ViewCloseReason.values())
+		{
+			if (!closeReason.isEvicted())
+			{
+				continue;
+			}
+			final AtomicLong evictedCount = evictedViewsCountByReason.get(closeReason);
+			stats.put("evicted." + closeReason.name(), evictedCount != null ? evictedCount.get() : 0L);
+		}
+
+		return stats.build();
 	}
 
+	/** NOTE: the mutable fields are guarded by the {@link ViewsStorageLimits#lock} */
+	static final class ViewEntry
+	{
+		private final DefaultViewsRepositoryStorage storage;
+		private final IView view;
+		private final int ownerUserId;
+		private long lastAccessMillis;
+		private int cachedRowsCount;
+
+		private ViewEntry(@NonNull final DefaultViewsRepositoryStorage storage, @NonNull final IView view, final int ownerUserId, final long lastAccessMillis)
+		{
+			this.storage = storage;
+			this.view = view;
+			this.ownerUserId = ownerUserId;
+			this.lastAccessMillis = lastAccessMillis;
+			this.cachedRowsCount = view.getCachedRowsCount();
+		}
+
+		public DefaultViewsRepositoryStorage getStorage()
+		{
+			return storage;
+		}
+
+		public IView getView()
+		{
+			return view;
+		}
+
+		public ViewId getViewId()
+		{
+			return view.getViewId();
+		}
+
+		public int getOwnerUserId()
+		{
+			return ownerUserId;
+		}
+
+		public void setLastAccessMillis(final long lastAccessMillis)
+		{
+			this.lastAccessMillis = lastAccessMillis;
+		}
+
+		public boolean isExpired(final long now, final long expireAfterAccessMillis)
+		{
+			return expireAfterAccessMillis > 0 && now - lastAccessMillis > expireAfterAccessMillis;
+		}
+
+		/** @return the cached rows count, as sampled last time */
+		public int getCachedRowsCount()
+		{
+			return cachedRowsCount;
+		}
+
+		/** Samples the cached rows count again and returns the difference */
+		public int updateCachedRowsCount()
+		{
+			final int cachedRowsCountOld = cachedRowsCount;
+			cachedRowsCount = view.getCachedRowsCount();
+			return cachedRowsCount - cachedRowsCountOld;
+		}
+	}
 }
@@ -2,6 +2,7 @@ package de.metas.ui.web.view;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -94,6 +95,23 @@ public interface IView
 
 	long size();
 
+	/**
+	 * @return true if {@link #size()} is not the final size of this view but just an estimation (e.g. while the selection was not fully loaded)
+	 */
+	default boolean isSizeEstimated()
+	{
+		return false;
+	}
+
+	/**
+	 * @return how many rows this view is currently keeping in memory.
+	 *         It's used to weigh the view when deciding which views to evict from storage (see {@link DefaultViewsRepositoryStorage}).
+	 */
+	default int getCachedRowsCount()
+	{
+		return 0;
+	}
+
 	default void close(final ViewCloseReason reason)
 	{
 		// nothing
@@ -134,6 +152,28 @@ public interface IView
 		return getPage(firstRow, pageLength, orderBys);
 	}
 
+	/**
+	 * Passes all rows of this view, ordered by given <code>orderBys</code>, to given consumer.
+	 * Intended for exporters which need to read the whole view sequentially.
+	 *
+	 * The default implementation is fetching the rows page by page. Implementations which can read their rows in one go shall override it.
+	 *
+	 * @param orderBys the order, same as for {@link #getPage(int, int, List)}; empty means default order
+	 */
+	default void forEachRow(@NonNull final List<DocumentQueryOrderBy> orderBys, @NonNull final Consumer<IViewRow> consumer)
+	{
+		final int pageLength = 500;
+		for (int firstRow = 0;; firstRow += pageLength)
+		{
+			final List<IViewRow> rows = getPage(firstRow, pageLength, orderBys).getPage();
+			rows.forEach(consumer);
+			if (rows.size() < pageLength)
+			{
+				break;
+			}
+		}
+	}
+
 	IViewRow getById(DocumentId rowId) throws EntityNotFoundException;
 
 	LookupValuesList getFilterParameterDropdown(String filterId, String filterParameterName, Evaluatee ctx);
@@ -186,6 +226,17 @@ public interface IView
 	 */
 	void notifyRecordsChanged(Set<TableRecordReference> recordRefs);
 
+	/**
+	 * @return the table names for which this view wants to be notified (see {@link #notifyRecordsChanged(Set)})
+	 *         or <code>null</code> if the view shall be notified about changes of any table.
+	 *         The returned set shall not change during view's lifetime because it's used to index the view.
+	 */
+	@Nullable
+	default Set<String> getNotifyRecordsChangedTableNamesOrNull()
+	{
+		return null;
+	}
+
 	/** @return actions which were registered particularly for this view instance */
 	default ViewActionDescriptorsList getActions()
 	{
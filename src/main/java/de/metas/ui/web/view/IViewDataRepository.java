@@ -3,6 +3,9 @@ package de.metas.ui.web.view;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.adempiere.exceptions.DBException;
 
@@ -57,6 +60,12 @@ public interface IViewDataRepository
 
 	List<IViewRow> retrievePage(ViewEvaluationCtx viewEvalCtx, ViewRowIdsOrderedSelection orderedSelection, int firstRow, int pageLength) throws DBException;
 
+	/**
+	 * Sequentially loads all rows of given selection (in selection's order) and passes them to given consumer.
+	 * The rows are fetched using a single database cursor, so the memory footprint does not depend on selection size.
+	 */
+	void forEachRow(ViewEvaluationCtx viewEvalCtx, ViewRowIdsOrderedSelection orderedSelection, Consumer<IViewRow> consumer) throws DBException;
+
 	List<DocumentId> retrieveRowIdsByPage(ViewEvaluationCtx viewEvalCtx, ViewRowIdsOrderedSelection orderedSelection, int firstRow, int pageLength);
 
 	<T> List<T> retrieveModelsByIds(ViewId viewId, DocumentIdsSelection rowIds, Class<T> modelClass);
@@ -65,7 +74,26 @@ public interface IViewDataRepository
 
 	ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(final ViewEvaluationCtx viewEvalCtx, ViewRowIdsOrderedSelection fromSelection, List<DocumentQueryOrderBy> orderBys);
 
+	/**
+	 * Same as {@link #createOrderedSelectionFromSelection(ViewEvaluationCtx, ViewRowIdsOrderedSelection, List)},
+	 * but the implementation may sort the already loaded rows in memory instead of asking the database.
+	 *
+	 * @param cachedRowsProvider provides the already loaded row of given row ID, or <code>null</code> if it's not loaded
+	 */
+	default ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(final ViewEvaluationCtx viewEvalCtx, final ViewRowIdsOrderedSelection fromSelection, final List<DocumentQueryOrderBy> orderBys, final Function<DocumentId, IViewRow> cachedRowsProvider)
+	{
+		return createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, orderBys);
+	}
+
 	void deleteSelection(ViewId viewId);
 
 	void scheduleDeleteSelections(Set<String> viewIds);
+
+	/**
+	 * @see ViewRowIdsOrderedSelectionFactory#getFullyLoadedSelection(ViewRowIdsOrderedSelection)
+	 */
+	default CompletableFuture<ViewRowIdsOrderedSelection> getFullyLoadedSelection(final ViewRowIdsOrderedSelection selection)
+	{
+		return CompletableFuture.completedFuture(selection);
+	}
 }
@@ -43,4 +43,13 @@ public interface IViewInvalidationAdvisor
 	WindowId getWindowId();
 
 	Set<DocumentId> findAffectedRowIds(final Set<TableRecordReference> recordRefs, IView view);
+
+	/**
+	 * @return the table names for which {@link #findAffectedRowIds(Set, IView)} could return some rows or <code>null</code> if any table could be relevant.
+	 * @see IView#getNotifyRecordsChangedTableNamesOrNull()
+	 */
+	default Set<String> getTableNamesOrNull(final IView view)
+	{
+		return null;
+	}
 }
@@ -1,7 +1,11 @@
 package de.metas.ui.web.view;
 
+import java.util.Set;
 import java.util.stream.Stream;
 
+import org.adempiere.util.lang.MutableInt;
+import org.adempiere.util.lang.impl.TableRecordReference;
+
 import de.metas.ui.web.window.datatypes.WindowId;
 
 /*
@@ -53,6 +57,51 @@ public interface IViewsIndexStorage
 
 	Stream<IView> streamAllViews();
 
+	/**
+	 * @return views which are interested about changes of records from given tables (see {@link IView#getNotifyRecordsChangedTableNamesOrNull()}).
+	 *         The default implementation is returning all views.
+	 */
+	default Stream<IView> streamViewsToNotify(final Set<String> tableNames)
+	{
+		return streamAllViews();
+	}
+
+	/**
+	 * Notifies the views which are interested about given changed records (see {@link #streamViewsToNotify(Set)}).
+	 *
+	 * @param tableNames the table names of given <code>recordRefs</code>
+	 * @return how many views were notified
+	 */
+	default int notifyRecordsChanged(final Set<TableRecordReference> recordRefs, final Set<String> tableNames)
+	{
+		final MutableInt notifiedCount = MutableInt.zero();
+		streamViewsToNotify(tableNames)
+				.forEach(view -> {
+					view.notifyRecordsChanged(recordRefs);
+					notifiedCount.incrementAndGet();
+				});
+		return notifiedCount.getValue();
+	}
+
+	/** @return how many views are currently stored */
+	default long size()
+	{
+		return streamAllViews().count();
+	}
+
 	void invalidateView(ViewId viewId);
 
+	/** Closes the expired views. Will be called periodically by API. */
+	default void cleanup()
+	{
+	}
+
+	/**
+	 * @return why given view was automatically closed (e.g. evicted), if this happened recently; <code>null</code> if not known
+	 */
+	default ViewCloseReason getEvictedViewCloseReasonOrNull(final ViewId viewId)
+	{
+		return null;
+	}
+
 }
@@ -1,6 +1,7 @@
 package de.metas.ui.web.view;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -98,4 +99,7 @@ public interface IViewsRepository
 	{
 		notifyRecordsChanged(ImmutableSet.of(TableRecordReference.of(tableName, recordId)));
 	}
+
+	/** @return statistics (e.g. views count, how many views were notified or skipped etc); to be used for monitoring and debugging */
+	Map<String, Object> getStatistics();
 }
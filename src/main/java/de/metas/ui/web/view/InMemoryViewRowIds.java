@@ -0,0 +1,209 @@
+package de.metas.ui.web.view;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Ordered integer row IDs of a view selection which is kept in memory instead of <code>T_WEBUI_ViewSelection</code>.
+ *
+ * @see SqlViewRowIdsOrderedSelectionFactory
+ */
+@Immutable
+final class InMemoryViewRowIds
+{
+	public static final InMemoryViewRowIds ofList(@NonNull final List<Integer> rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return EMPTY;
+		}
+
+		final int[] rowIdsArr = rowIds.stream().mapToInt(Integer::intValue).toArray();
+		return new InMemoryViewRowIds(rowIdsArr);
+	}
+
+	public static final InMemoryViewRowIds EMPTY = new InMemoryViewRowIds(new int[0]);
+
+	private final int[] rowIds;
+
+	/** {@link #rowIds} sorted ascending, used to look up row IDs by binary search */
+	private final int[] sortedRowIds;
+	/** for each element of {@link #sortedRowIds}, its index in {@link #rowIds} */
+	private final int[] sortedRowIdIndexes;
+
+	private InMemoryViewRowIds(final int[] rowIds)
+	{
+		this.rowIds = rowIds;
+
+		// Sort (rowId, index) pairs packed into longs, so we don't have to box them
+		final long[] rowIdAndIndexPairs = new long[rowIds.length];
+		for (int i = 0; i < rowIds.length; i++)
+		{
+			rowIdAndIndexPairs[i] = ((long)rowIds[i] << 32) | i;
+		}
+		Arrays.sort(rowIdAndIndexPairs);
+
+		sortedRowIds = new int[rowIds.length];
+		sortedRowIdIndexes = new int[rowIds.length];
+		for (int i = 0; i < rowIdAndIndexPairs.length; i++)
+		{
+			sortedRowIds[i] = (int)(rowIdAndIndexPairs[i] >> 32);
+			sortedRowIdIndexes[i] = (int)rowIdAndIndexPairs[i];
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("size", rowIds.length)
+				.toString();
+	}
+
+	public int size()
+	{
+		return rowIds.length;
+	}
+
+	/**
+	 * @return row IDs from given (zero based) <code>firstRow</code>; if <code>firstRow</code> is beyond the end, an empty list is returned
+	 */
+	public List<Integer> getPage(final int firstRow, final int pageLength)
+	{
+		if (firstRow < 0 || firstRow >= rowIds.length || pageLength <= 0)
+		{
+			return ImmutableList.of();
+		}
+
+		final int lastRowExclusive = (int)Math.min((long)firstRow + pageLength, rowIds.length);
+		return Arrays.stream(rowIds, firstRow, lastRowExclusive)
+				.boxed()
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	public List<Integer> toList()
+	{
+		return getPage(0, rowIds.length);
+	}
+
+	/**
+	 * @return zero based index of given row ID or <code>-1</code> if not found
+	 */
+	public int indexOf(final int rowId)
+	{
+		final int sortedIndex = Arrays.binarySearch(sortedRowIds, rowId);
+		return sortedIndex >= 0 ? sortedRowIdIndexes[sortedIndex] : -1;
+	}
+
+	public boolean contains(final int rowId)
+	{
+		return Arrays.binarySearch(sortedRowIds, rowId) >= 0;
+	}
+
+	public boolean containsAny(@NonNull final Collection<Integer> rowIdsToCheck)
+	{
+		return rowIdsToCheck.stream().anyMatch(this::contains);
+	}
+
+	/**
+	 * @return the given row IDs which are part of this selection
+	 */
+	public Set<Integer> retainRowIds(@NonNull final Collection<Integer> rowIdsToRetain)
+	{
+		return rowIdsToRetain.stream()
+				.filter(this::contains)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	/**
+	 * @return selection with given row IDs appended at the end; row IDs which are already part of this selection are skipped
+	 */
+	public InMemoryViewRowIds addingRowIds(@NonNull final Collection<Integer> rowIdsToAdd)
+	{
+		final int[] rowIdsToAddArr = rowIdsToAdd.stream()
+				.distinct()
+				.mapToInt(Integer::intValue)
+				.filter(rowId -> !contains(rowId))
+				.toArray();
+		if (rowIdsToAddArr.length == 0)
+		{
+			return this;
+		}
+
+		final int[] newRowIds = Arrays.copyOf(rowIds, rowIds.length + rowIdsToAddArr.length);
+		System.arraycopy(rowIdsToAddArr, 0, newRowIds, rowIds.length, rowIdsToAddArr.length);
+		return new InMemoryViewRowIds(newRowIds);
+	}
+
+	/**
+	 * @return selection without given row IDs, preserving the order of remaining ones
+	 */
+	public InMemoryViewRowIds removingRowIds(@NonNull final Collection<Integer> rowIdsToRemove)
+	{
+		if (rowIdsToRemove.isEmpty())
+		{
+			return this;
+		}
+
+		final int[] newRowIds = Arrays.stream(rowIds)
+				.filter(rowId -> !rowIdsToRemove.contains(rowId))
+				.toArray();
+		if (newRowIds.length == rowIds.length)
+		{
+			return this;
+		}
+
+		return new InMemoryViewRowIds(newRowIds);
+	}
+
+	/**
+	 * @return PostgreSQL array literal (e.g. <code>{1,2,3}</code>) of given row IDs
+	 */
+	public static String toSqlArrayLiteral(@NonNull final List<Integer> rowIds)
+	{
+		final StringBuilder sql = new StringBuilder(rowIds.size() * 8 + 2);
+		sql.append("{");
+		for (final Integer rowId : rowIds)
+		{
+			if (sql.length() > 1)
+			{
+				sql.append(",");
+			}
+			sql.append(rowId.intValue());
+		}
+		sql.append("}");
+		return sql.toString();
+	}
+}
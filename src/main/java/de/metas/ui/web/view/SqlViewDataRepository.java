@@ -9,10 +9,14 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.model.PlainContextAware;
@@ -76,12 +80,15 @@ class SqlViewDataRepository implements IViewDataRepository
 {
 	private static final Logger logger = LogManager.getLogger(SqlViewDataRepository.class);
 
+	/** How many rows to fetch from database cursor at once when streaming all rows of a selection */
+	private static final int STREAMING_FETCH_SIZE = 500;
+
 	private final String tableName;
 	private final String tableAlias;
 	private final SqlViewKeyColumnNamesMap keyColumnNamesMap;
 	private final Map<String, DocumentFieldWidgetType> widgetTypesByFieldName;
 	private final SqlViewSelectData sqlViewSelect;
-	private final ViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory;
+	private final SqlViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory;
 	private final DocumentFilterDescriptorsProvider viewFilterDescriptors;
 	private final List<DocumentQueryOrderBy> defaultOrderBys;
 
@@ -183,6 +190,12 @@ class SqlViewDataRepository implements IViewDataRepository
 		return viewRowIdsOrderedSelectionFactory.createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, orderBys);
 	}
 
+	@Override
+	public ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(final ViewEvaluationCtx viewEvalCtx, final ViewRowIdsOrderedSelection fromSelection, final List<DocumentQueryOrderBy> orderBys, final Function<DocumentId, IViewRow> cachedRowsProvider)
+	{
+		return viewRowIdsOrderedSelectionFactory.createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, orderBys, cachedRowsProvider);
+	}
+
 	@Override
 	public void deleteSelection(final ViewId viewId)
 	{
@@ -195,14 +208,41 @@ class SqlViewDataRepository implements IViewDataRepository
 		viewRowIdsOrderedSelectionFactory.scheduleDeleteSelections(viewIds);
 	}
 
+	@Override
+	public CompletableFuture<ViewRowIdsOrderedSelection> getFullyLoadedSelection(final ViewRowIdsOrderedSelection selection)
+	{
+		return viewRowIdsOrderedSelectionFactory.getFullyLoadedSelection(selection);
+	}
+
 	@Override
 	public IViewRow retrieveById(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentId rowId)
 	{
-		final SqlAndParams sqlAndParams = sqlViewSelect.selectById()
-				.viewEvalCtx(viewEvalCtx)
-				.viewId(viewId)
-				.rowId(rowId)
-				.build();
+		final SqlAndParams sqlAndParams;
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(viewId);
+		if (inMemoryRowIds != null)
+		{
+			final int recordId = rowId.toInt();
+			final int rowIndex = inMemoryRowIds.indexOf(recordId);
+			if (rowIndex < 0)
+			{
+				throw new EntityNotFoundException("No document found for rowId=" + rowId);
+			}
+
+			sqlAndParams = sqlViewSelect.selectByRowIds()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(rowIndex)
+					.sqlRowIdsArray(InMemoryViewRowIds.toSqlArrayLiteral(ImmutableList.of(recordId)))
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectById()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.rowId(rowId)
+					.build();
+		}
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -441,14 +481,35 @@ class SqlViewDataRepository implements IViewDataRepository
 	{
 		logger.debug("Getting page: firstRow={}, pageLength={} - {}", firstRow, pageLength, this);
 		logger.debug("Using: {}", orderedSelection);
+		viewRowIdsOrderedSelectionFactory.loadIfPageNotInPreview(orderedSelection, firstRow, pageLength);
 
 		final ViewId viewId = orderedSelection.getViewId();
-		final SqlAndParams sqlAndParams = sqlViewSelect.selectByPage()
-				.viewEvalCtx(viewEvalCtx)
-				.viewId(viewId)
-				.firstRowZeroBased(firstRow)
-				.pageLength(pageLength)
-				.build();
+		final SqlAndParams sqlAndParams;
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(viewId);
+		if (inMemoryRowIds != null)
+		{
+			final List<Integer> pageRowIds = inMemoryRowIds.getPage(firstRow, pageLength);
+			if (pageRowIds.isEmpty())
+			{
+				return ImmutableList.of();
+			}
+
+			sqlAndParams = sqlViewSelect.selectByRowIds()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(firstRow)
+					.sqlRowIdsArray(InMemoryViewRowIds.toSqlArrayLiteral(pageRowIds))
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectByPage()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(firstRow)
+					.pageLength(pageLength)
+					.build();
+		}
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -473,13 +534,105 @@ class SqlViewDataRepository implements IViewDataRepository
 		}
 	}
 
+	@Override
+	public void forEachRow(final ViewEvaluationCtx viewEvalCtx, @NonNull final ViewRowIdsOrderedSelection orderedSelection, @NonNull final Consumer<IViewRow> consumer) throws DBException
+	{
+		logger.debug("Streaming all rows - {}", this);
+		logger.debug("Using: {}", orderedSelection);
+
+		final ViewRowIdsOrderedSelection fullyLoadedSelection = viewRowIdsOrderedSelectionFactory.loadFully(orderedSelection);
+		final long size = fullyLoadedSelection.getSize();
+		if (size <= 0)
+		{
+			return;
+		}
+
+		final ViewId viewId = fullyLoadedSelection.getViewId();
+		final SqlAndParams sqlAndParams;
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(viewId);
+		if (inMemoryRowIds != null)
+		{
+			final List<Integer> rowIds = inMemoryRowIds.toList();
+			if (rowIds.isEmpty())
+			{
+				return;
+			}
+
+			sqlAndParams = sqlViewSelect.selectByRowIds()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(0)
+					.sqlRowIdsArray(InMemoryViewRowIds.toSqlArrayLiteral(rowIds))
+					.build();
+		}
+		else
+		{
+			sqlAndParams = sqlViewSelect.selectByPage()
+					.viewEvalCtx(viewEvalCtx)
+					.viewId(viewId)
+					.firstRowZeroBased(0)
+					.pageLength((int)Math.min(size, Integer.MAX_VALUE))
+					.build();
+		}
+
+		// NOTE: we need to run in a transaction, else the JDBC driver is ignoring the fetch size and loads the whole result set in memory
+		Services.get(ITrxManager.class).runInThreadInheritedTrx(() -> forEachRow(sqlAndParams, viewEvalCtx, viewId, consumer));
+	}
+
+	private void forEachRow(final SqlAndParams sqlAndParams, final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final Consumer<IViewRow> consumer)
+	{
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sqlAndParams.getSql(), ITrx.TRXNAME_ThreadInherited);
+			pstmt.setFetchSize(STREAMING_FETCH_SIZE);
+			DB.setParameters(pstmt, sqlAndParams.getSqlParams());
+
+			rs = pstmt.executeQuery();
+
+			// Load the rows chunk by chunk from the same result set, so included lines are also fetched per chunk
+			while (true)
+			{
+				final List<IViewRow> rows = loadViewRows(rs, viewEvalCtx, viewId, STREAMING_FETCH_SIZE);
+				if (rows.isEmpty())
+				{
+					break;
+				}
+
+				rows.forEach(consumer);
+			}
+		}
+		catch (final SQLException | DBException e)
+		{
+			throw DBException.wrapIfNeeded(e)
+					.setSqlIfAbsent(sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
 	@Override
 	public List<DocumentId> retrieveRowIdsByPage(final ViewEvaluationCtx viewEvalCtx, final ViewRowIdsOrderedSelection orderedSelection, final int firstRow, final int pageLength)
 	{
 		logger.debug("Getting page: firstRow={}, pageLength={} - {}", firstRow, pageLength, this);
 		logger.debug("Using: {}", orderedSelection);
+		viewRowIdsOrderedSelectionFactory.loadIfPageNotInPreview(orderedSelection, firstRow, pageLength);
 
 		final ViewId viewId = orderedSelection.getViewId();
+
+		// In-memory selection => no need to query the database
+		final InMemoryViewRowIds inMemoryRowIds = viewRowIdsOrderedSelectionFactory.getInMemoryRowIdsOrNull(viewId);
+		if (inMemoryRowIds != null)
+		{
+			return inMemoryRowIds.getPage(firstRow, pageLength)
+					.stream()
+					.map(DocumentId::of)
+					.collect(ImmutableList.toImmutableList());
+		}
+
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectRowIdsByPage()
 				.viewEvalCtx(viewEvalCtx)
 				.viewId(viewId)
@@ -12,7 +12,9 @@ import javax.annotation.Nullable;
 
 import org.adempiere.ad.expression.api.NullStringExpression;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.Check;
+import org.adempiere.util.Services;
 import org.adempiere.util.time.SystemTime;
 import org.compiere.util.CCache;
 import org.slf4j.Logger;
@@ -88,6 +90,11 @@ public class SqlViewFactory implements IViewFactory
 {
 	private static final Logger logger = LogManager.getLogger(SqlViewFactory.class);
 
+	/** Per table setting for {@link SqlViewBinding#getLazySelectionInitialRows()}; the table name shall be appended */
+	private static final String SYSCONFIG_LazySelectionInitialRows_Prefix = "webui.view.lazySelection.initialRows.";
+	/** Setting for {@link SqlViewBinding#getInMemorySelectionMaxRows()}; can be overridden per table by appending "." and the table name */
+	private static final String SYSCONFIG_InMemorySelectionMaxRows = "webui.view.inMemorySelection.maxRows";
+
 	private final DocumentDescriptorFactory documentDescriptorFactory;
 	private final DocumentReferencesService documentReferencesService;
 
@@ -441,14 +448,30 @@ public class SqlViewFactory implements IViewFactory
 
 	private SqlViewBinding.Builder createBuilderForEntityBinding(@NonNull final SqlDocumentEntityDataBindingDescriptor entityBinding)
 	{
+		final String tableName = entityBinding.getTableName();
 		final SqlViewBinding.Builder builder = SqlViewBinding.builder()
-				.tableName(entityBinding.getTableName())
+				.tableName(tableName)
 				.tableAlias(entityBinding.getTableAlias())
 				.sqlWhereClause(entityBinding.getSqlWhereClause())
-				.defaultOrderBys(entityBinding.getDefaultOrderBys());
+				.defaultOrderBys(entityBinding.getDefaultOrderBys())
+				.lazySelectionInitialRows(getLazySelectionInitialRows(tableName))
+				.inMemorySelectionMaxRows(getInMemorySelectionMaxRows(tableName));
 		return builder;
 	}
 
+	private static int getLazySelectionInitialRows(final String tableName)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		return sysConfigBL.getIntValue(SYSCONFIG_LazySelectionInitialRows_Prefix + tableName, 0);
+	}
+
+	private static int getInMemorySelectionMaxRows(final String tableName)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int maxRowsDefault = sysConfigBL.getIntValue(SYSCONFIG_InMemorySelectionMaxRows, 0);
+		return sysConfigBL.getIntValue(SYSCONFIG_InMemorySelectionMaxRows + "." + tableName, maxRowsDefault);
+	}
+
 	private static final SqlViewRowFieldBinding createViewFieldBinding(final SqlDocumentFieldDataBindingDescriptor documentField, final Collection<String> availableDisplayColumnNames)
 	{
 		return createViewFieldBindingBuilder(documentField, availableDisplayColumnNames).build();
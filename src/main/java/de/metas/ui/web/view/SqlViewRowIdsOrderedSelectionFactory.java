@@ -3,20 +3,31 @@ package de.metas.ui.web.view;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.adempiere.ad.security.IUserRolePermissions;
 import org.adempiere.ad.security.IUserRolePermissionsDAO;
 import org.adempiere.ad.security.UserRolePermissionsKey;
 import org.adempiere.ad.security.permissions.WindowMaxQueryRecordsConstraint;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
+import org.adempiere.util.Check;
 import org.adempiere.util.Services;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.logging.LogManager;
@@ -63,8 +74,17 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 
 	private static final Logger logger = LogManager.getLogger(SqlViewRowIdsOrderedSelectionFactory.class);
 
+	/** Matches the rows estimated by the query planner for a plan node, e.g. <code>Limit  (cost=0.42..1.23 rows=1000 width=4)</code> */
+	private static final Pattern PATTERN_ExplainPlanRows = Pattern.compile(" rows=(\\d+) ");
+
 	private final SqlViewBinding viewBinding;
 
+	/** Lazy selections which were not yet created in database (or failed to be created), indexed by selectionId (see {@link SqlViewBinding#isLazySelection()}) */
+	private final ConcurrentHashMap<String, LazySelection> lazySelections = new ConcurrentHashMap<>();
+
+	/** Selections which are kept in memory instead of T_WEBUI_ViewSelection (see {@link SqlViewBinding#getInMemorySelectionMaxRows()}), indexed by selectionId */
+	private final ConcurrentHashMap<String, InMemoryViewRowIds> inMemorySelections = new ConcurrentHashMap<>();
+
 	private SqlViewRowIdsOrderedSelectionFactory(@NonNull final SqlViewBinding viewBinding)
 	{
 		this.viewBinding = viewBinding;
@@ -75,9 +95,29 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		return SqlViewSelectionQueryBuilder.newInstance(viewBinding);
 	}
 
+	/**
+	 * @return ordered row IDs if given selection is kept in memory, else <code>null</code>
+	 */
+	InMemoryViewRowIds getInMemoryRowIdsOrNull(@NonNull final ViewId viewId)
+	{
+		return inMemorySelections.get(viewId.getViewId());
+	}
+
 	@Override
 	public String getSqlWhereClause(final ViewId viewId, final DocumentIdsSelection rowIds)
 	{
+		// Make sure the requested rows were materialized, unless they are all in the preview
+		loadUnlessPreviewContainsAll(viewId.getViewId(), rowIds);
+
+		final InMemoryViewRowIds inMemoryRowIds = getInMemoryRowIdsOrNull(viewId);
+		if (inMemoryRowIds != null)
+		{
+			final Collection<Integer> recordIds = rowIds.isAll()
+					? inMemoryRowIds.toList()
+					: inMemoryRowIds.retainRowIds(convertToRecordIds(rowIds));
+			return newSqlViewSelectionQueryBuilder().buildSqlWhereClauseForRecordIds(recordIds);
+		}
+
 		return newSqlViewSelectionQueryBuilder().buildSqlWhereClause(viewId.getViewId(), rowIds);
 	}
 
@@ -95,11 +135,25 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 				.or(WindowMaxQueryRecordsConstraint.DEFAULT)
 				.getMaxQueryRecordsPerRole();
 
+		final SqlViewSelectionQueryBuilder viewQueryBuilder = newSqlViewSelectionQueryBuilder()
+				.applySecurityRestrictions(applySecurityRestrictions);
+		if (viewBinding.getInMemorySelectionMaxRows() > 0)
+		{
+			final ViewRowIdsOrderedSelection inMemorySelection = createOrderedSelectionInMemoryOrNull(viewQueryBuilder, viewEvalCtx, viewId, filters, orderBys, queryLimit);
+			if (inMemorySelection != null)
+			{
+				return inMemorySelection;
+			}
+		}
+
+		if (viewBinding.isLazySelection())
+		{
+			return createOrderedSelectionLazy(viewQueryBuilder, viewEvalCtx, viewId, filters, orderBys, queryLimit);
+		}
+
 		//
 		//
-		final SqlCreateSelection sqlCreates = newSqlViewSelectionQueryBuilder()
-				.applySecurityRestrictions(applySecurityRestrictions)
-				.buildSqlCreateSelectionFrom(viewEvalCtx, viewId, filters, orderBys, queryLimit);
+		final SqlCreateSelection sqlCreates = viewQueryBuilder.buildSqlCreateSelectionFrom(viewEvalCtx, viewId, filters, orderBys, queryLimit);
 		logger.trace("Creating selection using {}", sqlCreates);
 
 		//
@@ -130,13 +184,422 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 				.build();
 	}
 
+	/**
+	 * Retrieves the ordered row IDs and keeps them in memory, if there are not more than {@link SqlViewBinding#getInMemorySelectionMaxRows()}.
+	 *
+	 * @return in-memory selection or <code>null</code> if there are too many rows
+	 */
+	private ViewRowIdsOrderedSelection createOrderedSelectionInMemoryOrNull(
+			final SqlViewSelectionQueryBuilder viewQueryBuilder,
+			final ViewEvaluationCtx viewEvalCtx,
+			final ViewId viewId,
+			final List<DocumentFilter> filters,
+			final List<DocumentQueryOrderBy> orderBys,
+			final int queryLimit)
+	{
+		final int maxRows = viewBinding.getInMemorySelectionMaxRows();
+		final boolean queryLimitApplies = queryLimit > 0 && queryLimit <= maxRows;
+
+		// NOTE: fetch one more row to find out if there are too many rows
+		final int limit = queryLimitApplies ? queryLimit : maxRows + 1;
+		final SqlAndParams sqlSelectRowIds = viewQueryBuilder.buildSqlSelectRowIds(viewEvalCtx, filters, orderBys, limit);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final List<Integer> rowIds = retrieveRowIds(sqlSelectRowIds);
+		if (rowIds.size() > maxRows)
+		{
+			logger.trace("Not creating in-memory selection {} because there are more than {} rows", viewId, maxRows);
+			return null;
+		}
+
+		final InMemoryViewRowIds inMemoryRowIds = InMemoryViewRowIds.ofList(rowIds);
+		inMemorySelections.put(viewId.getViewId(), inMemoryRowIds);
+		logger.trace("Created in-memory selection {}, rowsCount={}, duration={}", viewId, inMemoryRowIds.size(), stopwatch);
+
+		return ViewRowIdsOrderedSelection.builder()
+				.setViewId(viewId)
+				.setSize(inMemoryRowIds.size())
+				.setOrderBys(orderBys)
+				.setQueryLimit(queryLimit)
+				.build();
+	}
+
+	private static List<Integer> retrieveRowIds(final SqlAndParams sqlAndParams)
+	{
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sqlAndParams.getSql(), ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlAndParams.getSqlParams());
+			rs = pstmt.executeQuery();
+
+			final List<Integer> rowIds = new ArrayList<>();
+			while (rs.next())
+			{
+				rowIds.add(rs.getInt(1));
+			}
+			return rowIds;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	private Set<Integer> convertToRecordIds(final DocumentIdsSelection rowIds)
+	{
+		return viewBinding.getRowIdsConverter().convertToRecordIds(rowIds);
+	}
+
+	/**
+	 * Retrieves only the first {@link SqlViewBinding#getLazySelectionInitialRows()} row IDs and keeps them in memory as a preview of the selection.
+	 * The whole selection is created later, by one single INSERT ... SELECT, only when it's needed (see {@link #loadFully(ViewRowIdsOrderedSelection)}),
+	 * e.g. when a page beyond the preview is requested. When it's done, the preview is dropped.
+	 * <p>
+	 * If there are not more than <code>initialRows</code> rows, the selection is just kept in memory and nothing has to be created later.
+	 *
+	 * @return selection which is not fully loaded (if there are more rows to be loaded). Its size is the database's estimation until it's fully loaded.
+	 */
+	private ViewRowIdsOrderedSelection createOrderedSelectionLazy(
+			final SqlViewSelectionQueryBuilder viewQueryBuilder,
+			final ViewEvaluationCtx viewEvalCtx,
+			final ViewId viewId,
+			final List<DocumentFilter> filters,
+			final List<DocumentQueryOrderBy> orderBys,
+			final int queryLimit)
+	{
+		final int initialRows = viewBinding.getLazySelectionInitialRows();
+		final boolean queryLimitApplies = queryLimit > 0 && queryLimit <= initialRows;
+
+		//
+		// Retrieve the first rows
+		// NOTE: fetch one more row to find out if there are more rows
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int limit = queryLimitApplies ? queryLimit : initialRows + 1;
+		final List<Integer> rowIds = retrieveRowIds(viewQueryBuilder.buildSqlSelectRowIds(viewEvalCtx, filters, orderBys, limit));
+		final ViewRowIdsOrderedSelection.Builder selectionBuilder = ViewRowIdsOrderedSelection.builder()
+				.setViewId(viewId)
+				.setOrderBys(orderBys)
+				.setQueryLimit(queryLimit);
+
+		//
+		// If there are no more rows, keep them in memory and we are done
+		if (rowIds.size() <= initialRows)
+		{
+			final InMemoryViewRowIds inMemoryRowIds = InMemoryViewRowIds.ofList(rowIds);
+			inMemorySelections.put(viewId.getViewId(), inMemoryRowIds);
+			logger.trace("Created in-memory selection {}, rowsCount={}, duration={}", viewId, inMemoryRowIds.size(), stopwatch);
+
+			return selectionBuilder
+					.setSize(inMemoryRowIds.size())
+					.build();
+		}
+
+		//
+		// Ask the database how many rows there would be, without fetching them.
+		// NOTE: we know for sure there are more than initialRows.
+		final long estimatedRowsCount = Math.max(
+				retrieveEstimatedRowsCount(viewQueryBuilder.buildSqlSelectRowIds(viewEvalCtx, filters, orderBys, queryLimit)),
+				rowIds.size());
+
+		//
+		// Keep the first rows in memory, as a preview, until the whole selection is created
+		final InMemoryViewRowIds previewRowIds = InMemoryViewRowIds.ofList(rowIds.subList(0, initialRows));
+		inMemorySelections.put(viewId.getViewId(), previewRowIds);
+		logger.trace("Created preview selection {}, rowsCount={}, estimatedRowsCount={}, duration={}", viewId, previewRowIds.size(), estimatedRowsCount, stopwatch);
+
+		final ViewRowIdsOrderedSelection partialSelection = selectionBuilder
+				.setSize(estimatedRowsCount)
+				.setFullyLoaded(false)
+				.build();
+
+		//
+		// Remember how to create the whole selection, when it will be needed
+		// NOTE: the SQL is built here, because it's evaluated in current context
+		final SqlCreateSelection sqlCreates = viewQueryBuilder.buildSqlCreateSelectionFrom(viewEvalCtx, viewId, filters, orderBys, queryLimit);
+		Check.assumeNull(sqlCreates.getSqlCreateSelectionLines(), "no selection lines shall be created for lazy selections: {}", sqlCreates);
+		lazySelections.put(partialSelection.getSelectionId(), new LazySelection(partialSelection, previewRowIds.size(), sqlCreates.getSqlCreateSelection()));
+
+		return partialSelection;
+	}
+
+	/**
+	 * @return the rows count estimated by the database's query planner for given SQL, or <code>-1</code> if there is no estimation
+	 */
+	private static long retrieveEstimatedRowsCount(final SqlAndParams sqlAndParams)
+	{
+		final String sql = "EXPLAIN " + sqlAndParams.getSql();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlAndParams.getSqlParams());
+			rs = pstmt.executeQuery();
+
+			// NOTE: first line is the top plan node, e.g. "Limit  (cost=0.42..1.23 rows=1000 width=4)"
+			if (!rs.next())
+			{
+				return -1;
+			}
+			final Matcher matcher = PATTERN_ExplainPlanRows.matcher(rs.getString(1));
+			return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlAndParams.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	@Override
+	public CompletableFuture<ViewRowIdsOrderedSelection> getFullyLoadedSelection(@NonNull final ViewRowIdsOrderedSelection selection)
+	{
+		if (selection.isFullyLoaded())
+		{
+			return CompletableFuture.completedFuture(selection);
+		}
+
+		// NOTE: the lazy selection is not loaded here, the future completes when somebody needs it loaded
+		final LazySelection lazySelection = lazySelections.get(selection.getSelectionId());
+		if (lazySelection != null)
+		{
+			return lazySelection.getFullyLoadedFuture();
+		}
+
+		// The selection was loaded in meantime => fetch the actual size
+		final ViewRowIdsOrderedSelection fullyLoadedSelection = selection.toBuilder()
+				.setSize(retrieveSize(selection.getSelectionId()))
+				.setFullyLoaded(true)
+				.build();
+		return CompletableFuture.completedFuture(fullyLoadedSelection);
+	}
+
+	/**
+	 * Creates the whole selection in database, if it was not already created.
+	 *
+	 * @return fully loaded selection
+	 */
+	ViewRowIdsOrderedSelection loadFully(@NonNull final ViewRowIdsOrderedSelection selection)
+	{
+		if (selection.isFullyLoaded())
+		{
+			return selection;
+		}
+
+		final LazySelection lazySelection = lazySelections.get(selection.getSelectionId());
+		if (lazySelection != null)
+		{
+			return lazySelection.load();
+		}
+
+		return getFullyLoadedSelection(selection).join();
+	}
+
+	/**
+	 * Creates the whole selection in database, but only if the requested page is not (fully) part of the preview.
+	 */
+	void loadIfPageNotInPreview(@NonNull final ViewRowIdsOrderedSelection selection, final int firstRow, final int pageLength)
+	{
+		if (selection.isFullyLoaded())
+		{
+			return;
+		}
+
+		final LazySelection lazySelection = lazySelections.get(selection.getSelectionId());
+		if (lazySelection != null && firstRow + pageLength > lazySelection.getPreviewSize())
+		{
+			logger.debug("Loading {} because page firstRow={}, pageLength={} is beyond the preview", selection, firstRow, pageLength);
+			lazySelection.load();
+		}
+	}
+
+	/**
+	 * Creates the whole selection in database, unless all given row IDs are in the preview.
+	 */
+	private void loadUnlessPreviewContainsAll(final String selectionId, final DocumentIdsSelection rowIds)
+	{
+		final LazySelection lazySelection = lazySelections.get(selectionId);
+		if (lazySelection == null)
+		{
+			return;
+		}
+
+		if (!rowIds.isAll())
+		{
+			final InMemoryViewRowIds previewRowIds = inMemorySelections.get(selectionId);
+			final Set<Integer> recordIds = convertToRecordIds(rowIds);
+			if (previewRowIds != null && previewRowIds.retainRowIds(recordIds).size() == recordIds.size())
+			{
+				return;
+			}
+		}
+
+		lazySelection.load();
+	}
+
+	/**
+	 * A selection which was not yet created in database (see {@link SqlViewRowIdsOrderedSelectionFactory#createOrderedSelectionLazy(SqlViewSelectionQueryBuilder, ViewEvaluationCtx, ViewId, List, List, int)}).
+	 */
+	private final class LazySelection
+	{
+		private final ViewRowIdsOrderedSelection partialSelection;
+		private final int previewSize;
+		private final SqlAndParams sqlCreateSelection;
+
+		private final CompletableFuture<ViewRowIdsOrderedSelection> fullyLoadedFuture = new CompletableFuture<>();
+		private volatile boolean deleted = false;
+
+		private LazySelection(final ViewRowIdsOrderedSelection partialSelection, final int previewSize, final SqlAndParams sqlCreateSelection)
+		{
+			this.partialSelection = partialSelection;
+			this.previewSize = previewSize;
+			this.sqlCreateSelection = sqlCreateSelection;
+		}
+
+		public int getPreviewSize()
+		{
+			return previewSize;
+		}
+
+		/** @return future which completes when the selection was created in database, i.e. after somebody called {@link #load()} */
+		public CompletableFuture<ViewRowIdsOrderedSelection> getFullyLoadedFuture()
+		{
+			return fullyLoadedFuture;
+		}
+
+		/**
+		 * Creates the selection in database, if not already created.
+		 * If that fails, it's not tried again, so everybody who needs this selection will fail too, instead of getting a truncated selection.
+		 */
+		public synchronized ViewRowIdsOrderedSelection load()
+		{
+			if (deleted)
+			{
+				throw new AdempiereException("Selection was already deleted")
+						.setParameter("selection", partialSelection);
+			}
+
+			if (!fullyLoadedFuture.isDone())
+			{
+				try
+				{
+					fullyLoadedFuture.complete(createSelection());
+				}
+				catch (final RuntimeException ex)
+				{
+					logger.warn("Failed creating selection {}", partialSelection, ex);
+					fullyLoadedFuture.completeExceptionally(ex);
+				}
+			}
+
+			try
+			{
+				return fullyLoadedFuture.get();
+			}
+			catch (final InterruptedException | ExecutionException ex)
+			{
+				throw AdempiereException.wrapIfNeeded(ex)
+						.setParameter("selection", partialSelection);
+			}
+		}
+
+		private ViewRowIdsOrderedSelection createSelection()
+		{
+			// NOTE: we are creating it out of transaction, because the selection is used by other requests too,
+			// and we are remembering it's created, no matter if the current transaction is rolled back.
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			final long rowsCount = DB.executeUpdateEx(sqlCreateSelection.getSql(), sqlCreateSelection.getSqlParamsArray(), ITrx.TRXNAME_None);
+			logger.trace("Created selection {}, rowsCount={}, duration={}", partialSelection, rowsCount, stopwatch);
+
+			// The preview is no longer needed, the rows will be fetched from the selection we just created.
+			// NOTE: in case of failure we keep the preview until the selection is deleted.
+			final String selectionId = partialSelection.getSelectionId();
+			inMemorySelections.remove(selectionId);
+			lazySelections.remove(selectionId, this);
+
+			return partialSelection.toBuilder()
+					.setSize(rowsCount)
+					.setFullyLoaded(true)
+					.build();
+		}
+
+		/** Makes sure the selection will not be created in database from now on */
+		public void markDeleted()
+		{
+			deleted = true;
+		}
+
+		/**
+		 * If the selection is currently being created in database, waits until that's done.
+		 *
+		 * @return true if the selection was created in database
+		 */
+		public synchronized boolean awaitCreatedInDatabase()
+		{
+			return fullyLoadedFuture.isDone() && !fullyLoadedFuture.isCompletedExceptionally();
+		}
+	}
+
 	@Override
 	public ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(final ViewEvaluationCtx viewEvalCtx, final ViewRowIdsOrderedSelection fromSelection, final List<DocumentQueryOrderBy> orderBys)
 	{
+		return createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, orderBys, rowId -> null);
+	}
+
+	/**
+	 * Creates a new selection from given one, ordered by given <code>orderBys</code>.
+	 * <p>
+	 * If given selection is kept in memory and all its rows are provided by <code>cachedRowsProvider</code>, those rows are sorted in memory.
+	 * Else the row IDs are sorted by the database.
+	 *
+	 * @param cachedRowsProvider provides the already loaded row of given row ID, or <code>null</code> if it's not loaded
+	 */
+	public ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(
+			final ViewEvaluationCtx viewEvalCtx,
+			final ViewRowIdsOrderedSelection fromSelectionParam,
+			final List<DocumentQueryOrderBy> orderBys,
+			@NonNull final Function<DocumentId, IViewRow> cachedRowsProvider)
+	{
+		// Make sure we are copying all rows
+		final ViewRowIdsOrderedSelection fromSelection = loadFully(fromSelectionParam);
+
 		final WindowId windowId = fromSelection.getWindowId();
 		final String fromSelectionId = fromSelection.getSelectionId();
 		final ViewId newViewId = ViewId.random(windowId);
 
+		//
+		// In-memory selection => order the row IDs and keep them in memory too
+		final InMemoryViewRowIds fromInMemoryRowIds = inMemorySelections.get(fromSelectionId);
+		if (fromInMemoryRowIds != null)
+		{
+			List<Integer> sortedRowIds = sortCachedRowsOrNull(fromInMemoryRowIds, orderBys, cachedRowsProvider);
+			if (sortedRowIds == null)
+			{
+				final SqlAndParams sqlSelectRowIds = newSqlViewSelectionQueryBuilder()
+						.buildSqlSelectRowIdsFromRowIds(viewEvalCtx, InMemoryViewRowIds.toSqlArrayLiteral(fromInMemoryRowIds.toList()), orderBys);
+				sortedRowIds = retrieveRowIds(sqlSelectRowIds);
+			}
+
+			final InMemoryViewRowIds inMemoryRowIds = InMemoryViewRowIds.ofList(sortedRowIds);
+			inMemorySelections.put(newViewId.getViewId(), inMemoryRowIds);
+
+			return ViewRowIdsOrderedSelection.builder()
+					.setViewId(newViewId)
+					.setSize(inMemoryRowIds.size())
+					.setOrderBys(orderBys)
+					.setQueryLimit(fromSelection.getQueryLimit())
+					.build();
+		}
+
 		final int rowsCount;
 		final SqlViewSelectionQueryBuilder viewQueryBuilder = newSqlViewSelectionQueryBuilder();
 		if (viewQueryBuilder.hasGroupingFields())
@@ -168,9 +631,35 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 				.build();
 	}
 
+	/**
+	 * @return the row IDs of given in-memory selection, sorted by their cached rows, or <code>null</code> if not all rows are cached
+	 */
+	private static List<Integer> sortCachedRowsOrNull(final InMemoryViewRowIds rowIds, final List<DocumentQueryOrderBy> orderBys, final Function<DocumentId, IViewRow> cachedRowsProvider)
+	{
+		final List<IViewRow> rows = new ArrayList<>(rowIds.size());
+		for (final int rowId : rowIds.toList())
+		{
+			final IViewRow row = cachedRowsProvider.apply(DocumentId.of(rowId));
+			if (row == null)
+			{
+				return null;
+			}
+			rows.add(row);
+		}
+
+		// NOTE: the sorting is stable, so rows with equal sort keys are keeping their current order, same as the database sorting does
+		return ViewRowsSortedIndex.build(rows, orderBys)
+				.getPage(0, rows.size())
+				.stream()
+				.map(DocumentId::toInt)
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	@Override
-	public ViewRowIdsOrderedSelection addRowIdsToSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	public ViewRowIdsOrderedSelection addRowIdsToSelection(final ViewRowIdsOrderedSelection selectionParam, final DocumentIdsSelection rowIds)
 	{
+		final ViewRowIdsOrderedSelection selection = loadFully(selectionParam);
+
 		if (rowIds.isEmpty())
 		{
 			// nothing changed
@@ -181,6 +670,19 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			throw new IllegalArgumentException("Cannot add ALL to selection");
 		}
 
+		//
+		// In-memory selection
+		// NOTE: we change it atomically, else concurrent changes of the same selection would be lost
+		final InMemoryViewRowIds inMemoryRowIdsNew = inMemorySelections.computeIfPresent(
+				selection.getSelectionId(),
+				(selectionId, inMemoryRowIds) -> inMemoryRowIds.addingRowIds(convertToRecordIds(rowIds)));
+		if (inMemoryRowIdsNew != null)
+		{
+			return selection.toBuilder()
+					.setSize(inMemoryRowIdsNew.size())
+					.build();
+		}
+
 		//
 		// Add
 		boolean hasChanges = false;
@@ -214,14 +716,31 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	}
 
 	@Override
-	public ViewRowIdsOrderedSelection removeRowIdsFromSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	public ViewRowIdsOrderedSelection removeRowIdsFromSelection(final ViewRowIdsOrderedSelection selectionParam, final DocumentIdsSelection rowIds)
 	{
+		final ViewRowIdsOrderedSelection selection = loadFully(selectionParam);
+
 		if (rowIds.isEmpty())
 		{
 			// nothing changed
 			return selection;
 		}
 
+		//
+		// In-memory selection
+		// NOTE: we change it atomically, else concurrent changes of the same selection would be lost
+		final InMemoryViewRowIds inMemoryRowIdsNew = inMemorySelections.computeIfPresent(
+				selection.getSelectionId(),
+				(selectionId, inMemoryRowIds) -> rowIds.isAll()
+						? InMemoryViewRowIds.EMPTY
+						: inMemoryRowIds.removingRowIds(convertToRecordIds(rowIds)));
+		if (inMemoryRowIdsNew != null)
+		{
+			return selection.toBuilder()
+					.setSize(inMemoryRowIdsNew.size())
+					.build();
+		}
+
 		//
 		// Delete
 		{
@@ -259,6 +778,27 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 			return false;
 		}
 
+		// Lazy selection => check the preview first, and create the whole selection only if the rows are not there
+		final LazySelection lazySelection = lazySelections.get(selection.getSelectionId());
+		if (lazySelection != null)
+		{
+			final InMemoryViewRowIds previewRowIds = inMemorySelections.get(selection.getSelectionId());
+			if (previewRowIds != null && (rowIds.isAll() ? previewRowIds.size() > 0 : previewRowIds.containsAny(convertToRecordIds(rowIds))))
+			{
+				return true;
+			}
+
+			lazySelection.load();
+		}
+
+		final InMemoryViewRowIds inMemoryRowIds = inMemorySelections.get(selection.getSelectionId());
+		if (inMemoryRowIds != null)
+		{
+			return rowIds.isAll()
+					? inMemoryRowIds.size() > 0
+					: inMemoryRowIds.containsAny(convertToRecordIds(rowIds));
+		}
+
 		final SqlAndParams sqlCount = newSqlViewSelectionQueryBuilder().buildSqlCount(selection.getSelectionId(), rowIds);
 		final int count = DB.getSQLValueEx(ITrx.TRXNAME_ThreadInherited, sqlCount.getSql(), sqlCount.getSqlParamsArray());
 		return count > 0;
@@ -268,6 +808,27 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	public void deleteSelection(@NonNull final ViewId viewId)
 	{
 		final String selectionId = viewId.getViewId();
+
+		// Lazy selection => make sure it's not created from now on and, if it was not created in database, just drop the preview
+		// NOTE: if it's currently being created, we wait for it, to not delete before it's created
+		final LazySelection lazySelection = lazySelections.remove(selectionId);
+		if (lazySelection != null)
+		{
+			lazySelection.markDeleted();
+			if (!lazySelection.awaitCreatedInDatabase())
+			{
+				inMemorySelections.remove(selectionId);
+				logger.trace("Removed lazy selection {}", selectionId);
+				return;
+			}
+		}
+
+		if (inMemorySelections.remove(selectionId) != null)
+		{
+			logger.trace("Removed in-memory selection {}", selectionId);
+			return;
+		}
+
 		final SqlViewSelectionQueryBuilder viewQueryBuilder = newSqlViewSelectionQueryBuilder();
 
 		// Delete selection lines
@@ -288,7 +849,36 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	@Override
 	public void scheduleDeleteSelections(final Set<String> viewIds)
 	{
-		SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(viewIds);
+		// Lazy selections are deleted from database only if they are (or will be) created there
+		// In-memory selections can be removed right away
+		final Set<String> viewIdsToDelete = viewIds.stream()
+				.filter(viewId -> !scheduleDeleteLazySelection(viewId))
+				.filter(viewId -> inMemorySelections.remove(viewId) == null)
+				.collect(ImmutableSet.toImmutableSet());
+		if (viewIdsToDelete.isEmpty())
+		{
+			return;
+		}
+
+		SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(viewIdsToDelete);
+	}
+
+	/**
+	 * @return true if given selection is a lazy selection, which was scheduled to be deleted if it's (or will be) created in database
+	 */
+	private boolean scheduleDeleteLazySelection(final String selectionId)
+	{
+		final LazySelection lazySelection = lazySelections.remove(selectionId);
+		if (lazySelection == null)
+		{
+			return false;
+		}
+
+		lazySelection.markDeleted();
+		inMemorySelections.remove(selectionId);
+		lazySelection.getFullyLoadedFuture()
+				.thenRun(() -> SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(ImmutableSet.of(selectionId)));
+		return true;
 	}
 
 	public static Set<DocumentId> retrieveRowIdsForLineIds(
@@ -27,10 +27,20 @@ public enum ViewCloseReason
 	/** Closed because user requested it */
 	USER_REQUEST,
 	/** Closed because it was removed automatically from cache (expired, cache size exceeded etc) */
-	CLEANUP;
+	CLEANUP,
+	/** Closed because the user opened too many views; the least recently used ones are closed first */
+	USER_VIEWS_LIMIT_EXCEEDED,
+	/** Closed because the views storage reached its size or memory limit; the least recently used views are closed first */
+	MEMORY_LIMIT_EXCEEDED;
 
 	public static ViewCloseReason fromCacheEvictedFlag(final boolean wasEvicted)
 	{
 		return wasEvicted ? ViewCloseReason.CLEANUP : ViewCloseReason.USER_REQUEST;
 	}
+
+	/** @return true if the view was closed automatically and not because the user requested it */
+	public boolean isEvicted()
+	{
+		return this != USER_REQUEST;
+	}
 }
@@ -1,5 +1,6 @@
 package de.metas.ui.web.view;
 
+import java.time.Duration;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -40,7 +41,7 @@ public class ViewConfiguration implements InitializingBean
 {
 	private static final Logger logger = LogManager.getLogger(ViewConfiguration.class);
 
-	private static final String BEANNAME_ViewMaintenanceScheduledExecutorService = "viewMaintenanceScheduledExecutorService";
+	static final String BEANNAME_ViewMaintenanceScheduledExecutorService = "viewMaintenanceScheduledExecutorService";
 
 	@Value("${metasfresh.view.clearViewSelectionsRateInSeconds:1800}")
 	private int clearViewSelectionsRateInSeconds;
@@ -72,4 +73,25 @@ public class ViewConfiguration implements InitializingBean
 						.build());
 	}
 
+	/**
+	 * The limits shared by all views storages, so they are enforced once, across all views.
+	 * Besides the expiration, the limits are off by default.
+	 */
+	@Bean
+	public ViewsStorageLimits viewsStorageLimits(
+			@Value("${metasfresh.webui.view.storage.expireAfterAccessMinutes:60}") final int expireAfterAccessMinutes,
+			@Value("${metasfresh.webui.view.storage.maxViewsPerUser:0}") final int maxViewsPerUser,
+			@Value("${metasfresh.webui.view.storage.maxViews:0}") final int maxViews,
+			@Value("${metasfresh.webui.view.storage.maxCachedRows:0}") final long maxCachedRows)
+	{
+		final ViewsStorageLimits limits = ViewsStorageLimits.builder()
+				.expireAfterAccess(Duration.ofMinutes(expireAfterAccessMinutes))
+				.maxViewsPerUser(maxViewsPerUser)
+				.maxViews(maxViews)
+				.maxCachedRows(maxCachedRows)
+				.build();
+		logger.info("Using views storage limits: {}", limits);
+		return limits;
+	}
+
 }
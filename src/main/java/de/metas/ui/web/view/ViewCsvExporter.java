@@ -0,0 +1,192 @@
+package de.metas.ui.web.view;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.view.descriptor.ViewLayout;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.json.JSONLookupValue;
+import de.metas.ui.web.window.datatypes.json.JSONNullValue;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementDescriptor;
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Exports view rows as CSV.
+ *
+ * Unlike {@link ViewExcelExporter}, the rows are written to the output stream as they are fetched (see {@link IView#forEachRow(List, java.util.function.Consumer)}),
+ * so the memory footprint does not depend on how many rows the view has.
+ */
+/* package */ class ViewCsvExporter
+{
+	private static final char SEPARATOR = ',';
+	private static final String LINE_SEPARATOR = "\r\n";
+
+	private final IView view;
+	private final DocumentIdsSelection rowIds;
+	private final ImmutableList<DocumentQueryOrderBy> orderBys;
+	private final ImmutableList<DocumentLayoutElementDescriptor> columns;
+	private final String adLanguage;
+
+	@Builder
+	private ViewCsvExporter(
+			@NonNull final IView view,
+			@NonNull final DocumentIdsSelection rowIds,
+			@Nullable final List<DocumentQueryOrderBy> orderBys,
+			@NonNull final ViewLayout layout,
+			@NonNull final String adLanguage)
+	{
+		if (rowIds.isEmpty())
+		{
+			throw new AdempiereException("@NoSelection@");
+		}
+
+		this.view = view;
+		this.rowIds = rowIds;
+		this.orderBys = orderBys != null ? ImmutableList.copyOf(orderBys) : ImmutableList.of();
+		this.columns = ImmutableList.copyOf(layout.getElements());
+		this.adLanguage = adLanguage;
+	}
+
+	public void export(@NonNull final OutputStream out)
+	{
+		try
+		{
+			final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			writeHeader(writer);
+
+			if (rowIds.isAll())
+			{
+				view.forEachRow(orderBys, row -> writeRow(writer, row));
+			}
+			else
+			{
+				view.streamByIds(rowIds).forEach(row -> writeRow(writer, row));
+			}
+
+			writer.flush();
+		}
+		catch (final IOException | UncheckedIOException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex)
+					.setParameter("viewId", view.getViewId());
+		}
+	}
+
+	private void writeHeader(final Writer writer) throws IOException
+	{
+		final List<String> captions = columns.stream()
+				.map(column -> column.getCaption(adLanguage))
+				.collect(ImmutableList.toImmutableList());
+		writeLine(writer, captions);
+	}
+
+	private void writeRow(final Writer writer, final IViewRow row)
+	{
+		final Map<String, Object> values = row.getFieldNameAndJsonValues();
+		final List<String> cells = columns.stream()
+				.map(column -> toCsvString(values.get(extractFieldName(column))))
+				.collect(ImmutableList.toImmutableList());
+
+		try
+		{
+			writeLine(writer, cells);
+		}
+		catch (final IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static String extractFieldName(final DocumentLayoutElementDescriptor column)
+	{
+		return column.getFields().iterator().next().getField();
+	}
+
+	private static void writeLine(final Writer writer, final List<String> cells) throws IOException
+	{
+		boolean first = true;
+		for (final String cell : cells)
+		{
+			if (!first)
+			{
+				writer.write(SEPARATOR);
+			}
+			writer.write(quoteIfNeeded(cell));
+			first = false;
+		}
+		writer.write(LINE_SEPARATOR);
+	}
+
+	/* package */ static String toCsvString(final Object jsonValue)
+	{
+		if (JSONNullValue.isNull(jsonValue))
+		{
+			return "";
+		}
+		else if (jsonValue instanceof JSONLookupValue)
+		{
+			final String caption = ((JSONLookupValue)jsonValue).getCaption();
+			return caption != null ? caption : "";
+		}
+		else if (jsonValue instanceof BigDecimal)
+		{
+			return ((BigDecimal)jsonValue).toPlainString();
+		}
+		else
+		{
+			// NOTE: dates are already ISO formatted strings at this point
+			return jsonValue.toString();
+		}
+	}
+
+	/* package */ static String quoteIfNeeded(@NonNull final String value)
+	{
+		if (value.indexOf(SEPARATOR) < 0
+				&& value.indexOf('"') < 0
+				&& value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0)
+		{
+			return value;
+		}
+
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+}
@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.impexp.AbstractExcelExporter;
 import org.adempiere.impexp.CellValue;
@@ -58,6 +60,7 @@ import lombok.NonNull;
 	private ViewExcelExporter(
 			@NonNull final IView view,
 			@NonNull final DocumentIdsSelection rowIds,
+			@Nullable final List<DocumentQueryOrderBy> orderBys,
 			@NonNull final ViewLayout layout,
 			@NonNull final String adLanguage)
 	{
@@ -66,7 +69,7 @@ import lombok.NonNull;
 
 		if (rowIds.isAll())
 		{
-			this.rows = new AllRowsSupplier(view);
+			this.rows = new AllRowsSupplier(view, orderBys != null ? ImmutableList.copyOf(orderBys) : ImmutableList.of());
 		}
 		else if (rowIds.isEmpty())
 		{
@@ -182,6 +185,7 @@ import lombok.NonNull;
 	{
 		private static final int PAGE_LENGTH = 100;
 		private final IView view;
+		private final ImmutableList<DocumentQueryOrderBy> orderBys;
 		private LoadingCache<PageIndex, ViewResult> cache = CacheBuilder.newBuilder()
 				.maximumSize(2) // cache max 2 pages
 				.build(new CacheLoader<PageIndex, ViewResult>()
@@ -189,15 +193,15 @@ import lombok.NonNull;
 					@Override
 					public ViewResult load(final PageIndex pageIndex)
 					{
-						final List<DocumentQueryOrderBy> orderBys = ImmutableList.of(); // default
 						return view.getPage(pageIndex.getFirstRow(), pageIndex.getPageLength(), orderBys);
 					}
 
 				});
 
-		private AllRowsSupplier(@NonNull final IView view)
+		private AllRowsSupplier(@NonNull final IView view, @NonNull final ImmutableList<DocumentQueryOrderBy> orderBys)
 		{
 			this.view = view;
+			this.orderBys = orderBys;
 		}
 
 		private ViewResult getPage(final PageIndex pageIndex)
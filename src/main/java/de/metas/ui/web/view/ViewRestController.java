@@ -6,7 +6,11 @@ import java.io.FileOutputStream;
 import java.util.List;
 import java.util.Objects;
 
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletResponse;
+
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.Check;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
@@ -24,6 +28,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.ui.web.cache.ETagResponseEntityBuilder;
@@ -406,22 +411,27 @@ public class ViewRestController
 	public ResponseEntity<Resource> exportToExcel(
 			@PathVariable("windowId") final String windowIdStr,
 			@PathVariable("viewId") final String viewIdStr,
-			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr)
+			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr,
+			@RequestParam(name = PARAM_OrderBy, required = false) @ApiParam(PARAM_OrderBy_Description) final String orderBysListStr)
 			throws Exception
 	{
 		userSession.assertLoggedIn();
 
 		final ViewId viewId = ViewId.ofViewIdString(viewIdStr, WindowId.fromJson(windowIdStr));
+		final IView view = viewsRepo.getView(viewId);
+		final ViewLayout layout = viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL);
+		final String adLanguage = userSession.getAD_Language();
 
 		final File tmpFile = File.createTempFile("exportToExcel", ".xls");
 
 		try (final FileOutputStream out = new FileOutputStream(tmpFile))
 		{
 			ViewExcelExporter.builder()
-					.view(viewsRepo.getView(viewId))
+					.view(view)
 					.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
-					.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
-					.adLanguage(userSession.getAD_Language())
+					.orderBys(DocumentQueryOrderBy.parseOrderBysList(orderBysListStr))
+					.layout(layout)
+					.adLanguage(adLanguage)
 					.build()
 					.export(out);
 		}
@@ -435,4 +445,72 @@ public class ViewRestController
 		final ResponseEntity<Resource> response = new ResponseEntity<>(new InputStreamResource(new FileInputStream(tmpFile)), headers, HttpStatus.OK);
 		return response;
 	}
+
+	@GetMapping("/{viewId}/export/csv")
+	public void exportToCsv(
+			@PathVariable("windowId") final String windowIdStr,
+			@PathVariable("viewId") final String viewIdStr,
+			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr,
+			@RequestParam(name = PARAM_OrderBy, required = false) @ApiParam(PARAM_OrderBy_Description) final String orderBysListStr,
+			final HttpServletResponse response)
+			throws Exception
+	{
+		userSession.assertLoggedIn();
+
+		final ViewId viewId = ViewId.ofViewIdString(viewIdStr, WindowId.fromJson(windowIdStr));
+		final IView view = viewsRepo.getView(viewId);
+		final ViewLayout layout = viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL);
+		final String adLanguage = userSession.getAD_Language();
+
+		final ViewCsvExporter exporter = ViewCsvExporter.builder()
+				.view(view)
+				.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
+				.orderBys(DocumentQueryOrderBy.parseOrderBysList(orderBysListStr))
+				.layout(layout)
+				.adLanguage(adLanguage)
+				.build();
+
+		final String filename = buildExportFilename(view, layout, adLanguage, "csv");
+		response.setContentType("text/csv; charset=UTF-8");
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "must-revalidate, post-check=0, pre-check=0");
+
+		// NOTE: rows are written directly to response while they are fetched from database
+		exporter.export(response.getOutputStream());
+		response.flushBuffer();
+	}
+
+	/**
+	 * @return export file name, built from view's description or, if none, from window's caption
+	 */
+	private static String buildExportFilename(final IView view, final ViewLayout layout, final String adLanguage, final String fileExtension)
+	{
+		String caption = view.getDescription().translate(adLanguage);
+		if (Check.isEmpty(caption, true))
+		{
+			caption = layout.getCaption(adLanguage);
+		}
+
+		return toExportFilename(caption, fileExtension);
+	}
+
+	/**
+	 * NOTE: only ASCII letters, digits, '-' and '_' are kept, so the name can be safely used in the <code>Content-Disposition</code> header.
+	 */
+	@VisibleForTesting
+	static String toExportFilename(@Nullable final String caption, @NonNull final String fileExtension)
+	{
+		String basename = caption != null ? caption.trim().replaceAll("[^A-Za-z0-9_-]+", "_") : "";
+		basename = basename.replaceAll("^_+|_+$", "");
+		if (basename.isEmpty())
+		{
+			basename = "report";
+		}
+		else if (basename.length() > 100)
+		{
+			basename = basename.substring(0, 100);
+		}
+
+		return basename + "." + fileExtension;
+	}
 }
@@ -97,6 +97,7 @@ public final class ViewResult
 	private final ViewId parentViewId;
 	private final ITranslatableString viewDescription;
 	private final long size;
+	private final boolean sizeEstimated;
 	private final int queryLimit;
 	private final boolean queryLimitHit;
 
@@ -130,6 +131,7 @@ public final class ViewResult
 		this.parentViewId = view.getParentViewId();
 		this.viewDescription = view.getDescription();
 		this.size = view.size();
+		this.sizeEstimated = view.isSizeEstimated();
 		this.queryLimit = view.getQueryLimit();
 		this.queryLimitHit = view.isQueryLimitHit();
 
@@ -160,6 +162,7 @@ public final class ViewResult
 		this.parentViewId = view.getParentViewId();
 		this.viewDescription = view.getDescription();
 		this.size = view.size();
+		this.sizeEstimated = view.isSizeEstimated();
 		this.queryLimit = view.getQueryLimit();
 		this.queryLimitHit = view.isQueryLimitHit();
 
@@ -226,6 +229,11 @@ public final class ViewResult
 		return size;
 	}
 
+	public boolean isSizeEstimated()
+	{
+		return sizeEstimated;
+	}
+
 	public int getFirstRow()
 	{
 		return firstRow;
@@ -51,6 +51,8 @@ public final class ViewRowIdsOrderedSelection
 	private final int queryLimit;
 	private final boolean queryLimitHit;
 
+	private final boolean fullyLoaded;
+
 	private ViewRowIdsOrderedSelection(final Builder builder)
 	{
 		super();
@@ -60,6 +62,8 @@ public final class ViewRowIdsOrderedSelection
 
 		queryLimit = builder.getQueryLimit();
 		queryLimitHit = builder.isQueryLimitHit();
+
+		fullyLoaded = builder.isFullyLoaded();
 	}
 
 	@Override
@@ -70,6 +74,7 @@ public final class ViewRowIdsOrderedSelection
 				.add("viewId", viewId)
 				.add("size", size)
 				.add("orderBys", orderBys.isEmpty() ? null : orderBys)
+				.add("fullyLoaded", fullyLoaded ? null : Boolean.FALSE)
 				.toString();
 	}
 	
@@ -79,7 +84,8 @@ public final class ViewRowIdsOrderedSelection
 				.setViewId(viewId)
 				.setSize(size)
 				.setOrderBys(orderBys)
-				.setQueryLimit(queryLimit);
+				.setQueryLimit(queryLimit)
+				.setFullyLoaded(fullyLoaded);
 	}
 
 	public ViewId getViewId()
@@ -117,6 +123,15 @@ public final class ViewRowIdsOrderedSelection
 		return queryLimitHit;
 	}
 
+	/**
+	 * @return true if all rows were materialized.
+	 *         If false, only the first rows were materialized and {@link #getSize()} is just an estimation.
+	 */
+	public boolean isFullyLoaded()
+	{
+		return fullyLoaded;
+	}
+
 	public static final class Builder
 	{
 		private ViewId viewId;
@@ -125,6 +140,8 @@ public final class ViewRowIdsOrderedSelection
 
 		private int queryLimit;
 
+		private boolean fullyLoaded = true;
+
 		private Builder()
 		{
 		}
@@ -179,6 +196,17 @@ public final class ViewRowIdsOrderedSelection
 			return queryLimit;
 		}
 
+		public Builder setFullyLoaded(final boolean fullyLoaded)
+		{
+			this.fullyLoaded = fullyLoaded;
+			return this;
+		}
+
+		private boolean isFullyLoaded()
+		{
+			return fullyLoaded;
+		}
+
 		private boolean isQueryLimitHit()
 		{
 			return queryLimit > 0
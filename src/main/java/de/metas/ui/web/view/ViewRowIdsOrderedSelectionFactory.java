@@ -2,10 +2,12 @@ package de.metas.ui.web.view;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -49,4 +51,14 @@ public interface ViewRowIdsOrderedSelectionFactory
 	void deleteSelection(ViewId viewId);
 
 	void scheduleDeleteSelections(Set<String> viewIds);
+
+	/**
+	 * @return future which completes when given selection is fully loaded (see {@link ViewRowIdsOrderedSelection#isFullyLoaded()}).
+	 *         If the selection is already fully loaded, an already completed future is returned.
+	 *         If the selection could not be loaded, the future completes exceptionally.
+	 */
+	default CompletableFuture<ViewRowIdsOrderedSelection> getFullyLoadedSelection(@NonNull final ViewRowIdsOrderedSelection selection)
+	{
+		return CompletableFuture.completedFuture(selection);
+	}
 }
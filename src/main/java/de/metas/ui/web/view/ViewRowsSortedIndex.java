@@ -0,0 +1,206 @@
+package de.metas.ui.web.view;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.view.descriptor.annotation.ViewColumnHelper;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.json.JSONLookupValue;
+import de.metas.ui.web.window.datatypes.json.JSONNullValue;
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Top level {@link IViewRow} IDs, sorted by a given list of {@link DocumentQueryOrderBy}s.
+ *
+ * The rows are sorted by typed sort keys which are extracted only once per row, before sorting.
+ * The sort keys are the row's {@link de.metas.ui.web.view.descriptor.annotation.ViewColumn} field values (e.g. numbers and dates, not their JSON representation).
+ * Only for fields which are not such columns, the values from {@link IViewRow#getFieldNameAndJsonValues()} are used.
+ * Lookup values are sorted by their display name.
+ *
+ * @see ViewRowsSortedIndexes
+ */
+@Immutable
+public final class ViewRowsSortedIndex
+{
+	public static ViewRowsSortedIndex build(@NonNull final Collection<? extends IViewRow> rows, @NonNull final List<DocumentQueryOrderBy> orderBys)
+	{
+		final ImmutableList<DocumentId> rowIds;
+		if (orderBys.isEmpty())
+		{
+			rowIds = rows.stream()
+					.map(IViewRow::getId)
+					.collect(ImmutableList.toImmutableList());
+		}
+		else
+		{
+			final ImmutableMap<String, Integer> sortKeyIndexByFieldName = createSortKeyIndexByFieldName(orderBys);
+			final Comparator<RowSortKeys> comparator = orderBys.stream()
+					.map(orderBy -> orderBy.asComparator((RowSortKeys sortKeys, String fieldName) -> sortKeys.getSortKey(sortKeyIndexByFieldName.get(fieldName))))
+					.reduce((cmp1, cmp2) -> cmp1.thenComparing(cmp2))
+					.get();
+
+			rowIds = rows.stream()
+					.map(row -> RowSortKeys.extract(row, sortKeyIndexByFieldName))
+					.sorted(comparator)
+					.map(RowSortKeys::getRowId)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		return new ViewRowsSortedIndex(orderBys, rowIds);
+	}
+
+	private static ImmutableMap<String, Integer> createSortKeyIndexByFieldName(final List<DocumentQueryOrderBy> orderBys)
+	{
+		final ImmutableMap.Builder<String, Integer> sortKeyIndexByFieldName = ImmutableMap.builder();
+		int index = 0;
+		for (final String fieldName : orderBys.stream().map(DocumentQueryOrderBy::getFieldName).distinct().collect(ImmutableList.toImmutableList()))
+		{
+			sortKeyIndexByFieldName.put(fieldName, index);
+			index++;
+		}
+		return sortKeyIndexByFieldName.build();
+	}
+
+	private final ImmutableList<DocumentQueryOrderBy> orderBys;
+	private final ImmutableList<DocumentId> rowIds;
+
+	private ViewRowsSortedIndex(final List<DocumentQueryOrderBy> orderBys, final ImmutableList<DocumentId> rowIds)
+	{
+		this.orderBys = ImmutableList.copyOf(orderBys);
+		this.rowIds = rowIds;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("orderBys", orderBys)
+				.add("size", rowIds.size())
+				.toString();
+	}
+
+	public int size()
+	{
+		return rowIds.size();
+	}
+
+	/**
+	 * @return row IDs from given (zero based) <code>firstRow</code>; if <code>firstRow</code> is beyond the end, an empty list is returned
+	 */
+	public List<DocumentId> getPage(final int firstRow, final int pageLength)
+	{
+		if (firstRow < 0 || firstRow >= rowIds.size() || pageLength <= 0)
+		{
+			return ImmutableList.of();
+		}
+
+		final int lastRowExclusive = (int)Math.min((long)firstRow + pageLength, rowIds.size());
+		return rowIds.subList(firstRow, lastRowExclusive);
+	}
+
+	private static final class RowSortKeys
+	{
+		public static RowSortKeys extract(final IViewRow row, final Map<String, Integer> sortKeyIndexByFieldName)
+		{
+			Map<String, Object> jsonValues = null; // lazy, only if needed
+
+			final Object[] sortKeys = new Object[sortKeyIndexByFieldName.size()];
+			for (final Map.Entry<String, Integer> e : sortKeyIndexByFieldName.entrySet())
+			{
+				final String fieldName = e.getKey();
+				final Object value;
+				if (ViewColumnHelper.hasColumn(row.getClass(), fieldName))
+				{
+					value = ViewColumnHelper.extractFieldValueOrNull(row, fieldName);
+				}
+				else
+				{
+					if (jsonValues == null)
+					{
+						jsonValues = row.getFieldNameAndJsonValues();
+					}
+					value = jsonValues.get(fieldName);
+				}
+
+				sortKeys[e.getValue()] = toSortKey(value);
+			}
+
+			return new RowSortKeys(row.getId(), sortKeys);
+		}
+
+		private static Object toSortKey(final Object value)
+		{
+			if (value == null || JSONNullValue.isNull(value))
+			{
+				return null;
+			}
+			else if (value instanceof LookupValue)
+			{
+				return ((LookupValue)value).getDisplayName();
+			}
+			else if (value instanceof JSONLookupValue)
+			{
+				return ((JSONLookupValue)value).getCaption();
+			}
+			else if (value instanceof Comparable)
+			{
+				return value;
+			}
+			else
+			{
+				return value.toString();
+			}
+		}
+
+		private final DocumentId rowId;
+		private final Object[] sortKeys;
+
+		private RowSortKeys(final DocumentId rowId, final Object[] sortKeys)
+		{
+			this.rowId = rowId;
+			this.sortKeys = sortKeys;
+		}
+
+		public DocumentId getRowId()
+		{
+			return rowId;
+		}
+
+		public Object getSortKey(final int index)
+		{
+			return sortKeys[index];
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package de.metas.ui.web.view;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The {@link ViewRowsSortedIndex}es of a view's top level rows, one for each list of {@link DocumentQueryOrderBy}s.
+ * <p>
+ * The indexes are built lazily. An index is built again if it was built for another rows collection than the given one,
+ * so the callers shall provide the same collection instance as long as the rows are not changed.
+ */
+public final class ViewRowsSortedIndexes
+{
+	private final ConcurrentHashMap<ImmutableList<DocumentQueryOrderBy>, RowsSortedIndex> sortedIndexesByOrderBys = new ConcurrentHashMap<>();
+
+	public ViewRowsSortedIndex getSortedIndex(@NonNull final Collection<? extends IViewRow> rows, @NonNull final List<DocumentQueryOrderBy> orderBys)
+	{
+		final ImmutableList<DocumentQueryOrderBy> orderBysKey = ImmutableList.copyOf(orderBys);
+		return sortedIndexesByOrderBys.compute(orderBysKey, (key, existingSortedIndex) -> {
+			// NOTE: make sure the index was built for current rows, in case the rows were reloaded meanwhile
+			if (existingSortedIndex != null && existingSortedIndex.getRows() == rows)
+			{
+				return existingSortedIndex;
+			}
+
+			return new RowsSortedIndex(rows, ViewRowsSortedIndex.build(rows, key));
+		})
+				.getSortedIndex();
+	}
+
+	public void clear()
+	{
+		sortedIndexesByOrderBys.clear();
+	}
+
+	@lombok.Value
+	private static final class RowsSortedIndex
+	{
+		@NonNull
+		private final Collection<? extends IViewRow> rows;
+		@NonNull
+		private final ViewRowsSortedIndex sortedIndex;
+	}
+}
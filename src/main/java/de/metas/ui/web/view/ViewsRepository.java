@@ -6,6 +6,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
@@ -13,13 +16,13 @@ import javax.annotation.PostConstruct;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.Check;
-import org.adempiere.util.lang.MutableInt;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.Adempiere;
 import org.compiere.util.DB;
 import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Repository;
@@ -27,6 +30,7 @@ import org.springframework.stereotype.Repository;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Streams;
 
 import de.metas.logging.LogManager;
@@ -81,7 +85,10 @@ public class ViewsRepository implements IViewsRepository
 	private boolean truncateSelectionOnStartUp;
 
 	private final ConcurrentHashMap<WindowId, IViewsIndexStorage> viewsIndexStorages = new ConcurrentHashMap<>();
-	private final IViewsIndexStorage defaultViewsIndexStorage = new DefaultViewsRepositoryStorage();
+	private final DefaultViewsRepositoryStorage defaultViewsIndexStorage;
+
+	private final AtomicLong stats_notifiedViewsCount = new AtomicLong();
+	private final AtomicLong stats_skippedViewsCount = new AtomicLong();
 
 	/**
 	 * 
@@ -90,10 +97,41 @@ public class ViewsRepository implements IViewsRepository
 	 */
 	public ViewsRepository(
 			@NonNull final Adempiere neededForDBAccess,
-			@NonNull final Collection<IViewFactory> viewFactories)
+			@NonNull final Collection<IViewFactory> viewFactories,
+			@NonNull final ViewsStorageLimits viewsStorageLimits,
+			@Value("${metasfresh.webui.view.storage.cleanupRateInSeconds:60}") final int cleanupRateInSeconds,
+			@Qualifier(ViewConfiguration.BEANNAME_ViewMaintenanceScheduledExecutorService) @NonNull final ScheduledExecutorService viewMaintenanceScheduledExecutor)
 	{
 		factories = createFactoriesMap(viewFactories);
 		logger.info("Registered following view factories: ", factories);
+
+		defaultViewsIndexStorage = new DefaultViewsRepositoryStorage(viewsStorageLimits);
+		logger.info("Using {}", defaultViewsIndexStorage);
+
+		if (cleanupRateInSeconds > 0)
+		{
+			viewMaintenanceScheduledExecutor.scheduleWithFixedDelay(
+					this::cleanupViewsIndexStoragesNoFail, // command, don't fail because on failure the task won't be re-scheduled
+					cleanupRateInSeconds, // initialDelay
+					cleanupRateInSeconds, // delay
+					TimeUnit.SECONDS // timeUnit
+			);
+			logger.info("Cleaning up views storages each {} seconds", cleanupRateInSeconds);
+		}
+	}
+
+	private void cleanupViewsIndexStoragesNoFail()
+	{
+		streamAllViewsIndexStorages().forEach(viewsIndexStorage -> {
+			try
+			{
+				viewsIndexStorage.cleanup();
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed cleaning up {}. Ignored.", viewsIndexStorage, ex);
+			}
+		});
 	}
 
 	@PostConstruct
@@ -216,9 +254,14 @@ public class ViewsRepository implements IViewsRepository
 		return defaultViewsIndexStorage;
 	}
 
+	private Stream<IViewsIndexStorage> streamAllViewsIndexStorages()
+	{
+		return Streams.concat(viewsIndexStorages.values().stream(), Stream.of(defaultViewsIndexStorage));
+	}
+
 	private Stream<IView> streamAllViews()
 	{
-		return Streams.concat(viewsIndexStorages.values().stream(), Stream.of(defaultViewsIndexStorage))
+		return streamAllViewsIndexStorages()
 				.flatMap(IViewsIndexStorage::streamAllViews);
 	}
 
@@ -360,9 +403,17 @@ public class ViewsRepository implements IViewsRepository
 	@Override
 	public IView getViewIfExists(final ViewId viewId)
 	{
-		final IView view = getViewsStorageFor(viewId).getByIdOrNull(viewId);
+		final IViewsIndexStorage viewsStorage = getViewsStorageFor(viewId);
+		final IView view = viewsStorage.getByIdOrNull(viewId);
 		if (view == null)
 		{
+			final ViewCloseReason closeReason = viewsStorage.getEvictedViewCloseReasonOrNull(viewId);
+			if (closeReason != null)
+			{
+				throw new EntityNotFoundException("View was closed (" + closeReason + "): " + viewId)
+						.setParameter("viewId", viewId)
+						.setParameter("closeReason", closeReason);
+			}
 			throw new EntityNotFoundException("No view found for viewId=" + viewId);
 		}
 
@@ -395,13 +446,29 @@ public class ViewsRepository implements IViewsRepository
 			return;
 		}
 
-		final MutableInt notifiedCount = MutableInt.zero();
-		streamAllViews()
-				.forEach(view -> {
-					view.notifyRecordsChanged(recordRefs);
-					notifiedCount.incrementAndGet();
-				});
+		final ImmutableSet<String> tableNames = recordRefs.stream()
+				.map(TableRecordReference::getTableName)
+				.collect(ImmutableSet.toImmutableSet());
+
+		final int notifiedCount = streamAllViewsIndexStorages()
+				.mapToInt(viewsIndexStorage -> viewsIndexStorage.notifyRecordsChanged(recordRefs, tableNames))
+				.sum();
 
-		logger.debug("Notified {} views about changed records: {}", notifiedCount, recordRefs);
+		final long skippedCount = Math.max(streamAllViewsIndexStorages().mapToLong(IViewsIndexStorage::size).sum() - notifiedCount, 0);
+		stats_notifiedViewsCount.addAndGet(notifiedCount);
+		stats_skippedViewsCount.addAndGet(skippedCount);
+
+		logger.debug("Notified {} views (skipped {}) about changed records: {}", notifiedCount, skippedCount, recordRefs);
+	}
+
+	@Override
+	public Map<String, Object> getStatistics()
+	{
+		return ImmutableMap.<String, Object> builder()
+				.put("viewsCount", streamAllViewsIndexStorages().mapToLong(IViewsIndexStorage::size).sum())
+				.put("defaultStorage", defaultViewsIndexStorage.getStatistics())
+				.put("notifyRecordsChanged.notifiedViewsCount", stats_notifiedViewsCount.get())
+				.put("notifyRecordsChanged.skippedViewsCount", stats_skippedViewsCount.get())
+				.build();
 	}
 }
@@ -0,0 +1,243 @@
+package de.metas.ui.web.view;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.view.DefaultViewsRepositoryStorage.ViewEntry;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Limits of {@link DefaultViewsRepositoryStorage}s, together with the least recently used views bookkeeping which is needed to enforce them.
+ * <p>
+ * The limits are enforced across all storages which are sharing the same instance (see {@link ViewConfiguration#viewsStorageLimits(int, int, int, long)}),
+ * i.e. the least recently used view is evicted, no matter in which of those storages it is.
+ * <p>
+ * NOTE: all methods shall be called while holding the {@link #lock}.
+ */
+public final class ViewsStorageLimits
+{
+	static final int OWNER_USER_ID_NONE = -1;
+
+	private final long expireAfterAccessMillis;
+	private final int maxViewsPerUser;
+	private final int maxViews;
+	private final long maxCachedRows;
+
+	/** Guards the maps below and the views of all storages which are sharing this instance */
+	final Object lock = new Object();
+	/** Views of all storages, least recently used first */
+	private final LinkedHashMap<ViewId, ViewEntry> viewsLRU = newAccessOrderedMap();
+	/** Entries of {@link #viewsLRU} grouped by owner user ID, least recently used first */
+	private final HashMap<Integer, LinkedHashMap<ViewId, ViewEntry>> viewsLRUByUserId = new HashMap<>();
+	/** Sum of the sampled cached rows count of all entries */
+	private long cachedRowsCount = 0;
+
+	/** @return limits having views expired after one hour and no other limit */
+	public static ViewsStorageLimits unbounded()
+	{
+		return builder().expireAfterAccess(Duration.ofHours(1)).build();
+	}
+
+	/**
+	 * @param maxViewsPerUser max views per user; zero or negative means no limit
+	 * @param maxViews max views; zero or negative means no limit
+	 * @param maxCachedRows max rows cached by all views; zero or negative means no limit
+	 */
+	@Builder
+	private ViewsStorageLimits(
+			@NonNull final Duration expireAfterAccess,
+			final int maxViewsPerUser,
+			final int maxViews,
+			final long maxCachedRows)
+	{
+		this.expireAfterAccessMillis = expireAfterAccess.toMillis();
+		this.maxViewsPerUser = maxViewsPerUser;
+		this.maxViews = maxViews;
+		this.maxCachedRows = maxCachedRows;
+	}
+
+	private static LinkedHashMap<ViewId, ViewEntry> newAccessOrderedMap()
+	{
+		return new LinkedHashMap<>(16, 0.75f, true); // accessOrder=true
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("expireAfterAccessMillis", expireAfterAccessMillis)
+				.add("maxViewsPerUser", maxViewsPerUser)
+				.add("maxViews", maxViews)
+				.add("maxCachedRows", maxCachedRows)
+				.toString();
+	}
+
+	boolean isExpired(final ViewEntry entry, final long now)
+	{
+		return entry.isExpired(now, expireAfterAccessMillis);
+	}
+
+	void addEntry(final ViewEntry entry)
+	{
+		final ViewId viewId = entry.getViewId();
+		viewsLRU.put(viewId, entry);
+		viewsLRUByUserId.computeIfAbsent(entry.getOwnerUserId(), k -> newAccessOrderedMap()).put(viewId, entry);
+		cachedRowsCount += entry.getCachedRowsCount();
+	}
+
+	void removeEntry(final ViewEntry entry)
+	{
+		final ViewId viewId = entry.getViewId();
+		if (!viewsLRU.remove(viewId, entry))
+		{
+			return;
+		}
+
+		final int ownerUserId = entry.getOwnerUserId();
+		final LinkedHashMap<ViewId, ViewEntry> userViewsLRU = viewsLRUByUserId.get(ownerUserId);
+		if (userViewsLRU != null)
+		{
+			userViewsLRU.remove(viewId);
+			if (userViewsLRU.isEmpty())
+			{
+				viewsLRUByUserId.remove(ownerUserId);
+			}
+		}
+
+		cachedRowsCount -= entry.getCachedRowsCount();
+	}
+
+	/** Marks given entry as the most recently used one */
+	void touchEntry(final ViewEntry entry, final long now)
+	{
+		final ViewId viewId = entry.getViewId();
+		viewsLRU.get(viewId);
+
+		final LinkedHashMap<ViewId, ViewEntry> userViewsLRU = viewsLRUByUserId.get(entry.getOwnerUserId());
+		if (userViewsLRU != null)
+		{
+			userViewsLRU.get(viewId);
+		}
+
+		entry.setLastAccessMillis(now);
+		cachedRowsCount += entry.updateCachedRowsCount();
+	}
+
+	/**
+	 * Removes the expired entries and enforces the limits after the view of given entry was added.
+	 *
+	 * @param removedEntries where the removed entries are collected
+	 */
+	void enforceAfterAdd(final ViewEntry addedEntry, final long now, final Map<ViewEntry, ViewCloseReason> removedEntries)
+	{
+		removeExpiredEntries(now, removedEntries);
+		enforceMaxViewsPerUser(addedEntry.getOwnerUserId(), removedEntries);
+		enforceMaxViewsAndCachedRows(removedEntries);
+	}
+
+	/**
+	 * Removes the expired entries and, because views are caching more rows while they are used, samples their cached rows count and enforces the limits again.
+	 *
+	 * @param removedEntries where the removed entries are collected
+	 */
+	void cleanup(final long now, final Map<ViewEntry, ViewCloseReason> removedEntries)
+	{
+		removeExpiredEntries(now, removedEntries);
+
+		for (final ViewEntry entry : viewsLRU.values())
+		{
+			cachedRowsCount += entry.updateCachedRowsCount();
+		}
+		enforceMaxViewsAndCachedRows(removedEntries);
+	}
+
+	private static ViewEntry getLeastRecentlyUsed(final LinkedHashMap<ViewId, ViewEntry> entries)
+	{
+		return entries.isEmpty() ? null : entries.values().iterator().next();
+	}
+
+	/** Removes the entry from its storage and from here */
+	private void evictEntry(final ViewEntry entry, final ViewCloseReason closeReason, final Map<ViewEntry, ViewCloseReason> removedEntries)
+	{
+		entry.getStorage().removeEntry(entry);
+		removedEntries.put(entry, closeReason);
+	}
+
+	/** Removes the expired entries. Because {@link #viewsLRU} is access ordered, those are always at the beginning. */
+	private void removeExpiredEntries(final long now, final Map<ViewEntry, ViewCloseReason> removedEntries)
+	{
+		for (ViewEntry entry = getLeastRecentlyUsed(viewsLRU); entry != null && isExpired(entry, now); entry = getLeastRecentlyUsed(viewsLRU))
+		{
+			evictEntry(entry, ViewCloseReason.CLEANUP, removedEntries);
+		}
+	}
+
+	private void enforceMaxViewsPerUser(final int ownerUserId, final Map<ViewEntry, ViewCloseReason> removedEntries)
+	{
+		if (maxViewsPerUser <= 0 || ownerUserId == OWNER_USER_ID_NONE)
+		{
+			return;
+		}
+
+		final LinkedHashMap<ViewId, ViewEntry> userViewsLRU = viewsLRUByUserId.get(ownerUserId);
+		while (userViewsLRU != null && userViewsLRU.size() > maxViewsPerUser)
+		{
+			evictEntry(getLeastRecentlyUsed(userViewsLRU), ViewCloseReason.USER_VIEWS_LIMIT_EXCEEDED, removedEntries);
+		}
+	}
+
+	/** Removes the least recently used entries while we are over limits, but never the most recently used one. */
+	private void enforceMaxViewsAndCachedRows(final Map<ViewEntry, ViewCloseReason> removedEntries)
+	{
+		while (viewsLRU.size() > 1 && isOverMaxViewsOrCachedRows())
+		{
+			evictEntry(getLeastRecentlyUsed(viewsLRU), ViewCloseReason.MEMORY_LIMIT_EXCEEDED, removedEntries);
+		}
+	}
+
+	private boolean isOverMaxViewsOrCachedRows()
+	{
+		return (maxViews > 0 && viewsLRU.size() > maxViews)
+				|| (maxCachedRows > 0 && cachedRowsCount > maxCachedRows);
+	}
+
+	Map<String, Object> getStatistics()
+	{
+		return ImmutableMap.<String, Object> builder()
+				.put("views", viewsLRU.size())
+				.put("users", viewsLRUByUserId.size())
+				.put("cachedRows", cachedRowsCount)
+				.put("maxViewsPerUser", maxViewsPerUser)
+				.put("maxViews", maxViews)
+				.put("maxCachedRows", maxCachedRows)
+				.build();
+	}
+}
@@ -88,6 +88,9 @@ public class SqlViewBinding implements SqlEntityBinding
 
 	private final IViewInvalidationAdvisor viewInvalidationAdvisor;
 
+	private final int lazySelectionInitialRows;
+	private final int inMemorySelectionMaxRows;
+
 	public static final Builder builder()
 	{
 		return new Builder();
@@ -148,6 +151,9 @@ public class SqlViewBinding implements SqlEntityBinding
 		rowIdsConverter = builder.getRowIdsConverter();
 
 		viewInvalidationAdvisor = builder.getViewInvalidationAdvisor();
+
+		lazySelectionInitialRows = builder.getLazySelectionInitialRows();
+		inMemorySelectionMaxRows = builder.getInMemorySelectionMaxRows();
 	}
 
 	@Override
@@ -316,6 +322,36 @@ public class SqlViewBinding implements SqlEntityBinding
 		return viewInvalidationAdvisor;
 	}
 
+	/**
+	 * @return how many row IDs shall be fetched (and kept in memory) when the selection is created; the whole selection will be created only when needed.
+	 *         If zero or negative, the whole selection will be created at once.
+	 */
+	public int getLazySelectionInitialRows()
+	{
+		return lazySelectionInitialRows;
+	}
+
+	/**
+	 * @return true if lazy selections are enabled and supported by this view (i.e. has no grouping fields and it's keyed by a single integer column)
+	 */
+	public boolean isLazySelection()
+	{
+		return lazySelectionInitialRows > 0 && !hasGroupingFields() && keyColumnNamesMap.isSingleIntKey();
+	}
+
+	/**
+	 * @return max number of rows for which the selection shall be kept in memory instead of <code>T_WEBUI_ViewSelection</code>.
+	 *         Zero if in-memory selections are not enabled or not supported by this view (i.e. has grouping fields or it's not keyed by a single integer column).
+	 */
+	public int getInMemorySelectionMaxRows()
+	{
+		if (inMemorySelectionMaxRows <= 0 || hasGroupingFields() || !keyColumnNamesMap.isSingleIntKey())
+		{
+			return 0;
+		}
+		return inMemorySelectionMaxRows;
+	}
+
 	@lombok.Value
 	private static final class OrderByFieldNameAliasMap
 	{
@@ -370,6 +406,9 @@ public class SqlViewBinding implements SqlEntityBinding
 
 		private IViewInvalidationAdvisor viewInvalidationAdvisor = DefaultViewInvalidationAdvisor.instance;
 
+		private int lazySelectionInitialRows = 0;
+		private int inMemorySelectionMaxRows = 0;
+
 		private Builder()
 		{
 		}
@@ -600,5 +639,43 @@ public class SqlViewBinding implements SqlEntityBinding
 		{
 			return viewInvalidationAdvisor;
 		}
+
+		/**
+		 * Enables lazy selection creation: only the first <code>lazySelectionInitialRows</code> row IDs will be fetched (and kept in memory) when the selection is created,
+		 * the whole selection will be created only when needed (e.g. when a page beyond those rows is requested).
+		 *
+		 * NOTE: not supported for views with grouping fields.
+		 *
+		 * @param lazySelectionInitialRows how many rows to materialize upfront; zero or negative means "materialize all rows upfront" (default)
+		 */
+		public Builder lazySelectionInitialRows(final int lazySelectionInitialRows)
+		{
+			this.lazySelectionInitialRows = lazySelectionInitialRows;
+			return this;
+		}
+
+		private int getLazySelectionInitialRows()
+		{
+			return lazySelectionInitialRows;
+		}
+
+		/**
+		 * Enables in-memory selections: if the view has at most <code>inMemorySelectionMaxRows</code> rows,
+		 * its row IDs will be kept in memory instead of being inserted into <code>T_WEBUI_ViewSelection</code>.
+		 *
+		 * NOTE: supported only for views with a single integer key column and without grouping fields.
+		 *
+		 * @param inMemorySelectionMaxRows zero or negative means "always use T_WEBUI_ViewSelection" (default)
+		 */
+		public Builder inMemorySelectionMaxRows(final int inMemorySelectionMaxRows)
+		{
+			this.inMemorySelectionMaxRows = inMemorySelectionMaxRows;
+			return this;
+		}
+
+		private int getInMemorySelectionMaxRows()
+		{
+			return inMemorySelectionMaxRows;
+		}
 	}
 }
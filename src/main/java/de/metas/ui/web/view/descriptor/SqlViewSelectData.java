@@ -64,6 +64,7 @@ public class SqlViewSelectData
 	private final IStringExpression _sqlSelectRowIdsByPage;
 	private final IStringExpression _sqlSelectById;
 	private final IStringExpression _sqlSelectLines;
+	private final IStringExpression _sqlSelectByRowIds;
 
 	@Builder
 	private SqlViewSelectData(
@@ -117,6 +118,25 @@ public class SqlViewSelectData
 		{
 			this._sqlSelectLines = null;
 		}
+
+		if (groupingBinding == null && keyColumnNamesMap.isSingleIntKey())
+		{
+			_sqlSelectByRowIds = buildSqlSelect_WithoutGrouping(
+					sqlTableName,
+					sqlTableAlias,
+					keyColumnNamesMap,
+					displayFieldNames,
+					allFields,
+					buildSqlSelectionSourceFromRowIds(keyColumnNamesMap))
+							//
+							.toComposer()
+							.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
+							.build();
+		}
+		else
+		{
+			_sqlSelectByRowIds = null;
+		}
 	}
 
 	private IStringExpression getSqlSelectByPage()
@@ -140,6 +160,12 @@ public class SqlViewSelectData
 		return _sqlSelectLines;
 	}
 
+	private IStringExpression getSqlSelectByRowIds()
+	{
+		Check.assumeNotNull(_sqlSelectByRowIds, "sqlSelectByRowIds is not null (only single integer key without grouping is supported)");
+		return _sqlSelectByRowIds;
+	}
+
 	private static List<SqlViewRowFieldBinding> extractKeyFields(final Collection<SqlViewRowFieldBinding> allFields, final SqlViewKeyColumnNamesMap keyColumnNamesMap)
 	{
 		final List<String> keyColumnNames = keyColumnNamesMap.getKeyColumnNames();
@@ -161,7 +187,7 @@ public class SqlViewSelectData
 	{
 		if (groupingBinding == null)
 		{
-			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields);
+			return buildSqlSelect_WithoutGrouping(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, I_T_WEBUI_ViewSelection.Table_Name);
 		}
 		else
 		{
@@ -169,12 +195,16 @@ public class SqlViewSelectData
 		}
 	}
 
+	/**
+	 * @param sqlSelectionSource <code>T_WEBUI_ViewSelection</code> or an inline view having the same UUID, Line and key columns
+	 */
 	private static IStringExpression buildSqlSelect_WithoutGrouping(
 			final String sqlTableName,
 			final String sqlTableAlias,
 			final SqlViewKeyColumnNamesMap keyColumnNamesMap,
 			final Collection<String> displayFieldNames,
-			final Collection<SqlViewRowFieldBinding> allFields)
+			final Collection<SqlViewRowFieldBinding> allFields,
+			final String sqlSelectionSource)
 	{
 		final List<String> sqlSelectValuesList = new ArrayList<>();
 		final List<IStringExpression> sqlSelectDisplayNamesList = new ArrayList<>();
@@ -213,7 +243,7 @@ public class SqlViewSelectData
 				.append("\n , sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + " AS " + COLUMNNAME_Paging_UUID)
 				.append("\n , ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated(columnName -> "sel." + columnName + " AS " + COLUMNNAME_Paging_Prefix + columnName))
 				.append("\n , " + keyColumnNamesMap.getSqlIsNullExpression(sqlTableName) + " AS " + COLUMNNAME_IsRecordMissing)
-				.append("\n   FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
+				.append("\n   FROM " + sqlSelectionSource + " sel")
 				.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
 				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
 				.append("\n   WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
@@ -222,6 +252,22 @@ public class SqlViewSelectData
 		return sql.build().caching();
 	}
 
+	/**
+	 * Builds an inline view which looks like <code>T_WEBUI_ViewSelection</code> but it's fed from an integer array.
+	 *
+	 * SQL Parameters required: 1=UUID, 2=line offset (zero based first row), 3=row IDs array (e.g. <code>{1,2,3}</code>)
+	 */
+	private static String buildSqlSelectionSourceFromRowIds(final SqlViewKeyColumnNamesMap keyColumnNamesMap)
+	{
+		final String keyColumnName = keyColumnNamesMap.getSingleWebuiSelectionColumnName();
+		return "(SELECT "
+				+ "\n     ?::varchar AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+				+ "\n     , (r." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + " + ?) AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+				+ "\n     , r." + keyColumnName
+				+ "\n     FROM unnest(?::numeric[]) WITH ORDINALITY AS r(" + keyColumnName + ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ")"
+				+ "\n   )";
+	}
+
 	private static IStringExpression buildSqlSelect_WithGrouping(
 			final String sqlTableName,
 			final String sqlTableAlias,
@@ -425,6 +471,27 @@ public class SqlViewSelectData
 		return SqlAndParams.of(sql, viewSelectionId, rowId.toInt());
 	}
 
+	/**
+	 * Selects given rows without using <code>T_WEBUI_ViewSelection</code>.
+	 *
+	 * @param firstRowZeroBased the position of the first row from <code>rowIds</code> in the whole selection
+	 * @param sqlRowIdsArray SQL array literal (e.g. <code>{1,2,3}</code>) of the row IDs to select, in the order they shall be returned
+	 */
+	@Builder(builderMethodName = "selectByRowIds", builderClassName = "SelectByRowIdsBuilder")
+	private SqlAndParams selectByRowIdsBuilder(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId viewId,
+			final int firstRowZeroBased,
+			@NonNull final String sqlRowIdsArray)
+	{
+		Check.assume(firstRowZeroBased >= 0, "firstRow >= 0 but it was {}", firstRowZeroBased);
+
+		final String viewSelectionId = viewId.getViewId();
+		final IStringExpression sqlSelectByRowIds = getSqlSelectByRowIds();
+		final String sql = sqlSelectByRowIds.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, viewSelectionId, firstRowZeroBased, sqlRowIdsArray, viewSelectionId);
+	}
+
 	@Builder(builderMethodName = "selectIncludedLines", builderClassName = "SelectIncludedLinesBuilder")
 	private SqlAndParams selectIncludedLinesBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
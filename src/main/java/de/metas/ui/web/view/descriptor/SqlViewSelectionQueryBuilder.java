@@ -493,60 +493,9 @@ public final class SqlViewSelectionQueryBuilder
 		final String sqlTableAlias = getTableAlias();
 		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
 
-		final List<DocumentQueryOrderBy> orderBysEffective = orderBys.stream()
-				.flatMap(this::flatMapEffectiveFieldNames)
-				.collect(ImmutableList.toImmutableList());
-		final String sqlOrderBys = replaceTableNameWithTableAlias(
-				SqlDocumentOrderByBuilder.newInstance(fieldName -> ConstantStringExpression.of(sqlTableAlias + "." + fieldName))
-						.buildSqlOrderBy(orderBysEffective)
-						.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail));
-
-		//
-		// Build the table we will join.
-		// In case we are ordering by some virtual columns we shall build an INLINE view which contains those virtual columns.
-		// Else, we will just simply join by table name.
-		final String sqlSourceTable;
-		{
-			final boolean isOrderBySomeVirtualColumns = orderBysEffective.stream()
-					.anyMatch(orderBy -> isVirtualColumn(orderBy.getFieldName()));
-
-			if (isOrderBySomeVirtualColumns)
-			{
-				final StringBuilder sqlKeyColumnNames = new StringBuilder();
-				for (final String keyColumnName : keyColumnNamesMap.getKeyColumnNames())
-				{
-					if (sqlKeyColumnNames.length() > 0)
-					{
-						sqlKeyColumnNames.append("\n, ");
-					}
-					sqlKeyColumnNames.append(getColumnSql(keyColumnName)).append(" AS ").append(keyColumnName);
-				}
-
-				final StringBuilder sqlSourceTableBuilder = new StringBuilder();
-				sqlSourceTableBuilder.append("SELECT ").append(sqlKeyColumnNames);
-
-				orderBysEffective.forEach(orderBy -> {
-					final String fieldName = orderBy.getFieldName();
-					if (isVirtualColumn(fieldName))
-					{
-						final String columnSql = getColumnSql(fieldName);
-						sqlSourceTableBuilder.append("\n, (").append(columnSql).append(") AS ").append(fieldName);
-					}
-					else
-					{
-						sqlSourceTableBuilder.append("\n, ").append(fieldName);
-					}
-				});
-
-				sqlSourceTableBuilder.append("\n FROM ").append(getTableName());
-
-				sqlSourceTable = sqlSourceTableBuilder.insert(0, "(").append(")").toString();
-			}
-			else
-			{
-				sqlSourceTable = getTableName();
-			}
-		}
+		final List<DocumentQueryOrderBy> orderBysEffective = getOrderBysEffective(orderBys);
+		final String sqlOrderBys = buildSqlOrderBys(viewEvalCtx, orderBysEffective);
+		final String sqlSourceTable = buildSqlSourceTable(orderBysEffective);
 
 		//
 		// INSERT INTO T_WEBUI_ViewSelection (UUID, Line, Keys)
@@ -578,6 +527,191 @@ public final class SqlViewSelectionQueryBuilder
 		return SqlAndParams.of(sql, newViewId.getViewId(), fromSelectionId);
 	}
 
+	/**
+	 * Same as {@link #buildSqlCreateSelectionFrom(ViewEvaluationCtx, ViewId, List, List, int)} but instead of creating a selection it's just selecting the ordered row IDs.
+	 *
+	 * NOTE: not supported for views with grouping fields.
+	 *
+	 * @return <pre>SELECT keys FROM ourTable WHERE ... ORDER BY ... LIMIT ?</pre>
+	 */
+	public SqlAndParams buildSqlSelectRowIds(
+			final ViewEvaluationCtx viewEvalCtx,
+			final List<DocumentFilter> filters,
+			final List<DocumentQueryOrderBy> orderBys,
+			final int limit)
+	{
+		Check.assume(!hasGroupingFields(), "grouping fields are not supported");
+
+		final String sqlTableName = getTableName();
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		//
+		// SELECT ... FROM ... WHERE 1=1
+		final CompositeStringExpression.Builder sqlBuilder = IStringExpression.composer();
+		final List<Object> sqlParams = new ArrayList<>();
+		sqlBuilder.append(
+				IStringExpression.composer()
+						.append("SELECT ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated()) // keys
+						.append("\n FROM ").append(sqlTableName).append(" ").append(sqlTableAlias)
+						.append("\n WHERE 1=1 ")
+						.wrap(securityRestrictionsWrapper(sqlTableAlias)) // security
+		);
+
+		//
+		// WHERE clause (from query)
+		{
+			final SqlParamsCollector sqlWhereClauseParams = SqlParamsCollector.newInstance();
+			final IStringExpression sqlWhereClause = buildSqlWhereClause(sqlWhereClauseParams, filters, SqlOptions.usingTableAlias(sqlTableAlias));
+
+			if (sqlWhereClause != null && !sqlWhereClause.isNullExpression())
+			{
+				sqlBuilder.append("\n AND (\n").append(sqlWhereClause).append("\n)");
+				sqlParams.addAll(sqlWhereClauseParams.toList());
+			}
+		}
+
+		//
+		// ORDER BY
+		{
+			IStringExpression sqlOrderBy = SqlDocumentOrderByBuilder.newInstance(this::getFieldOrderBy).buildSqlOrderBy(orderBys);
+			if (sqlOrderBy == null || sqlOrderBy.isNullExpression())
+			{
+				sqlOrderBy = ConstantStringExpression.of(keyColumnNamesMap.getKeyColumnNamesCommaSeparated());
+			}
+			sqlBuilder.append("\n ORDER BY ").append(sqlOrderBy);
+		}
+
+		//
+		// Enforce a LIMIT, to not affect server performances on huge tables
+		if (limit > 0)
+		{
+			sqlBuilder.append("\n LIMIT ?");
+			sqlParams.add(limit);
+		}
+
+		final String sql = sqlBuilder.build().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		return SqlAndParams.of(sql, sqlParams);
+	}
+
+	/**
+	 * Same as {@link #buildSqlCreateSelectionFromSelection(ViewEvaluationCtx, ViewId, String, List)} but instead of copying a selection
+	 * it's ordering the given row IDs.
+	 *
+	 * NOTE: supported only for views with a single integer key column.
+	 * Used only as a fallback, when the rows to be ordered are not already loaded and can't be sorted in memory.
+	 *
+	 * @param sqlRowIdsArray SQL array literal (e.g. <code>{1,2,3}</code>) of the row IDs to be ordered
+	 * @return <pre>SELECT sel.IntKey1 FROM unnest(rowIds) sel LEFT OUTER JOIN ourTable ORDER BY ...</pre>
+	 */
+	public SqlAndParams buildSqlSelectRowIdsFromRowIds(
+			final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final String sqlRowIdsArray,
+			final List<DocumentQueryOrderBy> orderBys)
+	{
+		final String sqlTableAlias = getTableAlias();
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		Check.assume(keyColumnNamesMap.isSingleIntKey(), "single integer key: {}", keyColumnNamesMap);
+		final String selectionKeyColumnName = keyColumnNamesMap.getSingleWebuiSelectionColumnName();
+
+		final List<DocumentQueryOrderBy> orderBysEffective = getOrderBysEffective(orderBys);
+		final String sqlOrderBys = buildSqlOrderBys(viewEvalCtx, orderBysEffective);
+		final String sqlSourceTable = buildSqlSourceTable(orderBysEffective);
+
+		final String sqlJoinCondition = keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel");
+		final String sqlLine = "sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line;
+
+		final String sql = new StringBuilder()
+				.append("SELECT sel.").append(selectionKeyColumnName)
+				.append("\n FROM unnest(?::numeric[]) WITH ORDINALITY AS sel(").append(selectionKeyColumnName).append(", ").append(I_T_WEBUI_ViewSelection.COLUMNNAME_Line).append(")")
+				.append("\n LEFT OUTER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
+				// NOTE: order by current line as last resort, to have a stable ordering
+				.append("\n ORDER BY ").append(Check.isEmpty(sqlOrderBys, true) ? sqlLine : sqlOrderBys + ", " + sqlLine)
+				.toString();
+		return SqlAndParams.of(sql, sqlRowIdsArray);
+	}
+
+	/**
+	 * @return SQL where clause which is filtering given record IDs (i.e. <code>ourTable.KeyColumn IN (...)</code>)
+	 */
+	public String buildSqlWhereClauseForRecordIds(@NonNull final Collection<Integer> recordIds)
+	{
+		if (recordIds.isEmpty())
+		{
+			return "1=0";
+		}
+
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+		final String sqlKeyColumnName = getTableName() + "." + keyColumnNamesMap.getSingleKeyColumnName();
+		return DB.buildSqlList(sqlKeyColumnName, recordIds, null);
+	}
+
+	private List<DocumentQueryOrderBy> getOrderBysEffective(final List<DocumentQueryOrderBy> orderBys)
+	{
+		return orderBys.stream()
+				.flatMap(this::flatMapEffectiveFieldNames)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private String buildSqlOrderBys(final ViewEvaluationCtx viewEvalCtx, final List<DocumentQueryOrderBy> orderBysEffective)
+	{
+		final String sqlTableAlias = getTableAlias();
+		return replaceTableNameWithTableAlias(
+				SqlDocumentOrderByBuilder.newInstance(fieldName -> ConstantStringExpression.of(sqlTableAlias + "." + fieldName))
+						.buildSqlOrderBy(orderBysEffective)
+						.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail));
+	}
+
+	/**
+	 * Build the table we will join.
+	 * In case we are ordering by some virtual columns we shall build an INLINE view which contains those virtual columns.
+	 * Else, we will just simply join by table name.
+	 */
+	private String buildSqlSourceTable(final List<DocumentQueryOrderBy> orderBysEffective)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		final boolean isOrderBySomeVirtualColumns = orderBysEffective.stream()
+				.anyMatch(orderBy -> isVirtualColumn(orderBy.getFieldName()));
+
+		if (isOrderBySomeVirtualColumns)
+		{
+			final StringBuilder sqlKeyColumnNames = new StringBuilder();
+			for (final String keyColumnName : keyColumnNamesMap.getKeyColumnNames())
+			{
+				if (sqlKeyColumnNames.length() > 0)
+				{
+					sqlKeyColumnNames.append("\n, ");
+				}
+				sqlKeyColumnNames.append(getColumnSql(keyColumnName)).append(" AS ").append(keyColumnName);
+			}
+
+			final StringBuilder sqlSourceTableBuilder = new StringBuilder();
+			sqlSourceTableBuilder.append("SELECT ").append(sqlKeyColumnNames);
+
+			orderBysEffective.forEach(orderBy -> {
+				final String fieldName = orderBy.getFieldName();
+				if (isVirtualColumn(fieldName))
+				{
+					final String columnSql = getColumnSql(fieldName);
+					sqlSourceTableBuilder.append("\n, (").append(columnSql).append(") AS ").append(fieldName);
+				}
+				else
+				{
+					sqlSourceTableBuilder.append("\n, ").append(fieldName);
+				}
+			});
+
+			sqlSourceTableBuilder.append("\n FROM ").append(getTableName());
+
+			return sqlSourceTableBuilder.insert(0, "(").append(")").toString();
+		}
+		else
+		{
+			return getTableName();
+		}
+	}
+
 	/**
 	 * @return
 	 *
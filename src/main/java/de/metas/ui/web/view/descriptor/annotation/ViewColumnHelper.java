@@ -263,6 +263,34 @@ public final class ViewColumnHelper
 	}
 
 	private static final <T extends IViewRow> Object extractFieldValueAsJson(final T row, final ClassViewColumnDescriptor column)
+	{
+		final Object value = extractFieldValue(row, column);
+		return Values.valueToJsonObject(value);
+	}
+
+	/**
+	 * @return true if given row class has a {@link ViewColumn} annotated field with given name
+	 */
+	public static boolean hasColumn(@NonNull final Class<? extends IViewRow> rowClass, @NonNull final String fieldName)
+	{
+		return getDescriptor(rowClass).getColumnByNameOrNull(fieldName) != null;
+	}
+
+	/**
+	 * @return the raw (not JSON converted) value of given field or <code>null</code> if the row has no such column
+	 */
+	public static <T extends IViewRow> Object extractFieldValueOrNull(@NonNull final T row, @NonNull final String fieldName)
+	{
+		final ClassViewColumnDescriptor column = getDescriptor(row.getClass()).getColumnByNameOrNull(fieldName);
+		if (column == null)
+		{
+			return null;
+		}
+
+		return extractFieldValue(row, column);
+	}
+
+	private static final <T extends IViewRow> Object extractFieldValue(final T row, final ClassViewColumnDescriptor column)
 	{
 		final Field field = column.getFieldReference().getField();
 		if (!field.isAccessible())
@@ -271,8 +299,7 @@ public final class ViewColumnHelper
 		}
 		try
 		{
-			final Object value = field.get(row);
-			return Values.valueToJsonObject(value);
+			return field.get(row);
 		}
 		catch (final Exception e)
 		{
@@ -312,6 +339,14 @@ public final class ViewColumnHelper
 					.findFirst()
 					.orElseThrow(() -> new AdempiereException("No column found for " + fieldName + " in " + this));
 		}
+
+		public ClassViewColumnDescriptor getColumnByNameOrNull(@NonNull final String fieldName)
+		{
+			return columns.stream()
+					.filter(column -> fieldName.equals(column.getFieldName()))
+					.findFirst()
+					.orElse(null);
+		}
 	}
 
 	@Value
@@ -1,6 +1,7 @@
 package de.metas.ui.web.view.event;
 
 import java.io.Serializable;
+import java.util.Objects;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -8,7 +9,9 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
 
+import de.metas.ui.web.websocket.WebsocketMergeableEvent;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.WindowId;
 
@@ -36,7 +39,7 @@ import de.metas.ui.web.window.datatypes.WindowId;
 
 @SuppressWarnings("serial")
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
-public final class JSONViewChanges implements Serializable
+public final class JSONViewChanges implements Serializable, WebsocketMergeableEvent
 {
 	public static JSONViewChanges of(final ViewChanges changes)
 	{
@@ -82,6 +85,18 @@ public final class JSONViewChanges implements Serializable
 		}
 	}
 
+	private JSONViewChanges(
+			final String viewId,
+			final WindowId windowId,
+			final Boolean fullyChanged,
+			final Set<String> changedIds)
+	{
+		this.viewId = viewId;
+		this.windowId = windowId;
+		this.fullyChanged = fullyChanged;
+		this.changedIds = changedIds;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -108,4 +123,39 @@ public final class JSONViewChanges implements Serializable
 	{
 		return fullyChanged;
 	}
+
+	/**
+	 * Merges the changes of the same view, by unioning the changed row IDs.
+	 */
+	@Override
+	public JSONViewChanges mergeWithNewerEventOrNull(final Object newerEvent)
+	{
+		if (!(newerEvent instanceof JSONViewChanges))
+		{
+			return null;
+		}
+
+		final JSONViewChanges newer = (JSONViewChanges)newerEvent;
+		if (!Objects.equals(viewId, newer.viewId) || !Objects.equals(windowId, newer.windowId))
+		{
+			return null;
+		}
+
+		if (Boolean.TRUE.equals(fullyChanged) || newer.fullyChanged == null)
+		{
+			return this;
+		}
+		else if (Boolean.TRUE.equals(newer.fullyChanged) || fullyChanged == null)
+		{
+			return newer;
+		}
+		else
+		{
+			final Set<String> changedIdsMerged = ImmutableSet.<String> builder()
+					.addAll(changedIds)
+					.addAll(newer.changedIds)
+					.build();
+			return new JSONViewChanges(viewId, windowId, Boolean.FALSE, changedIdsMerged);
+		}
+	}
 }
@@ -0,0 +1,302 @@
+package de.metas.ui.web.websocket;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Sends websocket events from a dedicated thread.
+ *
+ * The events which are dispatched within a time window are collected per destination and then sent all together.
+ * While collecting, a {@link WebsocketMergeableEvent} is merged with the newer event sent to the same destination,
+ * so a mass update produces one event per destination instead of thousands of near-identical ones.
+ *
+ * The collected events are sent in the order they were dispatched, also across destinations.
+ * A merged event keeps the position of the older event it was merged into.
+ *
+ * If the time window is not positive, the events are sent right away, on caller's thread.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ *
+ */
+final class WebsocketEventsDispatcher
+{
+	private static final transient Logger logger = LogManager.getLogger(WebsocketEventsDispatcher.class);
+
+	private final SimpMessagingTemplate websocketMessagingTemplate;
+	private final WebsocketEventsLog eventsLog;
+	private final long coalesceWindowMillis;
+	private final ScheduledExecutorService executor;
+
+	private final Object lock = new Object();
+	@GuardedBy("lock")
+	private final HashMap<String, List<PendingEvent>> pendingEventsByDestination = new HashMap<>();
+	@GuardedBy("lock")
+	private long nextPendingEventSeqNo = 1;
+	@GuardedBy("lock")
+	private boolean flushScheduled = false;
+
+	private final AtomicLong countEventsDispatched = new AtomicLong();
+	private final AtomicLong countEventsMerged = new AtomicLong();
+	private final AtomicLong countMessagesSent = new AtomicLong();
+	private final AtomicLong countMessagesFailed = new AtomicLong();
+
+	public WebsocketEventsDispatcher(
+			@NonNull final SimpMessagingTemplate websocketMessagingTemplate,
+			@NonNull final WebsocketEventsLog eventsLog,
+			final long coalesceWindowMillis)
+	{
+		this.websocketMessagingTemplate = websocketMessagingTemplate;
+		this.eventsLog = eventsLog;
+		this.coalesceWindowMillis = coalesceWindowMillis;
+
+		if (coalesceWindowMillis > 0)
+		{
+			executor = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+					.setDaemon(true)
+					.setThreadNamePrefix(WebsocketEventsDispatcher.class.getSimpleName())
+					.build());
+		}
+		else
+		{
+			executor = null;
+		}
+	}
+
+	public void dispatch(@NonNull final Collection<WebsocketEvent> events)
+	{
+		if (events.isEmpty())
+		{
+			return;
+		}
+
+		synchronized (lock)
+		{
+			events.forEach(this::enqueueNoLock);
+		}
+
+		if (executor == null || executor.isShutdown())
+		{
+			flush();
+		}
+		else
+		{
+			scheduleFlush();
+		}
+	}
+
+	/**
+	 * Stops the dispatcher thread and sends the pending events right away.
+	 * Events which are dispatched afterwards are sent on caller's thread.
+	 */
+	public void shutdown()
+	{
+		if (executor != null)
+		{
+			executor.shutdown();
+		}
+
+		flush();
+	}
+
+	@GuardedBy("lock")
+	private void enqueueNoLock(@NonNull final WebsocketEvent event)
+	{
+		countEventsDispatched.incrementAndGet();
+
+		final List<PendingEvent> pendingEvents = pendingEventsByDestination.computeIfAbsent(event.getDestination(), destination -> new ArrayList<>());
+
+		//
+		// Try merging with the last pending event.
+		// NOTE: we are not merging with older events because we don't want to change the order in which the events are sent.
+		final int lastIndex = pendingEvents.size() - 1;
+		final PendingEvent lastEvent = lastIndex >= 0 ? pendingEvents.get(lastIndex) : null;
+		final WebsocketEvent mergedEvent = lastEvent != null ? mergeOrNull(lastEvent.getEvent(), event) : null;
+		if (mergedEvent != null)
+		{
+			pendingEvents.set(lastIndex, new PendingEvent(lastEvent.getSeqNo(), mergedEvent));
+			countEventsMerged.incrementAndGet();
+			logger.trace("Merged {} into {}", event, mergedEvent);
+		}
+		else
+		{
+			pendingEvents.add(new PendingEvent(nextPendingEventSeqNo++, event));
+			logger.trace("Enqueued {}", event);
+		}
+	}
+
+	private static WebsocketEvent mergeOrNull(final WebsocketEvent event, final WebsocketEvent newerEvent)
+	{
+		if (event.isConverted() || newerEvent.isConverted())
+		{
+			return null;
+		}
+
+		final Object payload = event.getPayload();
+		if (!(payload instanceof WebsocketMergeableEvent))
+		{
+			return null;
+		}
+
+		final Object mergedPayload = ((WebsocketMergeableEvent)payload).mergeWithNewerEventOrNull(newerEvent.getPayload());
+		if (mergedPayload == null)
+		{
+			return null;
+		}
+
+		return WebsocketEvent.builder()
+				.destination(event.getDestination())
+				.payload(mergedPayload)
+				.converted(false)
+				.build();
+	}
+
+	private void scheduleFlush()
+	{
+		synchronized (lock)
+		{
+			if (flushScheduled)
+			{
+				return;
+			}
+			flushScheduled = true;
+		}
+
+		try
+		{
+			executor.schedule(this::flush, coalesceWindowMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			// we were shut down in meantime
+			flush();
+		}
+	}
+
+	private void flush()
+	{
+		final List<WebsocketEvent> eventsToSend;
+		synchronized (lock)
+		{
+			flushScheduled = false;
+
+			eventsToSend = pendingEventsByDestination.values()
+					.stream()
+					.flatMap(List::stream)
+					.sorted(Comparator.comparing(PendingEvent::getSeqNo))
+					.map(PendingEvent::getEvent)
+					.collect(ImmutableList.toImmutableList());
+			pendingEventsByDestination.clear();
+		}
+
+		eventsToSend.forEach(this::sendEvent);
+	}
+
+	private void sendEvent(final WebsocketEvent event)
+	{
+		final String destination = event.getDestination();
+		final Object payload = event.getPayload();
+		logger.debug("Sending to destination={}: payload={}", destination, payload);
+
+		try
+		{
+			if (event.isConverted())
+			{
+				final Message<?> message = (Message<?>)payload;
+				websocketMessagingTemplate.send(destination, message);
+			}
+			else
+			{
+				websocketMessagingTemplate.convertAndSend(destination, payload);
+				eventsLog.logEvent(destination, payload);
+			}
+
+			countMessagesSent.incrementAndGet();
+		}
+		catch (final Exception ex)
+		{
+			countMessagesFailed.incrementAndGet();
+			logger.warn("Failed sending to destination={}: payload={}", destination, payload, ex);
+		}
+	}
+
+	public Map<String, Object> getStatistics()
+	{
+		final int pendingEventsCount;
+		synchronized (lock)
+		{
+			pendingEventsCount = pendingEventsByDestination.values().stream().mapToInt(List::size).sum();
+		}
+
+		return ImmutableMap.<String, Object> builder()
+				.put("coalesceWindowMillis", coalesceWindowMillis)
+				.put("eventsDispatched", countEventsDispatched.get())
+				.put("eventsMerged", countEventsMerged.get())
+				.put("eventsPending", pendingEventsCount)
+				.put("messagesSent", countMessagesSent.get())
+				.put("messagesFailed", countMessagesFailed.get())
+				.build();
+	}
+
+	@lombok.Value
+	private static final class PendingEvent
+	{
+		private final long seqNo;
+		@NonNull
+		private final WebsocketEvent event;
+	}
+
+	@lombok.Value
+	@lombok.Builder
+	static final class WebsocketEvent
+	{
+		@NonNull
+		private final String destination;
+		@NonNull
+		private final Object payload;
+		private final boolean converted;
+	}
+}
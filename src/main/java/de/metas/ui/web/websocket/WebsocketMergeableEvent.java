@@ -0,0 +1,43 @@
+package de.metas.ui.web.websocket;
+
+import javax.annotation.Nullable;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Websocket event which can be merged with a newer event sent to the same destination.
+ *
+ * @see WebsocketEventsDispatcher
+ */
+public interface WebsocketMergeableEvent
+{
+	/**
+	 * Merges this event with the given newer event.
+	 *
+	 * NOTE: implementations shall change neither this event nor the newer event.
+	 *
+	 * @return new event which covers both events or <code>null</code> if the events cannot be merged
+	 */
+	@Nullable
+	Object mergeWithNewerEventOrNull(Object newerEvent);
+}
@@ -3,6 +3,9 @@ package de.metas.ui.web.websocket;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
@@ -16,7 +19,10 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.logging.LogManager;
+import de.metas.ui.web.websocket.WebsocketEventsDispatcher.WebsocketEvent;
 import lombok.NonNull;
 
 /*
@@ -47,6 +53,8 @@ import lombok.NonNull;
  * NOTE: by default, all methods will send the events after the current DB transaction is committed.
  * If there is no current transaction, the events will be sent right away.
  *
+ * The events are actually sent asynchronously, after being merged per destination (see {@link WebsocketEventsDispatcher}).
+ *
  * @author metas-dev <dev@metasfresh.com>
  *
  */
@@ -55,17 +63,19 @@ public class WebsocketSender implements InitializingBean
 {
 	private static final transient Logger logger = LogManager.getLogger(WebsocketSender.class);
 
-	private final SimpMessagingTemplate websocketMessagingTemplate;
 	private final WebsocketEventsLog eventsLog = new WebsocketEventsLog();
+	private final WebsocketEventsDispatcher dispatcher;
 	private final WebsocketEventsQueue autoflushQueue;
 
 	@Value("${metasfresh.webui.websocket.logEventsEnabled:false}")
 	private boolean logEventsEnabledDefault;
 
-	public WebsocketSender(final SimpMessagingTemplate websocketMessagingTemplate)
+	public WebsocketSender(
+			final SimpMessagingTemplate websocketMessagingTemplate,
+			@Value("${metasfresh.webui.websocket.coalesceWindowMillis:100}") final long coalesceWindowMillis)
 	{
-		this.websocketMessagingTemplate = websocketMessagingTemplate;
-		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", websocketMessagingTemplate, eventsLog, /* autoflush */true);
+		dispatcher = new WebsocketEventsDispatcher(websocketMessagingTemplate, eventsLog, coalesceWindowMillis);
+		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", dispatcher, /* autoflush */true);
 	}
 
 	@Override
@@ -74,6 +84,12 @@ public class WebsocketSender implements InitializingBean
 		eventsLog.setLogEventsEnabled(logEventsEnabledDefault);
 	}
 
+	@PreDestroy
+	private void preDestroy()
+	{
+		dispatcher.shutdown();
+	}
+
 	public void convertAndSend(final Collection<? extends WebsocketEndpointAware> events)
 	{
 		events.forEach(this::convertAndSend);
@@ -116,7 +132,7 @@ public class WebsocketSender implements InitializingBean
 	{
 		final String name = trx.getTrxName();
 		final boolean autoflush = false;
-		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, websocketMessagingTemplate, eventsLog, autoflush);
+		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, dispatcher, autoflush);
 
 		// Bind
 		trx.getTrxListenerManager()
@@ -141,108 +157,68 @@ public class WebsocketSender implements InitializingBean
 		return eventsLog.getLoggedEvents(destinationFilter);
 	}
 
-	@lombok.Value
-	@lombok.Builder
-	private static final class WebsocketEvent
+	public Map<String, Object> getStatistics()
 	{
-		private final String destination;
-		private final Object payload;
-		private final boolean converted;
+		return dispatcher.getStatistics();
 	}
 
 	private static class WebsocketEventsQueue
 	{
 		/** internal name, used for logging */
 		private final String name;
-		private final SimpMessagingTemplate websocketMessagingTemplate;
-		private final WebsocketEventsLog eventsLog;
+		private final WebsocketEventsDispatcher dispatcher;
 		private final boolean autoflush;
 		private final List<WebsocketEvent> events = new ArrayList<>();
 
 		public WebsocketEventsQueue(
 				@NonNull final String name,
-				@NonNull final SimpMessagingTemplate websocketMessagingTemplate,
-				@NonNull final WebsocketEventsLog eventsLog,
+				@NonNull final WebsocketEventsDispatcher dispatcher,
 				final boolean autoflush)
 		{
 			this.name = name;
-			this.websocketMessagingTemplate = websocketMessagingTemplate;
-			this.eventsLog = eventsLog;
+			this.dispatcher = dispatcher;
 			this.autoflush = autoflush;
 		}
 
 		public void enqueueObject(final String destination, final Object payload)
 		{
-			final boolean converted = false;
-			if (autoflush)
-			{
-				sendEvent(destination, payload, converted);
-			}
-			else
-			{
-				enqueue(WebsocketEvent.builder()
-						.destination(destination)
-						.payload(payload)
-						.converted(converted)
-						.build());
-			}
+			enqueue(WebsocketEvent.builder()
+					.destination(destination)
+					.payload(payload)
+					.converted(false)
+					.build());
 		}
 
 		public void enqueueMessage(final String destination, final Message<?> message)
 		{
-			final boolean converted = true;
+			enqueue(WebsocketEvent.builder()
+					.destination(destination)
+					.payload(message)
+					.converted(true)
+					.build());
+		}
+
+		private void enqueue(@NonNull final WebsocketEvent event)
+		{
 			if (autoflush)
 			{
-				sendEvent(destination, message, converted);
+				dispatcher.dispatch(ImmutableList.of(event));
 			}
 			else
 			{
-				enqueue(WebsocketEvent.builder()
-						.destination(destination)
-						.payload(message)
-						.converted(converted)
-						.build());
+				events.add(event);
+				logger.trace("[name={}] Enqueued event={}", name, event);
 			}
 		}
 
-		private void enqueue(@NonNull final WebsocketEvent event)
-		{
-			events.add(event);
-			logger.info("[name={}] Enqueued event={}", name, event);
-		}
-
 		public void sendEventsAndClear()
 		{
-			logger.info("Sending all queued events");
+			logger.debug("[name={}] Sending all {} queued events", name, events.size());
 
-			final List<WebsocketEvent> eventsToSend = new ArrayList<>(events);
+			final List<WebsocketEvent> eventsToSend = ImmutableList.copyOf(events);
 			events.clear();
 
-			eventsToSend.forEach(this::sendEvent);
-		}
-
-		private void sendEvent(final WebsocketEvent event)
-		{
-			final String destination = event.getDestination();
-			final Object payload = event.getPayload();
-			final boolean converted = event.isConverted();
-			sendEvent(destination, payload, converted);
-		}
-
-		private void sendEvent(final String destination, final Object payload, final boolean converted)
-		{
-			logger.info("[name={}] Sending to destination={}: payload={}", name, destination, payload);
-
-			if (converted)
-			{
-				final Message<?> message = (Message<?>)payload;
-				websocketMessagingTemplate.send(destination, message);
-			}
-			else
-			{
-				websocketMessagingTemplate.convertAndSend(destination, payload);
-				eventsLog.logEvent(destination, payload);
-			}
+			dispatcher.dispatch(eventsToSend);
 		}
 	}
 }
@@ -24,11 +24,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.i18n.IMsgBL;
-import de.metas.ui.web.cache.ETagResponseEntityBuilder;
+import de.metas.ui.web.cache.SerializedJSONResponseEntityBuilder;
 import de.metas.ui.web.config.WebConfig;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
 import de.metas.ui.web.menu.MenuTree;
@@ -65,6 +66,7 @@ import de.metas.ui.web.window.model.DocumentCollection.DocumentPrint;
 import de.metas.ui.web.window.model.DocumentQueryOrderBy;
 import de.metas.ui.web.window.model.DocumentReference;
 import de.metas.ui.web.window.model.DocumentReferencesService;
+import de.metas.ui.web.window.model.DocumentValues;
 import de.metas.ui.web.window.model.IDocumentChangesCollector;
 import de.metas.ui.web.window.model.IDocumentChangesCollector.ReasonSupplier;
 import de.metas.ui.web.window.model.IDocumentFieldView;
@@ -105,6 +107,7 @@ public class WindowRestController
 	private static final String PARAM_Advanced = "advanced";
 	private static final String PARAM_Advanced_DefaultValue = "false";
 	private static final String PARAM_FieldsList = "fields";
+	private static final String LAYOUTKEY_Header = "header";
 
 	private static final ReasonSupplier REASON_Value_DirectSetFromCommitAPI = () -> "direct set from commit API";
 
@@ -128,6 +131,9 @@ public class WindowRestController
 	@Autowired
 	private DocumentWebsocketPublisher websocketPublisher;
 
+	@Autowired
+	private ObjectMapper jsonObjectMapper;
+
 	private JSONOptions.Builder newJSONOptions()
 	{
 		return JSONOptions.builder(userSession)
@@ -135,7 +141,7 @@ public class WindowRestController
 	}
 
 	@GetMapping("/{windowId}/layout")
-	public ResponseEntity<JSONDocumentLayout> getLayout(
+	public ResponseEntity<byte[]> getLayout(
 			@PathVariable("windowId") final String windowIdStr,
 			@RequestParam(name = PARAM_Advanced, required = false, defaultValue = PARAM_Advanced_DefaultValue) final boolean advanced,
 			final WebRequest request)
@@ -146,17 +152,14 @@ public class WindowRestController
 		final DocumentDescriptor descriptor = documentCollection.getDocumentDescriptorFactory().getDocumentDescriptor(windowId);
 		DocumentPermissionsHelper.checkWindowAccess(descriptor.getEntityDescriptor(), userSession.getUserRolePermissions());
 
-		return ETagResponseEntityBuilder.ofETagAware(request, descriptor)
-				.includeLanguageInETag()
+		return SerializedJSONResponseEntityBuilder.of(request, descriptor.getSerializedLayoutsCache(), jsonObjectMapper)
 				.cacheMaxAge(userSession.getHttpCacheMaxAge())
-				.map(DocumentDescriptor::getLayout)
-				//
 				.jsonOptions(() -> newJSONOptions().setShowAdvancedFields(advanced).build())
-				.toJson(JSONDocumentLayout::ofHeaderLayout);
+				.toJson(LAYOUTKEY_Header, jsonOpts -> JSONDocumentLayout.ofHeaderLayout(descriptor.getLayout(), jsonOpts));
 	}
 
 	@GetMapping("/{windowId}/{tabId}/layout")
-	public ResponseEntity<JSONDocumentLayout> getLayout(
+	public ResponseEntity<byte[]> getLayout(
 			@PathVariable("windowId") final String windowIdStr,
 			@PathVariable("tabId") final String tabIdStr,
 			@RequestParam(name = PARAM_Advanced, required = false, defaultValue = PARAM_Advanced_DefaultValue) final boolean advanced,
@@ -170,13 +173,10 @@ public class WindowRestController
 		final DocumentDescriptor descriptor = documentCollection.getDocumentDescriptorFactory().getDocumentDescriptor(windowId);
 		DocumentPermissionsHelper.checkWindowAccess(descriptor.getEntityDescriptor(), userSession.getUserRolePermissions());
 
-		return ETagResponseEntityBuilder.ofETagAware(request, descriptor)
-				.includeLanguageInETag()
+		return SerializedJSONResponseEntityBuilder.of(request, descriptor.getSerializedLayoutsCache(), jsonObjectMapper)
 				.cacheMaxAge(userSession.getHttpCacheMaxAge())
-				.map(desc -> desc.getLayout().getDetail(detailId))
-				//
 				.jsonOptions(() -> newJSONOptions().setShowAdvancedFields(advanced).build())
-				.toJson(JSONDocumentLayout::ofDetailTab);
+				.toJson(detailId, jsonOpts -> JSONDocumentLayout.ofDetailTab(descriptor.getLayout().getDetail(detailId), jsonOpts));
 	}
 
 	@GetMapping("/{windowId}/{documentId}")
@@ -199,14 +199,36 @@ public class WindowRestController
 			@PathVariable("tabId") final String tabIdStr,
 			@RequestParam(name = PARAM_FieldsList, required = false) @ApiParam("comma separated field names") final String fieldsListStr,
 			@RequestParam(name = PARAM_Advanced, required = false, defaultValue = PARAM_Advanced_DefaultValue) final boolean advanced,
-			@RequestParam(name = "orderBy", required = false) final String orderBysListStr)
+			@RequestParam(name = "orderBy", required = false) final String orderBysListStr,
+			@RequestParam(name = "firstRow", required = false, defaultValue = "-1") @ApiParam("first row to fetch (0 based); -1 means no paging") final int firstRow,
+			@RequestParam(name = "pageLength", required = false, defaultValue = "-1") @ApiParam("how many rows to fetch; -1 means no paging") final int pageLength,
+			@RequestParam(name = "valuesOnly", required = false, defaultValue = "false") @ApiParam("return only the field values, without field flags (readonly, mandatory etc). Much faster for big tabs.") final boolean valuesOnly)
 	{
+		userSession.assertLoggedIn();
+
 		final WindowId windowId = WindowId.fromJson(windowIdStr);
 		final DocumentId documentId = DocumentId.of(documentIdStr);
 		final DetailId tabId = DetailId.fromJson(tabIdStr);
 		final DocumentPath documentPath = DocumentPath.includedDocumentPath(windowId, documentId, tabId);
 		final List<DocumentQueryOrderBy> orderBys = DocumentQueryOrderBy.parseOrderBysList(orderBysListStr);
-		return getData(documentPath, fieldsListStr, advanced, orderBys);
+
+		final JSONOptions jsonOpts = newJSONOptions()
+				.setShowAdvancedFields(advanced)
+				.setDataFieldsList(fieldsListStr)
+				.build();
+
+		return documentCollection.forRootDocumentReadonly(documentPath, rootDocument -> {
+			if (valuesOnly)
+			{
+				final List<DocumentValues> documentValuesList = rootDocument.getIncludedDocumentValues(tabId, orderBys, firstRow, pageLength);
+				return JSONDocument.ofDocumentValuesList(documentValuesList, jsonOpts);
+			}
+			else
+			{
+				final List<Document> documents = rootDocument.getIncludedDocuments(tabId, orderBys, firstRow, pageLength).toList();
+				return JSONDocument.ofDocumentsList(documents, jsonOpts);
+			}
+		});
 	}
 
 	@GetMapping("/{windowId}/{documentId}/{tabId}/{rowId}")
@@ -27,6 +27,7 @@ import de.metas.ui.web.window.model.DocumentChanges;
 import de.metas.ui.web.window.model.DocumentSaveStatus;
 import de.metas.ui.web.window.model.DocumentStandardAction;
 import de.metas.ui.web.window.model.DocumentValidStatus;
+import de.metas.ui.web.window.model.DocumentValues;
 import de.metas.ui.web.window.model.IDocumentChangesCollector;
 import de.metas.ui.web.window.model.IIncludedDocumentsCollection;
 import lombok.ToString;
@@ -160,11 +161,48 @@ public final class JSONDocument extends JSONDocumentBase
 	 */
 	public static List<JSONDocument> ofDocumentsList(final Collection<Document> documents, final JSONOptions jsonOpts)
 	{
+		// Fetch the lookup values which have to be translated for all documents at once, instead of one by one for each document and field
+		Document.prefetchLookupValuesToTranslate(documents, jsonOpts.documentFieldFilter(), jsonOpts.getAD_Language());
+
 		return documents.stream()
 				.map(document -> ofDocument(document, jsonOpts))
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * Converts the lightweight document values projection to JSON.
+	 * <p>
+	 * NOTE: only the field values are provided, without field flags (readonly, mandatory, displayed etc) and without document statuses.
+	 */
+	public static JSONDocument ofDocumentValues(final DocumentValues documentValues, final JSONOptions jsonOpts)
+	{
+		final JSONDocument jsonDocument = new JSONDocument(documentValues.getDocumentPath());
+
+		final List<JSONDocumentField> jsonFields = new ArrayList<>();
+
+		// Add pseudo "ID" field first
+		final DocumentId documentId = documentValues.getDocumentId();
+		jsonFields.add(JSONDocumentField.idField(documentId.isInt() ? documentId.toInt() : documentId.toString()));
+
+		// Append the other fields
+		documentValues.getEntityDescriptor().getFields()
+				.stream()
+				.filter(jsonOpts.documentFieldDescriptorFilter())
+				.map(fieldDescriptor -> JSONDocumentField.ofFieldDescriptorAndValue(fieldDescriptor, documentValues.getValue(fieldDescriptor.getFieldName())))
+				.forEach(jsonFields::add);
+
+		jsonDocument.setFields(jsonFields);
+
+		return jsonDocument;
+	}
+
+	public static List<JSONDocument> ofDocumentValuesList(final Collection<DocumentValues> documentValuesList, final JSONOptions jsonOpts)
+	{
+		return documentValuesList.stream()
+				.map(documentValues -> ofDocumentValues(documentValues, jsonOpts))
+				.collect(Collectors.toList());
+	}
+
 	public static List<JSONDocument> ofEvents(final IDocumentChangesCollector documentChangesCollector, final JSONOptions jsonOpts)
 	{
 		final int MAX_SIZE = 100;
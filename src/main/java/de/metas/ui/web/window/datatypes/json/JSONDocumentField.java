@@ -17,6 +17,8 @@ import com.google.common.base.MoreObjects;
 import de.metas.ui.web.process.IProcessInstanceParameter;
 import de.metas.ui.web.window.WindowConstants;
 import de.metas.ui.web.window.datatypes.Password;
+import de.metas.ui.web.window.datatypes.Values;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
 import de.metas.ui.web.window.descriptor.ViewEditorRenderMode;
 import de.metas.ui.web.window.model.DocumentFieldChange;
 import de.metas.ui.web.window.model.DocumentValidStatus;
@@ -106,6 +108,17 @@ public final class JSONDocumentField implements Serializable
 		return jsonField;
 	}
 
+	public static final JSONDocumentField ofFieldDescriptorAndValue(final DocumentFieldDescriptor fieldDescriptor, final Object value)
+	{
+		final String name = fieldDescriptor.getFieldName();
+		final JSONLayoutWidgetType jsonWidgetType = JSONLayoutWidgetType.fromNullable(fieldDescriptor.getWidgetType());
+		final Object valueJSON = Values.valueToJsonObject(value);
+		final String reason = null; // N/A
+
+		return new JSONDocumentField(name, jsonWidgetType)
+				.setValue(valueJSON, reason);
+	}
+
 	public static final JSONDocumentField idField(final Object jsonValue)
 	{
 		final String reason = null; // N/A
@@ -23,6 +23,8 @@ import de.metas.i18n.ILanguageDAO;
 import de.metas.printing.esb.base.util.Check;
 import de.metas.ui.web.session.UserSession;
 import de.metas.ui.web.window.WindowConstants;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor.Characteristic;
 import de.metas.ui.web.window.descriptor.DocumentLayoutElementDescriptor;
 import de.metas.ui.web.window.descriptor.factory.NewRecordDescriptorsProvider;
 import de.metas.ui.web.window.model.DocumentFieldChange;
@@ -82,6 +84,7 @@ public final class JSONOptions
 	private Predicate<DocumentLayoutElementDescriptor> _documentLayoutElementFilter; // lazy
 	private Predicate<IDocumentFieldView> _documentFieldFilter; // lazy
 	private Predicate<DocumentFieldChange> _documentFieldChangeFilter; // lazy
+	private Predicate<DocumentFieldDescriptor> _documentFieldDescriptorFilter; // lazy
 
 	private final NewRecordDescriptorsProvider newRecordDescriptorsProvider;
 
@@ -185,6 +188,29 @@ public final class JSONOptions
 		return new FILTER_DocumentFieldChange_ByFieldNamesSet(dataFieldNamesSet, filter);
 	}
 
+	public Predicate<DocumentFieldDescriptor> documentFieldDescriptorFilter()
+	{
+		if (_documentFieldDescriptorFilter == null)
+		{
+			_documentFieldDescriptorFilter = createDocumentFieldDescriptorFilter();
+		}
+
+		return _documentFieldDescriptorFilter;
+	}
+
+	private Predicate<DocumentFieldDescriptor> createDocumentFieldDescriptorFilter()
+	{
+		final Predicate<DocumentFieldDescriptor> filter = showAdvancedFields ? FILTER_DocumentFieldDescriptor_ALL_PUBLIC_FIELDS : FILTER_DocumentFieldDescriptor_BASIC_PUBLIC_FIELDS;
+
+		final Set<String> dataFieldNamesSet = Check.isEmpty(dataFieldsListStr, true) ? ImmutableSet.of() : ImmutableSet.copyOf(FIELDS_LIST_SPLITTER.splitToList(dataFieldsListStr));
+		if (dataFieldNamesSet.isEmpty() || dataFieldNamesSet.contains("*"))
+		{
+			return filter;
+		}
+
+		return fieldDescriptor -> dataFieldNamesSet.contains(fieldDescriptor.getFieldName()) && filter.test(fieldDescriptor);
+	}
+
 	/**
 	 * @return NewRecordDescriptorsProvider or null
 	 */
@@ -288,6 +314,11 @@ public final class JSONOptions
 		}
 	};
 
+	private static final Predicate<DocumentFieldDescriptor> FILTER_DocumentFieldDescriptor_BASIC_PUBLIC_FIELDS = fieldDescriptor -> fieldDescriptor.hasCharacteristic(Characteristic.PublicField)
+			&& !fieldDescriptor.hasCharacteristic(Characteristic.AdvancedField);
+
+	private static final Predicate<DocumentFieldDescriptor> FILTER_DocumentFieldDescriptor_ALL_PUBLIC_FIELDS = fieldDescriptor -> fieldDescriptor.hasCharacteristic(Characteristic.PublicField);
+
 	private static final class FILTER_DocumentFieldView_ByFieldNamesSet implements Predicate<IDocumentFieldView>
 	{
 		private final Set<String> fieldNamesSet;
@@ -1,12 +1,9 @@
 package de.metas.ui.web.window.descriptor;
 
-import java.util.function.Supplier;
-
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 
-import de.metas.ui.web.cache.ETag;
-import de.metas.ui.web.cache.ETagAware;
+import de.metas.ui.web.cache.SerializedJSONCache;
 import de.metas.ui.web.view.descriptor.ViewLayout;
 import de.metas.ui.web.view.json.JSONViewDataType;
 
@@ -32,7 +29,7 @@ import de.metas.ui.web.view.json.JSONViewDataType;
  * #L%
  */
 
-public final class DocumentDescriptor implements ETagAware
+public final class DocumentDescriptor
 {
 	public static final Builder builder()
 	{
@@ -42,9 +39,8 @@ public final class DocumentDescriptor implements ETagAware
 	private final DocumentLayoutDescriptor layout;
 	private final DocumentEntityDescriptor entityDescriptor;
 
-	// ETag support
-	private static final Supplier<ETag> nextETagSupplier = ETagAware.newETagGenerator();
-	private final ETag eTag = nextETagSupplier.get();
+	/** serialized layout JSONs; they are dropped together with this descriptor */
+	private final SerializedJSONCache serializedLayoutsCache = SerializedJSONCache.newInstance();
 
 	private DocumentDescriptor(final Builder builder)
 	{
@@ -59,7 +55,6 @@ public final class DocumentDescriptor implements ETagAware
 		return MoreObjects.toStringHelper(this)
 				.add("entity", entityDescriptor)
 				.add("layout", layout)
-				.add("eTag", eTag)
 				.toString();
 	}
 
@@ -92,10 +87,9 @@ public final class DocumentDescriptor implements ETagAware
 		return entityDescriptor;
 	}
 
-	@Override
-	public ETag getETag()
+	public SerializedJSONCache getSerializedLayoutsCache()
 	{
-		return eTag;
+		return serializedLayoutsCache;
 	}
 
 	//
@@ -1,18 +1,28 @@
 package de.metas.ui.web.window.descriptor;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
 
+import lombok.NonNull;
+import lombok.Value;
+
 /*
  * #%L
  * metasfresh-webui-api
@@ -69,6 +79,9 @@ public final class DocumentFieldDependencyMap
 
 	public static final EnumSet<DependencyType> DEPENDENCYTYPES_DocumentLevel = EnumSet.of(DependencyType.DocumentReadonlyLogic);
 	public static final EnumSet<DependencyType> DEPENDENCYTYPES_FieldLevel = EnumSet.complementOf(DEPENDENCYTYPES_DocumentLevel);
+	/** Dependency types which might change the value of the dependent field, so the fields which depend on it shall be updated too */
+	public static final EnumSet<DependencyType> DEPENDENCYTYPES_ValueChanging = EnumSet.of(DependencyType.LookupValues, DependencyType.FieldValue);
+	private static final EnumSet<DependencyType> DEPENDENCYTYPES_Logic = EnumSet.complementOf(DEPENDENCYTYPES_ValueChanging);
 
 	public static final String DOCUMENT_Readonly = "$DocumentReadonly";
 	public static final Set<String> DOCUMENT_ALL_FIELDS = ImmutableSet.of(DOCUMENT_Readonly);
@@ -79,13 +92,35 @@ public final class DocumentFieldDependencyMap
 		void consume(String dependentFieldName, DependencyType dependencyType);
 	}
 
+	/**
+	 * One step of a dependencies plan: the given field shall be updated (for given dependency type) if any of the <code>dependsOnFieldNames</code> was changed.
+	 */
+	@Value
+	public static final class Dependency
+	{
+		String fieldName;
+		DependencyType dependencyType;
+		ImmutableSet<String> dependsOnFieldNames;
+
+		public boolean isTriggeredByAnyOf(@NonNull final Set<String> changedFieldNames)
+		{
+			return dependsOnFieldNames.stream().anyMatch(changedFieldNames::contains);
+		}
+	}
+
 	/** Map: "dependency type" to "depends on field name" to list of "dependent field name" */
 	private final ImmutableMap<DependencyType, Multimap<String, String>> type2name2dependencies;
 
+	/** Map: "changed field name" to dependencies plan (lazy) */
+	private final ConcurrentHashMap<String, ImmutableList<Dependency>> dependenciesPlansByChangedFieldName = new ConcurrentHashMap<>();
+	/** Field names which have value changing dependencies, topologically ordered */
+	private final ImmutableList<String> valueDependentFieldNamesInOrder;
+
 	private DocumentFieldDependencyMap(final Builder builder)
 	{
 		super();
 		type2name2dependencies = builder.getType2Name2DependenciesMap();
+		valueDependentFieldNamesInOrder = sortTopologically(getDependentFieldNames(DEPENDENCYTYPES_ValueChanging));
 	}
 
 	/** Empty constructor */
@@ -93,6 +128,7 @@ public final class DocumentFieldDependencyMap
 	{
 		super();
 		type2name2dependencies = ImmutableMap.of();
+		valueDependentFieldNamesInOrder = ImmutableList.of();
 	}
 
 	@Override
@@ -144,6 +180,180 @@ public final class DocumentFieldDependencyMap
 		}
 	}
 
+	/**
+	 * Gets the plan of dependencies which shall be updated when given field was changed.
+	 * <p>
+	 * The plan contains also the indirect dependencies, i.e. the ones of the fields whose value might change because of a {@link #DEPENDENCYTYPES_ValueChanging} dependency.
+	 * Each field and dependency type is present only once:
+	 * <ul>
+	 * <li>first, the {@link #DEPENDENCYTYPES_ValueChanging} dependencies, topologically ordered
+	 * <li>then, the logic dependencies (e.g. readonly, displayed, mandatory logic)
+	 * </ul>
+	 * The caller shall execute a dependency only if {@link Dependency#isTriggeredByAnyOf(Set)} the fields which were actually changed so far.
+	 */
+	public List<Dependency> getDependenciesPlan(@NonNull final String changedFieldName)
+	{
+		return dependenciesPlansByChangedFieldName.computeIfAbsent(changedFieldName, this::buildDependenciesPlan);
+	}
+
+	private ImmutableList<Dependency> buildDependenciesPlan(final String changedFieldName)
+	{
+		//
+		// Collect the fields whose value might be changed, directly or indirectly
+		final Set<String> valueChangedFieldNames = new LinkedHashSet<>();
+		final Deque<String> queue = new ArrayDeque<>();
+		queue.add(changedFieldName);
+		while (!queue.isEmpty())
+		{
+			final String fieldName = queue.poll();
+			for (final String dependentFieldName : getDependentFieldNames(fieldName, DEPENDENCYTYPES_ValueChanging))
+			{
+				if (!changedFieldName.equals(dependentFieldName) && valueChangedFieldNames.add(dependentFieldName))
+				{
+					queue.add(dependentFieldName);
+				}
+			}
+		}
+
+		final List<String> changedFieldNamesInOrder = ImmutableList.<String> builder()
+				.add(changedFieldName)
+				.addAll(sortTopologically(valueChangedFieldNames))
+				.build();
+
+		//
+		// Collect the dependencies and what triggers them
+		final Map<DependencyType, Map<String, Set<String>>> type2name2dependsOn = new HashMap<>();
+		for (final String dependsOnFieldName : changedFieldNamesInOrder)
+		{
+			for (final Map.Entry<DependencyType, Multimap<String, String>> e : type2name2dependencies.entrySet())
+			{
+				final DependencyType dependencyType = e.getKey();
+				for (final String dependentFieldName : e.getValue().get(dependsOnFieldName))
+				{
+					if (DEPENDENCYTYPES_ValueChanging.contains(dependencyType) && dependsOnFieldName.equals(dependentFieldName))
+					{
+						continue; // value depends on itself
+					}
+
+					type2name2dependsOn.computeIfAbsent(dependencyType, k -> new LinkedHashMap<>())
+							.computeIfAbsent(dependentFieldName, k -> new LinkedHashSet<>())
+							.add(dependsOnFieldName);
+				}
+			}
+		}
+
+		//
+		// Build the plan
+		final ImmutableList.Builder<Dependency> plan = ImmutableList.builder();
+		for (final String fieldName : changedFieldNamesInOrder)
+		{
+			for (final DependencyType dependencyType : DEPENDENCYTYPES_ValueChanging)
+			{
+				final Set<String> dependsOnFieldNames = type2name2dependsOn.getOrDefault(dependencyType, ImmutableMap.of()).get(fieldName);
+				if (dependsOnFieldNames != null)
+				{
+					plan.add(new Dependency(fieldName, dependencyType, ImmutableSet.copyOf(dependsOnFieldNames)));
+				}
+			}
+		}
+		for (final DependencyType dependencyType : DEPENDENCYTYPES_Logic)
+		{
+			type2name2dependsOn.getOrDefault(dependencyType, ImmutableMap.of())
+					.forEach((fieldName, dependsOnFieldNames) -> plan.add(new Dependency(fieldName, dependencyType, ImmutableSet.copyOf(dependsOnFieldNames))));
+		}
+
+		return plan.build();
+	}
+
+	/**
+	 * @return field names which have {@link #DEPENDENCYTYPES_ValueChanging} dependencies, ordered such that a field comes after the fields it depends on
+	 */
+	public List<String> getValueDependentFieldNamesInOrder()
+	{
+		return valueDependentFieldNamesInOrder;
+	}
+
+	private Set<String> getDependentFieldNames(final String dependsOnFieldName, final Set<DependencyType> dependencyTypes)
+	{
+		final Set<String> dependentFieldNames = new LinkedHashSet<>();
+		for (final DependencyType dependencyType : dependencyTypes)
+		{
+			final Multimap<String, String> name2dependencies = type2name2dependencies.get(dependencyType);
+			if (name2dependencies != null)
+			{
+				dependentFieldNames.addAll(name2dependencies.get(dependsOnFieldName));
+			}
+		}
+		return dependentFieldNames;
+	}
+
+	private Set<String> getDependentFieldNames(final Set<DependencyType> dependencyTypes)
+	{
+		final Set<String> dependentFieldNames = new LinkedHashSet<>();
+		for (final DependencyType dependencyType : dependencyTypes)
+		{
+			final Multimap<String, String> name2dependencies = type2name2dependencies.get(dependencyType);
+			if (name2dependencies != null)
+			{
+				dependentFieldNames.addAll(name2dependencies.values());
+			}
+		}
+		return dependentFieldNames;
+	}
+
+	/**
+	 * Sorts given field names such that a field comes after the fields (from the same collection) it depends on, by {@link #DEPENDENCYTYPES_ValueChanging} dependencies.
+	 * Fields which are part of a dependency cycle are added at the end, in their original order.
+	 */
+	private ImmutableList<String> sortTopologically(final Collection<String> fieldNames)
+	{
+		final Map<String, Integer> dependsOnCountByFieldName = new LinkedHashMap<>();
+		fieldNames.forEach(fieldName -> dependsOnCountByFieldName.put(fieldName, 0));
+		for (final String fieldName : fieldNames)
+		{
+			for (final String dependentFieldName : getDependentFieldNames(fieldName, DEPENDENCYTYPES_ValueChanging))
+			{
+				if (!fieldName.equals(dependentFieldName))
+				{
+					dependsOnCountByFieldName.computeIfPresent(dependentFieldName, (k, count) -> count + 1);
+				}
+			}
+		}
+
+		final Deque<String> queue = new ArrayDeque<>();
+		dependsOnCountByFieldName.forEach((fieldName, count) -> {
+			if (count == 0)
+			{
+				queue.add(fieldName);
+			}
+		});
+
+		final Set<String> result = new LinkedHashSet<>(fieldNames.size());
+		while (!queue.isEmpty())
+		{
+			final String fieldName = queue.poll();
+			result.add(fieldName);
+
+			for (final String dependentFieldName : getDependentFieldNames(fieldName, DEPENDENCYTYPES_ValueChanging))
+			{
+				if (fieldName.equals(dependentFieldName))
+				{
+					continue;
+				}
+				final Integer count = dependsOnCountByFieldName.computeIfPresent(dependentFieldName, (k, c) -> c - 1);
+				if (count != null && count == 0)
+				{
+					queue.add(dependentFieldName);
+				}
+			}
+		}
+
+		// Dependency cycles: add them in their original order
+		result.addAll(fieldNames);
+
+		return ImmutableList.copyOf(result);
+	}
+
 	//
 	//
 	//
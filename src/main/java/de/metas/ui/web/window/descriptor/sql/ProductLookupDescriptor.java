@@ -99,6 +99,14 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 	private static final String SYSCONFIG_ATP_DISPLAY_ONLY_POSITIVE = //
 			"de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.ATP.DisplayOnlyPositive";
 
+	/**
+	 * If enabled, the products are searched in an in memory index instead of database.
+	 *
+	 * @see ProductLookupIndexRepository
+	 */
+	private static final String SYSCONFIG_IN_MEMORY_INDEX_ENABLED = //
+			"de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.InMemoryIndex.Enabled";
+
 	private static final Optional<String> LookupTableName = Optional.of(I_M_Product.Table_Name);
 	private static final String CONTEXT_LookupTableName = LookupTableName.get();
 
@@ -175,6 +183,31 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 
 	@Override
 	public LookupValuesList retrieveEntities(final LookupDataSourceContext evalCtx)
+	{
+		final LookupValuesList unexplodedLookupValues = isInMemoryIndexEnabled() && evalCtx.getIdToFilterAsInt(-1) <= 0
+				? retrieveEntitiesFromIndex(evalCtx)
+				: retrieveEntitiesFromDatabase(evalCtx);
+
+		final Date stockdateOrNull = getEffectiveStockDateOrNull(evalCtx);
+		if (stockdateOrNull == null || availableToPromiseAdapter == null)
+		{
+			return unexplodedLookupValues;
+		}
+		return explodeRecordsWithStockQuantities(
+				unexplodedLookupValues,
+				stockdateOrNull);
+	}
+
+	/**
+	 * Checks the given product using one SQL query which is filtering by the product's ID, instead of retrieving the whole list.
+	 */
+	@Override
+	public boolean isValidId(@NonNull final LookupDataSourceContext evalCtx, @NonNull final Object id)
+	{
+		return !retrieveEntitiesFromDatabase(evalCtx.withIdToFilter(id)).isEmpty();
+	}
+
+	private LookupValuesList retrieveEntitiesFromDatabase(final LookupDataSourceContext evalCtx)
 	{
 		final SqlParamsCollector sqlParams = SqlParamsCollector.newInstance();
 		final String sql = buildSql(sqlParams, evalCtx);
@@ -198,16 +231,7 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 				valuesById.putIfAbsent(value.getIdAsInt(), value);
 			}
 
-			final LookupValuesList unexplodedLookupValues = LookupValuesList.fromCollection(valuesById.values());
-
-			final Date stockdateOrNull = getEffectiveStockDateOrNull(evalCtx);
-			if (stockdateOrNull == null || availableToPromiseAdapter == null)
-			{
-				return unexplodedLookupValues;
-			}
-			return explodeRecordsWithStockQuantities(
-					unexplodedLookupValues,
-					stockdateOrNull);
+			return LookupValuesList.fromCollection(valuesById.values());
 		}
 		catch (final SQLException ex)
 		{
@@ -219,6 +243,42 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		}
 	}
 
+	/**
+	 * Same as {@link #retrieveEntitiesFromDatabase(LookupDataSourceContext)}, but searching in the in memory {@link ProductLookupIndex} of current language.
+	 */
+	private LookupValuesList retrieveEntitiesFromIndex(final LookupDataSourceContext evalCtx)
+	{
+		final ProductLookupIndexRepository indexRepository = ProductLookupIndexRepository.get();
+
+		final int orgId = param_AD_Org_ID.getValueAsInteger(evalCtx);
+		final int priceListVersionId = getPriceListVersionId(evalCtx);
+		final ProductLookupIndexQuery query = ProductLookupIndexQuery.builder()
+				.filter(evalCtx.getFilter())
+				.bpartnerId(param_C_BPartner_ID.getValueAsInteger(evalCtx))
+				.orgId(orgId)
+				.onlyProductIds(priceListVersionId > 0 ? indexRepository.getProductIdsByPriceListVersionId(priceListVersionId) : null)
+				.excludeProductIds(indexRepository.getFreightCostProductIds(orgId))
+				.offset(evalCtx.getOffset(0))
+				.limit(evalCtx.getLimit(100))
+				.build();
+
+		return indexRepository.getIndex(evalCtx.getAD_Language())
+				.search(query)
+				.stream()
+				.map(entry -> createLookupValue(entry.getProductId(), entry.getDisplayName(), entry.getBpartnerProductNo()))
+				.collect(LookupValuesList.collect());
+	}
+
+	private static boolean isInMemoryIndexEnabled()
+	{
+		final Properties ctx = Env.getCtx();
+
+		return Services.get(ISysConfigBL.class).getBooleanValue(
+				SYSCONFIG_IN_MEMORY_INDEX_ENABLED,
+				false,
+				Env.getAD_Client_ID(ctx), Env.getAD_Org_ID(ctx));
+	}
+
 	private Date getEffectiveStockDateOrNull(final LookupDataSourceContext evalCtx)
 	{
 		if (param_AvailableStockDate == null)
@@ -247,22 +307,7 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 
 		//
 		// SQL: SELECT ... FROM
-		final String sqlDisplayName = MLookupFactory.getLookup_TableDirEmbed(
-				LanguageInfo.ofSpecificLanguage(evalCtx.getAD_Language()),
-				I_M_Product.COLUMNNAME_M_Product_ID, // columnName
-				null, // baseTable
-				"p." + I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID);
-		final StringBuilder sql = new StringBuilder("SELECT"
-				+ "\n p." + I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID
-				+ "\n, (" + sqlDisplayName + ") AS " + COLUMNNAME_ProductDisplayName
-				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_UPC
-				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_C_BPartner_ID
-				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductNo
-				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductName
-				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_AD_Org_ID
-				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_IsActive
-				+ "\n FROM " + I_M_Product_Lookup_V.Table_Name + " p ");
-		sql.insert(0, "SELECT * FROM (").append(") p");
+		final StringBuilder sql = new StringBuilder(buildSqlSelectFrom(evalCtx.getAD_Language()));
 
 		//
 		// SQL: WHERE
@@ -282,6 +327,59 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		return sql.toString();
 	}
 
+	/**
+	 * @return <code>SELECT ... FROM</code> part of the SQL. The product lookup rows can be referenced by <code>p.</code> alias.
+	 */
+	private static String buildSqlSelectFrom(final String adLanguage)
+	{
+		final String sqlDisplayName = MLookupFactory.getLookup_TableDirEmbed(
+				LanguageInfo.ofSpecificLanguage(adLanguage),
+				I_M_Product.COLUMNNAME_M_Product_ID, // columnName
+				null, // baseTable
+				"p." + I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID);
+		return "SELECT * FROM ("
+				+ "SELECT"
+				+ "\n p." + I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID
+				+ "\n, (" + sqlDisplayName + ") AS " + COLUMNNAME_ProductDisplayName
+				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_UPC
+				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_C_BPartner_ID
+				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductNo
+				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductName
+				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_AD_Org_ID
+				+ "\n, p." + I_M_Product_Lookup_V.COLUMNNAME_IsActive
+				+ "\n FROM " + I_M_Product_Lookup_V.Table_Name + " p "
+				+ ") p";
+	}
+
+	/**
+	 * @return SQL which is selecting the active product lookup rows to be indexed by {@link ProductLookupIndex}; if <code>productId</code> is set, only that product's rows are selected
+	 */
+	static String buildSqlForIndex(final SqlParamsCollector sqlParams, final String adLanguage, final int productId)
+	{
+		final StringBuilder sqlWhereClause = new StringBuilder();
+		appendFilterByIsActive(sqlWhereClause, sqlParams);
+		if (productId > 0)
+		{
+			sqlWhereClause.append("\n AND p.").append(I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID).append("=").append(sqlParams.placeholder(productId));
+		}
+
+		return buildSqlSelectFrom(adLanguage) + "\n WHERE " + sqlWhereClause;
+	}
+
+	static ProductLookupIndexEntry loadIndexEntry(final ResultSet rs) throws SQLException
+	{
+		final int bpartnerId = rs.getInt(I_M_Product_Lookup_V.COLUMNNAME_C_BPartner_ID);
+		return ProductLookupIndexEntry.builder()
+				.productId(rs.getInt(I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID))
+				.displayName(rs.getString(COLUMNNAME_ProductDisplayName))
+				.upc(rs.getString(I_M_Product_Lookup_V.COLUMNNAME_UPC))
+				.bpartnerId(bpartnerId > 0 ? bpartnerId : -1)
+				.bpartnerProductNo(rs.getString(I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductNo))
+				.bpartnerProductName(rs.getString(I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductName))
+				.orgId(rs.getInt(I_M_Product_Lookup_V.COLUMNNAME_AD_Org_ID))
+				.build();
+	}
+
 	private static StringBuilder appendFilterByIsActive(final StringBuilder sqlWhereClause, final SqlParamsCollector sqlWhereClauseParams)
 	{
 		return sqlWhereClause.append("\n p.").append(I_M_Product_Lookup_V.COLUMNNAME_IsActive).append("=").append(sqlWhereClauseParams.placeholder(true));
@@ -316,7 +414,7 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		final Integer idToFilter = evalCtx.getIdToFilterAsInt(-1);
 		if (idToFilter != null && idToFilter > 0)
 		{
-			sqlWhereClause.append("\n AND p.").append(I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID).append(sqlWhereClauseParams.placeholder(idToFilter));
+			sqlWhereClause.append("\n AND p.").append(I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID).append("=").append(sqlWhereClauseParams.placeholder(idToFilter));
 		}
 	}
 
@@ -389,6 +487,11 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		final String name = rs.getString(COLUMNNAME_ProductDisplayName);
 		final String bpartnerProductNo = rs.getString(I_M_Product_Lookup_V.COLUMNNAME_BPartnerProductNo);
 
+		return createLookupValue(productId, name, bpartnerProductNo);
+	}
+
+	private static LookupValue createLookupValue(final int productId, final String name, final String bpartnerProductNo)
+	{
 		final String displayName = Joiner.on("_").skipNulls().join(name, bpartnerProductNo);
 
 		return IntegerLookupValue.of(productId, displayName);
@@ -0,0 +1,534 @@
+package de.metas.ui.web.window.descriptor.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import org.adempiere.util.Check;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In memory, immutable snapshot of the product lookup rows (i.e. <code>M_Product_Lookup_V</code>) of one language.
+ * <p>
+ * The rows are kept sorted by {@link #RANKING}, so the first matching rows are also the best ranked ones and the search can stop early.
+ * Following indexes are used to find the matching rows:
+ * <ul>
+ * <li>trigram of the lower case display name, UPC, bpartner product no and bpartner product name, to rows
+ * <li>org to rows and bpartner to rows, which are intersected as bit sets
+ * </ul>
+ * Changed products are not indexed right away but kept aside in a small index (see {@link #withChangedProduct(int, Collection)}) until there are too many of them.
+ */
+@Immutable
+final class ProductLookupIndex
+{
+	public static ProductLookupIndex of(@NonNull final Collection<ProductLookupIndexEntry> entries)
+	{
+		return new ProductLookupIndex(new Segment(entries), ImmutableSet.of(), Segment.EMPTY);
+	}
+
+	/** Same as the SQL ordering: display name, then the bpartner specific rows first */
+	static final Comparator<ProductLookupIndexEntry> RANKING = Comparator
+			.comparing(ProductLookupIndexEntry::getDisplayName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+			.thenComparing(Comparator.comparingInt(ProductLookupIndexEntry::getBpartnerId).reversed())
+			.thenComparingInt(ProductLookupIndexEntry::getProductId);
+
+	/** When there are more changed products than this, the indexes are rebuilt */
+	private static final int MAX_CHANGED_PRODUCTS = 1000;
+
+	private static final int NGRAM_LENGTH = 3;
+	private static final int[] EMPTY_ORDINALS = new int[] {};
+
+	private final Segment indexed;
+	/** IDs of the changed or removed products. Their {@link #indexed} rows are outdated and shall be ignored. */
+	private final ImmutableSet<Integer> changedProductIds;
+	/** Current rows of the changed products */
+	private final Segment changed;
+
+	private ProductLookupIndex(final Segment indexed, final ImmutableSet<Integer> changedProductIds, final Segment changed)
+	{
+		this.indexed = indexed;
+		this.changedProductIds = changedProductIds;
+		this.changed = changed;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("indexedRowsCount", indexed.size())
+				.add("changedProductsCount", changedProductIds.size())
+				.toString();
+	}
+
+	public int size()
+	{
+		return (int)indexed.streamEntries().filter(entry -> !changedProductIds.contains(entry.getProductId())).count() + changed.size();
+	}
+
+	/**
+	 * @param productId the changed product
+	 * @param entries the product's current rows; empty if the product shall be removed from index
+	 * @return new index which contains the given change
+	 */
+	public ProductLookupIndex withChangedProduct(final int productId, @NonNull final Collection<ProductLookupIndexEntry> entries)
+	{
+		entries.forEach(entry -> Check.assume(entry.getProductId() == productId, "Entry {} shall have M_Product_ID={}", entry, productId));
+
+		final ImmutableSet<Integer> changedProductIds = ImmutableSet.<Integer> builder()
+				.addAll(this.changedProductIds)
+				.add(productId)
+				.build();
+		final List<ProductLookupIndexEntry> changedEntries = Stream.concat(
+				changed.streamEntries().filter(changedEntry -> changedEntry.getProductId() != productId),
+				entries.stream())
+				.collect(Collectors.toList());
+
+		if (changedProductIds.size() > MAX_CHANGED_PRODUCTS)
+		{
+			final List<ProductLookupIndexEntry> allEntries = indexed.streamEntries()
+					.filter(indexedEntry -> !changedProductIds.contains(indexedEntry.getProductId()))
+					.collect(Collectors.toCollection(ArrayList::new));
+			allEntries.addAll(changedEntries);
+			return of(allEntries);
+		}
+
+		return new ProductLookupIndex(indexed, changedProductIds, new Segment(changedEntries));
+	}
+
+	/**
+	 * @return best ranked matching rows, one per product
+	 */
+	public List<ProductLookupIndexEntry> search(@NonNull final ProductLookupIndexQuery query)
+	{
+		final LikeMatcher matcher = LikeMatcher.ofFilterOrNull(query.getFilter());
+		final int offset = Math.max(query.getOffset(), 0);
+		final int maxResults = offset + query.getLimit();
+
+		final List<ProductLookupIndexEntry> indexedResult = indexed.search(query, matcher, changedProductIds, maxResults);
+		final List<ProductLookupIndexEntry> changedResult = changed.search(query, matcher, ImmutableSet.of(), maxResults);
+
+		//
+		// Merge the two (already ranked) results.
+		// NOTE: a product is either in indexedResult or in changedResult, so there is no need to check for duplicates.
+		final List<ProductLookupIndexEntry> result = new ArrayList<>(Math.min(maxResults, indexedResult.size() + changedResult.size()));
+		int indexedIdx = 0;
+		int changedIdx = 0;
+		while (result.size() < maxResults && (indexedIdx < indexedResult.size() || changedIdx < changedResult.size()))
+		{
+			if (changedIdx >= changedResult.size()
+					|| indexedIdx < indexedResult.size() && RANKING.compare(indexedResult.get(indexedIdx), changedResult.get(changedIdx)) <= 0)
+			{
+				result.add(indexedResult.get(indexedIdx++));
+			}
+			else
+			{
+				result.add(changedResult.get(changedIdx++));
+			}
+		}
+
+		return offset < result.size() ? result.subList(offset, result.size()) : ImmutableList.of();
+	}
+
+	/**
+	 * @return lower case string; never returns <code>null</code>
+	 */
+	private static String normalize(@Nullable final String string)
+	{
+		return string == null ? "" : string.toLowerCase();
+	}
+
+	private static final class Segment
+	{
+		public static final Segment EMPTY = new Segment(ImmutableList.of());
+
+		//
+		// Rows data, by ordinal
+		private final ProductLookupIndexEntry[] entries;
+		private final int[] productIds;
+		private final String[][] searchedStringsNorm;
+
+		//
+		// Indexes
+		private final ImmutableMap<String, int[]> ordinalsByNGram;
+		private final BitSet ordinalsWithoutBPartner;
+		private final ImmutableMap<Integer, int[]> ordinalsByBPartnerId;
+		private final ImmutableMap<Integer, BitSet> ordinalsByOrgId;
+
+		private Segment(final Collection<ProductLookupIndexEntry> entries)
+		{
+			this.entries = entries.stream()
+					.sorted(RANKING)
+					.toArray(ProductLookupIndexEntry[]::new);
+
+			final int size = this.entries.length;
+			productIds = new int[size];
+			searchedStringsNorm = new String[size][];
+
+			final Map<String, IntList> ordinalsByNGramBuilder = new HashMap<>();
+			final Map<Integer, IntList> ordinalsByBPartnerIdBuilder = new HashMap<>();
+			final Map<Integer, BitSet> ordinalsByOrgIdBuilder = new HashMap<>();
+			ordinalsWithoutBPartner = new BitSet(size);
+			for (int ordinal = 0; ordinal < size; ordinal++)
+			{
+				final ProductLookupIndexEntry entry = this.entries[ordinal];
+				productIds[ordinal] = entry.getProductId();
+				searchedStringsNorm[ordinal] = new String[] {
+						normalize(entry.getDisplayName()),
+						normalize(entry.getUpc()),
+						normalize(entry.getBpartnerProductNo()),
+						normalize(entry.getBpartnerProductName())
+				};
+
+				for (final String stringNorm : searchedStringsNorm[ordinal])
+				{
+					indexNGrams(ordinalsByNGramBuilder, stringNorm, ordinal);
+				}
+
+				if (entry.getBpartnerId() > 0)
+				{
+					ordinalsByBPartnerIdBuilder.computeIfAbsent(entry.getBpartnerId(), k -> new IntList()).addIfNotLast(ordinal);
+				}
+				else
+				{
+					ordinalsWithoutBPartner.set(ordinal);
+				}
+
+				ordinalsByOrgIdBuilder.computeIfAbsent(entry.getOrgId(), k -> new BitSet(size)).set(ordinal);
+			}
+
+			ordinalsByNGram = toImmutableMap(ordinalsByNGramBuilder);
+			ordinalsByBPartnerId = toImmutableMap(ordinalsByBPartnerIdBuilder);
+			ordinalsByOrgId = ImmutableMap.copyOf(ordinalsByOrgIdBuilder);
+		}
+
+		private static void indexNGrams(final Map<String, IntList> ordinalsByNGram, final String stringNorm, final int ordinal)
+		{
+			for (int i = 0; i + NGRAM_LENGTH <= stringNorm.length(); i++)
+			{
+				// NOTE: same trigram could occur more then once for a row
+				ordinalsByNGram.computeIfAbsent(stringNorm.substring(i, i + NGRAM_LENGTH), k -> new IntList()).addIfNotLast(ordinal);
+			}
+		}
+
+		private static <K> ImmutableMap<K, int[]> toImmutableMap(final Map<K, IntList> map)
+		{
+			final ImmutableMap.Builder<K, int[]> result = ImmutableMap.builder();
+			map.forEach((key, ordinals) -> result.put(key, ordinals.toArray()));
+			return result.build();
+		}
+
+		public int size()
+		{
+			return entries.length;
+		}
+
+		public Stream<ProductLookupIndexEntry> streamEntries()
+		{
+			return Stream.of(entries);
+		}
+
+		/**
+		 * @param outdatedProductIds products whose rows shall be ignored
+		 * @return best ranked matching rows, one per product, but not more than <code>maxResults</code>
+		 */
+		public List<ProductLookupIndexEntry> search(
+				final ProductLookupIndexQuery query,
+				@Nullable final LikeMatcher matcher,
+				final Set<Integer> outdatedProductIds,
+				final int maxResults)
+		{
+			if (entries.length == 0 || maxResults <= 0)
+			{
+				return ImmutableList.of();
+			}
+
+			final BitSet allowedOrdinals = getAllowedOrdinals(query);
+			final int[] candidateOrdinals = matcher != null ? getCandidateOrdinalsOrNull(matcher.getLongestLiteral()) : null;
+
+			final List<ProductLookupIndexEntry> result = new ArrayList<>();
+			final Set<Integer> productIdsAdded = new HashSet<>();
+			if (candidateOrdinals == null)
+			{
+				for (int ordinal = allowedOrdinals.nextSetBit(0); ordinal >= 0 && result.size() < maxResults; ordinal = allowedOrdinals.nextSetBit(ordinal + 1))
+				{
+					addIfMatches(result, productIdsAdded, ordinal, query, matcher, outdatedProductIds);
+				}
+			}
+			else
+			{
+				for (int i = 0; i < candidateOrdinals.length && result.size() < maxResults; i++)
+				{
+					final int ordinal = candidateOrdinals[i];
+					if (allowedOrdinals.get(ordinal))
+					{
+						addIfMatches(result, productIdsAdded, ordinal, query, matcher, outdatedProductIds);
+					}
+				}
+			}
+
+			return result;
+		}
+
+		/**
+		 * @return the rows which are matching the org and bpartner filters
+		 */
+		private BitSet getAllowedOrdinals(final ProductLookupIndexQuery query)
+		{
+			final BitSet allowedOrdinals;
+			if (query.getBpartnerId() > 0)
+			{
+				allowedOrdinals = (BitSet)ordinalsWithoutBPartner.clone();
+				for (final int ordinal : ordinalsByBPartnerId.getOrDefault(query.getBpartnerId(), EMPTY_ORDINALS))
+				{
+					allowedOrdinals.set(ordinal);
+				}
+			}
+			else
+			{
+				allowedOrdinals = new BitSet(entries.length);
+				allowedOrdinals.set(0, entries.length);
+			}
+
+			final BitSet orgOrdinals = new BitSet(entries.length);
+			orgOrdinals.or(ordinalsByOrgId.getOrDefault(0, new BitSet()));
+			if (query.getOrgId() > 0)
+			{
+				orgOrdinals.or(ordinalsByOrgId.getOrDefault(query.getOrgId(), new BitSet()));
+			}
+			allowedOrdinals.and(orgOrdinals);
+
+			return allowedOrdinals;
+		}
+
+		private void addIfMatches(
+				final List<ProductLookupIndexEntry> result,
+				final Set<Integer> productIdsAdded,
+				final int ordinal,
+				final ProductLookupIndexQuery query,
+				final LikeMatcher matcher,
+				final Set<Integer> outdatedProductIds)
+		{
+			final int productId = productIds[ordinal];
+			if (!outdatedProductIds.isEmpty() && outdatedProductIds.contains(productId))
+			{
+				return;
+			}
+			if (query.getOnlyProductIds() != null && !query.getOnlyProductIds().get(productId))
+			{
+				return;
+			}
+			if (query.getExcludeProductIds() != null && query.getExcludeProductIds().get(productId))
+			{
+				return;
+			}
+			if (matcher != null && !matcher.matchesAny(searchedStringsNorm[ordinal]))
+			{
+				return;
+			}
+
+			// NOTE: the rows are ranked, so we keep the best ranked row of each product
+			if (productIdsAdded.add(productId))
+			{
+				result.add(entries[ordinal]);
+			}
+		}
+
+		/**
+		 * @return ascending ordinals of the rows which could match; <code>null</code> if the index cannot restrict the candidates
+		 */
+		private int[] getCandidateOrdinalsOrNull(final String literalNorm)
+		{
+			if (literalNorm.length() < NGRAM_LENGTH)
+			{
+				return null;
+			}
+
+			final List<int[]> ordinalsToIntersect = new ArrayList<>();
+			for (int i = 0; i + NGRAM_LENGTH <= literalNorm.length(); i++)
+			{
+				ordinalsToIntersect.add(ordinalsByNGram.getOrDefault(literalNorm.substring(i, i + NGRAM_LENGTH), EMPTY_ORDINALS));
+			}
+
+			ordinalsToIntersect.sort(Comparator.comparingInt(ordinals -> ordinals.length));
+			int[] result = ordinalsToIntersect.get(0);
+			for (int i = 1; i < ordinalsToIntersect.size() && result.length > 0; i++)
+			{
+				result = intersect(result, ordinalsToIntersect.get(i));
+			}
+			return result;
+		}
+
+		/**
+		 * @param smaller ascending ordinals
+		 * @param larger ascending ordinals
+		 * @return ascending ordinals which are contained in both arrays
+		 */
+		private static int[] intersect(final int[] smaller, final int[] larger)
+		{
+			final IntList result = new IntList();
+			int fromIndex = 0;
+			for (final int ordinal : smaller)
+			{
+				final int index = Arrays.binarySearch(larger, fromIndex, larger.length, ordinal);
+				if (index >= 0)
+				{
+					result.addIfNotLast(ordinal);
+					fromIndex = index + 1;
+				}
+				else
+				{
+					fromIndex = -index - 1;
+				}
+
+				if (fromIndex >= larger.length)
+				{
+					break;
+				}
+			}
+			return result.toArray();
+		}
+	}
+
+	/**
+	 * Case insensitive SQL LIKE matcher, same as the <code>ILIKE</code> which is used by {@link ProductLookupDescriptor}:
+	 * if the filter has no <code>%</code>, it's matched anywhere in the string.
+	 */
+	private static final class LikeMatcher
+	{
+		public static LikeMatcher ofFilterOrNull(@Nullable final String filter)
+		{
+			if (Check.isEmpty(filter, true))
+			{
+				return null;
+			}
+
+			String likePattern = normalize(filter.trim());
+			if (!likePattern.contains("%"))
+			{
+				likePattern = "%" + likePattern + "%";
+			}
+			return new LikeMatcher(likePattern);
+		}
+
+		/** Longest part of the pattern which has no wildcards. All matching strings contain it. */
+		private final String longestLiteral;
+		/** Pattern to match against; <code>null</code> if checking if the string contains {@link #longestLiteral} is enough */
+		private final Pattern regexp;
+
+		private LikeMatcher(final String likePatternNorm)
+		{
+			String longestLiteral = "";
+			final StringBuilder regexp = new StringBuilder();
+			final StringBuilder literal = new StringBuilder();
+			for (final char ch : likePatternNorm.toCharArray())
+			{
+				if (ch == '%' || ch == '_')
+				{
+					if (literal.length() > longestLiteral.length())
+					{
+						longestLiteral = literal.toString();
+					}
+					regexp.append(Pattern.quote(literal.toString())).append(ch == '%' ? ".*" : ".");
+					literal.setLength(0);
+				}
+				else
+				{
+					literal.append(ch);
+				}
+			}
+			if (literal.length() > longestLiteral.length())
+			{
+				longestLiteral = literal.toString();
+			}
+			regexp.append(Pattern.quote(literal.toString()));
+
+			this.longestLiteral = longestLiteral;
+			final boolean containsLongestLiteral = likePatternNorm.equals("%" + longestLiteral + "%");
+			this.regexp = containsLongestLiteral ? null : Pattern.compile(regexp.toString(), Pattern.DOTALL);
+		}
+
+		public String getLongestLiteral()
+		{
+			return longestLiteral;
+		}
+
+		public boolean matchesAny(final String[] stringsNorm)
+		{
+			for (final String stringNorm : stringsNorm)
+			{
+				if (regexp == null ? stringNorm.contains(longestLiteral) : regexp.matcher(stringNorm).matches())
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/** Growable array of primitive ints */
+	private static final class IntList
+	{
+		private int[] values = new int[4];
+		private int size = 0;
+
+		public void addIfNotLast(final int value)
+		{
+			if (size > 0 && values[size - 1] == value)
+			{
+				return;
+			}
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size] = value;
+			size++;
+		}
+
+		public int[] toArray()
+		{
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
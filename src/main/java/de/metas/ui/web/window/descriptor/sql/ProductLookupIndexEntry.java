@@ -0,0 +1,58 @@
+package de.metas.ui.web.window.descriptor.sql;
+
+import javax.annotation.Nullable;
+
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * One (active) row of <code>M_Product_Lookup_V</code>, as indexed by {@link ProductLookupIndex}.
+ */
+@Value
+@Builder
+class ProductLookupIndexEntry
+{
+	int productId;
+
+	/** Product's display name, already translated */
+	@Nullable
+	String displayName;
+
+	@Nullable
+	String upc;
+
+	/** bpartner of the bpartner specific product number; <code>-1</code> if none */
+	@Default
+	int bpartnerId = -1;
+
+	@Nullable
+	String bpartnerProductNo;
+
+	@Nullable
+	String bpartnerProductName;
+
+	int orgId;
+}
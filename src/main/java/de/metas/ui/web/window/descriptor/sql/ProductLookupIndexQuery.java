@@ -0,0 +1,65 @@
+package de.metas.ui.web.window.descriptor.sql;
+
+import java.util.BitSet;
+
+import javax.annotation.Nullable;
+
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * {@link ProductLookupIndex} query. The semantic is the same as the SQL filtering of {@link ProductLookupDescriptor}.
+ */
+@Value
+@Builder
+class ProductLookupIndexQuery
+{
+	/** SQL LIKE pattern; if it has no <code>%</code>, it's matched anywhere in the searched strings. <code>null</code> means no filtering */
+	@Nullable
+	String filter;
+
+	/** if set, only the rows which are not bpartner specific or which are specific to this bpartner are matched */
+	@Default
+	int bpartnerId = -1;
+
+	/** only the rows of this org and of org <code>*</code> are matched */
+	@Default
+	int orgId = -1;
+
+	/** if set, only those product IDs are matched (e.g. the products of current price list version) */
+	@Nullable
+	BitSet onlyProductIds;
+
+	/** if set, those product IDs are not matched (e.g. the freight cost products) */
+	@Nullable
+	BitSet excludeProductIds;
+
+	@Default
+	int offset = 0;
+
+	@Default
+	int limit = 100;
+}
@@ -0,0 +1,250 @@
+package de.metas.ui.web.window.descriptor.sql;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequest;
+import org.adempiere.ad.dao.cache.CacheInvalidateRequest;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.model.I_M_FreightCost;
+import org.compiere.model.I_C_BPartner_Product;
+import org.compiere.model.I_M_ProductPrice;
+import org.compiere.util.CCache;
+import org.compiere.util.CacheMgt;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.logging.LogManager;
+import de.metas.product.model.I_M_Product;
+import de.metas.ui.web.document.filter.sql.SqlParamsCollector;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Loads and holds the {@link ProductLookupIndex}es (one per language) and the product ID bit sets which are used to filter them.
+ * <p>
+ * The indexes are refreshed incrementally when a single <code>M_Product</code> or <code>C_BPartner_Product</code> record is changed
+ * and they are dropped when the whole table is invalidated.
+ */
+final class ProductLookupIndexRepository
+{
+	public static ProductLookupIndexRepository get()
+	{
+		return instance;
+	}
+
+	private static final ProductLookupIndexRepository instance = new ProductLookupIndexRepository();
+
+	private static final Logger logger = LogManager.getLogger(ProductLookupIndexRepository.class);
+
+	private static final String TABLENAME_M_Product_Trl = I_M_Product.Table_Name + "_Trl";
+
+	private final ConcurrentHashMap<String, ProductLookupIndex> indexesByAdLanguage = new ConcurrentHashMap<>();
+
+	private final CCache<Integer, BitSet> productIdsByPriceListVersionId = CCache.newLRUCache(I_M_ProductPrice.Table_Name + "#ProductLookupIndex#ProductIds", 50, 0);
+	private final CCache<Integer, BitSet> freightCostProductIdsByOrgId = CCache.newCache(I_M_FreightCost.Table_Name + "#ProductLookupIndex#ProductIds", 10, 0);
+
+	private ProductLookupIndexRepository()
+	{
+		CacheMgt.get().addCacheResetListener(I_M_Product.Table_Name, this::onProductsChanged);
+		CacheMgt.get().addCacheResetListener(I_C_BPartner_Product.Table_Name, this::onProductsChanged);
+		CacheMgt.get().addCacheResetListener(TABLENAME_M_Product_Trl, this::onProductTranslationsChanged);
+	}
+
+	/**
+	 * @return the index of given language; it's loaded if needed
+	 */
+	public ProductLookupIndex getIndex(@NonNull final String adLanguage)
+	{
+		return indexesByAdLanguage.computeIfAbsent(adLanguage, this::retrieveIndex);
+	}
+
+	private ProductLookupIndex retrieveIndex(final String adLanguage)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final ProductLookupIndex index = ProductLookupIndex.of(retrieveEntries(adLanguage, -1));
+		logger.info("Loaded {} for AD_Language={} in {}", index, adLanguage, stopwatch);
+		return index;
+	}
+
+	/**
+	 * @param productId if set, only this product's rows are retrieved
+	 */
+	private static List<ProductLookupIndexEntry> retrieveEntries(final String adLanguage, final int productId)
+	{
+		final SqlParamsCollector sqlParams = SqlParamsCollector.newInstance();
+		final String sql = ProductLookupDescriptor.buildSqlForIndex(sqlParams, adLanguage, productId);
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams.toList());
+			rs = pstmt.executeQuery();
+
+			final List<ProductLookupIndexEntry> entries = new ArrayList<>();
+			while (rs.next())
+			{
+				entries.add(ProductLookupDescriptor.loadIndexEntry(rs));
+			}
+			return entries;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams.toList());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	public BitSet getProductIdsByPriceListVersionId(final int priceListVersionId)
+	{
+		return productIdsByPriceListVersionId.getOrLoad(priceListVersionId, () -> retrieveProductIds(
+				"SELECT " + I_M_ProductPrice.COLUMNNAME_M_Product_ID + " FROM " + I_M_ProductPrice.Table_Name
+						+ " WHERE " + I_M_ProductPrice.COLUMNNAME_M_PriceList_Version_ID + "=?",
+				priceListVersionId));
+	}
+
+	/**
+	 * @return IDs of the freight cost products of given org and of org <code>*</code>
+	 */
+	public BitSet getFreightCostProductIds(final int orgId)
+	{
+		return freightCostProductIdsByOrgId.getOrLoad(orgId, () -> retrieveProductIds(
+				"SELECT " + I_M_FreightCost.COLUMNNAME_M_Product_ID + " FROM " + I_M_FreightCost.Table_Name
+						+ " WHERE " + I_M_FreightCost.COLUMNNAME_AD_Org_ID + " IN (0, ?)",
+				orgId));
+	}
+
+	private static BitSet retrieveProductIds(final String sql, final Object sqlParam)
+	{
+		final Object[] sqlParams = new Object[] { sqlParam };
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+
+			final BitSet productIds = new BitSet();
+			while (rs.next())
+			{
+				final int productId = rs.getInt(1);
+				if (productId > 0)
+				{
+					productIds.set(productId);
+				}
+			}
+			return productIds;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	private int onProductsChanged(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		if (indexesByAdLanguage.isEmpty())
+		{
+			return 0;
+		}
+
+		int count = 0;
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			final int productId = extractProductIdOrNegative(request);
+			if (productId <= 0)
+			{
+				count += indexesByAdLanguage.size();
+				indexesByAdLanguage.clear();
+				return count;
+			}
+
+			refreshProduct(productId);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * @return the M_Product_ID of the changed record or <code>-1</code> if it's not known, and all products shall be considered changed
+	 */
+	private static int extractProductIdOrNegative(final CacheInvalidateRequest request)
+	{
+		if (request.isAll() || request.getRootTableName() == null || request.getRootRecordId() < 0)
+		{
+			return -1;
+		}
+		else if (I_M_Product.Table_Name.equals(request.getRootTableName()))
+		{
+			return request.getRootRecordId();
+		}
+		else if (I_C_BPartner_Product.Table_Name.equals(request.getRootTableName()))
+		{
+			// NOTE: if the C_BPartner_Product was deleted, we don't know its product anymore
+			return DB.getSQLValueEx(ITrx.TRXNAME_None,
+					"SELECT " + I_C_BPartner_Product.COLUMNNAME_M_Product_ID + " FROM " + I_C_BPartner_Product.Table_Name
+							+ " WHERE " + I_C_BPartner_Product.COLUMNNAME_C_BPartner_Product_ID + "=?",
+					request.getRootRecordId());
+		}
+		else
+		{
+			return -1;
+		}
+	}
+
+	private void refreshProduct(final int productId)
+	{
+		for (final String adLanguage : indexesByAdLanguage.keySet())
+		{
+			final List<ProductLookupIndexEntry> entries = retrieveEntries(adLanguage, productId);
+			indexesByAdLanguage.computeIfPresent(adLanguage, (k, index) -> index.withChangedProduct(productId, entries));
+		}
+	}
+
+	private int onProductTranslationsChanged(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		// NOTE: translations are rarely changed, so we just drop the indexes
+		final int count = indexesByAdLanguage.size();
+		indexesByAdLanguage.clear();
+		return count;
+	}
+}
@@ -109,6 +109,8 @@ public final class SqlLookupDescriptor implements LookupDescriptor
 	}
 
 	public static final CtxName SQL_PARAM_KeyId = CtxNames.parse("SqlKeyId");
+	/** SQL list of key IDs (e.g. <code>?,?,?</code>), used by {@link #getSqlForFetchingDisplayNamesByIdsExpression()} */
+	public static final CtxName SQL_PARAM_KeyIds = CtxNames.parse("SqlKeyIds");
 
 	public static final String SQL_PARAM_VALUE_ShowInactive_Yes = "Y"; // i.e. show all
 	public static final String SQL_PARAM_VALUE_ShowInactive_No = "N";
@@ -119,7 +121,9 @@ public final class SqlLookupDescriptor implements LookupDescriptor
 	private final Optional<String> tableName;
 	private final Optional<WindowId> zoomIntoWindowId;
 	private final ICachedStringExpression sqlForFetchingExpression;
+	private final ICachedStringExpression sqlForFetchingValidatedByIdExpression;
 	private final ICachedStringExpression sqlForFetchingDisplayNameByIdExpression;
+	private final ICachedStringExpression sqlForFetchingDisplayNamesByIdsExpression;
 	private final int entityTypeIndex;
 	private final INamePairPredicate postQueryPredicate;
 
@@ -137,7 +141,9 @@ public final class SqlLookupDescriptor implements LookupDescriptor
 		tableName = Optional.of(builder.sqlTableName);
 		zoomIntoWindowId = builder.getZoomIntoWindowId();
 		sqlForFetchingExpression = builder.sqlForFetchingExpression;
+		sqlForFetchingValidatedByIdExpression = builder.sqlForFetchingValidatedByIdExpression;
 		sqlForFetchingDisplayNameByIdExpression = builder.sqlForFetchingDisplayNameByIdExpression;
+		sqlForFetchingDisplayNamesByIdsExpression = builder.sqlForFetchingDisplayNamesByIdsExpression;
 		entityTypeIndex = builder.entityTypeIndex;
 
 		postQueryPredicate = builder.getPostQueryPredicate();
@@ -242,11 +248,27 @@ public final class SqlLookupDescriptor implements LookupDescriptor
 		return sqlForFetchingExpression;
 	}
 
+	/**
+	 * @return same SQL as {@link #getSqlForFetchingExpression()} (i.e. validation rules are applied), but fetching only the row of the ID which is provided as {@link #SQL_PARAM_KeyId}.
+	 */
+	public IStringExpression getSqlForFetchingValidatedByIdExpression()
+	{
+		return sqlForFetchingValidatedByIdExpression;
+	}
+
 	public IStringExpression getSqlForFetchingDisplayNameByIdExpression()
 	{
 		return sqlForFetchingDisplayNameByIdExpression;
 	}
 
+	/**
+	 * @return SQL which is fetching the key and the display name for more IDs at once; the IDs shall be provided as {@link #SQL_PARAM_KeyIds}.
+	 */
+	public IStringExpression getSqlForFetchingDisplayNamesByIdsExpression()
+	{
+		return sqlForFetchingDisplayNamesByIdsExpression;
+	}
+
 	public IStringExpression getSqlForFetchingDisplayNameByIdExpression(final String sqlKeyColumn)
 	{
 		return sqlForFetchingDisplayNameByIdExpression.resolvePartial(Evaluatees.mapBuilder()
@@ -318,7 +340,9 @@ public final class SqlLookupDescriptor implements LookupDescriptor
 		private IValidationRule validationRuleEffective = NullValidationRule.instance;
 		private String sqlTableName;
 		private ICachedStringExpression sqlForFetchingExpression;
+		private ICachedStringExpression sqlForFetchingValidatedByIdExpression;
 		private ICachedStringExpression sqlForFetchingDisplayNameByIdExpression;
+		private ICachedStringExpression sqlForFetchingDisplayNamesByIdsExpression;
 		private int entityTypeIndex = -1;
 
 		private int zoomIntoWindowId = -1;
@@ -443,8 +467,12 @@ public final class SqlLookupDescriptor implements LookupDescriptor
 				zoomIntoWindowId = lookupInfo.getZoomAD_Window_ID_Override();
 				sqlForFetchingExpression = buildSqlForFetching(lookupInfo, sqlWhereFinal, lookup_SqlOrderBy)
 						.caching();
+				sqlForFetchingValidatedByIdExpression = buildSqlForFetchingValidatedById(lookupInfo, sqlWhereFinal, lookup_SqlOrderBy)
+						.caching();
 				sqlForFetchingDisplayNameByIdExpression = buildSqlForFetchingDisplayNameById(lookupInfo)
 						.caching();
+				sqlForFetchingDisplayNamesByIdsExpression = buildSqlForFetchingDisplayNamesByIds(lookupInfo)
+						.caching();
 
 				if (lookupInfo.isQueryHasEntityType())
 				{
@@ -501,18 +529,33 @@ public final class SqlLookupDescriptor implements LookupDescriptor
 					.append("\n LIMIT ").append(LookupDataSourceContext.PARAM_Limit.toStringWithMarkers()) // LIMIT
 					.wrap(AccessSqlStringExpression.wrapper(tableName, IUserRolePermissions.SQL_FULLYQUALIFIED, isReadWriteAccessRequired(tableName))) // security
 					.build();
+			final IStringExpression sqlForFetchingValidatedById = IStringExpression.composer()
+					.append(sqlSelectFrom) // SELECT ... FROM ...
+					.append("\n WHERE \n").append(sqlWhereFinal) // WHERE
+					.append("\n AND ").append(keyColumnNameFQ).append("=").append(SQL_PARAM_KeyId)
+					.append("\n ORDER BY ").append(lookup_SqlOrderBy) // ORDER BY
+					.append("\n LIMIT 1")
+					.wrap(AccessSqlStringExpression.wrapper(tableName, IUserRolePermissions.SQL_FULLYQUALIFIED, isReadWriteAccessRequired(tableName))) // security
+					.build();
 			final IStringExpression sqlForFetchingDisplayNameById = IStringExpression.composer()
 					.append("SELECT ").append(displayColumnSql) // SELECT
 					.append("\n FROM ").append(tableName) // FROM
 					.append("\n WHERE ").append(keyColumnNameFQ).append("=").append(SQL_PARAM_KeyId)
 					.build();
+			final IStringExpression sqlForFetchingDisplayNamesByIds = IStringExpression.composer()
+					.append("SELECT ").append(keyColumnNameFQ).append(", ").append(displayColumnSql) // SELECT
+					.append("\n FROM ").append(tableName) // FROM
+					.append("\n WHERE ").append(keyColumnNameFQ).append(" IN (").append(SQL_PARAM_KeyIds).append(")")
+					.build();
 
 			//
 			// Set the SQLs
 			{
 				sqlTableName = tableName;
 				sqlForFetchingExpression = sqlForFetching.caching();
+				sqlForFetchingValidatedByIdExpression = sqlForFetchingValidatedById.caching();
 				sqlForFetchingDisplayNameByIdExpression = sqlForFetchingDisplayNameById.caching();
+				sqlForFetchingDisplayNamesByIdsExpression = sqlForFetchingDisplayNamesByIds.caching();
 			}
 		}
 
@@ -582,6 +625,22 @@ public final class SqlLookupDescriptor implements LookupDescriptor
 					.build();
 		}
 
+		/**
+		 * @return same SQL as {@link #buildSqlForFetching(MLookupInfo, IStringExpression, String)} but fetching only the {@link SqlLookupDescriptor#SQL_PARAM_KeyId} row
+		 */
+		private final IStringExpression buildSqlForFetchingValidatedById(final MLookupInfo lookupInfo, final IStringExpression sqlWhere, final String sqlOrderBy)
+		{
+			final String tableName = lookupInfo.getTableName();
+			return IStringExpression.composer()
+					.append(lookupInfo.getSelectSqlPart()) // SELECT .. FROM ...
+					.append("\n WHERE \n").append(sqlWhere) // WHERE
+					.append("\n AND ").append(lookupInfo.getKeyColumnFQ()).append("=").append(SQL_PARAM_KeyId) // WHERE: only our ID
+					.append("\n ORDER BY ").append(sqlOrderBy) // ORDER BY
+					.append("\n LIMIT 1") // LIMIT
+					.wrapIfTrue(!lookupInfo.isSecurityDisabled(), AccessSqlStringExpression.wrapper(tableName, IUserRolePermissions.SQL_FULLYQUALIFIED, isReadWriteAccessRequired(tableName))) // security
+					.build();
+		}
+
 		private final IStringExpression buildSqlForFetchingDisplayNameById(final MLookupInfo lookupInfo)
 		{
 			final IStringExpression displayColumnSQL = TranslatableParameterizedStringExpression.of(lookupInfo.getDisplayColumnSql());
@@ -604,6 +663,24 @@ public final class SqlLookupDescriptor implements LookupDescriptor
 			return sqlForFetchingDisplayNameById;
 		}
 
+		private final IStringExpression buildSqlForFetchingDisplayNamesByIds(final MLookupInfo lookupInfo)
+		{
+			final IStringExpression displayColumnSQL = TranslatableParameterizedStringExpression.of(lookupInfo.getDisplayColumnSql());
+			final IStringExpression fromSqlPart = TranslatableParameterizedStringExpression.of(lookupInfo.getFromSqlPart());
+			final String keyColumnFQ = lookupInfo.getKeyColumnFQ();
+			final int displayType = lookupInfo.getDisplayType();
+			final String whereClauseSqlPart = lookupInfo.getWhereClauseSqlPart(); // assuming this is constant!
+
+			// NOTE: same as buildSqlForFetchingDisplayNameById but also selecting the key column
+			return IStringExpression.composer()
+					.append("SELECT ").append(keyColumnFQ).append(", ").append(displayColumnSQL) // SELECT ...
+					.append("\n FROM ").append(fromSqlPart) // FROM
+					.append("\n WHERE ").append(keyColumnFQ).append(" IN (").append(SQL_PARAM_KeyIds).append(")")
+					.append(" ")
+					.append(DisplayType.List == displayType || DisplayType.Button == displayType ? " AND " + whereClauseSqlPart : "")
+					.build();
+		}
+
 		private INamePairPredicate getPostQueryPredicate()
 		{
 			final INamePairPredicate postQueryPredicate = validationRuleEffective.getPostQueryFilter();
@@ -18,6 +18,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import de.metas.ui.web.websocket.WebSocketConfig;
 import de.metas.ui.web.websocket.WebsocketEndpointAware;
+import de.metas.ui.web.websocket.WebsocketMergeableEvent;
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.datatypes.json.JSONDate;
@@ -60,7 +61,7 @@ import lombok.ToString;
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
 @ToString
 @EqualsAndHashCode
-final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
+final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware, WebsocketMergeableEvent
 {
 	public static JSONDocumentChangedWebSocketEvent rootDocument(final WindowId windowId, final DocumentId documentId)
 	{
@@ -198,12 +199,17 @@ final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
 		getIncludedTabInfo(tabId).staleRow(rowId);
 	}
 
+	private boolean isMatching(@NonNull final JSONDocumentChangedWebSocketEvent other)
+	{
+		return Objects.equals(windowId, other.windowId)
+				&& Objects.equals(documentId, other.documentId)
+				&& Objects.equals(tabId, other.tabId)
+				&& Objects.equals(rowId, other.rowId);
+	}
+
 	void mergeFrom(@NonNull final JSONDocumentChangedWebSocketEvent from)
 	{
-		if (!Objects.equals(windowId, from.windowId)
-				|| !Objects.equals(documentId, from.documentId)
-				|| !Objects.equals(tabId, from.tabId)
-				|| !Objects.equals(rowId, from.rowId))
+		if (!isMatching(from))
 		{
 			throw new AdempiereException("Cannot merge events because they are not matching")
 					.setParameter("from", from)
@@ -218,4 +224,24 @@ final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
 
 		from.getIncludedTabsInfo().values().forEach(this::addIncludedTabInfo);
 	}
+
+	@Override
+	public JSONDocumentChangedWebSocketEvent mergeWithNewerEventOrNull(final Object newerEvent)
+	{
+		if (!(newerEvent instanceof JSONDocumentChangedWebSocketEvent))
+		{
+			return null;
+		}
+
+		final JSONDocumentChangedWebSocketEvent newer = (JSONDocumentChangedWebSocketEvent)newerEvent;
+		if (!isMatching(newer))
+		{
+			return null;
+		}
+
+		// NOTE: start from the newer event, so we keep the newer timestamp
+		final JSONDocumentChangedWebSocketEvent merged = newer.copy();
+		merged.mergeFrom(this);
+		return merged;
+	}
 }
@@ -3,6 +3,7 @@ package de.metas.ui.web.window.model;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -14,7 +15,9 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 import java.util.function.IntSupplier;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
@@ -30,7 +33,9 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.Check;
 import org.adempiere.util.Services;
 import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.time.SystemTime;
 import org.compiere.util.Env;
+import org.compiere.util.Evaluatee;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
@@ -55,6 +60,7 @@ import de.metas.ui.web.window.datatypes.json.JSONDocumentChangedEvent;
 import de.metas.ui.web.window.descriptor.DetailId;
 import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
 import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap;
+import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap.Dependency;
 import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap.DependencyType;
 import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
@@ -147,6 +153,8 @@ public final class Document
 	// Evaluatee
 	private IDocumentEvaluatee _evaluatee; // lazy
 	private transient IDocumentEvaluatee _shadowParentEvaluatee;
+	/** Evaluatee used for logic expressions; it's set only while evaluating logic expressions and it's caching the variable values */
+	private transient DocumentEvaluatee _logicEvaluatee;
 
 	// Changes tracking
 	private final transient IDocumentChangesCollector changesCollector;
@@ -163,6 +171,14 @@ public final class Document
 
 		String getVersion();
 
+		/**
+		 * @return {@link DocumentVersionsRegistry} sequence number which was captured right before the values were fetched
+		 */
+		default long getVersionSeqNo()
+		{
+			return DocumentVersionsRegistry.SEQNO_UNKNOWN;
+		}
+
 		/**
 		 * @param fieldDescriptor
 		 * @return initial value or {@link #NO_VALUE} if it cannot provide a value
@@ -240,6 +256,7 @@ public final class Document
 		// Evaluatee
 		_evaluatee = null; // lazy
 		_shadowParentEvaluatee = null;
+		_logicEvaluatee = null;
 
 		//
 		// Set default dynamic attributes
@@ -358,6 +375,7 @@ public final class Document
 
 		_evaluatee = null; // lazy
 		_shadowParentEvaluatee = null; // never copy it!
+		_logicEvaluatee = null; // never copy it!
 
 		//
 		// Copy dynamic attributes
@@ -440,7 +458,7 @@ public final class Document
 
 			//
 			// Mark the document not staled because we just initialized it
-			getStale().markNotStaled(documentValuesSupplier.getVersion());
+			getStale().markNotStaled(documentValuesSupplier.getVersion(), documentValuesSupplier.getVersionSeqNo());
 
 			//
 			// Update document's valid status
@@ -639,6 +657,12 @@ public final class Document
 			return parentSupplier.getVersion();
 		}
 
+		@Override
+		public long getVersionSeqNo()
+		{
+			return parentSupplier.getVersionSeqNo();
+		}
+
 		private final IDocumentEvaluatee getEvaluatee(final DocumentFieldDescriptor fieldInScope)
 		{
 			if (fieldInScope == null)
@@ -1098,6 +1122,31 @@ public final class Document
 		return _evaluatee;
 	}
 
+	/**
+	 * @return evaluatee to be used when evaluating logic expressions (e.g. readonly, mandatory, display logic)
+	 */
+	private Evaluatee asLogicEvaluatee()
+	{
+		final DocumentEvaluatee logicEvaluatee = _logicEvaluatee;
+		return logicEvaluatee != null ? logicEvaluatee : asEvaluatee();
+	}
+
+	/**
+	 * Caches the variable values which are resolved while evaluating logic expressions, until the returned closeable is closed.
+	 * <p>
+	 * IMPORTANT: use it only while no field values are changed.
+	 */
+	private IAutoCloseable cacheLogicEvaluateeValues()
+	{
+		if (_logicEvaluatee != null)
+		{
+			return () -> {}; // already caching
+		}
+
+		_logicEvaluatee = new DocumentEvaluatee(this).withValuesCache();
+		return () -> _logicEvaluatee = null;
+	}
+
 	/**
 	 * Similar with {@link #setValue(String, Object, ReasonSupplier)} but this method is also checking if we are allowed to change that field
 	 *
@@ -1250,7 +1299,18 @@ public final class Document
 
 		final String triggeringFieldName = null; // N/A
 
-		// Document level properties (e.g. docuemnt readonly)
+		// Field values (e.g. virtual fields), updated after the fields they depend on
+		for (final IDocumentField documentField : getFieldsInValueDependencyOrder())
+		{
+			for (final DependencyType triggeringDependencyType : DocumentFieldDependencyMap.DEPENDENCYTYPES_ValueChanging)
+			{
+				updateOnDependencyChanged(documentField.getFieldName(), documentField, triggeringFieldName, triggeringDependencyType);
+			}
+		}
+
+		// Document level properties (e.g. document readonly).
+		// NOTE: evaluated after the field values, because they might depend on them (e.g. on virtual fields)
+		final DocumentReadonly readonlyOld = readonly;
 		for (final String documentFieldName : DocumentFieldDependencyMap.DOCUMENT_ALL_FIELDS)
 		{
 			for (final DependencyType triggeringDependencyType : DocumentFieldDependencyMap.DEPENDENCYTYPES_DocumentLevel)
@@ -1258,17 +1318,54 @@ public final class Document
 				updateOnDependencyChanged(documentFieldName, (IDocumentField)null, triggeringFieldName, triggeringDependencyType);
 			}
 		}
+		// if the document readonly was changed, the fields readonly flags were already updated (using the final field values)
+		final boolean fieldsReadonlyUpdated = !Objects.equals(readonlyOld, readonly);
 
-		// Fields
-		for (final IDocumentField documentField : getFields())
+		// Fields logic (readonly, displayed, mandatory). Field values are not changed from here on.
+		try (final IAutoCloseable cacheValues = cacheLogicEvaluateeValues())
 		{
-			for (final DependencyType triggeringDependencyType : DocumentFieldDependencyMap.DEPENDENCYTYPES_FieldLevel)
+			for (final IDocumentField documentField : getFields())
 			{
-				updateOnDependencyChanged(documentField.getFieldName(), documentField, triggeringFieldName, triggeringDependencyType);
+				for (final DependencyType triggeringDependencyType : DocumentFieldDependencyMap.DEPENDENCYTYPES_FieldLevel)
+				{
+					if (DocumentFieldDependencyMap.DEPENDENCYTYPES_ValueChanging.contains(triggeringDependencyType))
+					{
+						continue;
+					}
+					if (fieldsReadonlyUpdated && DependencyType.ReadonlyLogic == triggeringDependencyType)
+					{
+						continue;
+					}
+
+					updateOnDependencyChanged(documentField.getFieldName(), documentField, triggeringFieldName, triggeringDependencyType);
+				}
 			}
 		}
 	}
 
+	/**
+	 * @return all fields; the fields which have value dependencies are at the end, ordered such that a field comes after the fields it depends on
+	 */
+	private List<IDocumentField> getFieldsInValueDependencyOrder()
+	{
+		final List<String> valueDependentFieldNames = getEntityDescriptor().getDependencies().getValueDependentFieldNamesInOrder();
+		if (valueDependentFieldNames.isEmpty())
+		{
+			return ImmutableList.copyOf(getFields());
+		}
+
+		final Set<String> valueDependentFieldNamesSet = ImmutableSet.copyOf(valueDependentFieldNames);
+		final ImmutableList.Builder<IDocumentField> result = ImmutableList.builder();
+		getFields().stream()
+				.filter(documentField -> !valueDependentFieldNamesSet.contains(documentField.getFieldName()))
+				.forEach(result::add);
+		valueDependentFieldNames.stream()
+				.map(this::getFieldOrNull)
+				.filter(Objects::nonNull)
+				.forEach(result::add);
+		return result.build();
+	}
+
 	DocumentReadonly getReadonly()
 	{
 		return readonly;
@@ -1294,7 +1391,7 @@ public final class Document
 		LogicExpressionResult allFieldsReadonly;
 		try
 		{
-			allFieldsReadonly = allFieldsReadonlyLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
+			allFieldsReadonly = allFieldsReadonlyLogic.evaluateToResult(asLogicEvaluatee(), OnVariableNotFound.Fail);
 		}
 		catch (final Exception e)
 		{
@@ -1335,7 +1432,7 @@ public final class Document
 		final ILogicExpression fieldReadonlyLogic = documentField.getDescriptor().getReadonlyLogic();
 		try
 		{
-			final LogicExpressionResult readonly = fieldReadonlyLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
+			final LogicExpressionResult readonly = fieldReadonlyLogic.evaluateToResult(asLogicEvaluatee(), OnVariableNotFound.Fail);
 			return readonly;
 		}
 		catch (final Exception e)
@@ -1352,7 +1449,7 @@ public final class Document
 		final ILogicExpression displayLogic = documentField.getDescriptor().getDisplayLogic();
 		try
 		{
-			displayed = displayLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
+			displayed = displayLogic.evaluateToResult(asLogicEvaluatee(), OnVariableNotFound.Fail);
 		}
 		catch (final Exception e)
 		{
@@ -1363,20 +1460,68 @@ public final class Document
 		documentField.setDisplayed(displayed);
 	}
 
+	/**
+	 * Updates the fields which depend on given field, directly or indirectly (e.g. a virtual field which depends on a field which depends on given field).
+	 * Each field dependency is updated at most once, after the fields it depends on were updated.
+	 */
 	private final void updateFieldsWhichDependsOn(final String triggeringFieldName)
 	{
-		final DocumentFieldDependencyMap dependencies = getEntityDescriptor().getDependencies();
-		dependencies.consumeForChangedFieldName(triggeringFieldName, (dependentFieldName, dependencyType) -> {
-			final IDocumentField dependentField = getFieldOrNull(dependentFieldName);
-			if (dependentField == null)
+		final List<Dependency> dependenciesPlan = getEntityDescriptor().getDependencies().getDependenciesPlan(triggeringFieldName);
+		if (dependenciesPlan.isEmpty())
+		{
+			return;
+		}
+
+		final Set<String> changedFieldNames = new HashSet<>();
+		changedFieldNames.add(triggeringFieldName);
+
+		IAutoCloseable cacheLogicValues = null;
+		try
+		{
+			for (final Dependency dependency : dependenciesPlan)
 			{
-				// shall not happen
-				logger.warn("Skip setting dependent propery {} because field is missing", dependentFieldName);
-				return;
-			}
+				if (!dependency.isTriggeredByAnyOf(changedFieldNames))
+				{
+					continue;
+				}
 
-			updateOnDependencyChanged(dependentFieldName, dependentField, triggeringFieldName, dependencyType);
-		});
+				final String dependentFieldName = dependency.getFieldName();
+				final IDocumentField dependentField = getFieldOrNull(dependentFieldName);
+				if (dependentField == null)
+				{
+					// shall not happen
+					logger.warn("Skip setting dependent propery {} because field is missing", dependentFieldName);
+					continue;
+				}
+
+				final DependencyType dependencyType = dependency.getDependencyType();
+				if (DocumentFieldDependencyMap.DEPENDENCYTYPES_ValueChanging.contains(dependencyType))
+				{
+					final Object valueOld = dependentField.getValue();
+					updateOnDependencyChanged(dependentFieldName, dependentField, triggeringFieldName, dependencyType);
+					if (!DataTypes.equals(valueOld, dependentField.getValue()))
+					{
+						changedFieldNames.add(dependentFieldName);
+					}
+				}
+				else
+				{
+					// NOTE: the value changing dependencies are first in plan, so from here on the field values are not changed
+					if (cacheLogicValues == null)
+					{
+						cacheLogicValues = cacheLogicEvaluateeValues();
+					}
+					updateOnDependencyChanged(dependentFieldName, dependentField, triggeringFieldName, dependencyType);
+				}
+			}
+		}
+		finally
+		{
+			if (cacheLogicValues != null)
+			{
+				cacheLogicValues.close();
+			}
+		}
 	}
 
 	/**
@@ -1414,7 +1559,7 @@ public final class Document
 			final ILogicExpression mandatoryLogic = documentField.getDescriptor().getMandatoryLogic();
 			try
 			{
-				final LogicExpressionResult mandatory = mandatoryLogic.evaluateToResult(asEvaluatee(), OnVariableNotFound.Fail);
+				final LogicExpressionResult mandatory = mandatoryLogic.evaluateToResult(asLogicEvaluatee(), OnVariableNotFound.Fail);
 				documentField.setMandatory(mandatory, changesCollector);
 			}
 			catch (final Exception e)
@@ -1441,9 +1586,8 @@ public final class Document
 				final Object valueOld = documentField.getValue();
 				if (valueOld != null)
 				{
-					final boolean currentValueStillValid = documentField.getLookupValues() // because we did setLookupValuesStaled(), this causes a reload
-							.stream()
-							.anyMatch(value -> Objects.equals(value, valueOld)); // check if the current value is still value after we reloaded the list
+					// NOTE: we are checking only the current value, the list will be reloaded only when it's requested
+					final boolean currentValueStillValid = documentField.isLookupValueValid(valueOld);
 					if (!currentValueStillValid)
 					{
 						documentField.setValue(null, changesCollector);
@@ -1483,6 +1627,22 @@ public final class Document
 		}
 	}
 
+	/**
+	 * Fetches in bulk the lookup values of given documents which converting them to JSON would fetch one by one.
+	 *
+	 * @param fieldsFilter the fields which will be converted to JSON
+	 * @see DocumentField#prefetchLookupValuesToTranslate(Stream, String)
+	 */
+	public static void prefetchLookupValuesToTranslate(@NonNull final Collection<Document> documents, @NonNull final Predicate<IDocumentFieldView> fieldsFilter, final String adLanguage)
+	{
+		final Stream<DocumentField> fields = documents.stream()
+				.flatMap(document -> document.fieldsByName.values().stream())
+				.filter(fieldsFilter)
+				.filter(DocumentField.class::isInstance)
+				.map(DocumentField.class::cast);
+		DocumentField.prefetchLookupValuesToTranslate(fields, adLanguage);
+	}
+
 	public LookupValuesList getFieldLookupValues(final String fieldName)
 	{
 		return getField(fieldName).getLookupValues();
@@ -1500,9 +1660,20 @@ public final class Document
 	}
 
 	public OrderedDocumentsList getIncludedDocuments(final DetailId detailId, final List<DocumentQueryOrderBy> orderBys)
+	{
+		return getIncludedDocuments(detailId, orderBys, -1, -1);
+	}
+
+	public OrderedDocumentsList getIncludedDocuments(final DetailId detailId, final List<DocumentQueryOrderBy> orderBys, final int firstRow, final int pageLength)
+	{
+		final IIncludedDocumentsCollection includedDocuments = getIncludedDocumentsCollection(detailId);
+		return includedDocuments.getDocuments(orderBys, firstRow, pageLength);
+	}
+
+	public List<DocumentValues> getIncludedDocumentValues(final DetailId detailId, final List<DocumentQueryOrderBy> orderBys, final int firstRow, final int pageLength)
 	{
 		final IIncludedDocumentsCollection includedDocuments = getIncludedDocumentsCollection(detailId);
-		return includedDocuments.getDocuments(orderBys);
+		return includedDocuments.getDocumentValues(orderBys, firstRow, pageLength);
 	}
 
 	public void assertNewDocumentAllowed(final DetailId detailId)
@@ -1843,6 +2014,10 @@ public final class Document
 		if (hasChanges())
 		{
 			getDocumentRepository().save(this);
+			if (isRootDocument() && getEntityDescriptor().getDataBinding().isVersioningSupported())
+			{
+				getStale().registerOwnChange();
+			}
 			documentCallout.onSave(asCalloutRecord());
 			logger.debug("Document saved: {}", this);
 		}
@@ -1991,17 +2166,23 @@ public final class Document
 	{
 		private boolean staled;
 		private String version;
+		private long versionSeqNo;
+		private long versionVerifiedTimeMillis;
 
 		private DocumentStaleState()
 		{
 			staled = false; // initially not staled
 			version = null; // unknown
+			versionSeqNo = DocumentVersionsRegistry.SEQNO_UNKNOWN;
+			versionVerifiedTimeMillis = 0;
 		}
 
 		private DocumentStaleState(final DocumentStaleState from)
 		{
 			staled = from.staled;
 			version = from.version;
+			versionSeqNo = from.versionSeqNo;
+			versionVerifiedTimeMillis = from.versionVerifiedTimeMillis;
 		}
 
 		@Override
@@ -2010,6 +2191,7 @@ public final class Document
 			return MoreObjects.toStringHelper(this)
 					.add("staled", staled)
 					.add("version", version)
+					.add("versionSeqNo", versionSeqNo)
 					.add("document", Document.this)
 					.toString();
 		}
@@ -2031,20 +2213,54 @@ public final class Document
 				return false;
 			}
 
+			//
+			// Check if the cache invalidation events are telling us that the record was not changed since we loaded it
+			final DocumentVersionsRegistry versionsRegistry = DocumentVersionsRegistry.get();
+			final long nowMillis = SystemTime.millis();
+			if (versionsRegistry.isKnownNotChangedSince(getEntityDescriptor().getTableName(), getDocumentIdAsInt(), versionSeqNo, versionVerifiedTimeMillis, nowMillis))
+			{
+				return false;
+			}
+
+			//
+			// Fallback: check the version against database
+			return !checkVersionInDatabase();
+		}
+
+		/**
+		 * Tells the {@link DocumentVersionsRegistry} that the record was just saved and refreshed by this document,
+		 * so the change event of this save won't make the next checkout check the version against database.
+		 */
+		private void registerOwnChange()
+		{
+			DocumentVersionsRegistry.get().onRecordSaved(getEntityDescriptor().getTableName(), getDocumentIdAsInt(), versionSeqNo);
+		}
+
+		/**
+		 * @return true if document's version matches the database version; if not, the document is flagged as staled.
+		 */
+		private boolean checkVersionInDatabase()
+		{
+			final long versionSeqNoNow = DocumentVersionsRegistry.get().newVersionSeqNo();
+			final long nowMillis = SystemTime.millis();
 			final String versionNow = getDocumentRepository().retrieveVersion(getEntityDescriptor(), getDocumentIdAsInt());
 			if (Objects.equals(version, versionNow))
 			{
-				return false;
+				versionSeqNo = versionSeqNoNow;
+				versionVerifiedTimeMillis = nowMillis;
+				return true;
 			}
 
 			staled = true;
-			return true;
+			return false;
 		}
 
-		private void markNotStaled(final String version)
+		private void markNotStaled(final String version, final long versionSeqNo)
 		{
 			staled = false;
 			this.version = version;
+			this.versionSeqNo = versionSeqNo;
+			this.versionVerifiedTimeMillis = SystemTime.millis();
 		}
 	}
 
@@ -6,6 +6,7 @@ import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
+import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 
 import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequest;
@@ -71,6 +72,8 @@ public class DocumentCacheInvalidationDispatcher implements ICacheResetListener
 	@Autowired
 	private IViewsRepository viewsRepository;
 
+	private final DocumentVersionsRegistry versionsRegistry = DocumentVersionsRegistry.get();
+
 	private final Executor async;
 
 	public DocumentCacheInvalidationDispatcher()
@@ -85,6 +88,9 @@ public class DocumentCacheInvalidationDispatcher implements ICacheResetListener
 	private void postConstruct()
 	{
 		CacheMgt.get().addCacheResetListener(this);
+
+		// From now on we are receiving all cache invalidation events, so the versions registry can be trusted
+		versionsRegistry.activate();
 	}
 
 	@Override
@@ -93,6 +99,11 @@ public class DocumentCacheInvalidationDispatcher implements ICacheResetListener
 		final ITrxManager trxManager = Services.get(ITrxManager.class);
 
 		final ITrx currentTrx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		// NOTE: we register the changes synchronously, right away, so the versions registry is never behind the database.
+		// In case we are in a transaction, we register them again after commit,
+		// because meanwhile somebody could have loaded the records, without seeing the uncommitted changes.
+		registerChangedRecords(request, null);
+
 		if (trxManager.isNull(currentTrx))
 		{
 			async.execute(() -> resetNow(request));
@@ -109,6 +120,7 @@ public class DocumentCacheInvalidationDispatcher implements ICacheResetListener
 							{
 								return;
 							}
+							registerChangedRecords(aggregatedRequest, innerTrx);
 							async.execute(() -> resetNow(aggregatedRequest));
 						});
 				return c;
@@ -120,6 +132,33 @@ public class DocumentCacheInvalidationDispatcher implements ICacheResetListener
 		return 1; // not relevant
 	}
 
+	/**
+	 * @param committedTrx the transaction which was just committed and which made the changes, or <code>null</code> if not known
+	 */
+	private void registerChangedRecords(final CacheInvalidateMultiRequest multiRequest, @Nullable final ITrx committedTrx)
+	{
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			final String rootTableName = request.getRootTableName();
+			if (request.isAll() || rootTableName == null)
+			{
+				versionsRegistry.onAllChanged();
+			}
+			else if (request.getRootRecordId() < 0)
+			{
+				versionsRegistry.onTableChanged(rootTableName);
+			}
+			else if (committedTrx != null)
+			{
+				versionsRegistry.onRecordChangedAfterCommit(committedTrx, rootTableName, request.getRootRecordId());
+			}
+			else
+			{
+				versionsRegistry.onRecordChanged(rootTableName, request.getRootRecordId());
+			}
+		}
+	}
+
 	private void resetNow(final CacheInvalidateMultiRequest request)
 	{
 		final DocumentWebsocketPublisher websocketPublisher = documents.getWebsocketPublisher();
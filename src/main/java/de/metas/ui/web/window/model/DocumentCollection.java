@@ -212,6 +212,8 @@ public class DocumentCollection
 
 		try (final IAutoCloseable readLock = getOrLoadDocument(rootDocumentKey).lockForReading())
 		{
+			// NOTE: each reader gets its own copy because readers are changing the document's state (e.g. loading included documents, clearing the staled flags),
+			// so the cached snapshot shall never be handed out.
 			final Document rootDocument = getOrLoadDocument(rootDocumentKey).copy(CopyMode.CheckInReadonly, NullDocumentChangesCollector.instance);
 			DocumentPermissionsHelper.assertCanView(rootDocument, UserSession.getCurrentPermissions());
 
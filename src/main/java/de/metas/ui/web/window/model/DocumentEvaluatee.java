@@ -3,6 +3,8 @@ package de.metas.ui.web.window.model;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
@@ -16,6 +18,7 @@ import org.compiere.util.CtxName;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
 import org.compiere.util.Evaluatee2;
+import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
@@ -61,6 +64,8 @@ import lombok.NonNull;
 	private final Document _document;
 	private final String _fieldNameInScope;
 	private final ImmutableSet<String> _fieldNamesToExclude;
+	/** Resolved variable values; <code>null</code> if values shall not be cached */
+	private final Map<ArrayKey, Optional<Object>> _valuesCache;
 
 
 	/* package */ DocumentEvaluatee(@NotNull final Document document)
@@ -68,6 +73,7 @@ import lombok.NonNull;
 		_document = document; // note: we assume it's not null
 		_fieldNameInScope = null;
 		_fieldNamesToExclude = ImmutableSet.of();
+		_valuesCache = null;
 	}
 
 	private DocumentEvaluatee(@NotNull final Document document, @Nullable final String fieldNameInScope, @NonNull final ImmutableSet<String> fieldNamesToExclude)
@@ -76,6 +82,27 @@ import lombok.NonNull;
 		_document = document; // note: we assume it's not null
 		_fieldNameInScope = fieldNameInScope; // null is also ok
 		_fieldNamesToExclude = fieldNamesToExclude;
+		_valuesCache = null;
+	}
+
+	/** copy constructor */
+	private DocumentEvaluatee(@NonNull final DocumentEvaluatee from, @NonNull final Map<ArrayKey, Optional<Object>> valuesCache)
+	{
+		super();
+		_document = from._document;
+		_fieldNameInScope = from._fieldNameInScope;
+		_fieldNamesToExclude = from._fieldNamesToExclude;
+		_valuesCache = valuesCache;
+	}
+
+	/**
+	 * Creates a new evaluatee which is caching the variable values once they are resolved.
+	 * <p>
+	 * IMPORTANT: use it only while the document values are not changed (e.g. while evaluating the fields logic expressions).
+	 */
+	/* package */ DocumentEvaluatee withValuesCache()
+	{
+		return new DocumentEvaluatee(this, new HashMap<>());
 	}
 
 	@Override
@@ -221,7 +248,24 @@ import lombok.NonNull;
 		{
 			return Optional.empty();
 		}
-		
+
+		if (_valuesCache == null)
+		{
+			return resolveValueIfExists(variableName, targetType);
+		}
+
+		final ArrayKey key = ArrayKey.of(variableName, targetType);
+		Optional<Object> value = _valuesCache.get(key);
+		if (value == null)
+		{
+			value = resolveValueIfExists(variableName, targetType);
+			_valuesCache.put(key, value);
+		}
+		return value;
+	}
+
+	private Optional<Object> resolveValueIfExists(@NonNull final String variableName, final Class<?> targetType)
+	{		
 		if(isExcludedField(variableName))
 		{
 			return Optional.empty();
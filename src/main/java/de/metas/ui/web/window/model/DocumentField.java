@@ -1,8 +1,10 @@
 package de.metas.ui.web.window.model;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.adempiere.ad.callout.api.ICalloutField;
 import org.adempiere.ad.expression.api.LogicExpressionResult;
@@ -12,6 +14,8 @@ import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
 
 import de.metas.i18n.ITranslatableString;
 import de.metas.logging.LogManager;
@@ -233,21 +237,52 @@ import lombok.NonNull;
 
 		//
 		// If we are dealing with a lookup value, make, sure it's translated (see https://github.com/metasfresh/metasfresh-webui-api/issues/311 )
-		final LookupDataSource lookupDataSource = getLookupDataSourceOrNull();
-		if (lookupDataSource != null && value instanceof LookupValue)
+		final Object lookupValueIdToTranslate = getLookupValueIdToTranslateOrNull(adLanguage);
+		if (lookupValueIdToTranslate != null)
 		{
-			final LookupValue lookupValue = (LookupValue)value;
-			final ITranslatableString displayNameTrl = lookupValue.getDisplayNameTrl();
-			if (!displayNameTrl.isTranslatedTo(adLanguage))
-			{
-				final LookupValue lookupValueNew = lookupDataSource.findById(lookupValue.getId());
-				value = lookupValueNew;
-			}
+			final LookupValue lookupValueNew = getLookupDataSource().findById(lookupValueIdToTranslate);
+			value = lookupValueNew;
 		}
 
 		return Values.valueToJsonObject(value);
 	}
 
+	/**
+	 * @return the ID of the current lookup value, if it's not translated to given language and it has to be fetched again; else <code>null</code>
+	 */
+	private Object getLookupValueIdToTranslateOrNull(final String adLanguage)
+	{
+		final Object value = getValue();
+		if (getLookupDataSourceOrNull() == null || !(value instanceof LookupValue))
+		{
+			return null;
+		}
+
+		final LookupValue lookupValue = (LookupValue)value;
+		final ITranslatableString displayNameTrl = lookupValue.getDisplayNameTrl();
+		return displayNameTrl.isTranslatedTo(adLanguage) ? null : lookupValue.getId();
+	}
+
+	/**
+	 * Fetches the lookup values which {@link #getValueAsJsonObject(String)} would fetch again because they are not translated to given language,
+	 * using one {@link LookupDataSource#findByIds(Collection)} call per lookup instead of one {@link LookupDataSource#findById(Object)} call per field.
+	 * The lookups are caching the fetched values, so converting the fields to JSON afterwards is not fetching them again.
+	 */
+	/* package */ static void prefetchLookupValuesToTranslate(@NonNull final Stream<DocumentField> fields, final String adLanguage)
+	{
+		final SetMultimap<LookupDataSource, Object> idsToTranslateByLookupDataSource = LinkedHashMultimap.create();
+		fields.forEach(field -> {
+			final Object id = field.getLookupValueIdToTranslateOrNull(adLanguage);
+			if (id != null)
+			{
+				idsToTranslateByLookupDataSource.put(field.getLookupDataSource(), id);
+			}
+		});
+
+		idsToTranslateByLookupDataSource.asMap()
+				.forEach((lookupDataSource, ids) -> lookupDataSource.findByIds(ids));
+	}
+
 	@Override
 	public int getValueAsInt(final int defaultValueWhenNull)
 	{
@@ -426,6 +461,20 @@ import lombok.NonNull;
 		return values == null ? LookupValuesList.EMPTY : values;
 	}
 
+	@Override
+	public boolean isLookupValueValid(final Object value)
+	{
+		final Object id = value instanceof LookupValue ? ((LookupValue)value).getId() : value;
+		if (id == null)
+		{
+			return false;
+		}
+
+		final LookupDataSource lookupDataSource = getLookupDataSource();
+		final Evaluatee ctx = getDocument().asEvaluatee();
+		return lookupDataSource.isValidId(ctx, id);
+	}
+
 	@Override
 	public LookupValuesList getLookupValuesForQuery(final String query)
 	{
@@ -203,6 +203,13 @@ public final class DocumentQuery
 			return documentsRepository.retrieveDocuments(query, changesCollector);
 		}
 
+		public List<DocumentValues> retrieveDocumentValues()
+		{
+			final DocumentQuery query = build();
+			final DocumentsRepository documentsRepository = getDocumentsRepository();
+			return documentsRepository.retrieveDocumentValues(query);
+		}
+
 		/**
 		 * Retrieves parent's {@link DocumentId} for a child document identified by given query.
 		 *
@@ -0,0 +1,128 @@
+package de.metas.ui.web.window.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Lightweight, readonly projection of a {@link Document}: only the field values, without the field flags (readonly, mandatory, displayed etc).
+ * <p>
+ * It is used to render (big) included tabs as a grid, without building a full {@link Document} for each row.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ *
+ */
+@Immutable
+@ToString(exclude = "entityDescriptor")
+public final class DocumentValues
+{
+	public static Builder builder(@NonNull final DocumentEntityDescriptor entityDescriptor, @NonNull final DocumentPath documentPath)
+	{
+		return new Builder(entityDescriptor, documentPath);
+	}
+
+	public static DocumentValues ofDocument(@NonNull final Document document)
+	{
+		final Builder builder = builder(document.getEntityDescriptor(), document.getDocumentPath());
+		document.getFieldViews().forEach(field -> builder.putValue(field.getFieldName(), field.getValue()));
+		return builder.build();
+	}
+
+	private final DocumentEntityDescriptor entityDescriptor;
+	private final DocumentPath documentPath;
+	private final Map<String, Object> values;
+
+	private DocumentValues(final Builder builder)
+	{
+		entityDescriptor = builder.entityDescriptor;
+		documentPath = builder.documentPath;
+		values = Collections.unmodifiableMap(builder.values);
+	}
+
+	public DocumentEntityDescriptor getEntityDescriptor()
+	{
+		return entityDescriptor;
+	}
+
+	public DocumentPath getDocumentPath()
+	{
+		return documentPath;
+	}
+
+	public DocumentId getDocumentId()
+	{
+		return documentPath.isRootDocument() ? documentPath.getDocumentId() : documentPath.getSingleRowId();
+	}
+
+	/**
+	 * @return field value; <code>null</code> if the value is null or there is no such field
+	 */
+	public Object getValue(final String fieldName)
+	{
+		return values.get(fieldName);
+	}
+
+	public static final class Builder
+	{
+		private final DocumentEntityDescriptor entityDescriptor;
+		private final DocumentPath documentPath;
+		private final LinkedHashMap<String, Object> values = new LinkedHashMap<>(); // NOTE: values might be null
+
+		private Builder(final DocumentEntityDescriptor entityDescriptor, final DocumentPath documentPath)
+		{
+			this.entityDescriptor = entityDescriptor;
+			this.documentPath = documentPath;
+		}
+
+		public DocumentValues build()
+		{
+			return new DocumentValues(this);
+		}
+
+		public Builder putValue(@NonNull final String fieldName, final Object value)
+		{
+			values.put(fieldName, value);
+			return this;
+		}
+
+		/**
+		 * Converts given value to field's value class (same as {@link Document} does when it's initialized) and puts it.
+		 */
+		public Builder putValue(@NonNull final DocumentFieldDescriptor fieldDescriptor, final Object value)
+		{
+			final Object valueConv = fieldDescriptor.convertToValueClass(value, /* lookupDataSource */null);
+			return putValue(fieldDescriptor.getFieldName(), valueConv);
+		}
+	}
+}
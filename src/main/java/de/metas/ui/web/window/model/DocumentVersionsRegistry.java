@@ -0,0 +1,373 @@
+package de.metas.ui.web.window.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.Services;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.window.model.sql.SqlDocumentsRepository;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tracks, in memory, which records were changed, based on the cache invalidation events received by {@link DocumentCacheInvalidationDispatcher}.
+ * <p>
+ * Each received event gets a sequence number. A document remembers the sequence number which was current right before its values were fetched from database.
+ * Later, when the document is checked out for writing, we can tell if the underlying record was changed in the meantime without querying the database
+ * (see {@link SqlDocumentsRepository#retrieveVersion(de.metas.ui.web.window.descriptor.DocumentEntityDescriptor, int)}).
+ * <p>
+ * The registry can only vouch for a record if it is sure it did not miss any event which might concern that record. It cannot vouch if:
+ * <ul>
+ * <li>the events stream was not active when the document was loaded
+ * <li>there was a full cache reset, or a table-wide reset of document's table, after the document was loaded
+ * <li>a record change marker newer than document's sequence number was dropped, because we keep only a bounded number of markers
+ * <li>the document was verified more than the trust duration ago; this bounds the staleness in case the record was changed bypassing the cache invalidation (e.g. plain SQL updates)
+ * </ul>
+ * In those cases and also when a change marker exists, the caller shall fallback to checking the version against database.
+ * <p>
+ * A document which saved its record is not considered changed by the change events of its own save (see {@link #onRecordSaved(String, int, long)}).
+ * <p>
+ * The trust duration is configured by {@value #SYSCONFIG_TrustDurationMillis} and it's zero (i.e. always check against database) by default.
+ * Enable it only if all changes are going through the cache invalidation events (i.e. no direct SQL updates) and those events are distributed to all cluster nodes,
+ * because else the registry cannot see those changes and they might be silently overwritten.
+ *
+ * @author metas-dev <dev@metasfresh.com>
+ *
+ */
+public final class DocumentVersionsRegistry
+{
+	public static final DocumentVersionsRegistry get()
+	{
+		return instance;
+	}
+
+	private static final DocumentVersionsRegistry instance = builder().build();
+
+	private static final Logger logger = LogManager.getLogger(DocumentVersionsRegistry.class);
+
+	public static final long SEQNO_UNKNOWN = -1;
+
+	private static final int DEFAULT_MaxTrackedRecords = 100000;
+	private static final String SYSCONFIG_TrustDurationMillis = "webui.document.versionsRegistry.trustDurationMillis";
+	private static final int DEFAULT_TrustDurationMillis = 0; // opt-in
+
+	private static final String TRXPROP_SavedRecords = DocumentVersionsRegistry.class.getName() + ".SavedRecords";
+
+	private final LongSupplier trustDurationMillisSupplier;
+
+	private final AtomicLong lastSeqNo = new AtomicLong(0);
+	private volatile long activatedSeqNo = Long.MAX_VALUE; // not active
+	private volatile long lastResetAllSeqNo = 0;
+	private final AtomicLong lastDroppedSeqNo = new AtomicLong(0);
+	private final ConcurrentHashMap<String, Long> lastResetSeqNoByTableName = new ConcurrentHashMap<>();
+	private final Cache<RecordKey, ChangeMarker> lastChangeByRecord;
+
+	@Builder
+	private DocumentVersionsRegistry(final int maxTrackedRecords, final LongSupplier trustDurationMillisSupplier)
+	{
+		this.trustDurationMillisSupplier = trustDurationMillisSupplier != null ? trustDurationMillisSupplier : DocumentVersionsRegistry::retrieveTrustDurationMillis;
+
+		lastChangeByRecord = CacheBuilder.newBuilder()
+				.maximumSize(maxTrackedRecords > 0 ? maxTrackedRecords : DEFAULT_MaxTrackedRecords)
+				.removalListener(this::onChangeMarkerRemoved)
+				.build();
+	}
+
+	private static long retrieveTrustDurationMillis()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		return sysConfigBL.getIntValue(SYSCONFIG_TrustDurationMillis, DEFAULT_TrustDurationMillis);
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("lastSeqNo", lastSeqNo.get())
+				.add("activatedSeqNo", activatedSeqNo)
+				.add("trackedRecords", lastChangeByRecord.size())
+				.toString();
+	}
+
+	/**
+	 * Called when the events stream becomes available. Documents loaded before this call will always be checked against database.
+	 */
+	public void activate()
+	{
+		activatedSeqNo = lastSeqNo.incrementAndGet();
+		logger.info("Activated: {}", this);
+	}
+
+	/**
+	 * Called when we know we could have missed events (e.g. the events stream was interrupted).
+	 * All currently loaded documents will be checked against database.
+	 */
+	public void deactivate()
+	{
+		activatedSeqNo = Long.MAX_VALUE;
+		lastSeqNo.incrementAndGet();
+		logger.info("Deactivated: {}", this);
+	}
+
+	public boolean isActive()
+	{
+		return activatedSeqNo != Long.MAX_VALUE;
+	}
+
+	/**
+	 * @return the sequence number which shall be captured right <b>before</b> fetching document's values from database
+	 */
+	public long getLastSeqNo()
+	{
+		return isActive() ? lastSeqNo.get() : SEQNO_UNKNOWN;
+	}
+
+	/**
+	 * Same as {@link #getLastSeqNo()}, but each call gets its own sequence number, so no two fetches share the same number.
+	 *
+	 * @return the sequence number which shall be captured right <b>before</b> fetching document's values from database
+	 */
+	public long newVersionSeqNo()
+	{
+		return isActive() ? lastSeqNo.incrementAndGet() : SEQNO_UNKNOWN;
+	}
+
+	public void onRecordChanged(@NonNull final String tableName, final int recordId)
+	{
+		final RecordKey recordKey = toRecordKey(tableName, recordId);
+		synchronized (lastChangeByRecord)
+		{
+			final long seqNo = lastSeqNo.incrementAndGet();
+			lastChangeByRecord.put(recordKey, ChangeMarker.of(seqNo));
+		}
+	}
+
+	/**
+	 * Called by a document right after it saved its record and refreshed its values.
+	 * <p>
+	 * The change is registered again after the transaction is committed (see {@link #onRecordChangedAfterCommit(ITrx, String, int)}).
+	 * That change is document's own change, so the document, identified by the sequence number of its refresh, is still up to date after it.
+	 *
+	 * @param savedSeqNo the sequence number captured right before the document refreshed its values after saving
+	 */
+	public void onRecordSaved(@NonNull final String tableName, final int recordId, final long savedSeqNo)
+	{
+		if (savedSeqNo == SEQNO_UNKNOWN)
+		{
+			return;
+		}
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (trxManager.isNull(trx))
+		{
+			// out of transaction, the change was registered before the document refreshed its values
+			return;
+		}
+
+		final Map<RecordKey, Long> savedSeqNosByRecord = trx.getProperty(TRXPROP_SavedRecords, () -> new ConcurrentHashMap<>());
+		savedSeqNosByRecord.put(toRecordKey(tableName, recordId), savedSeqNo);
+	}
+
+	/**
+	 * Same as {@link #onRecordChanged(String, int)}, but called after given transaction was committed.
+	 * <p>
+	 * If the record was saved by a document in that transaction (see {@link #onRecordSaved(String, int, long)})
+	 * and no other change was registered after the document refreshed its values, then that document is not considered changed.
+	 * The record row was locked by the transaction until the commit, so no other transaction could change it meanwhile.
+	 */
+	public void onRecordChangedAfterCommit(@NonNull final ITrx trx, @NonNull final String tableName, final int recordId)
+	{
+		final Map<RecordKey, Long> savedSeqNosByRecord = trx.getProperty(TRXPROP_SavedRecords, () -> new ConcurrentHashMap<>());
+		final Long savedSeqNo = savedSeqNosByRecord.get(toRecordKey(tableName, recordId));
+		if (savedSeqNo == null)
+		{
+			onRecordChanged(tableName, recordId);
+		}
+		else
+		{
+			onRecordChangedBySave(tableName, recordId, savedSeqNo);
+		}
+	}
+
+	/**
+	 * Registers the change of a record which was saved by a document.
+	 * If no other change was registered after given <code>savedSeqNo</code>, the document having that sequence number is not considered changed.
+	 *
+	 * @param savedSeqNo the sequence number captured right before the document refreshed its values after saving
+	 */
+	@VisibleForTesting
+	void onRecordChangedBySave(@NonNull final String tableName, final int recordId, final long savedSeqNo)
+	{
+		final RecordKey recordKey = toRecordKey(tableName, recordId);
+
+		// NOTE: synchronized with onRecordChanged, so no change can be registered between getting the previous change and putting the new one
+		synchronized (lastChangeByRecord)
+		{
+			final ChangeMarker previousChange = lastChangeByRecord.getIfPresent(recordKey);
+			final long seqNo = lastSeqNo.incrementAndGet();
+			if (previousChange == null || previousChange.getSeqNo() <= savedSeqNo)
+			{
+				lastChangeByRecord.put(recordKey, ChangeMarker.ofOwnChange(seqNo, savedSeqNo));
+			}
+			else
+			{
+				lastChangeByRecord.put(recordKey, ChangeMarker.of(seqNo));
+			}
+		}
+	}
+
+	public void onTableChanged(@NonNull final String tableName)
+	{
+		final long seqNo = lastSeqNo.incrementAndGet();
+		lastResetSeqNoByTableName.put(toTableKey(tableName), seqNo);
+	}
+
+	public void onAllChanged()
+	{
+		lastResetAllSeqNo = lastSeqNo.incrementAndGet();
+		lastChangeByRecord.invalidateAll();
+		lastResetSeqNoByTableName.clear();
+	}
+
+	private void onChangeMarkerRemoved(final RemovalNotification<RecordKey, ChangeMarker> notification)
+	{
+		if (!notification.wasEvicted())
+		{
+			return;
+		}
+
+		final ChangeMarker change = notification.getValue();
+		if (change != null)
+		{
+			lastDroppedSeqNo.accumulateAndGet(change.getSeqNo(), Math::max);
+		}
+	}
+
+	/**
+	 * @param seqNo sequence number captured right before document's values were fetched or verified against database
+	 * @param verifiedTimeMillis when the document's version was fetched or verified against database
+	 * @return true if we are sure the record was not changed since given <code>seqNo</code>.
+	 *         If false is returned, the record might be changed or not, so the caller shall check against database.
+	 */
+	public boolean isKnownNotChangedSince(@NonNull final String tableName, final int recordId, final long seqNo, final long verifiedTimeMillis, final long nowMillis)
+	{
+		if (seqNo == SEQNO_UNKNOWN || seqNo < activatedSeqNo)
+		{
+			return false;
+		}
+		final long trustDurationMillis = trustDurationMillisSupplier.getAsLong();
+		if (trustDurationMillis <= 0 || nowMillis - verifiedTimeMillis > trustDurationMillis)
+		{
+			return false;
+		}
+		if (lastResetAllSeqNo > seqNo || lastDroppedSeqNo.get() > seqNo)
+		{
+			return false;
+		}
+
+		final Long tableResetSeqNo = lastResetSeqNoByTableName.get(toTableKey(tableName));
+		if (tableResetSeqNo != null && tableResetSeqNo > seqNo)
+		{
+			return false;
+		}
+
+		final ChangeMarker recordChange = lastChangeByRecord.getIfPresent(toRecordKey(tableName, recordId));
+		if (recordChange != null && recordChange.getSeqNo() > seqNo && !recordChange.isOwnChangeOf(seqNo))
+		{
+			return false;
+		}
+
+		return true;
+	}
+
+	public ImmutableMap<String, Object> getStatistics()
+	{
+		return ImmutableMap.<String, Object> builder()
+				.put("active", isActive())
+				.put("lastSeqNo", lastSeqNo.get())
+				.put("trackedRecords", lastChangeByRecord.size())
+				.put("trackedTables", lastResetSeqNoByTableName.size())
+				.put("lastDroppedSeqNo", lastDroppedSeqNo.get())
+				.put("trustDurationMillis", trustDurationMillisSupplier.getAsLong())
+				.build();
+	}
+
+	private static final String toTableKey(final String tableName)
+	{
+		return tableName.toLowerCase();
+	}
+
+	private static final RecordKey toRecordKey(final String tableName, final int recordId)
+	{
+		return new RecordKey(toTableKey(tableName), recordId);
+	}
+
+	@Value
+	private static final class RecordKey
+	{
+		private final String tableKey;
+		private final int recordId;
+	}
+
+	@Value
+	private static final class ChangeMarker
+	{
+		public static ChangeMarker of(final long seqNo)
+		{
+			return new ChangeMarker(seqNo, SEQNO_UNKNOWN);
+		}
+
+		public static ChangeMarker ofOwnChange(final long seqNo, final long savedSeqNo)
+		{
+			return new ChangeMarker(seqNo, savedSeqNo);
+		}
+
+		private final long seqNo;
+		/** sequence number of the document which saved the record and which is still up to date after this change; {@link DocumentVersionsRegistry#SEQNO_UNKNOWN} if none */
+		private final long savedSeqNo;
+
+		public boolean isOwnChangeOf(final long documentSeqNo)
+		{
+			return savedSeqNo != SEQNO_UNKNOWN && savedSeqNo == documentSeqNo;
+		}
+	}
+}
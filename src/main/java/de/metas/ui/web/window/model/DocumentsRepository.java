@@ -1,5 +1,9 @@
 package de.metas.ui.web.window.model;
 
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
 import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
 
@@ -29,6 +33,28 @@ public interface DocumentsRepository
 {
 	OrderedDocumentsList retrieveDocuments(DocumentQuery query, IDocumentChangesCollector changesCollector);
 
+	/**
+	 * Retrieves only the field values of the documents matched by given query.
+	 *
+	 * Repositories which can provide the values without building the {@link Document}s shall override this method.
+	 */
+	default List<DocumentValues> retrieveDocumentValues(final DocumentQuery query)
+	{
+		return retrieveDocuments(query, NullDocumentChangesCollector.instance)
+				.toList()
+				.stream()
+				.map(DocumentValues::ofDocument)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * @return how many documents are retrieved at most when asking for <code>limit</code> documents (i.e. the repository might cap it); zero or negative means no limit
+	 */
+	default int getEffectiveLimit(final int limit)
+	{
+		return limit;
+	}
+
 	/** @return document or null */
 	Document retrieveDocument(DocumentQuery query, IDocumentChangesCollector changesCollector);
 
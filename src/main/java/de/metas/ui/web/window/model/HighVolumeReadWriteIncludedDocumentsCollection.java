@@ -7,12 +7,14 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.adempiere.ad.expression.api.LogicExpressionResult;
 import org.compiere.util.Evaluatee;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 
 import de.metas.logging.LogManager;
@@ -159,7 +161,7 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 	}
 
 	@Override
-	public OrderedDocumentsList getDocuments(final List<DocumentQueryOrderBy> orderBys)
+	public OrderedDocumentsList getDocuments(final List<DocumentQueryOrderBy> orderBys, final int firstRow, final int pageLength)
 	{
 		final Map<DocumentId, Document> documentsWithChanges = new LinkedHashMap<>(getInnerDocumentsWithChanges());
 		final OrderedDocumentsList documents = DocumentQuery.builder(entityDescriptor)
@@ -167,18 +169,103 @@ public class HighVolumeReadWriteIncludedDocumentsCollection implements IIncluded
 				.setExistingDocumentsSupplier(documentsWithChanges::remove)
 				.setChangesCollector(NullDocumentChangesCollector.instance)
 				.setOrderBys(orderBys)
+				.setFirstRow(firstRow)
+				.setPageLength(pageLength)
 				.retriveDocuments();
 
 		// Add the remaining documents with changes if any
 		// i.e. those documents which are new and never saved in database.
-		if (!documentsWithChanges.isEmpty())
+		documents.addDocuments(getRemainingDocumentsWithChanges(documentsWithChanges, documents.size(), getEffectivePageLength(pageLength)));
+
+		markNotStaleIfAllDocumentsLoaded(firstRow, pageLength);
+
+		return documents;
+	}
+
+	@Override
+	public List<DocumentValues> getDocumentValues(final List<DocumentQueryOrderBy> orderBys, final int firstRow, final int pageLength)
+	{
+		final Map<DocumentId, Document> documentsWithChanges = new LinkedHashMap<>(getInnerDocumentsWithChanges());
+		final List<DocumentValues> documentValuesList = DocumentQuery.builder(entityDescriptor)
+				.setParentDocument(parentDocument)
+				.setOrderBys(orderBys)
+				.setFirstRow(firstRow)
+				.setPageLength(pageLength)
+				.retrieveDocumentValues()
+				.stream()
+				.map(documentValues -> {
+					// Documents with changes in progress shall be provided as they are, and not as they are in database
+					final Document documentWithChanges = documentsWithChanges.remove(documentValues.getDocumentId());
+					return documentWithChanges != null ? DocumentValues.ofDocument(documentWithChanges) : documentValues;
+				})
+				.collect(Collectors.toCollection(ArrayList::new));
+
+		getRemainingDocumentsWithChanges(documentsWithChanges, documentValuesList.size(), getEffectivePageLength(pageLength))
+				.forEach(document -> documentValuesList.add(DocumentValues.ofDocument(document)));
+
+		markNotStaleIfAllDocumentsLoaded(firstRow, pageLength);
+
+		return documentValuesList;
+	}
+
+	/**
+	 * Clears the staled flag, but only if the whole collection was (re)loaded.
+	 * Loading only a page is not refreshing the other pages, so the collection is still staled.
+	 */
+	private void markNotStaleIfAllDocumentsLoaded(final int firstRow, final int pageLength)
+	{
+		final boolean paged = firstRow > 0 || pageLength > 0;
+		if (!paged)
 		{
-			documents.addDocuments(documentsWithChanges.values());
+			staled = false;
 		}
+	}
 
-		staled = false;
+	/**
+	 * @return how many documents were fetched at most from database for given page length, i.e. the page length capped by the repository's load limit
+	 */
+	private int getEffectivePageLength(final int pageLength)
+	{
+		if (pageLength <= 0)
+		{
+			return pageLength; // no paging
+		}
 
-		return documents;
+		return entityDescriptor.getDataBinding()
+				.getDocumentsRepository()
+				.getEffectiveLimit(pageLength);
+	}
+
+	/**
+	 * @param documentsWithChanges documents with changes which were not found in database
+	 * @param loadedCount how many documents were loaded from database
+	 * @param pageLength effective page length (see {@link #getEffectivePageLength(int)})
+	 * @return documents with changes which shall be added after the documents which were loaded from database
+	 */
+	private static Collection<Document> getRemainingDocumentsWithChanges(final Map<DocumentId, Document> documentsWithChanges, final int loadedCount, final int pageLength)
+	{
+		if (documentsWithChanges.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		// No paging => add all of them
+		if (pageLength <= 0)
+		{
+			return documentsWithChanges.values();
+		}
+
+		// Paging => add the new documents (i.e. not yet saved in database) to the last page.
+		// The other ones are on other pages.
+		final boolean isLastPage = loadedCount < pageLength;
+		if (!isLastPage)
+		{
+			return ImmutableList.of();
+		}
+		return documentsWithChanges.values()
+				.stream()
+				.filter(Document::isNew)
+				.collect(ImmutableList.toImmutableList());
 	}
 
 	@Override
@@ -72,15 +72,28 @@ public final class HighVolumeReadonlyIncludedDocumentsCollection implements IInc
 	}
 
 	@Override
-	public OrderedDocumentsList getDocuments(final List<DocumentQueryOrderBy> orderBys)
+	public OrderedDocumentsList getDocuments(final List<DocumentQueryOrderBy> orderBys, final int firstRow, final int pageLength)
 	{
 		return DocumentQuery.builder(entityDescriptor)
 				.setParentDocument(parentDocument)
 				.setChangesCollector(NullDocumentChangesCollector.instance)
 				.setOrderBys(orderBys)
+				.setFirstRow(firstRow)
+				.setPageLength(pageLength)
 				.retriveDocuments();
 	}
 
+	@Override
+	public List<DocumentValues> getDocumentValues(final List<DocumentQueryOrderBy> orderBys, final int firstRow, final int pageLength)
+	{
+		return DocumentQuery.builder(entityDescriptor)
+				.setParentDocument(parentDocument)
+				.setOrderBys(orderBys)
+				.setFirstRow(firstRow)
+				.setPageLength(pageLength)
+				.retrieveDocumentValues();
+	}
+
 	@Override
 	public Document getDocumentById(final DocumentId documentId)
 	{
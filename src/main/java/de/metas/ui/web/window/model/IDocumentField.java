@@ -78,6 +78,16 @@ import de.metas.ui.web.window.model.Document.CopyMode;
 
 	LookupValuesList getLookupValues();
 
+	/**
+	 * Checks if given value would be part of {@link #getLookupValues()}, without loading the whole list.
+	 *
+	 * NOTE: unlike {@link #getLookupValues()}, this method is not resetting the lookup values staled flag.
+	 *
+	 * @param value lookup value or ID
+	 * @return true if the value is still valid
+	 */
+	boolean isLookupValueValid(Object value);
+
 	LookupValuesList getLookupValuesForQuery(String query);
 
 	ICalloutField asCalloutField();
@@ -38,7 +38,16 @@ public interface IIncludedDocumentsCollection
 
 	IIncludedDocumentsCollection copy(Document parentDocumentCopy, CopyMode copyMode);
 
-	OrderedDocumentsList getDocuments(List<DocumentQueryOrderBy> orderBys);
+	/**
+	 * @param firstRow first row to return (zero based); negative means from the beginning
+	 * @param pageLength max number of documents to return; zero or negative means all
+	 */
+	OrderedDocumentsList getDocuments(List<DocumentQueryOrderBy> orderBys, int firstRow, int pageLength);
+
+	/**
+	 * Same as {@link #getDocuments(List, int, int)} but only the field values are retrieved, which is much cheaper for big tabs.
+	 */
+	List<DocumentValues> getDocumentValues(List<DocumentQueryOrderBy> orderBys, int firstRow, int pageLength);
 
 	Document getDocumentById(DocumentId documentId);
 
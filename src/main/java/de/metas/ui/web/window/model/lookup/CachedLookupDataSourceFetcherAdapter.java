@@ -1,6 +1,9 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.adempiere.util.Check;
@@ -14,6 +17,7 @@ import de.metas.ui.web.window.datatypes.LookupValue;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceContext.Builder;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -138,6 +142,49 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 		return cache_retrieveLookupValueById.getOrLoad(evalCtx, () -> delegate.retrieveLookupValueById(evalCtx));
 	}
 
+	/**
+	 * Gets the lookup values from cache and fetches the missing ones all at once.
+	 */
+	@Override
+	public LookupValuesList retrieveLookupValueByIdsInOrder(@NonNull final LookupDataSourceContext evalCtx)
+	{
+		//
+		// Get the cached lookup values and collect the IDs which are not cached
+		final Map<Object, LookupValue> lookupValuesById = new HashMap<>();
+		final List<Object> idsToLoad = new ArrayList<>();
+		evalCtx.streamSingleIdContexts().forEach(singleIdCtx -> {
+			final LookupValue lookupValue = cache_retrieveLookupValueById.get(singleIdCtx);
+			if (lookupValue != null)
+			{
+				lookupValuesById.put(singleIdCtx.getIdToFilter(), lookupValue);
+			}
+			else
+			{
+				idsToLoad.add(singleIdCtx.getIdToFilter());
+			}
+		});
+
+		//
+		// Fetch the missing lookup values and cache them
+		if (!idsToLoad.isEmpty())
+		{
+			final LookupDataSourceContext evalCtxToLoad = evalCtx.withIdsToFilter(idsToLoad);
+			final LookupValuesList loadedLookupValues = delegate.retrieveLookupValueByIdsInOrder(evalCtxToLoad);
+			evalCtxToLoad.streamSingleIdContexts().forEach(singleIdCtx -> {
+				final Object id = singleIdCtx.getIdToFilter();
+				final LookupValue lookupValue = loadedLookupValues.containsId(id) ? loadedLookupValues.getById(id) : LOOKUPVALUE_NULL;
+				cache_retrieveLookupValueById.put(singleIdCtx, lookupValue);
+				lookupValuesById.put(id, lookupValue);
+			});
+		}
+
+		return evalCtx.getIdsToFilter()
+				.stream()
+				.map(lookupValuesById::get)
+				.filter(lookupValue -> lookupValue != null && lookupValue != LOOKUPVALUE_NULL)
+				.collect(LookupValuesList.collect());
+	}
+
 	@Override
 	public Builder newContextForFetchingList()
 	{
@@ -150,6 +197,18 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 		return cache_retrieveEntities.getOrLoad(evalCtx, () -> delegate.retrieveEntities(evalCtx));
 	}
 
+	@Override
+	public boolean isValidId(final LookupDataSourceContext evalCtx, final Object id)
+	{
+		// If the list was already loaded, check it. Else don't load it, just ask the delegate.
+		final LookupValuesList lookupValues = cache_retrieveEntities.get(evalCtx);
+		if (lookupValues != null)
+		{
+			return lookupValues.containsId(id);
+		}
+		return delegate.isValidId(evalCtx, id);
+	}
+
 	@Override
 	public Optional<WindowId> getZoomIntoWindowId()
 	{
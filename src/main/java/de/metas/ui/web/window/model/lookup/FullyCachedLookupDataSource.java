@@ -107,6 +107,19 @@ class FullyCachedLookupDataSource implements LookupDataSource
 		return getLookupValuesList(ctx).limit(pageLength);
 	}
 
+	@Override
+	public boolean isValidId(final Evaluatee ctx, final Object idObj)
+	{
+		final Object idNormalized = LookupValue.normalizeId(idObj, fetcher.isNumericKey());
+		if (idNormalized == null)
+		{
+			return false;
+		}
+
+		// NOTE: we are fully caching the partitions anyways, so it's cheaper to check the (cached) partition
+		return getLookupValuesList(ctx).containsId(idNormalized);
+	}
+
 	@Override
 	public LookupValue findById(final Object idObj)
 	{
@@ -1,22 +1,31 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
 import org.adempiere.ad.expression.api.IStringExpression;
 import org.adempiere.ad.service.impl.LookupDAO.SQLNamePairIterator;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.validationRule.INamePairPredicate;
+import org.adempiere.exceptions.DBException;
 import org.compiere.util.CCache.CCacheStats;
 import org.compiere.util.DB;
+import org.compiere.util.Evaluatee;
+import org.compiere.util.Evaluatees;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.ImmutableTranslatableString;
@@ -62,13 +71,18 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 
 	private static final Logger logger = LogManager.getLogger(GenericSqlLookupDataSourceFetcher.class);
 
+	/** Max IDs to fetch with one SQL query, so we stay far below the JDBC bind parameters limit */
+	private static final int RETRIEVE_BY_IDS_MaxIdsPerQuery = 500;
+
 	private final @NonNull String lookupTableName;
 	private final @NonNull Optional<String> lookupTableNameAsOptional;
 	private final boolean numericKey;
 	private final int entityTypeIndex;
 
 	private final IStringExpression sqlForFetchingExpression;
+	private final IStringExpression sqlForFetchingValidatedByIdExpression;
 	private final IStringExpression sqlForFetchingDisplayNameByIdExpression;
+	private final IStringExpression sqlForFetchingDisplayNamesByIdsExpression;
 	private final INamePairPredicate postQueryPredicate;
 
 	private final boolean isTranslatable;
@@ -87,7 +101,9 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 		numericKey = sqlLookupDescriptor.isNumericKey();
 		entityTypeIndex = sqlLookupDescriptor.getEntityTypeIndex();
 		sqlForFetchingExpression = sqlLookupDescriptor.getSqlForFetchingExpression();
+		sqlForFetchingValidatedByIdExpression = sqlLookupDescriptor.getSqlForFetchingValidatedByIdExpression();
 		sqlForFetchingDisplayNameByIdExpression = sqlLookupDescriptor.getSqlForFetchingDisplayNameByIdExpression();
+		sqlForFetchingDisplayNamesByIdsExpression = sqlLookupDescriptor.getSqlForFetchingDisplayNamesByIdsExpression();
 		postQueryPredicate = sqlLookupDescriptor.getPostQueryPredicate();
 
 		isTranslatable = sqlForFetchingDisplayNameByIdExpression.requiresParameter(LookupDataSourceContext.PARAM_AD_Language.getName());
@@ -198,6 +214,29 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 		}
 	}
 
+	/**
+	 * Checks the given ID using one SQL query which is limited to the given ID, instead of fetching the whole list.
+	 */
+	@Override
+	public boolean isValidId(@NonNull final LookupDataSourceContext evalCtx, @NonNull final Object id)
+	{
+		final String sqlKeyId = numericKey ? String.valueOf(id) : DB.TO_STRING(id.toString());
+		final Evaluatee evalCtxEffective = Evaluatees.compose(
+				Evaluatees.mapBuilder()
+						.put(SqlLookupDescriptor.SQL_PARAM_KeyId, sqlKeyId)
+						.build(),
+				evalCtx);
+		final String sql = sqlForFetchingValidatedByIdExpression.evaluate(evalCtxEffective, OnVariableNotFound.Fail);
+
+		try (final SQLNamePairIterator data = new SQLNamePairIterator(sql, numericKey, entityTypeIndex))
+		{
+			// NOTE: the post query predicate shall be applied too
+			return data.fetchAll()
+					.stream()
+					.anyMatch(evalCtx::acceptItem);
+		}
+	}
+
 	@Override
 	public final LookupValue retrieveLookupValueById(final LookupDataSourceContext evalCtx)
 	{
@@ -214,6 +253,72 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 			return LOOKUPVALUE_NULL;
 		}
 
+		return createLookupValue(id, displayName, evalCtx);
+	}
+
+	/**
+	 * Fetches all lookup values using one SQL query for each {@value #RETRIEVE_BY_IDS_MaxIdsPerQuery} IDs.
+	 */
+	@Override
+	public LookupValuesList retrieveLookupValueByIdsInOrder(@NonNull final LookupDataSourceContext evalCtx)
+	{
+		final List<Object> ids = evalCtx.getIdsToFilter();
+		if (ids.isEmpty())
+		{
+			return LookupValuesList.EMPTY;
+		}
+
+		final Map<Object, String> displayNamesById = new HashMap<>(ids.size());
+		for (final List<Object> idsChunk : Lists.partition(ids, RETRIEVE_BY_IDS_MaxIdsPerQuery))
+		{
+			retrieveDisplayNamesByIds(idsChunk, evalCtx, displayNamesById);
+		}
+
+		return ids.stream()
+				.filter(displayNamesById::containsKey)
+				.map(id -> createLookupValue(id, displayNamesById.get(id), evalCtx))
+				.collect(LookupValuesList.collect());
+	}
+
+	private void retrieveDisplayNamesByIds(final List<Object> ids, final LookupDataSourceContext evalCtx, final Map<Object, String> displayNamesById)
+	{
+		final String sqlKeyIds = ids.stream().map(id -> "?").collect(Collectors.joining(","));
+		final Evaluatee evalCtxEffective = Evaluatees.compose(
+				Evaluatees.mapBuilder()
+						.put(SqlLookupDescriptor.SQL_PARAM_KeyIds, sqlKeyIds)
+						.build(),
+				evalCtx);
+		final String sql = sqlForFetchingDisplayNamesByIdsExpression.evaluate(evalCtxEffective, OnVariableNotFound.Fail);
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, ids);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				final Object id = numericKey ? (Object)rs.getInt(1) : rs.getString(1);
+				final String displayName = rs.getString(2);
+				if (displayName != null)
+				{
+					displayNamesById.put(id, displayName);
+				}
+			}
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, ids);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	private LookupValue createLookupValue(@NonNull final Object id, @NonNull final String displayName, final LookupDataSourceContext evalCtx)
+	{
 		final ITranslatableString displayNameTrl;
 		if (isTranslatable)
 		{
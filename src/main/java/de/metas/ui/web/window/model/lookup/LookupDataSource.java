@@ -58,6 +58,14 @@ public interface LookupDataSource extends LookupValueByIdSupplier
 		return findEntities(ctx, Integer.MAX_VALUE);
 	}
 
+	/**
+	 * @return true if given ID is part of the lookup values list which would be returned by {@link #findEntities(Evaluatee)}
+	 */
+	default boolean isValidId(final Evaluatee ctx, final Object id)
+	{
+		return id != null && findEntities(ctx).containsId(id);
+	}
+
 	@Override
 	LookupValue findById(Object id);
 
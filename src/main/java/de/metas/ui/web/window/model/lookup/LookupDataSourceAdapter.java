@@ -1,5 +1,6 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -8,6 +9,8 @@ import org.compiere.util.CCache.CCacheStats;
 import org.compiere.util.Evaluatee;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.ui.web.window.datatypes.LookupValue;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
@@ -101,6 +104,25 @@ final class LookupDataSourceAdapter implements LookupDataSource
 		return lookupValuesList;
 	}
 
+	@Override
+	public boolean isValidId(final Evaluatee ctx, final Object idObj)
+	{
+		final Object idNormalized = LookupValue.normalizeId(idObj, fetcher.isNumericKey());
+		if (idNormalized == null)
+		{
+			return false;
+		}
+
+		// NOTE: build the same context as findEntities(ctx) would do, so cached lists can be reused
+		final LookupDataSourceContext evalCtx = fetcher.newContextForFetchingList()
+				.setParentEvaluatee(ctx)
+				.putFilter(LookupDataSourceContext.FILTER_Any, FIRST_ROW, Integer.MAX_VALUE)
+				.requiresFilterAndLimit() // make sure the filter, limit and offset will be kept on build
+				.build();
+
+		return fetcher.isValidId(evalCtx, idNormalized);
+	}
+
 	@Override
 	public LookupValue findById(final Object idObj)
 	{
@@ -134,6 +156,34 @@ final class LookupDataSourceAdapter implements LookupDataSource
 		return lookupValue;
 	}
 
+	@Override
+	public LookupValuesList findByIds(@NonNull final Collection<? extends Object> ids)
+	{
+		//
+		// Normalize the IDs to Integer/String
+		final boolean numericKey = fetcher.isNumericKey();
+		final List<Object> idsNormalized = ids.stream()
+				.map(idObj -> LookupValue.normalizeId(idObj, numericKey))
+				.filter(Predicates.notNull())
+				.distinct()
+				.collect(ImmutableList.toImmutableList());
+		if (idsNormalized.isEmpty())
+		{
+			return LookupValuesList.EMPTY;
+		}
+
+		//
+		// Build the validation context
+		final LookupDataSourceContext evalCtx = fetcher.newContextForFetchingById(idsNormalized.get(0))
+				.putFilterByIds(idsNormalized)
+				.putShowInactive(true)
+				.build();
+
+		//
+		// Get the lookup values
+		return fetcher.retrieveLookupValueByIdsInOrder(evalCtx);
+	}
+
 	@Override
 	public List<CCacheStats> getCacheStats()
 	{
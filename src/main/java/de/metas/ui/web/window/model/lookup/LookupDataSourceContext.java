@@ -5,9 +5,11 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
@@ -27,6 +29,7 @@ import org.compiere.util.Evaluatee2;
 import org.compiere.util.NamePair;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import de.metas.ui.web.window.descriptor.sql.SqlLookupDescriptor;
@@ -89,17 +92,20 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 	private final String lookupTableName;
 	private final ImmutableMap<String, Object> parameterValues;
 	private final Object idToFilter;
+	private final ImmutableList<Object> idsToFilter;
 	private final INamePairPredicate postQueryPredicate;
 
 	private LookupDataSourceContext(
 			final String lookupTableName,
 			final Map<String, Object> values,
 			final Object idToFilter,
+			final List<Object> idsToFilter,
 			final INamePairPredicate postQueryPredicate)
 	{
 		this.lookupTableName = lookupTableName;
 		this.parameterValues = ImmutableMap.copyOf(values);
 		this.idToFilter = idToFilter;
+		this.idsToFilter = ImmutableList.copyOf(idsToFilter);
 		this.postQueryPredicate = postQueryPredicate;
 	}
 
@@ -111,6 +117,7 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 				.add("lookupTableName", lookupTableName)
 				.add("parameterValues", parameterValues.isEmpty() ? null : parameterValues)
 				.add("idToFilter", idToFilter)
+				.add("idsToFilter", idsToFilter.isEmpty() ? null : idsToFilter)
 				.add("postFilterPredicate", postQueryPredicate)
 				.toString();
 	}
@@ -118,7 +125,7 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 	@Override
 	public int hashCode()
 	{
-		return Objects.hash(lookupTableName, parameterValues, idToFilter, postQueryPredicate);
+		return Objects.hash(lookupTableName, parameterValues, idToFilter, idsToFilter, postQueryPredicate);
 	}
 
 	@Override
@@ -141,6 +148,7 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 		return Objects.equals(lookupTableName, other.lookupTableName)
 				&& Objects.equals(parameterValues, other.parameterValues)
 				&& Objects.equals(idToFilter, other.idToFilter)
+				&& Objects.equals(idsToFilter, other.idsToFilter)
 				&& Objects.equals(postQueryPredicate, other.postQueryPredicate);
 	}
 
@@ -261,6 +269,48 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 		return idToFilter != null ? idToFilter.toString() : null;
 	}
 
+	/**
+	 * @return IDs to filter (in the order they were given) when fetching more lookup values at once
+	 * @see LookupDataSourceFetcher#retrieveLookupValueByIdsInOrder(LookupDataSourceContext)
+	 */
+	public List<Object> getIdsToFilter()
+	{
+		return idsToFilter;
+	}
+
+	/**
+	 * @return a copy of this context, filtering by given ID
+	 */
+	public LookupDataSourceContext withIdToFilter(@NonNull final Object idToFilter)
+	{
+		if (Objects.equals(this.idToFilter, idToFilter) && idsToFilter.isEmpty())
+		{
+			return this;
+		}
+		return new LookupDataSourceContext(lookupTableName, parameterValues, idToFilter, ImmutableList.of(), postQueryPredicate);
+	}
+
+	/**
+	 * @return a copy of this context, filtering by given IDs
+	 */
+	public LookupDataSourceContext withIdsToFilter(@NonNull final List<Object> idsToFilter)
+	{
+		if (Objects.equals(this.idsToFilter, idsToFilter))
+		{
+			return this;
+		}
+		return new LookupDataSourceContext(lookupTableName, parameterValues, null, idsToFilter, postQueryPredicate);
+	}
+
+	/**
+	 * @return for each ID from {@link #getIdsToFilter()}, the equivalent context which is filtering by that ID only
+	 */
+	public Stream<LookupDataSourceContext> streamSingleIdContexts()
+	{
+		return idsToFilter.stream()
+				.map(id -> new LookupDataSourceContext(lookupTableName, parameterValues, id, ImmutableList.of(), postQueryPredicate));
+	}
+
 	public static final class Builder
 	{
 		private Evaluatee parentEvaluatee;
@@ -268,6 +318,7 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 		private INamePairPredicate postQueryPredicate = INamePairPredicate.NULL;
 		private final Map<String, Object> name2value = new HashMap<>();
 		private Object idToFilter;
+		private List<Object> idsToFilter = ImmutableList.of();
 		private Collection<CtxName> _requiredParameters;
 		private boolean _requiredParameters_copyOnAdd = false;
 
@@ -310,7 +361,7 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 
 			//
 			// Build the effective context
-			return new LookupDataSourceContext(lookupTableName, valuesCollected, idToFilter, postQueryPredicate);
+			return new LookupDataSourceContext(lookupTableName, valuesCollected, idToFilter, idsToFilter, postQueryPredicate);
 		}
 
 		private Collection<CtxName> getRequiredParameters()
@@ -452,6 +503,17 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 			return this;
 		}
 
+		/**
+		 * Advises the builder to filter by more IDs at once. Any ID set by {@link #putFilterById(Object)} will be discarded.
+		 */
+		public Builder putFilterByIds(@NonNull final Collection<? extends Object> ids)
+		{
+			Check.assumeNotEmpty(ids, "ids is not empty");
+			idToFilter = null;
+			idsToFilter = ImmutableList.copyOf(ids);
+			return this;
+		}
+
 		public Builder putShowInactive(final boolean showInactive)
 		{
 			final String sqlShowInactive = showInactive ? SqlLookupDescriptor.SQL_PARAM_VALUE_ShowInactive_Yes : SqlLookupDescriptor.SQL_PARAM_VALUE_ShowInactive_No;
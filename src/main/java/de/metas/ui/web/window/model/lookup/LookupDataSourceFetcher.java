@@ -11,6 +11,7 @@ import de.metas.ui.web.window.datatypes.LookupValue;
 import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -44,10 +45,38 @@ public interface LookupDataSourceFetcher
 
 	LookupValue retrieveLookupValueById(LookupDataSourceContext evalCtx);
 
+	/**
+	 * Retrieves the lookup values for all IDs from {@link LookupDataSourceContext#getIdsToFilter()}.
+	 *
+	 * The default implementation is fetching them one by one. Implementations are encouraged to fetch them all at once.
+	 *
+	 * @return lookup values, in the same order as the IDs; IDs which were not found are skipped
+	 */
+	default LookupValuesList retrieveLookupValueByIdsInOrder(@NonNull final LookupDataSourceContext evalCtx)
+	{
+		return evalCtx.streamSingleIdContexts()
+				.map(this::retrieveLookupValueById)
+				.filter(lookupValue -> lookupValue != null && lookupValue != LOOKUPVALUE_NULL)
+				.collect(LookupValuesList.collect());
+	}
+
 	LookupDataSourceContext.Builder newContextForFetchingList();
 
 	LookupValuesList retrieveEntities(LookupDataSourceContext evalCtx);
 
+	/**
+	 * Checks if given ID would be part of {@link #retrieveEntities(LookupDataSourceContext)}'s result (i.e. it's still valid in given context).
+	 *
+	 * The default implementation is retrieving all entities. Implementations are encouraged to check only the given ID.
+	 *
+	 * @param evalCtx context, as built for fetching the whole list (see {@link #newContextForFetchingList()})
+	 * @param id normalized ID (Integer/String)
+	 */
+	default boolean isValidId(@NonNull final LookupDataSourceContext evalCtx, @NonNull final Object id)
+	{
+		return retrieveEntities(evalCtx).containsId(id);
+	}
+
 	//
 	// Caching
 	//@formatter:off
@@ -32,6 +32,7 @@ import org.compiere.util.DisplayType;
 import org.compiere.util.TimeUtil;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 
@@ -65,6 +66,8 @@ import de.metas.ui.web.window.exceptions.DocumentNotFoundException;
 import de.metas.ui.web.window.model.Document;
 import de.metas.ui.web.window.model.Document.DocumentValuesSupplier;
 import de.metas.ui.web.window.model.DocumentQuery;
+import de.metas.ui.web.window.model.DocumentValues;
+import de.metas.ui.web.window.model.DocumentVersionsRegistry;
 import de.metas.ui.web.window.model.DocumentsRepository;
 import de.metas.ui.web.window.model.IDocumentChangesCollector;
 import de.metas.ui.web.window.model.IDocumentFieldView;
@@ -182,13 +185,11 @@ public final class SqlDocumentsRepository implements DocumentsRepository
 		final String adLanguage = sqlBuilder.getAD_Language();
 		logger.debug("Retrieving records: SQL={} -- {}", sql, sqlParams);
 
-		final int loadLimitWarn = this.loadLimitWarn;
+		// NOTE: if a limit was explicitly asked (e.g. a page of an included tab), we are not warning,
+		// but the maximum load limit is still enforced
+		final int loadLimitWarn = limit > 0 ? -1 : this.loadLimitWarn;
 		final int loadLimitMax = this.loadLimitMax;
-		int maxRowsToFetch = limit;
-		if (maxRowsToFetch <= 0)
-		{
-			maxRowsToFetch = loadLimitMax;
-		}
+		final int maxRowsToFetch = computeMaxRowsToFetch(limit, loadLimitMax);
 
 		final OrderedDocumentsList documentsCollector = OrderedDocumentsList.newEmpty(query.getOrderBys());
 		PreparedStatement pstmt = null;
@@ -201,12 +202,13 @@ public final class SqlDocumentsRepository implements DocumentsRepository
 				pstmt.setMaxRows(maxRowsToFetch);
 			}
 			DB.setParameters(pstmt, sqlParams);
+			final long versionSeqNo = DocumentVersionsRegistry.get().newVersionSeqNo(); // NOTE: capture it before fetching the values
 			rs = pstmt.executeQuery();
 
 			boolean loadLimitWarnReported = false;
 			while (rs.next())
 			{
-				final ResultSetDocumentValuesSupplier documentValuesSupplier = new ResultSetDocumentValuesSupplier(entityDescriptor, adLanguage, rs);
+				final ResultSetDocumentValuesSupplier documentValuesSupplier = new ResultSetDocumentValuesSupplier(entityDescriptor, adLanguage, rs, versionSeqNo);
 
 				Document document = null;
 				if (existingDocumentsSupplier != null)
@@ -259,6 +261,111 @@ public final class SqlDocumentsRepository implements DocumentsRepository
 		return documentsCollector;
 	}
 
+	@Override
+	public int getEffectiveLimit(final int limit)
+	{
+		return computeMaxRowsToFetch(limit, loadLimitMax);
+	}
+
+	/**
+	 * @return max rows to fetch, i.e. the asked limit but not more than the maximum load limit; zero or negative means no limit
+	 */
+	@VisibleForTesting
+	static int computeMaxRowsToFetch(final int limit, final int loadLimitMax)
+	{
+		if (limit <= 0)
+		{
+			return loadLimitMax;
+		}
+		else if (loadLimitMax <= 0)
+		{
+			return limit;
+		}
+		else
+		{
+			return Math.min(limit, loadLimitMax);
+		}
+	}
+
+	@Override
+	public List<DocumentValues> retrieveDocumentValues(final DocumentQuery query)
+	{
+		logger.debug("Retrieving record values: query={}", query);
+
+		final DocumentEntityDescriptor entityDescriptor = query.getEntityDescriptor();
+		assertThisRepository(entityDescriptor);
+		final Document parentDocument = query.getParentDocument();
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final SqlDocumentQueryBuilder sqlBuilder = SqlDocumentQueryBuilder.of(query);
+		final String sql = sqlBuilder.getSql(sqlParams);
+		final String adLanguage = sqlBuilder.getAD_Language();
+		logger.debug("Retrieving record values: SQL={} -- {}", sql, sqlParams);
+
+		final int limit = query.getPageLength();
+		final int loadLimitMax = this.loadLimitMax;
+		final int maxRowsToFetch = computeMaxRowsToFetch(limit, loadLimitMax);
+
+		final List<DocumentValues> documentValuesList = new ArrayList<>();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			if (maxRowsToFetch > 0)
+			{
+				pstmt.setMaxRows(maxRowsToFetch);
+			}
+			DB.setParameters(pstmt, sqlParams);
+			final long versionSeqNo = DocumentVersionsRegistry.get().newVersionSeqNo();
+			rs = pstmt.executeQuery();
+
+			while (rs.next())
+			{
+				final ResultSetDocumentValuesSupplier documentValuesSupplier = new ResultSetDocumentValuesSupplier(entityDescriptor, adLanguage, rs, versionSeqNo);
+				final DocumentId documentId = documentValuesSupplier.getDocumentId();
+				final DocumentPath documentPath = parentDocument == null
+						? DocumentPath.rootDocumentPath(entityDescriptor.getDocumentType(), entityDescriptor.getDocumentTypeId(), documentId)
+						: parentDocument.getDocumentPath().createChildPath(entityDescriptor.getDetailId(), documentId);
+
+				final DocumentValues.Builder documentValues = DocumentValues.builder(entityDescriptor, documentPath);
+				for (final DocumentFieldDescriptor fieldDescriptor : entityDescriptor.getFields())
+				{
+					final Object value = documentValuesSupplier.getValue(fieldDescriptor);
+					if (value != DocumentValuesSupplier.NO_VALUE)
+					{
+						documentValues.putValue(fieldDescriptor, value);
+					}
+				}
+				documentValuesList.add(documentValues.build());
+
+				// Stop if we reached the limit
+				if (limit > 0 && documentValuesList.size() >= limit)
+				{
+					break;
+				}
+
+				// Stop if we reached the MAXIMUM limit
+				if (loadLimitMax > 0 && documentValuesList.size() >= loadLimitMax)
+				{
+					logger.warn("Reached load count MAXIMUM level. Stop loading. \n SQL: {} \n SQL Params: {} \n loadCount: {}", sql, sqlParams, documentValuesList.size());
+					break;
+				}
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		logger.debug("Retrieved {} record values.", documentValuesList.size());
+		return documentValuesList;
+	}
+
 	@Override
 	public Document retrieveDocument(final DocumentQuery query, final IDocumentChangesCollector changesCollector)
 	{
@@ -335,8 +442,9 @@ public final class SqlDocumentsRepository implements DocumentsRepository
 		private DocumentId id;
 
 		private String version;
+		private final long versionSeqNo;
 
-		public ResultSetDocumentValuesSupplier(final DocumentEntityDescriptor entityDescriptor, final String adLanguage, final ResultSet rs)
+		public ResultSetDocumentValuesSupplier(final DocumentEntityDescriptor entityDescriptor, final String adLanguage, final ResultSet rs, final long versionSeqNo)
 		{
 			super();
 			Check.assumeNotNull(entityDescriptor, "Parameter entityDescriptor is not null");
@@ -344,6 +452,7 @@ public final class SqlDocumentsRepository implements DocumentsRepository
 			this.entityDescriptor = entityDescriptor;
 			this.adLanguage = adLanguage;
 			this.rs = rs;
+			this.versionSeqNo = versionSeqNo;
 		}
 
 		@Override
@@ -406,6 +515,12 @@ public final class SqlDocumentsRepository implements DocumentsRepository
 			}
 		}
 
+		@Override
+		public long getVersionSeqNo()
+		{
+			return versionSeqNo;
+		}
+
 		@Override
 		public Object getValue(final DocumentFieldDescriptor fieldDescriptor)
 		{
@@ -465,10 +580,11 @@ public final class SqlDocumentsRepository implements DocumentsRepository
 		{
 			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
 			DB.setParameters(pstmt, sqlParams);
+			final long versionSeqNo = DocumentVersionsRegistry.get().newVersionSeqNo(); // NOTE: capture it before fetching the values
 			rs = pstmt.executeQuery();
 			if (rs.next())
 			{
-				final ResultSetDocumentValuesSupplier fieldValueSupplier = new ResultSetDocumentValuesSupplier(entityDescriptor, adLanguage, rs);
+				final ResultSetDocumentValuesSupplier fieldValueSupplier = new ResultSetDocumentValuesSupplier(entityDescriptor, adLanguage, rs, versionSeqNo);
 				document.refreshFromSupplier(fieldValueSupplier);
 			}
 			else
@@ -0,0 +1,127 @@
+package de.metas.ui.web.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SerializedJSONResponseEntityBuilderTest
+{
+	private final ObjectMapper jsonObjectMapper = new ObjectMapper();
+	private SerializedJSONCache cache;
+
+	@Before
+	public void init()
+	{
+		cache = SerializedJSONCache.newInstance();
+	}
+
+	private ResponseEntity<byte[]> get(final String acceptEncoding, final String ifNoneMatch)
+	{
+		final MockHttpServletRequest httpRequest = new MockHttpServletRequest("GET", "/layout");
+		if (acceptEncoding != null)
+		{
+			httpRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		if (ifNoneMatch != null)
+		{
+			httpRequest.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+
+		return SerializedJSONResponseEntityBuilder.of(new ServletWebRequest(httpRequest, new MockHttpServletResponse()), cache, jsonObjectMapper)
+				.jsonOptions(() -> JSONOptions.builder(null).setAD_LanguageIfNotEmpty("en_US").build())
+				.toJson("layout", jsonOpts -> ImmutableMap.of("caption", "Sales Order"));
+	}
+
+	@Test
+	public void isGzipAccepted()
+	{
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted(null)).isFalse();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("")).isFalse();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("identity")).isFalse();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("gzip")).isTrue();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("GZIP")).isTrue();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("gzip, deflate, br")).isTrue();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("deflate, gzip;q=0.5")).isTrue();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("*")).isTrue();
+	}
+
+	@Test
+	public void isGzipAccepted_zeroQuality()
+	{
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("gzip;q=0")).isFalse();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("gzip; q=0.0, identity")).isFalse();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("*;q=0")).isFalse();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("gzip;q=0, *")).isFalse();
+		assertThat(SerializedJSONResponseEntityBuilder.isGzipAccepted("gzip;q=0.1, *;q=0")).isTrue();
+	}
+
+	@Test
+	public void gzipAndPlainVariants_haveDifferentETags()
+	{
+		final ResponseEntity<byte[]> plainResponse = get(null, null);
+		assertThat(plainResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(plainResponse.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+
+		final ResponseEntity<byte[]> gzipResponse = get("gzip", null);
+		assertThat(gzipResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(gzipResponse.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+		assertThat(gzipResponse.getHeaders().getETag()).isNotEqualTo(plainResponse.getHeaders().getETag());
+		assertThat(gzipResponse.getHeaders().get(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+	}
+
+	@Test
+	public void notModified_onlyForTheSameVariant()
+	{
+		final String gzipETag = get("gzip", null).getHeaders().getETag();
+
+		final ResponseEntity<byte[]> notModifiedResponse = get("gzip", gzipETag);
+		assertThat(notModifiedResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(notModifiedResponse.getHeaders().get(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+
+		// the client does not accept gzip anymore => it shall get the plain variant
+		final ResponseEntity<byte[]> plainResponse = get(null, gzipETag);
+		assertThat(plainResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(plainResponse.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+		assertThat(plainResponse.getBody()).isEqualTo(jsonBytes());
+	}
+
+	private byte[] jsonBytes()
+	{
+		return SerializedJSON.serialize(jsonObjectMapper, ImmutableMap.of("caption", "Sales Order")).getBytes();
+	}
+}
@@ -0,0 +1,90 @@
+package de.metas.ui.web.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import org.compiere.util.Util.ArrayKey;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SerializedJSONTest
+{
+	private final ObjectMapper jsonObjectMapper = new ObjectMapper();
+
+	@Test
+	public void sameContent_sameETag()
+	{
+		final SerializedJSON json1 = SerializedJSON.serialize(jsonObjectMapper, ImmutableMap.of("caption", "Sales Order"));
+		final SerializedJSON json2 = SerializedJSON.serialize(jsonObjectMapper, ImmutableMap.of("caption", "Sales Order"));
+		final SerializedJSON json3 = SerializedJSON.serialize(jsonObjectMapper, ImmutableMap.of("caption", "Purchase Order"));
+
+		assertThat(json1.getEtag()).isEqualTo(json2.getEtag());
+		assertThat(json1.getEtag().toETagString()).isEqualTo(json2.getEtag().toETagString());
+		assertThat(json1.getEtag()).isNotEqualTo(json3.getEtag());
+	}
+
+	@Test
+	public void gzippedVariant_hasItsOwnETag()
+	{
+		final SerializedJSON json1 = SerializedJSON.serialize(jsonObjectMapper, ImmutableMap.of("caption", "Sales Order"));
+		final SerializedJSON json2 = SerializedJSON.serialize(jsonObjectMapper, ImmutableMap.of("caption", "Sales Order"));
+
+		assertThat(json1.getGzippedEtag()).isNotEqualTo(json1.getEtag());
+		assertThat(json1.getGzippedEtag().toETagString()).isNotEqualTo(json1.getEtag().toETagString());
+		assertThat(json1.getGzippedEtag()).isEqualTo(json2.getGzippedEtag());
+	}
+
+	@Test
+	public void gzippedBytes() throws IOException
+	{
+		final SerializedJSON json = SerializedJSON.serialize(jsonObjectMapper, ImmutableMap.of("caption", "Sales Order"));
+		assertThat(new String(json.getBytes(), "UTF-8")).isEqualTo("{\"caption\":\"Sales Order\"}");
+
+		try (final GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(json.getGzippedBytes())))
+		{
+			assertThat(ByteStreams.toByteArray(in)).isEqualTo(json.getBytes());
+		}
+	}
+
+	@Test
+	public void cache_serializesOnlyOnce()
+	{
+		final SerializedJSONCache cache = SerializedJSONCache.newInstance();
+		final SerializedJSON json1 = cache.getOrSerialize(ArrayKey.of("header", "de_DE"), jsonObjectMapper, () -> ImmutableMap.of("caption", "Auftrag"));
+		final SerializedJSON json2 = cache.getOrSerialize(ArrayKey.of("header", "de_DE"), jsonObjectMapper, () -> {
+			throw new IllegalStateException("shall not be called");
+		});
+		final SerializedJSON json3 = cache.getOrSerialize(ArrayKey.of("header", "en_US"), jsonObjectMapper, () -> ImmutableMap.of("caption", "Sales Order"));
+
+		assertThat(json2).isSameAs(json1);
+		assertThat(json3.getEtag()).isNotEqualTo(json1.getEtag());
+	}
+}
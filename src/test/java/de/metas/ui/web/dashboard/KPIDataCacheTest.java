@@ -0,0 +1,191 @@
+package de.metas.ui.web.dashboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class KPIDataCacheTest
+{
+	private AtomicInteger loadsCount;
+
+	@Before
+	public void init()
+	{
+		loadsCount = new AtomicInteger();
+	}
+
+	private static KPIDataCache newCache(final Duration idleTimeout)
+	{
+		return KPIDataCache.builder()
+				.idleTimeout(idleTimeout)
+				.refreshExecutor(Runnable::run) // refresh synchronously
+				.build();
+	}
+
+	private static KPIDataCache.Key key(final int kpiId)
+	{
+		return key(kpiId, 100);
+	}
+
+	private static KPIDataCache.Key key(final int kpiId, final int adUserId)
+	{
+		return KPIDataCache.Key.builder()
+				.kpiId(kpiId)
+				.ctxVariables(ImmutableMap.of("#AD_Client_ID", "1", "#AD_User_ID", String.valueOf(adUserId)))
+				.timeRangeDefaults(KPITimeRangeDefaults.DEFAULT)
+				.build();
+	}
+
+	private Supplier<KPIDataResult> countingLoader()
+	{
+		return () -> {
+			loadsCount.incrementAndGet();
+			return KPIDataResult.builder().build();
+		};
+	}
+
+	@Test
+	public void test_hit()
+	{
+		final KPIDataCache cache = newCache(Duration.ofHours(1));
+
+		final KPIDataResult data1 = cache.getOrLoad(key(1), Duration.ofHours(1), countingLoader());
+		final KPIDataResult data2 = cache.getOrLoad(key(1), Duration.ofHours(1), countingLoader());
+
+		assertThat(data2).isSameAs(data1);
+		assertThat(loadsCount.get()).isEqualTo(1);
+		assertThat(cache.getStatistics())
+				.containsEntry("misses", 1L)
+				.containsEntry("hits", 1L);
+	}
+
+	@Test
+	public void test_differentKeys_areLoadedSeparately()
+	{
+		final KPIDataCache cache = newCache(Duration.ofHours(1));
+
+		cache.getOrLoad(key(1), Duration.ofHours(1), countingLoader());
+		cache.getOrLoad(key(2), Duration.ofHours(1), countingLoader());
+
+		assertThat(loadsCount.get()).isEqualTo(2);
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void test_differentCtxVariables_areLoadedSeparately()
+	{
+		final KPIDataCache cache = newCache(Duration.ofHours(1));
+
+		final KPIDataResult data1 = cache.getOrLoad(key(1, 100), Duration.ofHours(1), countingLoader());
+		final KPIDataResult data2 = cache.getOrLoad(key(1, 101), Duration.ofHours(1), countingLoader());
+
+		assertThat(data2).isNotSameAs(data1);
+		assertThat(loadsCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void test_refresh_usesTheLoaderOfTheEntry()
+	{
+		final KPIDataCache cache = newCache(Duration.ofHours(1));
+
+		final AtomicInteger user1LoadsCount = new AtomicInteger();
+		cache.getOrLoad(key(1), Duration.ZERO, () -> {
+			user1LoadsCount.incrementAndGet();
+			return KPIDataResult.builder().build();
+		});
+
+		// Same key, another loader => the expired entry shall be refreshed using the loader it was created with
+		cache.getOrLoad(key(1), Duration.ZERO, countingLoader());
+
+		assertThat(user1LoadsCount.get()).isEqualTo(2);
+		assertThat(loadsCount.get()).isEqualTo(0);
+	}
+
+	@Test
+	public void test_expired_returnsStaleDataAndRefreshes()
+	{
+		final KPIDataCache cache = newCache(Duration.ofHours(1));
+
+		final KPIDataResult data1 = cache.getOrLoad(key(1), Duration.ZERO, countingLoader());
+		final KPIDataResult data2 = cache.getOrLoad(key(1), Duration.ZERO, countingLoader());
+		assertThat(data2).isSameAs(data1);
+		assertThat(loadsCount.get()).isEqualTo(2);
+
+		final KPIDataResult data3 = cache.getOrLoad(key(1), Duration.ZERO, countingLoader());
+		assertThat(data3).isNotSameAs(data1);
+		assertThat(cache.getStatistics()).containsEntry("staleHits", 2L);
+	}
+
+	@Test
+	public void test_failedRefresh_keepsStaleData()
+	{
+		final KPIDataCache cache = newCache(Duration.ofHours(1));
+
+		final KPIDataResult data1 = cache.getOrLoad(key(1), Duration.ZERO, () -> {
+			if (loadsCount.incrementAndGet() > 1)
+			{
+				throw new RuntimeException("test");
+			}
+			return KPIDataResult.builder().build();
+		});
+		cache.getOrLoad(key(1), Duration.ZERO, countingLoader());
+
+		final KPIDataResult data3 = cache.getOrLoad(key(1), Duration.ofHours(1), countingLoader());
+		assertThat(data3).isSameAs(data1);
+		assertThat(cache.getStatistics()).containsEntry("loadsFailed", 1L);
+	}
+
+	@Test
+	public void test_refreshExpiredAndEvictIdle_evictsIdleEntries()
+	{
+		final KPIDataCache cache = newCache(Duration.ofMillis(-1));
+		cache.getOrLoad(key(1), Duration.ofHours(1), countingLoader());
+		assertThat(cache.size()).isEqualTo(1);
+
+		cache.refreshExpiredAndEvictIdle();
+
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.getStatistics()).containsEntry("evicted", 1L);
+	}
+
+	@Test
+	public void test_refreshExpiredAndEvictIdle_refreshesExpiredEntries()
+	{
+		final KPIDataCache cache = newCache(Duration.ofHours(1));
+		final KPIDataResult data1 = cache.getOrLoad(key(1), Duration.ZERO, countingLoader());
+
+		cache.refreshExpiredAndEvictIdle();
+
+		assertThat(loadsCount.get()).isEqualTo(2);
+		assertThat(cache.getOrLoad(key(1), Duration.ofHours(1), countingLoader())).isNotSameAs(data1);
+	}
+}
@@ -0,0 +1,72 @@
+package de.metas.ui.web.dashboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.ad.expression.api.IStringExpression;
+import org.adempiere.ad.expression.api.impl.StringExpressionCompiler;
+import org.compiere.util.Evaluatee;
+import org.compiere.util.Evaluatees;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class KPIDataProviderTest
+{
+	private static Evaluatee userCtx(final int adUserId)
+	{
+		return Evaluatees.mapBuilder()
+				.put("#AD_Client_ID", 1)
+				.put("#AD_Org_ID", 1000000)
+				.put("#AD_User_ID", adUserId)
+				.build();
+	}
+
+	@Test
+	public void test_extractCtxVariables_onlyUsedVariables()
+	{
+		final IStringExpression esQuery = StringExpressionCompiler.instance.compile("{ \"client\": @#AD_Client_ID@, \"from\": @FromMillis@, \"to\": @ToMillis@ }");
+
+		assertThat(KPIDataProvider.extractCtxVariables(esQuery, userCtx(100)))
+				.isEqualTo(ImmutableMap.of("#AD_Client_ID", "1"))
+				.isEqualTo(KPIDataProvider.extractCtxVariables(esQuery, userCtx(101)));
+	}
+
+	@Test
+	public void test_extractCtxVariables_userSpecificQuery()
+	{
+		final IStringExpression esQuery = StringExpressionCompiler.instance.compile("{ \"user\": @#AD_User_ID@ }");
+
+		assertThat(KPIDataProvider.extractCtxVariables(esQuery, userCtx(100)))
+				.isNotEqualTo(KPIDataProvider.extractCtxVariables(esQuery, userCtx(101)));
+	}
+
+	@Test
+	public void test_extractCtxVariables_noVariables()
+	{
+		final IStringExpression esQuery = StringExpressionCompiler.instance.compile("{ \"query\": { \"match_all\": {} } }");
+
+		assertThat(KPIDataProvider.extractCtxVariables(esQuery, userCtx(100))).isEmpty();
+	}
+}
@@ -0,0 +1,213 @@
+package de.metas.ui.web.handlingunits;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_Product;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.I_M_HU_Storage;
+import de.metas.handlingunits.model.I_M_Locator;
+import de.metas.handlingunits.model.I_M_Warehouse;
+import de.metas.ui.web.handlingunits.HUEditorRowsPrefetchedData.HUProductStorageData;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class HUEditorRowsPrefetchedDataTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static I_M_HU createHU(final I_M_HU parentHU)
+	{
+		final I_M_HU hu = newInstance(I_M_HU.class);
+		if (parentHU != null)
+		{
+			hu.setM_HU_Item_Parent_ID(createHUItem(parentHU).getM_HU_Item_ID());
+		}
+		save(hu);
+		return hu;
+	}
+
+	private static I_M_HU_Item createHUItem(final I_M_HU hu)
+	{
+		final I_M_HU_Item huItem = newInstance(I_M_HU_Item.class);
+		huItem.setM_HU_ID(hu.getM_HU_ID());
+		save(huItem);
+		return huItem;
+	}
+
+	private static I_M_Product createProduct(final String value)
+	{
+		final I_M_Product product = newInstance(I_M_Product.class);
+		product.setValue(value);
+		product.setName(value + "Name");
+		save(product);
+		return product;
+	}
+
+	private static I_C_UOM createUOM(final String uomSymbol)
+	{
+		final I_C_UOM uom = newInstance(I_C_UOM.class);
+		uom.setUOMSymbol(uomSymbol);
+		save(uom);
+		return uom;
+	}
+
+	private static void createStorage(final I_M_HU hu, final I_M_Product product, final I_C_UOM uom, final int qty)
+	{
+		final I_M_HU_Storage storage = newInstance(I_M_HU_Storage.class);
+		storage.setM_HU_ID(hu.getM_HU_ID());
+		storage.setM_Product_ID(product.getM_Product_ID());
+		storage.setC_UOM_ID(uom.getC_UOM_ID());
+		storage.setQty(BigDecimal.valueOf(qty));
+		save(storage);
+	}
+
+	private static I_M_Locator createLocator(final String warehouseName, final String value)
+	{
+		final I_M_Warehouse warehouse = newInstance(I_M_Warehouse.class);
+		warehouse.setName(warehouseName);
+		save(warehouse);
+
+		final I_M_Locator locator = newInstance(I_M_Locator.class);
+		locator.setM_Warehouse_ID(warehouse.getM_Warehouse_ID());
+		locator.setValue(value);
+		save(locator);
+		return locator;
+	}
+
+	@Test
+	public void test_includedHUs()
+	{
+		final I_M_HU lu = createHU(null);
+		final I_M_HU tu1 = createHU(lu);
+		final I_M_HU tu2 = createHU(lu);
+		final I_M_HU vhu = createHU(tu1);
+
+		final I_M_HU inactiveTU = createHU(lu);
+		inactiveTU.setIsActive(false);
+		save(inactiveTU);
+
+		final I_M_HU otherLU = createHU(null);
+		createHU(otherLU);
+
+		final HUEditorRowsPrefetchedData data = HUEditorRowsPrefetchedData.prefetch(ImmutableList.of(lu), false);
+
+		assertThat(extractHUIds(data.getIncludedHUs(lu))).containsExactly(tu1.getM_HU_ID(), tu2.getM_HU_ID(), inactiveTU.getM_HU_ID());
+		assertThat(extractHUIds(data.getIncludedHUs(tu1))).containsExactly(vhu.getM_HU_ID());
+		assertThat(data.getIncludedHUs(tu2)).isEmpty();
+		assertThat(data.getIncludedHUs(vhu)).isEmpty();
+		assertThat(data.getIncludedHUs(otherLU)).isEmpty();
+	}
+
+	private static List<Integer> extractHUIds(final List<I_M_HU> hus)
+	{
+		return hus.stream().map(I_M_HU::getM_HU_ID).collect(ImmutableList.toImmutableList());
+	}
+
+	@Test
+	public void test_productStorages()
+	{
+		final I_M_Product product1 = createProduct("P1");
+		final I_M_Product product2 = createProduct("P2");
+		final I_C_UOM uom = createUOM("Stk");
+
+		final I_M_HU tu = createHU(null);
+		final I_M_HU vhu1 = createHU(tu);
+		final I_M_HU vhu2 = createHU(tu);
+		createStorage(tu, product1, uom, 10);
+		createStorage(tu, product2, uom, 0);
+		createStorage(vhu1, product1, uom, 10);
+		createStorage(vhu2, product2, uom, 0);
+
+		final HUEditorRowsPrefetchedData data = HUEditorRowsPrefetchedData.prefetch(ImmutableList.of(tu), false);
+
+		final List<HUProductStorageData> tuStorages = data.getProductStorages(tu);
+		assertThat(tuStorages).hasSize(2);
+		assertThat(tuStorages.get(0).getProductId()).isEqualTo(product1.getM_Product_ID());
+		assertThat(tuStorages.get(0).getProduct().getCaption()).isEqualTo("P1_P1Name");
+		assertThat(tuStorages.get(0).getUom().getCaption()).isEqualTo("Stk");
+		assertThat(tuStorages.get(0).getQty()).isEqualByComparingTo("10");
+		assertThat(tuStorages.get(1).getProductId()).isEqualTo(product2.getM_Product_ID());
+		assertThat(tuStorages.get(1).getQty()).isEqualByComparingTo("0");
+		assertThat(data.getSingleProductStorageOrNull(tu)).isNull();
+
+		final HUProductStorageData vhu1Storage = data.getSingleProductStorageOrNull(vhu1);
+		assertThat(vhu1Storage.getHu()).isSameAs(vhu1);
+		assertThat(vhu1Storage.getProductId()).isEqualTo(product1.getM_Product_ID());
+
+		// storages with zero qty are kept, as before
+		assertThat(data.getSingleProductStorageOrNull(vhu2).getProductId()).isEqualTo(product2.getM_Product_ID());
+	}
+
+	@Test
+	public void test_locators()
+	{
+		final I_M_Locator locator = createLocator("WH", "L1");
+		final I_M_HU lu = createHU(null);
+		lu.setM_Locator_ID(locator.getM_Locator_ID());
+		save(lu);
+
+		final HUEditorRowsPrefetchedData data = HUEditorRowsPrefetchedData.prefetch(ImmutableList.of(lu), true);
+
+		assertThat(data.getLocator(locator.getM_Locator_ID()).getCaption()).isEqualTo("WH_L1");
+		assertThat(data.getLocator(0)).isNull();
+		assertThat(data.getLocator(999999).getKeyAsInt()).isEqualTo(999999);
+	}
+
+	@Test
+	public void test_noLocatorsPrefetched()
+	{
+		final I_M_Locator locator = createLocator("WH", "L1");
+		final I_M_HU lu = createHU(null);
+		lu.setM_Locator_ID(locator.getM_Locator_ID());
+		save(lu);
+
+		final HUEditorRowsPrefetchedData data = HUEditorRowsPrefetchedData.prefetch(ImmutableList.of(lu), false);
+
+		assertThat(data.getLocator(locator.getM_Locator_ID()).getCaption()).isEqualTo("<" + locator.getM_Locator_ID() + ">");
+	}
+
+	@Test
+	public void test_noTopLevelHUs()
+	{
+		final HUEditorRowsPrefetchedData data = HUEditorRowsPrefetchedData.prefetch(ImmutableList.of(), true);
+
+		assertThat(data.getLocator(0)).isNull();
+	}
+}
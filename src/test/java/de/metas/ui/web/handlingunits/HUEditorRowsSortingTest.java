@@ -0,0 +1,99 @@
+package de.metas.ui.web.handlingunits;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.view.ViewRowsSortedIndex;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class HUEditorRowsSortingTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static HUEditorRow row(final int huId, final String code, final BigDecimal qtyCU)
+	{
+		return HUEditorRow.builder(WindowId.of(123))
+				.setRowId(HUEditorRowId.ofTopLevelHU(huId))
+				.setType(HUEditorRowType.LU)
+				.setTopLevel(true)
+				.setCode(code)
+				.setQtyCU(qtyCU)
+				.build();
+	}
+
+	private static List<DocumentId> rowIds(final int... huIds)
+	{
+		final ImmutableList.Builder<DocumentId> rowIds = ImmutableList.builder();
+		for (final int huId : huIds)
+		{
+			rowIds.add(HUEditorRowId.ofTopLevelHU(huId).toDocumentId());
+		}
+		return rowIds.build();
+	}
+
+	@Test
+	public void test_sortAllRowsAndThenPage()
+	{
+		final List<HUEditorRow> rows = ImmutableList.of(
+				row(1, "C", BigDecimal.ONE),
+				row(2, "A", BigDecimal.TEN),
+				row(3, "D", null),
+				row(4, "B", new BigDecimal("2")));
+
+		final ViewRowsSortedIndex sortedIndex = ViewRowsSortedIndex.build(rows, ImmutableList.of(DocumentQueryOrderBy.byFieldName(HUEditorRow.FIELDNAME_HUCode)));
+		assertThat(sortedIndex.size()).isEqualTo(4);
+		assertThat(sortedIndex.getPage(0, 2)).isEqualTo(rowIds(2, 4));
+		assertThat(sortedIndex.getPage(2, 2)).isEqualTo(rowIds(1, 3));
+		assertThat(sortedIndex.getPage(4, 2)).isEmpty();
+	}
+
+	@Test
+	public void test_sortByNumbers_descending_nullsLast()
+	{
+		final List<HUEditorRow> rows = ImmutableList.of(
+				row(1, "C", BigDecimal.ONE),
+				row(2, "A", BigDecimal.TEN),
+				row(3, "D", null),
+				row(4, "B", new BigDecimal("2")));
+
+		final boolean ascending = false;
+		final ViewRowsSortedIndex sortedIndex = ViewRowsSortedIndex.build(rows, ImmutableList.of(DocumentQueryOrderBy.byFieldName(HUEditorRow.FIELDNAME_QtyCU, ascending)));
+		assertThat(sortedIndex.getPage(0, 10)).isEqualTo(rowIds(2, 4, 1, 3));
+	}
+}
@@ -1,19 +1,39 @@
 package de.metas.ui.web.material.cockpit;
 
+import static org.adempiere.model.InterfaceWrapperHelper.delete;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_M_Product;
+import org.compiere.model.I_M_Product_Category;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
+import de.metas.dimension.model.I_DIM_Dimension_Spec;
 import de.metas.fresh.model.I_X_MRP_ProductInfo_Detail_MV;
+import de.metas.material.cockpit.model.I_MD_Cockpit;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.material.cockpit.filters.MaterialCockpitFilters;
+import de.metas.ui.web.material.cockpit.rowfactory.MainRowBucketId;
 import de.metas.ui.web.material.cockpit.rowfactory.MaterialCockpitRowFactory;
 import de.metas.ui.web.view.AbstractCustomView.IRowsData;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 
 /*
  * #%L
@@ -39,6 +59,7 @@ import de.metas.ui.web.view.AbstractCustomView.IRowsData;
 
 public class MaterialCockpitRowRepositoryTest
 {
+	private MaterialCockpitFilters materialCockpitFilters;
 	private MaterialCockpitRowRepository materialCockpitRowRepository;
 
 	@Before
@@ -46,8 +67,9 @@ public class MaterialCockpitRowRepositoryTest
 	{
 		AdempiereTestHelper.get().init();
 
+		materialCockpitFilters = new MaterialCockpitFilters();
 		materialCockpitRowRepository = new MaterialCockpitRowRepository(
-				new MaterialCockpitFilters(),
+				materialCockpitFilters,
 				new MaterialCockpitRowFactory());
 	}
 
@@ -63,4 +85,109 @@ public class MaterialCockpitRowRepositoryTest
 		assertThat(result.getTableRecordReference2rows().asMap()).isEmpty();
 	}
 
+	@Test
+	public void invalidate_changedCockpitRecord_recomputesTheAffectedMainRow()
+	{
+		createDimensionSpec();
+		final Timestamp date = TimeUtil.getDay(Env.getDate(Env.getCtx()));
+		final I_M_Product product1 = createProduct("product1");
+		final I_M_Product product2 = createProduct("product2");
+		createCockpitRecord(product1, date);
+
+		final ImmutableList<DocumentFilter> filters = materialCockpitFilters.createAutoFilters();
+		final IRowsData<MaterialCockpitRow> rowsData = materialCockpitRowRepository.createRowsData(filters);
+		assertThat(extractProductIds(rowsData)).containsOnly(product1.getM_Product_ID(), product2.getM_Product_ID());
+
+		final I_MD_Cockpit cockpitRecord = createCockpitRecord(product2, date);
+		final TableRecordReference cockpitRecordRef = TableRecordReference.of(cockpitRecord);
+
+		final List<DocumentId> rowIdsToInvalidate = streamDocumentIdsToInvalidate(rowsData, cockpitRecordRef);
+		assertThat(rowIdsToInvalidate).containsExactly(createMainRowId(product2, date));
+
+		rowsData.invalidate(DocumentIdsSelection.of(rowIdsToInvalidate));
+		assertThat(extractProductIds(rowsData)).containsOnly(product1.getM_Product_ID(), product2.getM_Product_ID());
+		assertThat(rowsData.getById(createMainRowId(product2, date)).getAllIncludedCockpitRecordIds()).contains(cockpitRecord.getMD_Cockpit_ID());
+		assertThat(rowsData.getById(createMainRowId(product1, date)).getAllIncludedCockpitRecordIds()).doesNotContain(cockpitRecord.getMD_Cockpit_ID());
+	}
+
+	@Test
+	public void preloadChangedRecords_sharesTheRecordsBetweenRowsData()
+	{
+		createDimensionSpec();
+		final Timestamp date = TimeUtil.getDay(Env.getDate(Env.getCtx()));
+		final I_M_Product product = createProduct("product");
+
+		final ImmutableList<DocumentFilter> filters = materialCockpitFilters.createAutoFilters();
+		final IRowsData<MaterialCockpitRow> rowsData1 = materialCockpitRowRepository.createRowsData(filters);
+		final IRowsData<MaterialCockpitRow> rowsData2 = materialCockpitRowRepository.createRowsData(filters);
+
+		final I_MD_Cockpit cockpitRecord = createCockpitRecord(product, date);
+		final TableRecordReference cockpitRecordRef = TableRecordReference.of(cockpitRecord);
+
+		try (final IAutoCloseable preloadedChangedRecords = materialCockpitRowRepository.preloadChangedRecords(ImmutableSet.of(cockpitRecordRef)))
+		{
+			// the record was loaded when preloading, so the rows data shall not query it again
+			delete(cockpitRecord);
+
+			assertThat(streamDocumentIdsToInvalidate(rowsData1, cockpitRecordRef)).containsExactly(createMainRowId(product, date));
+			assertThat(streamDocumentIdsToInvalidate(rowsData2, cockpitRecordRef)).containsExactly(createMainRowId(product, date));
+		}
+
+		// outside of preloading scope the record is queried again, and it no longer exists
+		assertThat(streamDocumentIdsToInvalidate(rowsData1, cockpitRecordRef)).isEmpty();
+	}
+
+	private static void createDimensionSpec()
+	{
+		final I_DIM_Dimension_Spec dimSpec = newInstance(I_DIM_Dimension_Spec.class);
+		dimSpec.setInternalName(MaterialCockpitRowFactory.DIM_SPEC_INTERNAL_NAME);
+		dimSpec.setIsIncludeEmpty(true);
+		save(dimSpec);
+	}
+
+	private static I_M_Product createProduct(final String name)
+	{
+		final I_M_Product_Category productCategory = newInstance(I_M_Product_Category.class);
+		productCategory.setName(name + "_category");
+		save(productCategory);
+
+		final I_M_Product product = newInstance(I_M_Product.class);
+		product.setValue(name);
+		product.setName(name);
+		product.setIsStocked(true);
+		product.setM_Product_Category(productCategory);
+		save(product);
+		return product;
+	}
+
+	private static I_MD_Cockpit createCockpitRecord(final I_M_Product product, final Timestamp date)
+	{
+		final I_MD_Cockpit cockpitRecord = newInstance(I_MD_Cockpit.class);
+		cockpitRecord.setM_Product(product);
+		cockpitRecord.setDateGeneral(date);
+		cockpitRecord.setAttributesKey(AttributesKey.NONE.getAsString());
+		cockpitRecord.setQtyReserved_Purchase(BigDecimal.TEN);
+		save(cockpitRecord);
+		return cockpitRecord;
+	}
+
+	private static DocumentId createMainRowId(final I_M_Product product, final Timestamp date)
+	{
+		return MaterialCockpitRow.createMainRowId(MainRowBucketId.createPlainInstance(product.getM_Product_ID(), date));
+	}
+
+	private static List<Integer> extractProductIds(final IRowsData<MaterialCockpitRow> rowsData)
+	{
+		return rowsData.getTopLevelRows()
+				.stream()
+				.map(MaterialCockpitRow::getProductId)
+				.collect(Collectors.toList());
+	}
+
+	private static List<DocumentId> streamDocumentIdsToInvalidate(final IRowsData<MaterialCockpitRow> rowsData, final TableRecordReference recordRef)
+	{
+		return rowsData.streamDocumentIdsToInvalidate(recordRef)
+				.distinct()
+				.collect(Collectors.toList());
+	}
 }
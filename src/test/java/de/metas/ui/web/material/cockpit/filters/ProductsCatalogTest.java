@@ -0,0 +1,108 @@
+package de.metas.ui.web.material.cockpit.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ProductsCatalogTest
+{
+	private ProductsCatalog productsCatalog;
+
+	@Before
+	public void init()
+	{
+		productsCatalog = ProductsCatalog.of(ImmutableList.of(
+				entry(30, 100, "P-0030", "Tomatoes Cherry", true, false),
+				entry(10, 100, "P-0010", "Tomatoes", true, true),
+				entry(20, 200, "P-0020", "Potatoes", false, true),
+				entry(40, 200, "X-0040", null, true, true)));
+	}
+
+	private static ProductsCatalogEntry entry(final int productId, final int productCategoryId, final String value, final String name, final boolean sold, final boolean purchased)
+	{
+		return ProductsCatalogEntry.builder()
+				.productId(productId)
+				.productCategoryId(productCategoryId)
+				.value(value)
+				.name(name)
+				.sold(sold)
+				.purchased(purchased)
+				.build();
+	}
+
+	@Test
+	public void emptyFilter()
+	{
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.EMPTY)).containsExactly(10, 20, 30, 40);
+		assertThat(productsCatalog.size()).isEqualTo(4);
+	}
+
+	@Test
+	public void nameAndValue_ignoreCase()
+	{
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productName("TOMATO").build())).containsExactly(10, 30);
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productName("to").build())).containsExactly(10, 20, 30);
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productValue("p-00").productName("atoes").build())).containsExactly(10, 20, 30);
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productName("xyz").build())).isEmpty();
+	}
+
+	@Test
+	public void likeWildcards()
+	{
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productName("tom%cherry").build())).containsExactly(30);
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productValue("p-00_0").build())).containsExactly(10, 20, 30);
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productValue("%40%").build())).containsExactly(40);
+	}
+
+	@Test
+	public void categoryAndFlags()
+	{
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productCategoryId(200).build())).containsExactly(20, 40);
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productCategoryId(300).build())).isEmpty();
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().isSold(true).isPurchased(true).build())).containsExactly(10, 40);
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productCategoryId(100).productName("tomatoes").isPurchased(false).build())).containsExactly(30);
+	}
+
+	@Test
+	public void withChangedEntry()
+	{
+		final ProductsCatalog changedCatalog = productsCatalog
+				.withChangedEntry(10, entry(10, 100, "P-0010", "Cucumbers", true, true))
+				.withChangedEntry(20, null)
+				.withChangedEntry(50, entry(50, 100, "P-0050", "Tomatoes Green", true, false))
+				.withChangedEntry(60, null);
+
+		assertThat(changedCatalog.getProductIds(ProductFilterVO.builder().productName("tomato").build())).containsExactly(30, 50);
+		assertThat(changedCatalog.getProductIds(ProductFilterVO.builder().productName("cucumber").build())).containsExactly(10);
+		assertThat(changedCatalog.getProductIds(ProductFilterVO.EMPTY)).containsOnly(10, 30, 40, 50);
+		assertThat(changedCatalog.size()).isEqualTo(4);
+
+		// the original snapshot is not changed
+		assertThat(productsCatalog.getProductIds(ProductFilterVO.builder().productName("tomato").build())).containsExactly(10, 30);
+	}
+}
@@ -214,7 +214,7 @@ public class MaterialCockpitRowFactoryTest
 
 		final CreateRowsRequest request = CreateRowsRequest.builder()
 				.date(today)
-				.productsToListEvenIfEmpty(ImmutableList.of())
+				.productIdsToListEvenIfEmpty(ImmutableList.of())
 				.cockpitRecords(ImmutableList.of(cockpitRecordWithAttributes, cockpitRecordWithEmptyAttributesKey))
 				.stockRecords(ImmutableList.of(stockRecordWithAttributes, stockRecordWithEmptyAttributesKey))
 				.build();
@@ -295,7 +295,7 @@ public class MaterialCockpitRowFactoryTest
 
 		// invoke method under test
 		final Map<MainRowBucketId, MainRowWithSubRows> result = materialCockpitRowFactory.createEmptyRowBuckets(
-				ImmutableList.of(product),
+				ImmutableList.of(product.getM_Product_ID()),
 				today);
 
 		assertThat(result).hasSize(1);
@@ -0,0 +1,130 @@
+package de.metas.ui.web.menu;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.ui.web.menu.MenuNode.MenuNodeType;
+import de.metas.ui.web.window.datatypes.DocumentId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MenuTreeTest
+{
+	private MenuTree menuTree;
+
+	@Before
+	public void init()
+	{
+		final MenuNode rootNode = MenuNode.builder()
+				.setAD_Menu_ID(0)
+				.setCaption("Root")
+				.setTypeGroup()
+				.addChild(MenuNode.builder()
+						.setAD_Menu_ID(10)
+						.setCaption("Sales")
+						.setTypeGroup()
+						.addChild(window(11, "Purchase Order Candidates"))
+						.addChild(window(12, "Sales Order"))
+						.addChild(window(13, "Order Übersicht"))
+						.build())
+				.addChild(MenuNode.builder()
+						.setAD_Menu_ID(20)
+						.setCaption("Materials")
+						.setTypeGroup()
+						.addChild(window(21, "Material Cockpit"))
+						.build())
+				.build();
+
+		menuTree = MenuTree.of(1, rootNode);
+	}
+
+	private static MenuNode window(final int adMenuId, final String caption)
+	{
+		return MenuNode.builder()
+				.setAD_Menu_ID(adMenuId)
+				.setCaption(caption)
+				.setType(MenuNodeType.Window, DocumentId.of(adMenuId))
+				.build();
+	}
+
+	@Test
+	public void search_rankedPrefixMatchesFirst()
+	{
+		assertThat(menuTree.search("order", 0))
+				.extracting(MenuNode::getCaption)
+				.containsExactly("Order Übersicht", "Purchase Order Candidates", "Sales Order");
+	}
+
+	@Test
+	public void search_limit()
+	{
+		assertThat(menuTree.search("order", 1))
+				.extracting(MenuNode::getCaption)
+				.containsExactly("Order Übersicht");
+	}
+
+	@Test
+	public void search_insideWordAndShortQuery()
+	{
+		assertThat(menuTree.search("RDE", 0)).hasSize(3);
+		assertThat(menuTree.search("al", 0))
+				.extracting(MenuNode::getCaption)
+				.containsExactly("Sales", "Sales Order", "Materials", "Material Cockpit");
+	}
+
+	@Test
+	public void search_diacriticsInsensitive()
+	{
+		assertThat(menuTree.search("ubers", 0))
+				.extracting(MenuNode::getCaption)
+				.containsExactly("Order Übersicht");
+		assertThat(menuTree.search("xyz", 0)).isEmpty();
+	}
+
+	@Test
+	public void filter_includesAncestors()
+	{
+		final MenuNode rootFiltered = menuTree.filter("cockpit", false);
+
+		assertThat(rootFiltered.getChildren())
+				.extracting(MenuNode::getCaption)
+				.containsExactly("Materials");
+		assertThat(rootFiltered.getChildren().get(0).getChildren())
+				.extracting(MenuNode::getCaption)
+				.containsExactly("Material Cockpit");
+		assertThat(rootFiltered.getChildren().get(0).getChildren().get(0).isMatchedByFilter()).isTrue();
+	}
+
+	@Test
+	public void filter_groupMatched_includeLeafs()
+	{
+		final MenuNode rootFiltered = menuTree.filter("sales", true);
+
+		assertThat(rootFiltered.getChildren())
+				.extracting(MenuNode::getCaption)
+				.containsExactly("Sales");
+		assertThat(rootFiltered.getChildren().get(0).getChildren()).hasSize(3);
+	}
+}
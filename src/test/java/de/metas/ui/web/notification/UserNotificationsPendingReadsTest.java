@@ -0,0 +1,140 @@
+package de.metas.ui.web.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.notification.UserNotificationsPendingReads.PendingReadsWriter;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class UserNotificationsPendingReadsTest
+{
+	private UserNotificationsPendingReads pendingReads;
+	private List<Written> written;
+
+	@Value
+	private static class Written
+	{
+		boolean markAllAsRead;
+		Set<Integer> notificationIds;
+	}
+
+	@Before
+	public void init()
+	{
+		pendingReads = new UserNotificationsPendingReads();
+		written = new ArrayList<>();
+	}
+
+	private final PendingReadsWriter writer = (markAllAsRead, notificationIds) -> written.add(new Written(markAllAsRead, notificationIds));
+
+	private final PendingReadsWriter failingWriter = (markAllAsRead, notificationIds) -> {
+		throw new RuntimeException("test: failing on purpose");
+	};
+
+	@Test
+	public void flush()
+	{
+		pendingReads.markAsRead(1);
+		pendingReads.markAsRead(2);
+
+		assertThat(pendingReads.flush(writer)).isTrue();
+		assertThat(written).containsExactly(new Written(false, ImmutableSet.of(1, 2)));
+		assertThat(pendingReads.isEmpty()).isTrue();
+
+		assertThat(pendingReads.flush(writer)).isFalse();
+		assertThat(written).hasSize(1);
+	}
+
+	@Test
+	public void flushFails_thenRetry()
+	{
+		pendingReads.markAsRead(1);
+		pendingReads.markAsRead(2);
+
+		assertThatThrownBy(() -> pendingReads.flush(failingWriter)).hasMessageContaining("failing on purpose");
+		assertThat(pendingReads.isEmpty()).isFalse();
+		assertThat(pendingReads.getNotificationIds()).containsExactly(1, 2);
+
+		assertThat(pendingReads.flush(writer)).isTrue();
+		assertThat(written).containsExactly(new Written(false, ImmutableSet.of(1, 2)));
+		assertThat(pendingReads.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void flushMarkAllAsReadFails_thenRetry()
+	{
+		pendingReads.markAllAsRead();
+
+		assertThatThrownBy(() -> pendingReads.flush(failingWriter)).isInstanceOf(RuntimeException.class);
+		assertThat(pendingReads.isMarkAllAsRead()).isTrue();
+
+		pendingReads.flush(writer);
+		assertThat(written).containsExactly(new Written(true, ImmutableSet.of()));
+		assertThat(pendingReads.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void changesDuringFailedFlush_areKept()
+	{
+		pendingReads.markAsRead(1);
+
+		final PendingReadsWriter writerWhichFailsAfterChanges = (markAllAsRead, notificationIds) -> {
+			pendingReads.markAsRead(2);
+			throw new RuntimeException("test: failing on purpose");
+		};
+		assertThatThrownBy(() -> pendingReads.flush(writerWhichFailsAfterChanges)).isInstanceOf(RuntimeException.class);
+		assertThat(pendingReads.getNotificationIds()).containsExactlyInAnyOrder(1, 2);
+
+		pendingReads.flush(writer);
+		assertThat(written).hasSize(1);
+		assertThat(written.get(0).getNotificationIds()).containsExactlyInAnyOrder(1, 2);
+	}
+
+	@Test
+	public void changesDuringSuccessfulFlush_areKeptForNextFlush()
+	{
+		pendingReads.markAsRead(1);
+
+		pendingReads.flush((markAllAsRead, notificationIds) -> {
+			pendingReads.markAsRead(2);
+			writer.write(markAllAsRead, notificationIds);
+		});
+		assertThat(pendingReads.getNotificationIds()).containsExactly(2);
+
+		pendingReads.flush(writer);
+		assertThat(written).containsExactly(
+				new Written(false, ImmutableSet.of(1)),
+				new Written(false, ImmutableSet.of(2)));
+	}
+}
@@ -7,10 +7,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.adempiere.bpartner.BPartnerId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.service.OrgId;
 import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.Services;
 import org.adempiere.util.time.SystemTime;
 import org.adempiere.warehouse.WarehouseId;
 import org.compiere.model.I_AD_Org;
@@ -23,6 +27,7 @@ import org.compiere.model.I_M_Product;
 import org.compiere.model.I_M_Product_Category;
 import org.compiere.model.I_M_Warehouse;
 import org.compiere.util.TimeUtil;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -56,6 +61,8 @@ import de.metas.purchasecandidate.availability.PurchaseCandidatesAvailabilityReq
 import de.metas.purchasecandidate.grossprofit.PurchaseProfitInfo;
 import de.metas.quantity.Quantity;
 import de.metas.ui.web.order.sales.purchasePlanning.view.PurchaseRowsLoader.PurchaseRowsList;
+import de.metas.vendor.gateway.api.availability.TrackingId;
+import mockit.Delegate;
 import mockit.Expectations;
 import mockit.Mocked;
 
@@ -91,6 +98,7 @@ public class PurchaseRowsLoaderTest
 	private I_M_Product product;
 	private I_C_Order salesOrderRecord;
 	private I_C_BPartner bPartnerVendor;
+	private I_C_BPartner bPartnerVendor2;
 
 	private I_C_Currency currency;
 
@@ -102,6 +110,9 @@ public class PurchaseRowsLoaderTest
 
 	private static CurrencyRepository currencyRepository;
 
+	private PurchaseRowsAvailabilityCheckExecutors availabilityCheckExecutors;
+	private PurchaseRowsLoader loader;
+
 	@Before
 	public void init()
 	{
@@ -146,47 +157,27 @@ public class PurchaseRowsLoaderTest
 		saveRecord(currency);
 
 		currencyRepository = new CurrencyRepository();
+
+		availabilityCheckExecutors = new PurchaseRowsAvailabilityCheckExecutors(2, 10);
+	}
+
+	@After
+	public void destroy()
+	{
+		availabilityCheckExecutors.shutdown();
 	}
 
 	@Test
 	public void load()
 	{
-		final I_C_OrderLine salesOrderLineRecord = newInstance(I_C_OrderLine.class);
-		salesOrderLineRecord.setAD_Org(org);
-		salesOrderLineRecord.setM_Product(product);
-		salesOrderLineRecord.setM_Warehouse(warehouse);
-		salesOrderLineRecord.setC_Order(salesOrderRecord);
-		salesOrderLineRecord.setC_Currency(currency);
-		salesOrderLineRecord.setC_UOM_ID(TEN.getUOMId());
-		salesOrderLineRecord.setQtyEntered(TEN.getAsBigDecimal());
-		salesOrderLineRecord.setQtyOrdered(TEN.getAsBigDecimal());
-		salesOrderLineRecord.setDatePromised(SystemTime.asTimestamp());
-		save(salesOrderLineRecord);
-
-		final SalesOrderLineRepository salesOrderLineRepository = new SalesOrderLineRepository(new OrderLineRepository(currencyRepository));
-		final SalesOrderLine salesOrderLine = salesOrderLineRepository.ofRecord(salesOrderLineRecord);
+		final I_C_OrderLine salesOrderLineRecord = createSalesOrderLineRecord();
+		final VendorProductInfo vendorProductInfo = createVendorProductInfo(bPartnerVendor);
 
-		final VendorProductInfo vendorProductInfo = VendorProductInfo.builder()
-				.vendorId(BPartnerId.ofRepoId(bPartnerVendor.getC_BPartner_ID()))
-				.productAndCategoryId(ProductAndCategoryId.of(product.getM_Product_ID(), product.getM_Product_Category_ID()))
-				.vendorProductNo("bPartnerProduct.VendorProductNo")
-				.vendorProductName("bPartnerProduct.ProductName")
-				.pricingConditions(PricingConditions.builder()
-						.build())
-				.build();
-
-		final PurchaseDemand demand = SalesOrder2PurchaseViewFactory.createDemand(salesOrderLine);
+		final PurchaseDemand demand = createDemand(salesOrderLineRecord);
 		final PurchaseCandidate purchaseCandidate = createPurchaseCandidate(salesOrderLineRecord, vendorProductInfo);
 		final ImmutableList<PurchaseDemandWithCandidates> demandWithCandidates = createPurchaseDemandWithCandidates(demand, purchaseCandidate, vendorProductInfo);
 
-		final PurchaseRowsLoader loader = PurchaseRowsLoader.builder()
-				.purchaseDemandWithCandidatesList(demandWithCandidates)
-				.viewSupplier(() -> null)
-				.purchaseRowFactory(new PurchaseRowFactory(
-						new AvailableToPromiseRepository(),
-						new DoNothingPurchaseProfitInfoServiceImpl()))
-				.availabilityCheckService(availabilityCheckService)
-				.build();
+		loader = createLoader(demandWithCandidates);
 
 		//
 		// invoke the method under test
@@ -223,6 +214,277 @@ public class PurchaseRowsLoaderTest
 		final PurchaseRow availabilityRow = purchaseRow.getIncludedRows().iterator().next();
 		assertThat(availabilityRow.getType()).isEqualTo(PurchaseRowType.AVAILABILITY_DETAIL);
 		assertThat(availabilityRow.getRowId().toDocumentId()).isNotEqualTo(purchaseRow.getRowId().toDocumentId());
+		assertThat(loader.getRunningAvailabilityChecksCount()).isZero();
+	}
+
+	@Test
+	public void availabilityCheck_onePerVendor()
+	{
+		final PurchaseRowsList rowsList = loadRowsForTwoVendors();
+
+		final ImmutableList<PurchaseCandidatesAvailabilityRequest> requests = loader.createAvailabilityRequestsPerVendor(rowsList);
+		assertThat(requests).hasSize(2);
+		for (final PurchaseCandidatesAvailabilityRequest request : requests)
+		{
+			assertThat(request.getTrackingIds()).hasSize(1);
+		}
+		assertThat(requests.get(0).getTrackingIds()).doesNotContainAnyElementsOf(requests.get(1).getTrackingIds());
+
+		// @formatter:off
+		new Expectations()
+		{{
+			availabilityCheckService.checkAvailability((PurchaseCandidatesAvailabilityRequest)any);
+			times = 2;
+			result = new Delegate<AvailabilityMultiResult>()
+			{
+				@SuppressWarnings("unused")
+				AvailabilityMultiResult checkAvailability(final PurchaseCandidatesAvailabilityRequest request)
+				{
+					return createAvailableResult(request);
+				}
+			};
+		}};	// @formatter:on
+
+		loader.createAndAddAvailabilityResultRows(rowsList);
+
+		for (final PurchaseRow lineRow : getLineRows(rowsList))
+		{
+			assertThat(lineRow.getIncludedRows()).hasSize(1);
+			assertThat(lineRow.getIncludedRows().iterator().next().getType()).isEqualTo(PurchaseRowType.AVAILABILITY_DETAIL);
+		}
+		assertThat(loader.getRunningAvailabilityChecksCount()).isZero();
+	}
+
+	@Test
+	public void availabilityCheck_timeout()
+	{
+		Services.get(ISysConfigBL.class).setValue(PurchaseRowsLoader.SYSCONFIG_AVAILIABILITY_CHECK_TIMEOUT_MILLIS, 100, 0);
+
+		final PurchaseRowsList rowsList = loadRowsForTwoVendors();
+		final CountDownLatch releaseVendorLatch = new CountDownLatch(1);
+
+		// @formatter:off
+		new Expectations()
+		{{
+			availabilityCheckService.checkAvailability((PurchaseCandidatesAvailabilityRequest)any);
+			result = new Delegate<AvailabilityMultiResult>()
+			{
+				@SuppressWarnings("unused")
+				AvailabilityMultiResult checkAvailability(final PurchaseCandidatesAvailabilityRequest request) throws InterruptedException
+				{
+					if (request.getTrackingIds().contains(getTrackingIdOfVendor(rowsList, bPartnerVendor)))
+					{
+						return createAvailableResult(request);
+					}
+
+					// the other vendor is not responding
+					releaseVendorLatch.await(10, TimeUnit.SECONDS);
+					return createAvailableResult(request);
+				}
+			};
+		}};	// @formatter:on
+
+		loader.createAndAddAvailabilityResultRows(rowsList);
+		releaseVendorLatch.countDown();
+
+		final PurchaseRow respondingVendorRow = getLineRowOfVendor(rowsList, bPartnerVendor);
+		assertThat(respondingVendorRow.getIncludedRows()).hasSize(1);
+		assertThat(respondingVendorRow.getIncludedRows().iterator().next().getRowId().getAvailabilityType()).isEqualTo(Type.AVAILABLE);
+
+		final PurchaseRow timedOutVendorRow = getLineRowOfVendor(rowsList, bPartnerVendor2);
+		assertThat(timedOutVendorRow.getIncludedRows()).hasSize(1);
+		assertThat(timedOutVendorRow.getIncludedRows().iterator().next().getRowId().getAvailabilityType()).isEqualTo(Type.NOT_AVAILABLE);
+
+		assertThat(loader.getRunningAvailabilityChecksCount()).isZero();
+	}
+
+	@Test
+	public void availabilityCheck_cancel() throws InterruptedException
+	{
+		final PurchaseRowsList rowsList = loadRowsForTwoVendors();
+		final CountDownLatch checksStartedLatch = new CountDownLatch(2);
+		final CountDownLatch releaseVendorsLatch = new CountDownLatch(1);
+		final CountDownLatch checksFinishedLatch = new CountDownLatch(2);
+
+		// @formatter:off
+		new Expectations()
+		{{
+			availabilityCheckService.checkAvailability((PurchaseCandidatesAvailabilityRequest)any);
+			result = new Delegate<AvailabilityMultiResult>()
+			{
+				@SuppressWarnings("unused")
+				AvailabilityMultiResult checkAvailability(final PurchaseCandidatesAvailabilityRequest request)
+				{
+					checksStartedLatch.countDown();
+					try
+					{
+						releaseVendorsLatch.await(10, TimeUnit.SECONDS);
+					}
+					catch (final InterruptedException e)
+					{
+						// interrupted because the check was cancelled; still return the result to make sure it's ignored
+					}
+					finally
+					{
+						checksFinishedLatch.countDown();
+					}
+					return createAvailableResult(request);
+				}
+			};
+		}};	// @formatter:on
+
+		loader.createAndAddAvailabilityResultRowsAsync(rowsList);
+		assertThat(checksStartedLatch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(loader.getRunningAvailabilityChecksCount()).isEqualTo(2);
+
+		loader.cancelAvailabilityChecks();
+		assertThat(loader.getRunningAvailabilityChecksCount()).isZero();
+
+		releaseVendorsLatch.countDown();
+		assertThat(checksFinishedLatch.await(10, TimeUnit.SECONDS)).isTrue();
+
+		for (final PurchaseRow lineRow : getLineRows(rowsList))
+		{
+			assertThat(lineRow.getIncludedRows()).isEmpty();
+		}
+	}
+
+	@Test
+	public void availabilityCheck_rejectedWhenTooManyChecksArePending() throws InterruptedException
+	{
+		availabilityCheckExecutors.shutdown();
+		availabilityCheckExecutors = new PurchaseRowsAvailabilityCheckExecutors(1, 1);
+
+		// keep the only thread busy and fill the queue
+		final CountDownLatch releaseExecutorLatch = new CountDownLatch(1);
+		final Runnable blockingTask = () -> {
+			try
+			{
+				releaseExecutorLatch.await(10, TimeUnit.SECONDS);
+			}
+			catch (final InterruptedException e)
+			{
+				// executor shut down
+			}
+		};
+		availabilityCheckExecutors.getCheckExecutor().submit(blockingTask);
+		availabilityCheckExecutors.getCheckExecutor().submit(blockingTask);
+
+		final PurchaseRowsList rowsList = loadRowsForTwoVendors();
+		loader.createAndAddAvailabilityResultRows(rowsList);
+		releaseExecutorLatch.countDown();
+
+		assertThat(loader.getRunningAvailabilityChecksCount()).isZero();
+		for (final PurchaseRow lineRow : getLineRows(rowsList))
+		{
+			assertThat(lineRow.getIncludedRows()).isEmpty();
+		}
+	}
+
+	private PurchaseRowsList loadRowsForTwoVendors()
+	{
+		bPartnerVendor2 = newInstance(I_C_BPartner.class);
+		bPartnerVendor2.setName("bPartnerVendor2.Name");
+		saveRecord(bPartnerVendor2);
+
+		final I_C_OrderLine salesOrderLineRecord = createSalesOrderLineRecord();
+		final PurchaseDemand demand = createDemand(salesOrderLineRecord);
+
+		final VendorProductInfo vendorProductInfo = createVendorProductInfo(bPartnerVendor);
+		final VendorProductInfo vendorProductInfo2 = createVendorProductInfo(bPartnerVendor2);
+
+		final ImmutableList<PurchaseDemandWithCandidates> demandWithCandidates = ImmutableList.of(PurchaseDemandWithCandidates.builder()
+				.purchaseDemand(demand)
+				.purchaseCandidatesGroup(PurchaseCandidatesGroup.of(createPurchaseCandidate(salesOrderLineRecord, vendorProductInfo), demand.getId(), vendorProductInfo))
+				.purchaseCandidatesGroup(PurchaseCandidatesGroup.of(createPurchaseCandidate(salesOrderLineRecord, vendorProductInfo2), demand.getId(), vendorProductInfo2))
+				.build());
+
+		loader = createLoader(demandWithCandidates);
+		final PurchaseRowsList rowsList = loader.load();
+		assertThat(getLineRows(rowsList)).hasSize(2);
+		return rowsList;
+	}
+
+	private PurchaseRowsLoader createLoader(final List<PurchaseDemandWithCandidates> demandWithCandidates)
+	{
+		return PurchaseRowsLoader.builder()
+				.purchaseDemandWithCandidatesList(demandWithCandidates)
+				.viewSupplier(() -> null)
+				.purchaseRowFactory(new PurchaseRowFactory(
+						new AvailableToPromiseRepository(),
+						new DoNothingPurchaseProfitInfoServiceImpl()))
+				.availabilityCheckService(availabilityCheckService)
+				.availabilityCheckExecutors(availabilityCheckExecutors)
+				.build();
+	}
+
+	private static List<PurchaseRow> getLineRows(final PurchaseRowsList rowsList)
+	{
+		final List<PurchaseRow> topLevelRows = rowsList.getTopLevelRows();
+		assertThat(topLevelRows).hasSize(1);
+		return ImmutableList.copyOf(topLevelRows.get(0).getIncludedRows());
+	}
+
+	private static TrackingId getTrackingIdOfVendor(final PurchaseRowsList rowsList, final I_C_BPartner vendor)
+	{
+		final BPartnerId vendorId = BPartnerId.ofRepoId(vendor.getC_BPartner_ID());
+		return rowsList.getPurchaseCandidatesGroups()
+				.entrySet()
+				.stream()
+				.filter(entry -> vendorId.equals(entry.getValue().getVendorId()))
+				.map(entry -> entry.getKey())
+				.findFirst()
+				.get();
+	}
+
+	private static PurchaseRow getLineRowOfVendor(final PurchaseRowsList rowsList, final I_C_BPartner vendor)
+	{
+		return rowsList.getPurchaseRowByTrackingId(getTrackingIdOfVendor(rowsList, vendor));
+	}
+
+	private AvailabilityMultiResult createAvailableResult(final PurchaseCandidatesAvailabilityRequest request)
+	{
+		return AvailabilityMultiResult.of(AvailabilityResult.builder()
+				.trackingId(request.getTrackingIds().iterator().next())
+				.qty(TEN)
+				.type(Type.AVAILABLE)
+				.build());
+	}
+
+	private I_C_OrderLine createSalesOrderLineRecord()
+	{
+		final I_C_OrderLine salesOrderLineRecord = newInstance(I_C_OrderLine.class);
+		salesOrderLineRecord.setAD_Org(org);
+		salesOrderLineRecord.setM_Product(product);
+		salesOrderLineRecord.setM_Warehouse(warehouse);
+		salesOrderLineRecord.setC_Order(salesOrderRecord);
+		salesOrderLineRecord.setC_Currency(currency);
+		salesOrderLineRecord.setC_UOM_ID(TEN.getUOMId());
+		salesOrderLineRecord.setQtyEntered(TEN.getAsBigDecimal());
+		salesOrderLineRecord.setQtyOrdered(TEN.getAsBigDecimal());
+		salesOrderLineRecord.setDatePromised(SystemTime.asTimestamp());
+		save(salesOrderLineRecord);
+
+		return salesOrderLineRecord;
+	}
+
+	private static PurchaseDemand createDemand(final I_C_OrderLine salesOrderLineRecord)
+	{
+		final SalesOrderLineRepository salesOrderLineRepository = new SalesOrderLineRepository(new OrderLineRepository(currencyRepository));
+		final SalesOrderLine salesOrderLine = salesOrderLineRepository.ofRecord(salesOrderLineRecord);
+		return SalesOrder2PurchaseViewFactory.createDemand(salesOrderLine);
+	}
+
+	private VendorProductInfo createVendorProductInfo(final I_C_BPartner vendor)
+	{
+		return VendorProductInfo.builder()
+				.vendorId(BPartnerId.ofRepoId(vendor.getC_BPartner_ID()))
+				.productAndCategoryId(ProductAndCategoryId.of(product.getM_Product_ID(), product.getM_Product_Category_ID()))
+				.vendorProductNo("bPartnerProduct.VendorProductNo")
+				.vendorProductName("bPartnerProduct.ProductName")
+				.pricingConditions(PricingConditions.builder()
+						.build())
+				.build();
 	}
 
 	private static PurchaseCandidate createPurchaseCandidate(
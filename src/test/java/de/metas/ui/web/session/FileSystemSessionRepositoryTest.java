@@ -0,0 +1,320 @@
+package de.metas.ui.web.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.session.ExpiringSession;
+import org.springframework.session.events.SessionExpiredEvent;
+
+import de.metas.ui.web.session.FileSystemSessionRepository.ClassLoaderAwareObjectInputStream;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class FileSystemSessionRepositoryTest
+{
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File directory;
+	private final List<Object> events = new ArrayList<>();
+	private final ApplicationEventPublisher eventPublisher = new ApplicationEventPublisher()
+	{
+		@Override
+		public void publishEvent(final ApplicationEvent event)
+		{
+			events.add(event);
+		}
+
+		@Override
+		public void publishEvent(final Object event)
+		{
+			events.add(event);
+		}
+	};
+
+	@Before
+	public void init() throws Exception
+	{
+		directory = temporaryFolder.newFolder("sessions");
+	}
+
+	private FileSystemSessionRepository newRepository()
+	{
+		return FileSystemSessionRepository.builder()
+				.applicationEventPublisher(eventPublisher)
+				.defaultMaxInactiveInterval(1800)
+				.directory(directory)
+				.build();
+	}
+
+	@Test
+	public void sessionSurvivesRestart()
+	{
+		final FileSystemSessionRepository repository = newRepository();
+		final ExpiringSession session = repository.createSession();
+		session.setAttribute("attr1", "value1");
+		session.setAttribute("attr2", 123);
+		repository.save(session);
+		repository.flush();
+
+		final ExpiringSession loadedSession = newRepository().getSession(session.getId());
+		assertThat(loadedSession).isNotNull();
+		assertThat(loadedSession.getCreationTime()).isEqualTo(session.getCreationTime());
+		assertThat(loadedSession.getMaxInactiveIntervalInSeconds()).isEqualTo(1800);
+		assertThat((Object)loadedSession.getAttribute("attr1")).isEqualTo("value1");
+		assertThat((Object)loadedSession.getAttribute("attr2")).isEqualTo(123);
+	}
+
+	@Test
+	public void notFlushedYet()
+	{
+		final FileSystemSessionRepository repository = newRepository();
+		final ExpiringSession session = repository.createSession();
+		repository.save(session);
+
+		assertThat(repository.getSession(session.getId())).isNotNull();
+		assertThat(newRepository().getSession(session.getId())).isNull();
+	}
+
+	@Test
+	public void lastAccessedTimeUpdate()
+	{
+		final FileSystemSessionRepository repository = newRepository();
+		final ExpiringSession session = repository.createSession();
+		session.setAttribute("attr1", "value1");
+		repository.save(session);
+		repository.flush();
+
+		final ExpiringSession session2 = repository.getSession(session.getId());
+		session2.setLastAccessedTime(session.getLastAccessedTime() + 1000);
+		repository.save(session2);
+		repository.flush();
+
+		final ExpiringSession loadedSession = newRepository().getSession(session.getId());
+		assertThat(loadedSession.getLastAccessedTime()).isEqualTo(session.getLastAccessedTime() + 1000);
+		assertThat((Object)loadedSession.getAttribute("attr1")).isEqualTo("value1");
+	}
+
+	@Test
+	public void nonSerializableAttributesAreKeptOnlyInMemory()
+	{
+		final FileSystemSessionRepository repository = newRepository();
+		final ExpiringSession session = repository.createSession();
+		session.setAttribute("attr1", "value1");
+		session.setAttribute("notSerializable", new Object());
+		repository.save(session);
+		repository.flush();
+
+		assertThat((Object)repository.getSession(session.getId()).getAttribute("notSerializable")).isNotNull();
+
+		final ExpiringSession loadedSession = newRepository().getSession(session.getId());
+		assertThat((Object)loadedSession.getAttribute("attr1")).isEqualTo("value1");
+		assertThat((Object)loadedSession.getAttribute("notSerializable")).isNull();
+	}
+
+	@Test
+	public void purgeExpiredSessions()
+	{
+		final FileSystemSessionRepository repository = newRepository();
+		final ExpiringSession expiredSession = repository.createSession();
+		expiredSession.setMaxInactiveIntervalInSeconds(1);
+		expiredSession.setLastAccessedTime(System.currentTimeMillis() - 2000);
+		repository.save(expiredSession);
+		final ExpiringSession session = repository.createSession();
+		repository.save(session);
+		repository.flush();
+
+		final FileSystemSessionRepository repositoryAfterRestart = newRepository();
+		events.clear();
+		repositoryAfterRestart.purgeExpiredSessions();
+
+		assertThat(events).hasSize(1);
+		assertThat(((SessionExpiredEvent)events.get(0)).getSessionId()).isEqualTo(expiredSession.getId());
+		assertThat(repositoryAfterRestart.getSession(expiredSession.getId())).isNull();
+		assertThat(repositoryAfterRestart.getSession(session.getId())).isNotNull();
+	}
+
+	@Test
+	public void mergeChangesOfOtherNode()
+	{
+		final FileSystemSessionRepository node1 = newRepository();
+		final FileSystemSessionRepository node2 = newRepository();
+
+		final ExpiringSession session = node1.createSession();
+		session.setAttribute("attr1", "value1");
+		session.setAttribute("attr2", "value2");
+		node1.save(session);
+		node1.flush();
+
+		final ExpiringSession sessionOnNode2 = node2.getSession(session.getId());
+		sessionOnNode2.setAttribute("attr1", "value1-node2");
+		node2.save(sessionOnNode2);
+		node2.flush();
+
+		// node1 is not aware of node2's change
+		session.setAttribute("attr2", "value2-node1");
+		node1.save(session);
+		node1.flush();
+
+		final ExpiringSession loadedSession = newRepository().getSession(session.getId());
+		assertThat((Object)loadedSession.getAttribute("attr1")).isEqualTo("value1-node2");
+		assertThat((Object)loadedSession.getAttribute("attr2")).isEqualTo("value2-node1");
+
+		final ExpiringSession sessionOnNode1 = node1.getSession(session.getId());
+		assertThat((Object)sessionOnNode1.getAttribute("attr1")).isEqualTo("value1-node2");
+		assertThat((Object)sessionOnNode1.getAttribute("attr2")).isEqualTo("value2-node1");
+	}
+
+	@Test
+	public void mergedChangesAreKeptWhenSavingSessionFetchedBeforeMerge()
+	{
+		final FileSystemSessionRepository node1 = newRepository();
+		final FileSystemSessionRepository node2 = newRepository();
+
+		final ExpiringSession session = node1.createSession();
+		session.setAttribute("attr1", "value1");
+		node1.save(session);
+		node1.flush();
+
+		final ExpiringSession sessionFetchedBeforeMerge = node1.getSession(session.getId());
+
+		final ExpiringSession sessionOnNode2 = node2.getSession(session.getId());
+		sessionOnNode2.setAttribute("attr1", "value1-node2");
+		node2.save(sessionOnNode2);
+		node2.flush();
+
+		node1.save(node1.getSession(session.getId()));
+		node1.flush();
+
+		sessionFetchedBeforeMerge.setAttribute("attr2", "value2");
+		node1.save(sessionFetchedBeforeMerge);
+		node1.flush();
+
+		final ExpiringSession loadedSession = newRepository().getSession(session.getId());
+		assertThat((Object)loadedSession.getAttribute("attr1")).isEqualTo("value1-node2");
+		assertThat((Object)loadedSession.getAttribute("attr2")).isEqualTo("value2");
+	}
+
+	@Test
+	public void sessionDeletedByOtherNodeIsNotWrittenBack()
+	{
+		final FileSystemSessionRepository node1 = newRepository();
+		final ExpiringSession session = node1.createSession();
+		node1.save(session);
+		node1.flush();
+
+		newRepository().delete(session.getId());
+
+		session.setAttribute("attr1", "value1");
+		node1.save(session);
+		node1.flush();
+
+		assertThat(newRepository().getSession(session.getId())).isNull();
+	}
+
+	@Test
+	public void invalidSessionId()
+	{
+		assertThat(newRepository().getSession("../sessions/x")).isNull();
+	}
+
+	@Test
+	public void deleteSession()
+	{
+		final FileSystemSessionRepository repository = newRepository();
+		final ExpiringSession session = repository.createSession();
+		repository.save(session);
+		repository.flush();
+
+		repository.delete(session.getId());
+
+		assertThat(newRepository().getSession(session.getId())).isNull();
+	}
+
+	@Test
+	public void notAllowedAttributeClassesAreNotLoaded()
+	{
+		final FileSystemSessionRepository repository = newRepository();
+		final ExpiringSession session = repository.createSession();
+		session.setAttribute("attr1", "value1");
+		session.setAttribute("locale", Locale.GERMANY);
+		session.setAttribute("notAllowed", new AtomicInteger(1));
+		repository.save(session);
+		repository.flush();
+
+		final ExpiringSession loadedSession = newRepository().getSession(session.getId());
+		assertThat(loadedSession).isNotNull();
+		assertThat((Object)loadedSession.getAttribute("attr1")).isEqualTo("value1");
+		assertThat((Object)loadedSession.getAttribute("locale")).isEqualTo(Locale.GERMANY);
+		assertThat((Object)loadedSession.getAttribute("notAllowed")).isNull();
+	}
+
+	@Test
+	public void isAllowedClassName()
+	{
+		assertThat(ClassLoaderAwareObjectInputStream.isAllowedClassName("java.lang.String")).isTrue();
+		assertThat(ClassLoaderAwareObjectInputStream.isAllowedClassName("java.util.Properties")).isTrue();
+		assertThat(ClassLoaderAwareObjectInputStream.isAllowedClassName(InternalUserSessionData.class.getName())).isTrue();
+		assertThat(ClassLoaderAwareObjectInputStream.isAllowedClassName("[B")).isTrue();
+		assertThat(ClassLoaderAwareObjectInputStream.isAllowedClassName("[[Ljava.lang.String;")).isTrue();
+
+		assertThat(ClassLoaderAwareObjectInputStream.isAllowedClassName("org.apache.commons.collections.functors.InvokerTransformer")).isFalse();
+		assertThat(ClassLoaderAwareObjectInputStream.isAllowedClassName("[Lorg.apache.commons.collections.functors.InvokerTransformer;")).isFalse();
+		assertThat(ClassLoaderAwareObjectInputStream.isAllowedClassName("java.util.PriorityQueue")).isFalse();
+		assertThat(ClassLoaderAwareObjectInputStream.isAllowedClassName("de.metas.ui.webx.Something")).isFalse();
+	}
+
+	@Test
+	public void sessionFilesAreReadableOnlyByOwner() throws Exception
+	{
+		Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+		final File newDirectory = new File(temporaryFolder.getRoot(), "newSessionsDir");
+		final FileSystemSessionRepository repository = FileSystemSessionRepository.builder()
+				.applicationEventPublisher(eventPublisher)
+				.directory(newDirectory)
+				.build();
+		final ExpiringSession session = repository.createSession();
+		repository.save(session);
+		repository.flush();
+
+		assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(newDirectory.toPath()))).isEqualTo("rwx------");
+		final File sessionFile = newDirectory.listFiles((dir, name) -> name.startsWith(session.getId()))[0];
+		assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(sessionFile.toPath()))).isEqualTo("rw-------");
+	}
+}
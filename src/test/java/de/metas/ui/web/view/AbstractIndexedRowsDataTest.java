@@ -0,0 +1,244 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AbstractIndexedRowsDataTest
+{
+	private static final String TABLENAME = "Test_Record";
+
+	private TestRowsData rowsData;
+
+	@Before
+	public void init()
+	{
+		rowsData = new TestRowsData();
+		rowsData.put(row("1", "1.1", "1.2"));
+		rowsData.put(row("2", "2.1"));
+		rowsData.put(row("3"));
+	}
+
+	@Test
+	public void getById()
+	{
+		assertThat(rowsData.size()).isEqualTo(3);
+		assertThat(rowsData.getAllRows()).hasSize(6);
+		assertThat(rowsData.getById(DocumentId.of("1.2")).getId()).isEqualTo(DocumentId.of("1.2"));
+		assertThat(rowsData.getById(DocumentId.of("3")).getId()).isEqualTo(DocumentId.of("3"));
+		assertThat(rowsData.allRowsLoadCount).isEqualTo(1);
+	}
+
+	@Test
+	public void getTableRecordReference2rows()
+	{
+		assertThat(rowsData.getTableRecordReference2rows().get(TableRecordReference.of(TABLENAME, 21)))
+				.extracting(IViewRow::getId)
+				.containsExactly(DocumentId.of("2.1"));
+		assertThat(rowsData.streamDocumentIdsToInvalidate(TableRecordReference.of(TABLENAME, 1)))
+				.containsExactly(DocumentId.of("1"));
+	}
+
+	@Test
+	public void invalidateIncludedRow_reloadsOnlyTheTopLevelRow()
+	{
+		rowsData.getAllRows(); // load
+
+		rowsData.put(row("2", "2.1", "2.2"));
+		rowsData.invalidate(DocumentIdsSelection.of(ImmutableList.of(DocumentId.of("2.1"))));
+
+		assertThat(rowsData.getById(DocumentId.of("2.2")).getId()).isEqualTo(DocumentId.of("2.2"));
+		assertThat(rowsData.getTopLevelRows()).extracting(IViewRow::getId)
+				.containsExactly(DocumentId.of("1"), DocumentId.of("2"), DocumentId.of("3"));
+		assertThat(rowsData.allRowsLoadCount).isEqualTo(1);
+		assertThat(rowsData.reloadedRowIds).containsExactly(DocumentIdsSelection.of(ImmutableList.of(DocumentId.of("2"))));
+	}
+
+	@Test
+	public void invalidate_rowsVanishedAndAppeared()
+	{
+		rowsData.getAllRows(); // load
+
+		rowsData.remove("1");
+		rowsData.put(row("4"));
+		rowsData.invalidate(DocumentIdsSelection.of(ImmutableList.of(DocumentId.of("1"), DocumentId.of("4"))));
+
+		assertThat(rowsData.getTopLevelRows()).extracting(IViewRow::getId)
+				.containsExactly(DocumentId.of("2"), DocumentId.of("3"), DocumentId.of("4"));
+		assertThat(rowsData.getDocumentId2AllRows()).doesNotContainKey(DocumentId.of("1.1"));
+		assertThat(rowsData.allRowsLoadCount).isEqualTo(1);
+	}
+
+	@Test
+	public void invalidate_reloadFails_rowsAreStillStale()
+	{
+		rowsData.getAllRows(); // load
+
+		rowsData.put(row("2", "2.1", "2.2"));
+		rowsData.invalidate(DocumentIdsSelection.of(ImmutableList.of(DocumentId.of("2"))));
+
+		rowsData.failOnReload = true;
+		assertThatThrownBy(() -> rowsData.getAllRows()).hasMessageContaining("reload failed");
+
+		rowsData.failOnReload = false;
+		assertThat(rowsData.getById(DocumentId.of("2.2")).getId()).isEqualTo(DocumentId.of("2.2"));
+		assertThat(rowsData.reloadedRowIds).containsExactly(
+				DocumentIdsSelection.of(ImmutableList.of(DocumentId.of("2"))),
+				DocumentIdsSelection.of(ImmutableList.of(DocumentId.of("2"))));
+		assertThat(rowsData.allRowsLoadCount).isEqualTo(1);
+	}
+
+	@Test
+	public void invalidateAll()
+	{
+		rowsData.getAllRows(); // load
+
+		rowsData.invalidateAll();
+		rowsData.getAllRows();
+
+		assertThat(rowsData.allRowsLoadCount).isEqualTo(2);
+	}
+
+	private static TestRow row(final String id, final String... includedRowIds)
+	{
+		final ImmutableList.Builder<TestRow> includedRows = ImmutableList.builder();
+		for (final String includedRowId : includedRowIds)
+		{
+			includedRows.add(new TestRow(includedRowId, ImmutableList.of()));
+		}
+		return new TestRow(id, includedRows.build());
+	}
+
+	private static final class TestRowsData extends AbstractIndexedRowsData<TestRow>
+	{
+		private final Map<DocumentId, TestRow> rowsInRepository = new LinkedHashMap<>();
+		private int allRowsLoadCount = 0;
+		private final List<DocumentIdsSelection> reloadedRowIds = new ArrayList<>();
+		private boolean failOnReload = false;
+
+		public void put(final TestRow row)
+		{
+			rowsInRepository.put(row.getId(), row);
+		}
+
+		public void remove(final String id)
+		{
+			rowsInRepository.remove(DocumentId.of(id));
+		}
+
+		@Override
+		protected List<TestRow> retrieveAllRows()
+		{
+			allRowsLoadCount++;
+			return ImmutableList.copyOf(rowsInRepository.values());
+		}
+
+		@Override
+		protected List<TestRow> retrieveRowsByIdsOrNull(final DocumentIdsSelection topLevelRowIds)
+		{
+			reloadedRowIds.add(topLevelRowIds);
+			if (failOnReload)
+			{
+				throw new IllegalStateException("reload failed");
+			}
+			return topLevelRowIds.stream()
+					.map(rowsInRepository::get)
+					.filter(row -> row != null)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		@Override
+		protected Stream<TableRecordReference> extractRecordRefs(final TestRow row)
+		{
+			final int recordId = Integer.parseInt(row.getId().toJson().replace(".", ""));
+			return Stream.of(TableRecordReference.of(TABLENAME, recordId));
+		}
+	}
+
+	private static final class TestRow implements IViewRow
+	{
+		private final DocumentId id;
+		private final List<TestRow> includedRows;
+
+		private TestRow(final String id, final List<TestRow> includedRows)
+		{
+			this.id = DocumentId.of(id);
+			this.includedRows = includedRows;
+		}
+
+		@Override
+		public DocumentId getId()
+		{
+			return id;
+		}
+
+		@Override
+		public IViewRowType getType()
+		{
+			return null;
+		}
+
+		@Override
+		public boolean isProcessed()
+		{
+			return false;
+		}
+
+		@Override
+		public DocumentPath getDocumentPath()
+		{
+			return null;
+		}
+
+		@Override
+		public Map<String, Object> getFieldNameAndJsonValues()
+		{
+			return ImmutableMap.of();
+		}
+
+		@Override
+		public Collection<? extends IViewRow> getIncludedRows()
+		{
+			return includedRows;
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.ui.web.document.filter.DocumentFilter;
+import de.metas.ui.web.document.filter.DocumentFilterDescriptorsProvider;
+import de.metas.ui.web.document.filter.NullDocumentFilterDescriptorsProvider;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+import de.metas.ui.web.window.model.sql.SqlOptions;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DefaultViewTest
+{
+	private static final WindowId WINDOW_ID = WindowId.fromJson("123");
+
+	private ViewId viewId;
+	private MockedViewDataRepository viewDataRepository;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		viewId = ViewId.random(WINDOW_ID);
+		viewDataRepository = new MockedViewDataRepository();
+	}
+
+	private ViewRowIdsOrderedSelection selection(final long size, final boolean fullyLoaded)
+	{
+		return ViewRowIdsOrderedSelection.builder()
+				.setViewId(viewId)
+				.setSize(size)
+				.setFullyLoaded(fullyLoaded)
+				.build();
+	}
+
+	private DefaultView createView()
+	{
+		return DefaultView.builder(viewDataRepository)
+				.setViewId(viewId)
+				.build();
+	}
+
+	private static void await(final BooleanSupplier condition) throws InterruptedException
+	{
+		final long timeoutMillis = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean())
+		{
+			assertThat(System.currentTimeMillis()).as("timeout").isLessThan(timeoutMillis);
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	public void test_fullyLoadedSelection()
+	{
+		viewDataRepository.selectionsToCreate.add(selection(5, true));
+
+		final DefaultView view = createView();
+
+		assertThat(view.size()).isEqualTo(5);
+		assertThat(view.isSizeEstimated()).isFalse();
+		assertThat(viewDataRepository.loadingSelections).isEmpty();
+	}
+
+	@Test
+	public void test_previewSelection_isReplacedWhenFullyLoaded() throws Exception
+	{
+		viewDataRepository.selectionsToCreate.add(selection(100, false));
+		final DefaultView view = createView();
+
+		assertThat(view.size()).isEqualTo(100);
+		assertThat(view.isSizeEstimated()).isTrue();
+		assertThat(viewDataRepository.loadingSelections).hasSize(1);
+
+		viewDataRepository.loadingSelections.get(0).complete(selection(12345, true));
+		await(() -> !view.isSizeEstimated());
+
+		assertThat(view.size()).isEqualTo(12345);
+		assertThat(viewDataRepository.createdSelectionsCount).isEqualTo(1);
+		assertThat(viewDataRepository.getDeletedSelectionIds()).isEmpty();
+	}
+
+	@Test
+	public void test_previewSelection_isRecreatedWhenLoadingFails() throws Exception
+	{
+		viewDataRepository.selectionsToCreate.add(selection(100, false));
+		viewDataRepository.selectionsToCreate.add(selection(12345, true));
+		final DefaultView view = createView();
+
+		assertThat(view.size()).isEqualTo(100);
+		assertThat(view.isSizeEstimated()).isTrue();
+
+		viewDataRepository.loadingSelections.get(0).completeExceptionally(new RuntimeException("test: loading failed"));
+		await(() -> !viewDataRepository.getDeletedSelectionIds().isEmpty());
+
+		// the truncated selection shall not be served as complete, but created again
+		assertThat(view.size()).isEqualTo(12345);
+		assertThat(view.isSizeEstimated()).isFalse();
+		assertThat(viewDataRepository.createdSelectionsCount).isEqualTo(2);
+		assertThat(viewDataRepository.getDeletedSelectionIds()).contains(viewId.getViewId());
+	}
+
+	private static class MockedViewDataRepository implements IViewDataRepository
+	{
+		private final Deque<ViewRowIdsOrderedSelection> selectionsToCreate = new ArrayDeque<>();
+		private final List<CompletableFuture<ViewRowIdsOrderedSelection>> loadingSelections = new ArrayList<>();
+		private final List<String> deletedSelectionIds = new ArrayList<>();
+		private volatile int createdSelectionsCount = 0;
+
+		public synchronized List<String> getDeletedSelectionIds()
+		{
+			return new ArrayList<>(deletedSelectionIds);
+		}
+
+		@Override
+		public synchronized ViewRowIdsOrderedSelection createOrderedSelection(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final List<DocumentFilter> filters, final boolean applySecurityRestrictions)
+		{
+			createdSelectionsCount++;
+			return selectionsToCreate.removeFirst();
+		}
+
+		@Override
+		public synchronized CompletableFuture<ViewRowIdsOrderedSelection> getFullyLoadedSelection(final ViewRowIdsOrderedSelection selection)
+		{
+			final CompletableFuture<ViewRowIdsOrderedSelection> future = new CompletableFuture<>();
+			loadingSelections.add(future);
+			return future;
+		}
+
+		@Override
+		public synchronized void deleteSelection(final ViewId viewId)
+		{
+			deletedSelectionIds.add(viewId.getViewId());
+		}
+
+		@Override
+		public synchronized void scheduleDeleteSelections(final Set<String> selectionIds)
+		{
+			deletedSelectionIds.addAll(selectionIds);
+		}
+
+		@Override
+		public String getTableName()
+		{
+			return "Test";
+		}
+
+		@Override
+		public DocumentFilterDescriptorsProvider getViewFilterDescriptors()
+		{
+			return NullDocumentFilterDescriptorsProvider.instance;
+		}
+
+		@Override
+		public String getSqlWhereClause(final ViewId viewId, final List<DocumentFilter> filters, final DocumentIdsSelection rowIds, final SqlOptions sqlOpts)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Map<String, DocumentFieldWidgetType> getWidgetTypesByFieldName()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IViewRow retrieveById(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentId rowId)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<IViewRow> retrievePage(final ViewEvaluationCtx viewEvalCtx, final ViewRowIdsOrderedSelection orderedSelection, final int firstRow, final int pageLength)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void forEachRow(final ViewEvaluationCtx viewEvalCtx, final ViewRowIdsOrderedSelection orderedSelection, final Consumer<IViewRow> consumer)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<DocumentId> retrieveRowIdsByPage(final ViewEvaluationCtx viewEvalCtx, final ViewRowIdsOrderedSelection orderedSelection, final int firstRow, final int pageLength)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public <T> List<T> retrieveModelsByIds(final ViewId viewId, final DocumentIdsSelection rowIds, final Class<T> modelClass)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(final ViewEvaluationCtx viewEvalCtx, final ViewRowIdsOrderedSelection fromSelection, final List<DocumentQueryOrderBy> orderBys)
+		{
+			throw new UnsupportedOperationException();
+		}
+	}
+}
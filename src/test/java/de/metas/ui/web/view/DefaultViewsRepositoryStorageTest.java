@@ -0,0 +1,285 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import org.adempiere.util.time.FixedTimeSource;
+import org.adempiere.util.time.SystemTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DefaultViewsRepositoryStorageTest
+{
+	private static final WindowId WINDOW_ID = WindowId.fromJson("123");
+
+	private long now;
+	private List<ViewCloseReason> closeReasons;
+
+	@Before
+	public void init()
+	{
+		now = 1000000;
+		closeReasons = new ArrayList<>();
+	}
+
+	@After
+	public void resetTimeSource()
+	{
+		SystemTime.resetTimeSource();
+	}
+
+	private void tick()
+	{
+		now += 1000;
+		SystemTime.setTimeSource(new FixedTimeSource(new Date(now)));
+	}
+
+	private IView newView(final int cachedRowsCount)
+	{
+		return newView(() -> cachedRowsCount);
+	}
+
+	private IView newView(final IntSupplier cachedRowsCountSupplier)
+	{
+		final ViewId viewId = ViewId.random(WINDOW_ID);
+		return (IView)Proxy.newProxyInstance(IView.class.getClassLoader(), new Class<?>[] { IView.class }, (proxy, method, args) -> {
+			switch (method.getName())
+			{
+				case "getViewId":
+					return viewId;
+				case "getCachedRowsCount":
+					return cachedRowsCountSupplier.getAsInt();
+				case "getNotifyRecordsChangedTableNamesOrNull":
+					return null;
+				case "close":
+					closeReasons.add((ViewCloseReason)args[0]);
+					return null;
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				case "toString":
+					return "TestView[" + viewId + "]";
+				default:
+					throw new UnsupportedOperationException(method.toString());
+			}
+		});
+	}
+
+	private IView putView(final DefaultViewsRepositoryStorage storage, final int ownerUserId, final int cachedRowsCount)
+	{
+		tick();
+		final IView view = newView(cachedRowsCount);
+		storage.put(view, ownerUserId);
+		return view;
+	}
+
+	@Test
+	public void test_maxViewsPerUser_evictsLeastRecentlyUsedViewOfThatUser()
+	{
+		final DefaultViewsRepositoryStorage storage = new DefaultViewsRepositoryStorage(ViewsStorageLimits.builder()
+				.expireAfterAccess(Duration.ofHours(1))
+				.maxViewsPerUser(2)
+				.build());
+
+		final IView view1 = putView(storage, 100, 0);
+		final IView view2 = putView(storage, 100, 0);
+		final IView otherUserView = putView(storage, 200, 0);
+
+		// access view1, so view2 becomes the least recently used one
+		tick();
+		assertThat(storage.getByIdOrNull(view1.getViewId())).isSameAs(view1);
+
+		final IView view3 = putView(storage, 100, 0);
+
+		assertThat(storage.getByIdOrNull(view2.getViewId())).isNull();
+		assertThat(storage.getEvictedViewCloseReasonOrNull(view2.getViewId())).isEqualTo(ViewCloseReason.USER_VIEWS_LIMIT_EXCEEDED);
+		assertThat(storage.getByIdOrNull(view1.getViewId())).isSameAs(view1);
+		assertThat(storage.getByIdOrNull(view3.getViewId())).isSameAs(view3);
+		assertThat(storage.getByIdOrNull(otherUserView.getViewId())).isSameAs(otherUserView);
+		assertThat(closeReasons).containsExactly(ViewCloseReason.USER_VIEWS_LIMIT_EXCEEDED);
+	}
+
+	@Test
+	public void test_maxCachedRows_evictsLeastRecentlyUsedViews()
+	{
+		final DefaultViewsRepositoryStorage storage = new DefaultViewsRepositoryStorage(ViewsStorageLimits.builder()
+				.expireAfterAccess(Duration.ofHours(1))
+				.maxCachedRows(100)
+				.build());
+
+		final IView view1 = putView(storage, 100, 40);
+		final IView view2 = putView(storage, 200, 40);
+		final IView view3 = putView(storage, 300, 40);
+
+		assertThat(storage.size()).isEqualTo(2);
+		assertThat(storage.getByIdOrNull(view1.getViewId())).isNull();
+		assertThat(storage.getEvictedViewCloseReasonOrNull(view1.getViewId())).isEqualTo(ViewCloseReason.MEMORY_LIMIT_EXCEEDED);
+		assertThat(storage.getByIdOrNull(view2.getViewId())).isSameAs(view2);
+		assertThat(storage.getByIdOrNull(view3.getViewId())).isSameAs(view3);
+		assertThat(storage.getStatistics())
+				.containsEntry("views", 2)
+				.containsEntry("cachedRows", 80L)
+				.containsEntry("evicted.MEMORY_LIMIT_EXCEEDED", 1L);
+	}
+
+	@Test
+	public void test_maxViews_neverEvictsTheNewView()
+	{
+		final DefaultViewsRepositoryStorage storage = new DefaultViewsRepositoryStorage(ViewsStorageLimits.builder()
+				.expireAfterAccess(Duration.ofHours(1))
+				.maxViews(1)
+				.build());
+
+		final IView view1 = putView(storage, 100, 0);
+		final IView view2 = putView(storage, 100, 0);
+
+		assertThat(storage.getByIdOrNull(view1.getViewId())).isNull();
+		assertThat(storage.getByIdOrNull(view2.getViewId())).isSameAs(view2);
+	}
+
+	@Test
+	public void test_expired()
+	{
+		final DefaultViewsRepositoryStorage storage = new DefaultViewsRepositoryStorage(ViewsStorageLimits.builder()
+				.expireAfterAccess(Duration.ofSeconds(5))
+				.build());
+
+		final IView view = putView(storage, 100, 0);
+		for (int i = 0; i < 6; i++)
+		{
+			tick();
+		}
+
+		assertThat(storage.getByIdOrNull(view.getViewId())).isNull();
+		assertThat(closeReasons).containsExactly(ViewCloseReason.CLEANUP);
+	}
+
+	@Test
+	public void test_cleanup_closesExpiredViews()
+	{
+		final DefaultViewsRepositoryStorage storage = new DefaultViewsRepositoryStorage(ViewsStorageLimits.builder()
+				.expireAfterAccess(Duration.ofSeconds(5))
+				.build());
+
+		final IView view1 = putView(storage, 100, 0);
+		for (int i = 0; i < 4; i++)
+		{
+			tick();
+		}
+		final IView view2 = putView(storage, 100, 0);
+		tick();
+		tick();
+
+		storage.cleanup();
+
+		assertThat(storage.size()).isEqualTo(1);
+		assertThat(storage.getEvictedViewCloseReasonOrNull(view1.getViewId())).isEqualTo(ViewCloseReason.CLEANUP);
+		assertThat(storage.getByIdOrNull(view2.getViewId())).isSameAs(view2);
+		assertThat(closeReasons).containsExactly(ViewCloseReason.CLEANUP);
+	}
+
+	@Test
+	public void test_cleanup_enforcesMaxCachedRowsOfGrowingViews()
+	{
+		final DefaultViewsRepositoryStorage storage = new DefaultViewsRepositoryStorage(ViewsStorageLimits.builder()
+				.expireAfterAccess(Duration.ofHours(1))
+				.maxCachedRows(100)
+				.build());
+
+		final AtomicInteger view1CachedRowsCount = new AtomicInteger(10);
+		tick();
+		final IView view1 = newView(view1CachedRowsCount::get);
+		storage.put(view1, 100);
+		final IView view2 = putView(storage, 200, 40);
+
+		view1CachedRowsCount.set(80);
+		storage.cleanup();
+
+		assertThat(storage.size()).isEqualTo(1);
+		assertThat(storage.getEvictedViewCloseReasonOrNull(view1.getViewId())).isEqualTo(ViewCloseReason.MEMORY_LIMIT_EXCEEDED);
+		assertThat(storage.getByIdOrNull(view2.getViewId())).isSameAs(view2);
+		assertThat(storage.getStatistics()).containsEntry("cachedRows", 40L);
+	}
+
+	@Test
+	public void test_removeById_isNotEviction()
+	{
+		final DefaultViewsRepositoryStorage storage = new DefaultViewsRepositoryStorage();
+
+		final IView view = putView(storage, 100, 0);
+		storage.removeById(view.getViewId());
+
+		assertThat(storage.size()).isEqualTo(0);
+		assertThat(storage.getEvictedViewCloseReasonOrNull(view.getViewId())).isNull();
+		assertThat(closeReasons).containsExactly(ViewCloseReason.USER_REQUEST);
+	}
+
+	@Test
+	public void test_sharedLimits_areEnforcedAcrossStorages()
+	{
+		final ViewsStorageLimits limits = ViewsStorageLimits.builder()
+				.expireAfterAccess(Duration.ofHours(1))
+				.maxViewsPerUser(2)
+				.maxCachedRows(100)
+				.build();
+		final DefaultViewsRepositoryStorage storage1 = new DefaultViewsRepositoryStorage(limits);
+		final DefaultViewsRepositoryStorage storage2 = new DefaultViewsRepositoryStorage(limits);
+
+		final IView view1 = putView(storage1, 100, 40);
+		final IView view2 = putView(storage2, 100, 40);
+		final IView view3 = putView(storage2, 200, 40);
+
+		// view1 was the least recently used one, so it was evicted from its storage by the views of the other storage
+		assertThat(storage1.size()).isEqualTo(0);
+		assertThat(storage1.getEvictedViewCloseReasonOrNull(view1.getViewId())).isEqualTo(ViewCloseReason.MEMORY_LIMIT_EXCEEDED);
+		assertThat(storage2.getByIdOrNull(view2.getViewId())).isSameAs(view2);
+		assertThat(storage2.getByIdOrNull(view3.getViewId())).isSameAs(view3);
+		assertThat(storage2.getEvictedViewCloseReasonOrNull(view1.getViewId())).isNull();
+
+		final IView view4 = putView(storage1, 100, 0);
+		final IView view5 = putView(storage1, 100, 0);
+
+		// view2 was the user's least recently used view
+		assertThat(storage2.getEvictedViewCloseReasonOrNull(view2.getViewId())).isEqualTo(ViewCloseReason.USER_VIEWS_LIMIT_EXCEEDED);
+		assertThat(storage1.getByIdOrNull(view4.getViewId())).isSameAs(view4);
+		assertThat(storage1.getByIdOrNull(view5.getViewId())).isSameAs(view5);
+		assertThat(storage1.getStatistics())
+				.containsEntry("views", 3)
+				.containsEntry("storageViews", 2)
+				.containsEntry("cachedRows", 40L);
+		assertThat(closeReasons).containsExactly(ViewCloseReason.MEMORY_LIMIT_EXCEEDED, ViewCloseReason.USER_VIEWS_LIMIT_EXCEEDED);
+	}
+}
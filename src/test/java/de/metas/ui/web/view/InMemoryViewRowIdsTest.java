@@ -0,0 +1,105 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InMemoryViewRowIdsTest
+{
+	@Test
+	public void test_getPage()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofList(ImmutableList.of(50, 10, 40, 20, 30));
+
+		assertThat(rowIds.size()).isEqualTo(5);
+		assertThat(rowIds.getPage(0, 2)).containsExactly(50, 10);
+		assertThat(rowIds.getPage(3, 10)).containsExactly(20, 30);
+		assertThat(rowIds.getPage(5, 10)).isEmpty();
+		assertThat(rowIds.getPage(1, Integer.MAX_VALUE)).containsExactly(10, 40, 20, 30);
+	}
+
+	@Test
+	public void test_indexOf()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofList(ImmutableList.of(50, 10, 40));
+
+		assertThat(rowIds.indexOf(50)).isEqualTo(0);
+		assertThat(rowIds.indexOf(40)).isEqualTo(2);
+		assertThat(rowIds.indexOf(99)).isEqualTo(-1);
+	}
+
+	@Test
+	public void test_addingRowIds_skipsExistingOnes()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofList(ImmutableList.of(50, 10));
+
+		final InMemoryViewRowIds rowIdsNew = rowIds.addingRowIds(ImmutableList.of(10, 60, 60));
+		assertThat(rowIdsNew.toList()).containsExactly(50, 10, 60);
+
+		assertThat(rowIdsNew.addingRowIds(ImmutableList.of(50))).isSameAs(rowIdsNew);
+	}
+
+	@Test
+	public void test_removingRowIds_preservesOrder()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofList(ImmutableList.of(50, 10, 40, 20));
+
+		assertThat(rowIds.removingRowIds(ImmutableSet.of(10, 20)).toList()).containsExactly(50, 40);
+		assertThat(rowIds.removingRowIds(ImmutableSet.of(99))).isSameAs(rowIds);
+	}
+
+	@Test
+	public void test_containsAny_and_retainRowIds()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofList(ImmutableList.of(50, 10, 40));
+
+		assertThat(rowIds.containsAny(ImmutableSet.of(1, 40))).isTrue();
+		assertThat(rowIds.containsAny(ImmutableSet.of(1, 2))).isFalse();
+		assertThat(rowIds.retainRowIds(ImmutableSet.of(1, 40, 50))).containsOnly(40, 50);
+	}
+
+	@Test
+	public void test_indexOf_extremeRowIds()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofList(ImmutableList.of(3, -1, Integer.MAX_VALUE, 0, Integer.MIN_VALUE));
+
+		assertThat(rowIds.indexOf(3)).isEqualTo(0);
+		assertThat(rowIds.indexOf(-1)).isEqualTo(1);
+		assertThat(rowIds.indexOf(Integer.MAX_VALUE)).isEqualTo(2);
+		assertThat(rowIds.indexOf(0)).isEqualTo(3);
+		assertThat(rowIds.indexOf(Integer.MIN_VALUE)).isEqualTo(4);
+		assertThat(rowIds.contains(1)).isFalse();
+	}
+
+	@Test
+	public void test_toSqlArrayLiteral()
+	{
+		assertThat(InMemoryViewRowIds.toSqlArrayLiteral(ImmutableList.of())).isEqualTo("{}");
+		assertThat(InMemoryViewRowIds.toSqlArrayLiteral(ImmutableList.of(3, 1, 2))).isEqualTo("{3,1,2}");
+	}
+}
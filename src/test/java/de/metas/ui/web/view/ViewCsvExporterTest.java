@@ -0,0 +1,184 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.view.descriptor.ViewLayout;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.datatypes.json.JSONLookupValue;
+import de.metas.ui.web.window.datatypes.json.JSONNullValue;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementFieldDescriptor;
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewCsvExporterTest
+{
+	private static final WindowId WINDOW_ID = WindowId.fromJson("123");
+
+	private List<List<DocumentQueryOrderBy>> forEachRowOrderBys;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		forEachRowOrderBys = new ArrayList<>();
+	}
+
+	private static ViewLayout newLayout()
+	{
+		return ViewLayout.builder()
+				.setWindowId(WINDOW_ID)
+				.setCaption("Test")
+				.addElement(newLayoutElement("Name", DocumentFieldWidgetType.Text))
+				.addElement(newLayoutElement("Qty", DocumentFieldWidgetType.Quantity))
+				.build();
+	}
+
+	private static DocumentLayoutElementDescriptor.Builder newLayoutElement(final String fieldName, final DocumentFieldWidgetType widgetType)
+	{
+		return DocumentLayoutElementDescriptor.builder()
+				.setCaption(fieldName)
+				.setWidgetType(widgetType)
+				.addField(DocumentLayoutElementFieldDescriptor.builder(fieldName).setPublicField(true));
+	}
+
+	private static IViewRow newRow(final Map<String, Object> values)
+	{
+		return (IViewRow)Proxy.newProxyInstance(IViewRow.class.getClassLoader(), new Class<?>[] { IViewRow.class }, (proxy, method, args) -> {
+			if ("getFieldNameAndJsonValues".equals(method.getName()))
+			{
+				return values;
+			}
+			throw new UnsupportedOperationException(method.toString());
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private IView newView(final List<IViewRow> rows)
+	{
+		final ViewId viewId = ViewId.random(WINDOW_ID);
+		return (IView)Proxy.newProxyInstance(IView.class.getClassLoader(), new Class<?>[] { IView.class }, (proxy, method, args) -> {
+			switch (method.getName())
+			{
+				case "getViewId":
+					return viewId;
+				case "forEachRow":
+					forEachRowOrderBys.add((List<DocumentQueryOrderBy>)args[0]);
+					rows.forEach((Consumer<IViewRow>)args[1]);
+					return null;
+				case "streamByIds":
+					final DocumentIdsSelection rowIds = (DocumentIdsSelection)args[0];
+					return rows.stream().limit(rowIds.size());
+				default:
+					throw new UnsupportedOperationException(method.toString());
+			}
+		});
+	}
+
+	private static String export(final ViewCsvExporter exporter)
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter.export(out);
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void test_export_allRows()
+	{
+		final IView view = newView(ImmutableList.of(
+				newRow(ImmutableMap.of("Name", "Product, 1", "Qty", new BigDecimal("1E+1"))),
+				newRow(ImmutableMap.of("Name", JSONLookupValue.of(2, "Product 2")))));
+		final ImmutableList<DocumentQueryOrderBy> orderBys = ImmutableList.of(DocumentQueryOrderBy.byFieldName("Name", false));
+
+		final String csv = export(ViewCsvExporter.builder()
+				.view(view)
+				.rowIds(DocumentIdsSelection.ALL)
+				.orderBys(orderBys)
+				.layout(newLayout())
+				.adLanguage("en_US")
+				.build());
+
+		assertThat(csv).isEqualTo("Name,Qty\r\n"
+				+ "\"Product, 1\",10\r\n"
+				+ "Product 2,\r\n");
+		assertThat(forEachRowOrderBys).containsExactly(orderBys);
+	}
+
+	@Test
+	public void test_export_selectedRows()
+	{
+		final IView view = newView(ImmutableList.of(
+				newRow(ImmutableMap.of("Name", "Product 1", "Qty", BigDecimal.ONE)),
+				newRow(ImmutableMap.of("Name", "Product 2", "Qty", BigDecimal.TEN))));
+
+		final String csv = export(ViewCsvExporter.builder()
+				.view(view)
+				.rowIds(DocumentIdsSelection.ofCommaSeparatedString("1"))
+				.layout(newLayout())
+				.adLanguage("en_US")
+				.build());
+
+		assertThat(csv).isEqualTo("Name,Qty\r\n"
+				+ "Product 1,1\r\n");
+		assertThat(forEachRowOrderBys).isEmpty();
+	}
+
+	@Test
+	public void test_toCsvString()
+	{
+		assertThat(ViewCsvExporter.toCsvString(null)).isEqualTo("");
+		assertThat(ViewCsvExporter.toCsvString(JSONNullValue.instance)).isEqualTo("");
+		assertThat(ViewCsvExporter.toCsvString(JSONLookupValue.of(10, "Product 10"))).isEqualTo("Product 10");
+		assertThat(ViewCsvExporter.toCsvString(new BigDecimal("1E+3"))).isEqualTo("1000");
+		assertThat(ViewCsvExporter.toCsvString("2018-01-02")).isEqualTo("2018-01-02");
+	}
+
+	@Test
+	public void test_quoteIfNeeded()
+	{
+		assertThat(ViewCsvExporter.quoteIfNeeded("plain")).isEqualTo("plain");
+		assertThat(ViewCsvExporter.quoteIfNeeded("a,b")).isEqualTo("\"a,b\"");
+		assertThat(ViewCsvExporter.quoteIfNeeded("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+		assertThat(ViewCsvExporter.quoteIfNeeded("line1\nline2")).isEqualTo("\"line1\nline2\"");
+	}
+}
@@ -0,0 +1,239 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.view.descriptor.annotation.ViewColumn;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.json.JSONLookupValue;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewRowsSortedIndexTest
+{
+	private static final String FIELDNAME_Code = "Code";
+	private static final String FIELDNAME_Qty = "Qty";
+	private static final String FIELDNAME_Product = "M_Product_ID";
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static TestRow row(final int id, final String code, final BigDecimal qty, final String productName)
+	{
+		final Map<String, Object> values = new HashMap<>();
+		values.put(FIELDNAME_Code, code);
+		values.put(FIELDNAME_Qty, qty);
+		values.put(FIELDNAME_Product, JSONLookupValue.of(id, productName));
+		return new TestRow(DocumentId.of(id), values);
+	}
+
+	private static List<DocumentId> rowIds(final int... ids)
+	{
+		final ImmutableList.Builder<DocumentId> rowIds = ImmutableList.builder();
+		for (final int id : ids)
+		{
+			rowIds.add(DocumentId.of(id));
+		}
+		return rowIds.build();
+	}
+
+	private static final List<TestRow> ROWS = ImmutableList.of(
+			row(1, "C", BigDecimal.ONE, "Tomato"),
+			row(2, "A", BigDecimal.TEN, "Apple"),
+			row(3, "D", null, "Salad"),
+			row(4, "B", new BigDecimal("2"), "Banana"));
+
+	@Test
+	public void noOrderBys_keepsRowsOrder()
+	{
+		final ViewRowsSortedIndex sortedIndex = ViewRowsSortedIndex.build(ROWS, ImmutableList.of());
+		assertThat(sortedIndex.getPage(0, 10)).isEqualTo(rowIds(1, 2, 3, 4));
+	}
+
+	@Test
+	public void sortAllRowsAndThenPage()
+	{
+		final ViewRowsSortedIndex sortedIndex = ViewRowsSortedIndex.build(ROWS, ImmutableList.of(DocumentQueryOrderBy.byFieldName(FIELDNAME_Code)));
+		assertThat(sortedIndex.size()).isEqualTo(4);
+		assertThat(sortedIndex.getPage(0, 2)).isEqualTo(rowIds(2, 4));
+		assertThat(sortedIndex.getPage(2, 2)).isEqualTo(rowIds(1, 3));
+		assertThat(sortedIndex.getPage(4, 2)).isEmpty();
+	}
+
+	@Test
+	public void sortByNumbers_descending_nullsLast()
+	{
+		final boolean ascending = false;
+		final ViewRowsSortedIndex sortedIndex = ViewRowsSortedIndex.build(ROWS, ImmutableList.of(DocumentQueryOrderBy.byFieldName(FIELDNAME_Qty, ascending)));
+		assertThat(sortedIndex.getPage(0, 10)).isEqualTo(rowIds(2, 4, 1, 3));
+	}
+
+	@Test
+	public void sortByLookupCaption()
+	{
+		final ViewRowsSortedIndex sortedIndex = ViewRowsSortedIndex.build(ROWS, ImmutableList.of(DocumentQueryOrderBy.byFieldName(FIELDNAME_Product)));
+		assertThat(sortedIndex.getPage(0, 10)).isEqualTo(rowIds(2, 4, 3, 1));
+	}
+
+	@Test
+	public void sortByTypedColumnValues()
+	{
+		final List<TypedTestRow> rows = ImmutableList.of(
+				new TypedTestRow(1, LocalDate.of(2018, 3, 1), new BigDecimal("10"), "Tomato"),
+				new TypedTestRow(2, LocalDate.of(2017, 12, 31), new BigDecimal("9"), "Apple"),
+				new TypedTestRow(3, null, null, "Banana"));
+
+		assertThat(ViewRowsSortedIndex.build(rows, ImmutableList.of(DocumentQueryOrderBy.byFieldName("date"))).getPage(0, 10))
+				.isEqualTo(rowIds(2, 1, 3));
+		assertThat(ViewRowsSortedIndex.build(rows, ImmutableList.of(DocumentQueryOrderBy.byFieldName("qty"))).getPage(0, 10))
+				.isEqualTo(rowIds(2, 1, 3));
+		assertThat(ViewRowsSortedIndex.build(rows, ImmutableList.of(DocumentQueryOrderBy.byFieldName("product"))).getPage(0, 10))
+				.isEqualTo(rowIds(2, 3, 1));
+	}
+
+	/** Row which has its values only in {@link ViewColumn} fields, so the sorting shall not use the JSON values */
+	private static final class TypedTestRow implements IViewRow
+	{
+		private final DocumentId id;
+
+		@ViewColumn(widgetType = DocumentFieldWidgetType.Date)
+		private final LocalDate date;
+
+		@ViewColumn(widgetType = DocumentFieldWidgetType.Quantity)
+		private final BigDecimal qty;
+
+		@ViewColumn(widgetType = DocumentFieldWidgetType.Lookup)
+		private final IntegerLookupValue product;
+
+		private TypedTestRow(final int id, final LocalDate date, final BigDecimal qty, final String productName)
+		{
+			this.id = DocumentId.of(id);
+			this.date = date;
+			this.qty = qty;
+			this.product = IntegerLookupValue.of(id, productName);
+		}
+
+		@Override
+		public DocumentId getId()
+		{
+			return id;
+		}
+
+		@Override
+		public IViewRowType getType()
+		{
+			return null;
+		}
+
+		@Override
+		public boolean isProcessed()
+		{
+			return false;
+		}
+
+		@Override
+		public DocumentPath getDocumentPath()
+		{
+			return null;
+		}
+
+		@Override
+		public Map<String, Object> getFieldNameAndJsonValues()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Collection<? extends IViewRow> getIncludedRows()
+		{
+			return ImmutableList.of();
+		}
+	}
+
+	private static final class TestRow implements IViewRow
+	{
+		private final DocumentId id;
+		private final Map<String, Object> values;
+
+		private TestRow(final DocumentId id, final Map<String, Object> values)
+		{
+			this.id = id;
+			this.values = values;
+		}
+
+		@Override
+		public DocumentId getId()
+		{
+			return id;
+		}
+
+		@Override
+		public IViewRowType getType()
+		{
+			return null;
+		}
+
+		@Override
+		public boolean isProcessed()
+		{
+			return false;
+		}
+
+		@Override
+		public DocumentPath getDocumentPath()
+		{
+			return null;
+		}
+
+		@Override
+		public Map<String, Object> getFieldNameAndJsonValues()
+		{
+			return values;
+		}
+
+		@Override
+		public Collection<? extends IViewRow> getIncludedRows()
+		{
+			return ImmutableList.of();
+		}
+	}
+}
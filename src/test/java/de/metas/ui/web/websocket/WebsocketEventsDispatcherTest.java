@@ -0,0 +1,176 @@
+package de.metas.ui.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.websocket.WebsocketEventsDispatcher.WebsocketEvent;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WebsocketEventsDispatcherTest
+{
+	private List<Message<?>> sentMessages;
+	private MessageChannel channel;
+	private WebsocketEventsDispatcher dispatcher;
+
+	@lombok.Value
+	private static final class TestMergeableEvent implements WebsocketMergeableEvent
+	{
+		private final ImmutableSet<Integer> ids;
+
+		@Override
+		public TestMergeableEvent mergeWithNewerEventOrNull(final Object newerEvent)
+		{
+			if (!(newerEvent instanceof TestMergeableEvent))
+			{
+				return null;
+			}
+
+			final TestMergeableEvent newer = (TestMergeableEvent)newerEvent;
+			return new TestMergeableEvent(ImmutableSet.<Integer> builder().addAll(ids).addAll(newer.ids).build());
+		}
+	}
+
+	@Before
+	public void init()
+	{
+		sentMessages = new ArrayList<>();
+		channel = new MessageChannel()
+		{
+			@Override
+			public boolean send(final Message<?> message)
+			{
+				return sentMessages.add(message);
+			}
+
+			@Override
+			public boolean send(final Message<?> message, final long timeout)
+			{
+				return send(message);
+			}
+		};
+
+		final long coalesceWindowMillis = 0; // send right away, on current thread
+		dispatcher = new WebsocketEventsDispatcher(new SimpMessagingTemplate(channel), new WebsocketEventsLog(), coalesceWindowMillis);
+	}
+
+	private static WebsocketEvent event(@NonNull final String destination, @NonNull final Object payload)
+	{
+		return WebsocketEvent.builder()
+				.destination(destination)
+				.payload(payload)
+				.converted(false)
+				.build();
+	}
+
+	private List<String> getSentDestinations()
+	{
+		return sentMessages.stream()
+				.map(SimpMessageHeaderAccessor::getDestination)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private List<Object> getSentPayloads()
+	{
+		return sentMessages.stream()
+				.map(Message::getPayload)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@Test
+	public void test_mergeableEventsToSameDestination_areMerged()
+	{
+		dispatcher.dispatch(ImmutableList.of(
+				event("/dest1", new TestMergeableEvent(ImmutableSet.of(1, 2))),
+				event("/dest2", new TestMergeableEvent(ImmutableSet.of(10))),
+				event("/dest1", new TestMergeableEvent(ImmutableSet.of(2, 3)))));
+
+		assertThat(getSentDestinations()).containsExactly("/dest1", "/dest2");
+		assertThat(getSentPayloads()).containsExactly(
+				new TestMergeableEvent(ImmutableSet.of(1, 2, 3)),
+				new TestMergeableEvent(ImmutableSet.of(10)));
+
+		assertThat(dispatcher.getStatistics())
+				.containsEntry("eventsDispatched", 3L)
+				.containsEntry("eventsMerged", 1L)
+				.containsEntry("messagesSent", 2L);
+	}
+
+	@Test
+	public void test_notMergeableEvent_isNotMergedAndKeepsTheOrder()
+	{
+		dispatcher.dispatch(ImmutableList.of(
+				event("/dest1", new TestMergeableEvent(ImmutableSet.of(1))),
+				event("/dest1", "not mergeable"),
+				event("/dest1", new TestMergeableEvent(ImmutableSet.of(2)))));
+
+		assertThat(getSentPayloads()).containsExactly(
+				new TestMergeableEvent(ImmutableSet.of(1)),
+				"not mergeable",
+				new TestMergeableEvent(ImmutableSet.of(2)));
+
+		assertThat(dispatcher.getStatistics())
+				.containsEntry("eventsMerged", 0L)
+				.containsEntry("messagesSent", 3L);
+	}
+
+	@Test
+	public void test_eventsToDifferentDestinations_keepTheOrder()
+	{
+		dispatcher.dispatch(ImmutableList.of(
+				event("/dest1", "event1"),
+				event("/dest2", "event2"),
+				event("/dest1", "event3")));
+
+		assertThat(getSentDestinations()).containsExactly("/dest1", "/dest2", "/dest1");
+		assertThat(getSentPayloads()).containsExactly("event1", "event2", "event3");
+	}
+
+	@Test
+	public void test_shutdown_sendsPendingEvents()
+	{
+		final WebsocketEventsDispatcher asyncDispatcher = new WebsocketEventsDispatcher(new SimpMessagingTemplate(channel), new WebsocketEventsLog(), 60 * 60 * 1000);
+		asyncDispatcher.dispatch(ImmutableList.of(event("/dest1", "event1")));
+		assertThat(sentMessages).isEmpty();
+
+		asyncDispatcher.shutdown();
+		assertThat(getSentPayloads()).containsExactly("event1");
+
+		// after shutdown, the events are sent right away
+		asyncDispatcher.dispatch(ImmutableList.of(event("/dest1", "event2")));
+		assertThat(getSentPayloads()).containsExactly("event1", "event2");
+	}
+}
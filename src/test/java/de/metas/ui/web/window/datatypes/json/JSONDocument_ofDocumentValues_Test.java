@@ -0,0 +1,175 @@
+package de.metas.ui.web.window.datatypes.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+import de.metas.ui.web.window.datatypes.DocumentType;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor.Characteristic;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.LookupDescriptorProvider;
+import de.metas.ui.web.window.model.DocumentValues;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JSONDocument_ofDocumentValues_Test
+{
+	private static final WindowId WINDOW_ID = WindowId.of(123);
+
+	private ObjectMapper jsonObjectMapper;
+	private DocumentEntityDescriptor entityDescriptor;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		jsonObjectMapper = new ObjectMapper();
+
+		entityDescriptor = DocumentEntityDescriptor.builder()
+				.setDocumentType(DocumentType.Window, WINDOW_ID.toInt())
+				.disableCallouts()
+				.addField(createField("Name", DocumentFieldWidgetType.Text, Characteristic.PublicField))
+				.addField(createField("Amount", DocumentFieldWidgetType.Amount, Characteristic.PublicField))
+				.addField(createField("AdvancedNote", DocumentFieldWidgetType.Text, Characteristic.PublicField, Characteristic.AdvancedField))
+				.addField(createField("InternalNote", DocumentFieldWidgetType.Text))
+				.build();
+	}
+
+	private static DocumentFieldDescriptor.Builder createField(final String fieldName, final DocumentFieldWidgetType widgetType, final Characteristic... characteristics)
+	{
+		final DocumentFieldDescriptor.Builder field = DocumentFieldDescriptor.builder(fieldName)
+				.setCaption(fieldName)
+				.setValueClass(widgetType.getValueClass())
+				.setWidgetType(widgetType)
+				.setLookupDescriptorProvider(LookupDescriptorProvider.NULL)
+				.setReadonlyLogic(false)
+				.setDisplayLogic(true)
+				.setMandatoryLogic(false);
+		for (final Characteristic characteristic : characteristics)
+		{
+			field.addCharacteristic(characteristic);
+		}
+		return field;
+	}
+
+	private DocumentValues createDocumentValues(final int documentId)
+	{
+		return DocumentValues.builder(entityDescriptor, DocumentPath.rootDocumentPath(WINDOW_ID, DocumentId.of(documentId)))
+				.putValue(entityDescriptor.getField("Name"), "name" + documentId)
+				.putValue(entityDescriptor.getField("Amount"), "12.30")
+				.putValue(entityDescriptor.getField("AdvancedNote"), "advanced note")
+				.putValue(entityDescriptor.getField("InternalNote"), "internal note")
+				.build();
+	}
+
+	private JsonNode toJsonFieldsByName(final JSONDocument jsonDocument)
+	{
+		final JsonNode jsonFieldsByName = jsonObjectMapper.valueToTree(jsonDocument).get("fieldsByName");
+		assertThat(jsonFieldsByName).isNotNull();
+		return jsonFieldsByName;
+	}
+
+	private static List<String> getFieldNames(final JsonNode jsonFieldsByName)
+	{
+		return ImmutableList.copyOf(jsonFieldsByName.fieldNames());
+	}
+
+	private static JSONOptions.Builder newJSONOptions()
+	{
+		return JSONOptions.builder(null)
+				.setAD_LanguageIfNotEmpty("en_US");
+	}
+
+	@Test
+	public void putValue_convertsToFieldValueClass()
+	{
+		final DocumentValues documentValues = createDocumentValues(1);
+
+		assertThat(documentValues.getDocumentId()).isEqualTo(DocumentId.of(1));
+		assertThat(documentValues.getValue("Name")).isEqualTo("name1");
+		assertThat(documentValues.getValue("Amount")).isInstanceOf(BigDecimal.class);
+		assertThat((BigDecimal)documentValues.getValue("Amount")).isEqualByComparingTo("12.30");
+		assertThat(documentValues.getValue("NotExistingField")).isNull();
+	}
+
+	@Test
+	public void basicFields()
+	{
+		final JSONOptions jsonOpts = newJSONOptions().build();
+		final JSONDocument jsonDocument = JSONDocument.ofDocumentValues(createDocumentValues(1), jsonOpts);
+
+		final JsonNode jsonFieldsByName = toJsonFieldsByName(jsonDocument);
+		assertThat(getFieldNames(jsonFieldsByName)).containsExactly(JSONDocumentField.FIELD_VALUE_ID, "Name", "Amount");
+		assertThat(jsonFieldsByName.get(JSONDocumentField.FIELD_VALUE_ID).get("value").asInt()).isEqualTo(1);
+		assertThat(jsonFieldsByName.get("Name").get("value").asText()).isEqualTo("name1");
+
+		// only values are provided, no field flags
+		assertThat(jsonFieldsByName.get("Name").has("readonly")).isFalse();
+		assertThat(jsonFieldsByName.get("Name").has("mandatory")).isFalse();
+	}
+
+	@Test
+	public void advancedFields()
+	{
+		final JSONOptions jsonOpts = newJSONOptions().setShowAdvancedFields(true).build();
+		final JSONDocument jsonDocument = JSONDocument.ofDocumentValues(createDocumentValues(1), jsonOpts);
+
+		assertThat(getFieldNames(toJsonFieldsByName(jsonDocument))).containsExactly(JSONDocumentField.FIELD_VALUE_ID, "Name", "Amount", "AdvancedNote");
+	}
+
+	@Test
+	public void onlyRequestedFields()
+	{
+		final JSONOptions jsonOpts = newJSONOptions().setDataFieldsList("Amount,InternalNote").build();
+		final JSONDocument jsonDocument = JSONDocument.ofDocumentValues(createDocumentValues(1), jsonOpts);
+
+		// NOTE: InternalNote is not a public field, so it's not provided even if it was asked
+		assertThat(getFieldNames(toJsonFieldsByName(jsonDocument))).containsExactly(JSONDocumentField.FIELD_VALUE_ID, "Amount");
+	}
+
+	@Test
+	public void documentValuesList()
+	{
+		final JSONOptions jsonOpts = newJSONOptions().build();
+		final List<JSONDocument> jsonDocuments = JSONDocument.ofDocumentValuesList(ImmutableList.of(createDocumentValues(1), createDocumentValues(2)), jsonOpts);
+
+		assertThat(jsonDocuments).hasSize(2);
+		assertThat(jsonDocuments.get(0).getId()).isEqualTo(DocumentId.of(1));
+		assertThat(jsonDocuments.get(1).getId()).isEqualTo(DocumentId.of(2));
+		assertThat(toJsonFieldsByName(jsonDocuments.get(1)).get("Name").get("value").asText()).isEqualTo("name2");
+	}
+}
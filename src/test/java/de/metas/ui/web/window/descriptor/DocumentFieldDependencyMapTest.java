@@ -0,0 +1,124 @@
+package de.metas.ui.web.window.descriptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap.Dependency;
+import de.metas.ui.web.window.descriptor.DocumentFieldDependencyMap.DependencyType;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentFieldDependencyMapTest
+{
+	private static List<String> toStrings(final List<Dependency> plan)
+	{
+		return plan.stream()
+				.map(dependency -> dependency.getDependencyType() + ":" + dependency.getFieldName())
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void emptyPlan()
+	{
+		final DocumentFieldDependencyMap dependencies = DocumentFieldDependencyMap.builder().build();
+		assertThat(dependencies.getDependenciesPlan("A")).isEmpty();
+		assertThat(dependencies.getValueDependentFieldNamesInOrder()).isEmpty();
+	}
+
+	@Test
+	public void directDependencies()
+	{
+		final DocumentFieldDependencyMap dependencies = DocumentFieldDependencyMap.builder()
+				.add("B", ImmutableSet.of("A"), DependencyType.ReadonlyLogic)
+				.add("B", ImmutableSet.of("A"), DependencyType.DisplayLogic)
+				.add("C", ImmutableSet.of("A", "X"), DependencyType.MandatoryLogic)
+				.add("D", ImmutableSet.of("X"), DependencyType.MandatoryLogic)
+				.build();
+
+		final List<Dependency> plan = dependencies.getDependenciesPlan("A");
+		assertThat(toStrings(plan)).containsExactly("ReadonlyLogic:B", "DisplayLogic:B", "MandatoryLogic:C");
+		assertThat(plan.get(2).getDependsOnFieldNames()).containsExactly("A");
+	}
+
+	@Test
+	public void indirectDependencies_valuesFirst_topologicallyOrdered()
+	{
+		// A -> V1 (virtual) -> V2 (virtual) -> logic of L
+		// A -> V2
+		// A -> lookup of LK -> logic of L
+		final DocumentFieldDependencyMap dependencies = DocumentFieldDependencyMap.builder()
+				.add("V2", ImmutableSet.of("V1", "A"), DependencyType.FieldValue)
+				.add("V1", ImmutableSet.of("A"), DependencyType.FieldValue)
+				.add("L", ImmutableSet.of("V2", "LK"), DependencyType.DisplayLogic)
+				.add("LK", ImmutableSet.of("A"), DependencyType.LookupValues)
+				.build();
+
+		final List<Dependency> plan = dependencies.getDependenciesPlan("A");
+		assertThat(toStrings(plan)).containsExactly("LookupValues:LK", "FieldValue:V1", "FieldValue:V2", "DisplayLogic:L");
+
+		final Dependency v2 = plan.get(2);
+		assertThat(v2.getDependsOnFieldNames()).containsExactlyInAnyOrder("A", "V1");
+		assertThat(v2.isTriggeredByAnyOf(ImmutableSet.of("V1"))).isTrue();
+		assertThat(v2.isTriggeredByAnyOf(ImmutableSet.of("LK"))).isFalse();
+
+		assertThat(plan.get(3).getDependsOnFieldNames()).containsExactlyInAnyOrder("V2", "LK");
+
+		// same instance is returned for the same changed field
+		assertThat(dependencies.getDependenciesPlan("A")).isSameAs(plan);
+	}
+
+	@Test
+	public void valueDependentFieldNamesInOrder()
+	{
+		final DocumentFieldDependencyMap dependencies = DocumentFieldDependencyMap.builder()
+				.add("V3", ImmutableSet.of("V2"), DependencyType.FieldValue)
+				.add("V2", ImmutableSet.of("V1"), DependencyType.FieldValue)
+				.add("V1", ImmutableSet.of("A"), DependencyType.FieldValue)
+				.add("L", ImmutableSet.of("V3"), DependencyType.ReadonlyLogic)
+				.build();
+
+		assertThat(dependencies.getValueDependentFieldNamesInOrder()).containsExactly("V1", "V2", "V3");
+	}
+
+	@Test
+	public void cyclicDependencies()
+	{
+		final DocumentFieldDependencyMap dependencies = DocumentFieldDependencyMap.builder()
+				.add("V1", ImmutableSet.of("V2", "A"), DependencyType.FieldValue)
+				.add("V2", ImmutableSet.of("V1"), DependencyType.FieldValue)
+				.add("V3", ImmutableSet.of("V3", "A"), DependencyType.FieldValue)
+				.build();
+
+		assertThat(toStrings(dependencies.getDependenciesPlan("A")))
+				.containsExactlyInAnyOrder("FieldValue:V1", "FieldValue:V2", "FieldValue:V3");
+		assertThat(dependencies.getValueDependentFieldNamesInOrder())
+				.containsExactlyInAnyOrderElementsOf(ImmutableList.of("V1", "V2", "V3"));
+	}
+}
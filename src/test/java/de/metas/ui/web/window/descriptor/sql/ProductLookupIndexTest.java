@@ -0,0 +1,154 @@
+package de.metas.ui.web.window.descriptor.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ProductLookupIndexTest
+{
+	private ProductLookupIndex index;
+
+	@Before
+	public void init()
+	{
+		index = ProductLookupIndex.of(ImmutableList.of(
+				entry(30, "P-0030_Tomatoes Cherry", "4000000000030", -1, null, 0),
+				entry(10, "P-0010_Tomatoes", null, -1, null, 0),
+				entry(10, "P-0010_Tomatoes", null, 1000, "BP-TOM", 0),
+				entry(20, "P-0020_Potatoes", null, -1, null, 0),
+				entry(20, "P-0020_Potatoes", null, 2000, "POT-2000", 0),
+				entry(40, "P-0040_Cucumbers", null, -1, null, 1)));
+	}
+
+	private static ProductLookupIndexEntry entry(
+			final int productId,
+			final String displayName,
+			final String upc,
+			final int bpartnerId,
+			final String bpartnerProductNo,
+			final int orgId)
+	{
+		return ProductLookupIndexEntry.builder()
+				.productId(productId)
+				.displayName(displayName)
+				.upc(upc)
+				.bpartnerId(bpartnerId)
+				.bpartnerProductNo(bpartnerProductNo)
+				.bpartnerProductName(bpartnerProductNo != null ? "Name of " + bpartnerProductNo : null)
+				.orgId(orgId)
+				.build();
+	}
+
+	private static List<Integer> productIds(final List<ProductLookupIndexEntry> entries)
+	{
+		return entries.stream().map(ProductLookupIndexEntry::getProductId).collect(Collectors.toList());
+	}
+
+	private static BitSet bitSet(final int... productIds)
+	{
+		final BitSet bitSet = new BitSet();
+		for (final int productId : productIds)
+		{
+			bitSet.set(productId);
+		}
+		return bitSet;
+	}
+
+	@Test
+	public void noFilter_rankedByDisplayName_onePerProduct()
+	{
+		final List<ProductLookupIndexEntry> result = index.search(ProductLookupIndexQuery.builder().build());
+		assertThat(productIds(result)).containsExactly(10, 20, 30);
+
+		// bpartner specific rows are ranked first
+		assertThat(result.get(0).getBpartnerId()).isEqualTo(1000);
+	}
+
+	@Test
+	public void filter_ignoreCase_anyColumn()
+	{
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().filter("TOMATO").build()))).containsExactly(10, 30);
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().filter("000030").build()))).containsExactly(30);
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().filter("pot-2").build()))).containsExactly(20);
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().filter("name of bp").build()))).containsExactly(10);
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().filter("xyz").build()))).isEmpty();
+	}
+
+	@Test
+	public void filter_likeWildcards()
+	{
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().filter("p-00_0_tomatoes").build()))).containsExactly(10, 30);
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().filter("%cherry").build()))).containsExactly(30);
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().filter("tomatoes%").build()))).isEmpty();
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().filter("%").build()))).containsExactly(10, 20, 30);
+	}
+
+	@Test
+	public void filterByBPartnerAndOrg()
+	{
+		final List<ProductLookupIndexEntry> result = index.search(ProductLookupIndexQuery.builder().bpartnerId(2000).orgId(1).build());
+		assertThat(productIds(result)).containsExactly(10, 20, 30, 40);
+		assertThat(result.get(0).getBpartnerId()).isEqualTo(-1);
+		assertThat(result.get(1).getBpartnerId()).isEqualTo(2000);
+	}
+
+	@Test
+	public void filterByProductIds()
+	{
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().onlyProductIds(bitSet(20, 30)).build()))).containsExactly(20, 30);
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().excludeProductIds(bitSet(20, 30)).build()))).containsExactly(10);
+	}
+
+	@Test
+	public void offsetAndLimit()
+	{
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().offset(1).limit(1).build()))).containsExactly(20);
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().offset(5).build()))).isEmpty();
+	}
+
+	@Test
+	public void withChangedProduct()
+	{
+		final ProductLookupIndex changedIndex = index
+				.withChangedProduct(10, ImmutableList.of(entry(10, "P-0010_Onions", null, -1, null, 0)))
+				.withChangedProduct(20, ImmutableList.of())
+				.withChangedProduct(50, ImmutableList.of(entry(50, "P-0050_Tomatoes Green", null, -1, null, 0)));
+
+		assertThat(productIds(changedIndex.search(ProductLookupIndexQuery.builder().filter("tomato").build()))).containsExactly(30, 50);
+		assertThat(productIds(changedIndex.search(ProductLookupIndexQuery.builder().build()))).containsExactly(10, 30, 50);
+		assertThat(productIds(changedIndex.search(ProductLookupIndexQuery.builder().offset(1).limit(1).build()))).containsExactly(30);
+		assertThat(changedIndex.size()).isEqualTo(4);
+
+		// the original snapshot is not changed
+		assertThat(productIds(index.search(ProductLookupIndexQuery.builder().filter("tomato").build()))).containsExactly(10, 30);
+	}
+}
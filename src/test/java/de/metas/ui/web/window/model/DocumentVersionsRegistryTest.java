@@ -0,0 +1,183 @@
+package de.metas.ui.web.window.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentVersionsRegistryTest
+{
+	private static final long TRUST_DURATION_MILLIS = 1000;
+	private static final long NOW = 100000;
+
+	private DocumentVersionsRegistry registry;
+
+	@Before
+	public void init()
+	{
+		registry = DocumentVersionsRegistry.builder()
+				.maxTrackedRecords(2)
+				.trustDurationMillisSupplier(() -> TRUST_DURATION_MILLIS)
+				.build();
+		registry.activate();
+	}
+
+	private boolean isKnownNotChangedSince(final String tableName, final int recordId, final long seqNo)
+	{
+		return registry.isKnownNotChangedSince(tableName, recordId, seqNo, NOW, NOW);
+	}
+
+	@Test
+	public void notActive()
+	{
+		final DocumentVersionsRegistry registry = DocumentVersionsRegistry.builder().build();
+		assertThat(registry.getLastSeqNo()).isEqualTo(DocumentVersionsRegistry.SEQNO_UNKNOWN);
+		assertThat(registry.isKnownNotChangedSince("C_Order", 1, DocumentVersionsRegistry.SEQNO_UNKNOWN, NOW, NOW)).isFalse();
+	}
+
+	@Test
+	public void noEvents()
+	{
+		final long seqNo = registry.getLastSeqNo();
+		assertThat(isKnownNotChangedSince("C_Order", 1, seqNo)).isTrue();
+	}
+
+	@Test
+	public void recordChanged()
+	{
+		final long seqNo = registry.getLastSeqNo();
+		registry.onRecordChanged("C_Order", 1);
+
+		assertThat(isKnownNotChangedSince("c_order", 1, seqNo)).isFalse();
+		assertThat(isKnownNotChangedSince("C_Order", 2, seqNo)).isTrue();
+		assertThat(isKnownNotChangedSince("C_Order", 1, registry.getLastSeqNo())).isTrue();
+	}
+
+	@Test
+	public void tableChanged()
+	{
+		final long seqNo = registry.getLastSeqNo();
+		registry.onTableChanged("C_Order");
+
+		assertThat(isKnownNotChangedSince("C_Order", 1, seqNo)).isFalse();
+		assertThat(isKnownNotChangedSince("C_Invoice", 1, seqNo)).isTrue();
+	}
+
+	@Test
+	public void allChanged()
+	{
+		final long seqNo = registry.getLastSeqNo();
+		registry.onAllChanged();
+
+		assertThat(isKnownNotChangedSince("C_Invoice", 1, seqNo)).isFalse();
+		assertThat(isKnownNotChangedSince("C_Invoice", 1, registry.getLastSeqNo())).isTrue();
+	}
+
+	@Test
+	public void changeMarkersDropped()
+	{
+		final long seqNo = registry.getLastSeqNo();
+		registry.onRecordChanged("C_Order", 1);
+		registry.onRecordChanged("C_Order", 2);
+		registry.onRecordChanged("C_Order", 3);
+
+		// we are tracking max 2 records, so we cannot vouch for any record changed since seqNo
+		assertThat(isKnownNotChangedSince("C_Order", 4, seqNo)).isFalse();
+		assertThat(isKnownNotChangedSince("C_Order", 4, registry.getLastSeqNo())).isTrue();
+	}
+
+	@Test
+	public void trustDurationExpired()
+	{
+		final long seqNo = registry.getLastSeqNo();
+		assertThat(registry.isKnownNotChangedSince("C_Order", 1, seqNo, NOW, NOW + TRUST_DURATION_MILLIS)).isTrue();
+		assertThat(registry.isKnownNotChangedSince("C_Order", 1, seqNo, NOW, NOW + TRUST_DURATION_MILLIS + 1)).isFalse();
+	}
+
+	@Test
+	public void trustDurationDisabled()
+	{
+		final DocumentVersionsRegistry registry = DocumentVersionsRegistry.builder()
+				.trustDurationMillisSupplier(() -> 0)
+				.build();
+		registry.activate();
+
+		final long seqNo = registry.getLastSeqNo();
+		assertThat(registry.isKnownNotChangedSince("C_Order", 1, seqNo, NOW, NOW)).isFalse();
+	}
+
+	@Test
+	public void newVersionSeqNo_isUnique()
+	{
+		final long seqNo1 = registry.newVersionSeqNo();
+		final long seqNo2 = registry.newVersionSeqNo();
+		assertThat(seqNo2).isGreaterThan(seqNo1);
+	}
+
+	@Test
+	public void ownSave()
+	{
+		final long otherDocumentSeqNo = registry.newVersionSeqNo();
+
+		registry.onRecordChanged("C_Order", 1); // registered while saving
+		final long savedSeqNo = registry.newVersionSeqNo(); // document refreshed after save
+		registry.onRecordChangedBySave("C_Order", 1, savedSeqNo); // registered after commit
+
+		assertThat(isKnownNotChangedSince("C_Order", 1, savedSeqNo)).isTrue();
+		assertThat(isKnownNotChangedSince("C_Order", 1, otherDocumentSeqNo)).isFalse();
+	}
+
+	@Test
+	public void ownSave_changedAfterRefresh()
+	{
+		final long savedSeqNo = registry.newVersionSeqNo();
+		registry.onRecordChanged("C_Order", 1); // changed again in the same transaction, after the refresh
+		registry.onRecordChangedBySave("C_Order", 1, savedSeqNo);
+
+		assertThat(isKnownNotChangedSince("C_Order", 1, savedSeqNo)).isFalse();
+	}
+
+	@Test
+	public void ownSave_changedAfterCommit()
+	{
+		final long savedSeqNo = registry.newVersionSeqNo();
+		registry.onRecordChangedBySave("C_Order", 1, savedSeqNo);
+		registry.onRecordChanged("C_Order", 1);
+
+		assertThat(isKnownNotChangedSince("C_Order", 1, savedSeqNo)).isFalse();
+	}
+
+	@Test
+	public void deactivated()
+	{
+		final long seqNo = registry.getLastSeqNo();
+		registry.deactivate();
+		assertThat(isKnownNotChangedSince("C_Order", 1, seqNo)).isFalse();
+
+		registry.activate();
+		assertThat(isKnownNotChangedSince("C_Order", 1, seqNo)).isFalse();
+		assertThat(isKnownNotChangedSince("C_Order", 1, registry.getLastSeqNo())).isTrue();
+	}
+}
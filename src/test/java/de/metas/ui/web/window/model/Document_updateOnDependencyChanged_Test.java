@@ -0,0 +1,249 @@
+package de.metas.ui.web.window.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.CtxName;
+import org.compiere.util.CtxNames;
+import org.compiere.util.Evaluatee;
+import org.compiere.util.Evaluatees;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentType;
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.LookupDescriptorProvider;
+import de.metas.ui.web.window.descriptor.LookupDescriptorProvider.LookupScope;
+import de.metas.ui.web.window.descriptor.SimpleLookupDescriptorTemplate;
+import de.metas.ui.web.window.model.Document.DocumentValuesSupplier;
+import de.metas.ui.web.window.model.lookup.LookupDataSource;
+import de.metas.ui.web.window.model.lookup.LookupDataSourceContext;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class Document_updateOnDependencyChanged_Test
+{
+	private static final WindowId WINDOW_ID = WindowId.of(123);
+
+	private static final String FIELDNAME_ProductType = "ProductType";
+	private static final String FIELDNAME_M_Product_ID = "M_Product_ID";
+
+	private static final int PRODUCT_ID_Item1 = 1;
+	private static final int PRODUCT_ID_Item2 = 2;
+	private static final int PRODUCT_ID_Service = 3;
+
+	private DocumentEntityDescriptor entityDescriptor;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		entityDescriptor = DocumentEntityDescriptor.builder()
+				.setDocumentType(DocumentType.Window, WINDOW_ID.toInt())
+				.disableCallouts()
+				.addField(createField(FIELDNAME_ProductType, DocumentFieldWidgetType.Text, String.class, LookupDescriptorProvider.NULL))
+				.addField(createField(FIELDNAME_M_Product_ID, DocumentFieldWidgetType.List, IntegerLookupValue.class, LookupDescriptorProvider.singleton(new ProductsByTypeLookupDescriptor())))
+				.build();
+	}
+
+	private static DocumentFieldDescriptor.Builder createField(
+			final String fieldName,
+			final DocumentFieldWidgetType widgetType,
+			final Class<?> valueClass,
+			final LookupDescriptorProvider lookupDescriptorProvider)
+	{
+		return DocumentFieldDescriptor.builder(fieldName)
+				.setCaption(fieldName)
+				.setValueClass(valueClass)
+				.setWidgetType(widgetType)
+				.setLookupDescriptorProvider(lookupDescriptorProvider)
+				.setReadonlyLogic(false)
+				.setDisplayLogic(true)
+				.setMandatoryLogic(false);
+	}
+
+	private Document createDocument(final String productType)
+	{
+		return Document.builder(entityDescriptor)
+				.initializeAsNewDocument(new DocumentValuesSupplier()
+				{
+					@Override
+					public DocumentId getDocumentId()
+					{
+						return DocumentId.of(1);
+					}
+
+					@Override
+					public String getVersion()
+					{
+						return "0";
+					}
+
+					@Override
+					public Object getValue(final DocumentFieldDescriptor fieldDescriptor)
+					{
+						return FIELDNAME_ProductType.equals(fieldDescriptor.getFieldName()) ? productType : NO_VALUE;
+					}
+				});
+	}
+
+	private LookupDataSource getProductLookupDataSource()
+	{
+		return entityDescriptor.getField(FIELDNAME_M_Product_ID).createLookupDataSource(LookupScope.DocumentField);
+	}
+
+	private static int getProductId(final Document document)
+	{
+		return document.getFieldView(FIELDNAME_M_Product_ID).getValueAsInt(-1);
+	}
+
+	@Test
+	public void lookupDataSource_isValidId()
+	{
+		final LookupDataSource lookupDataSource = getProductLookupDataSource();
+		final Evaluatee ctx = Evaluatees.mapBuilder()
+				.put(FIELDNAME_ProductType, "I")
+				.build();
+
+		assertThat(lookupDataSource.isValidId(ctx, PRODUCT_ID_Item1)).isTrue();
+		assertThat(lookupDataSource.isValidId(ctx, String.valueOf(PRODUCT_ID_Item2))).isTrue();
+
+		// rejected by the validation rule
+		assertThat(lookupDataSource.isValidId(ctx, PRODUCT_ID_Service)).isFalse();
+
+		// not existing
+		assertThat(lookupDataSource.isValidId(ctx, 999)).isFalse();
+	}
+
+	@Test
+	public void field_isLookupValueValid()
+	{
+		final Document document = createDocument("I");
+		final DocumentField field = new DocumentField(entityDescriptor.getField(FIELDNAME_M_Product_ID), document);
+
+		assertThat(field.isLookupValueValid(PRODUCT_ID_Item1)).isTrue();
+		assertThat(field.isLookupValueValid(IntegerLookupValue.of(PRODUCT_ID_Item2, "Item2"))).isTrue();
+
+		// rejected by the validation rule
+		assertThat(field.isLookupValueValid(PRODUCT_ID_Service)).isFalse();
+		assertThat(field.isLookupValueValid(IntegerLookupValue.of(PRODUCT_ID_Service, "Service"))).isFalse();
+
+		assertThat(field.isLookupValueValid(null)).isFalse();
+	}
+
+	@Test
+	public void dependencyChanged_currentValueStillValid_isKept()
+	{
+		final Document document = createDocument("I");
+		document.processValueChange(FIELDNAME_M_Product_ID, IntegerLookupValue.of(PRODUCT_ID_Item1, "Item1"), () -> "test");
+		assertThat(document.getFieldLookupValues(FIELDNAME_M_Product_ID).containsId(PRODUCT_ID_Item1)).isTrue(); // the lookup values were loaded, i.e. they are not staled
+
+		document.processValueChange(FIELDNAME_ProductType, "ALL", () -> "test");
+
+		assertThat(getProductId(document)).isEqualTo(PRODUCT_ID_Item1);
+		assertThat(document.getFieldView(FIELDNAME_M_Product_ID).isLookupValuesStale()).isTrue();
+	}
+
+	@Test
+	public void dependencyChanged_currentValueNotValid_isReset()
+	{
+		final Document document = createDocument("I");
+		document.processValueChange(FIELDNAME_M_Product_ID, IntegerLookupValue.of(PRODUCT_ID_Item1, "Item1"), () -> "test");
+		assertThat(document.getFieldLookupValues(FIELDNAME_M_Product_ID).containsId(PRODUCT_ID_Item1)).isTrue(); // the lookup values were loaded, i.e. they are not staled
+
+		document.processValueChange(FIELDNAME_ProductType, "S", () -> "test");
+
+		assertThat(document.getFieldView(FIELDNAME_M_Product_ID).getValue()).isNull();
+		assertThat(document.getFieldView(FIELDNAME_M_Product_ID).isLookupValuesStale()).isTrue();
+	}
+
+	/**
+	 * Products lookup which is filtered by the ProductType parameter, the same way a validation rule would do it.
+	 * Product type "ALL" accepts all products.
+	 */
+	private static class ProductsByTypeLookupDescriptor extends SimpleLookupDescriptorTemplate
+	{
+		private static final CtxName PARAM_ProductType = CtxNames.parse(FIELDNAME_ProductType);
+
+		private static final Map<Integer, String> productTypesById = ImmutableMap.of(
+				PRODUCT_ID_Item1, "I",
+				PRODUCT_ID_Item2, "I",
+				PRODUCT_ID_Service, "S");
+
+		@Override
+		public boolean isNumericKey()
+		{
+			return true;
+		}
+
+		@Override
+		public Set<String> getDependsOnFieldNames()
+		{
+			return ImmutableSet.of(FIELDNAME_ProductType);
+		}
+
+		@Override
+		public LookupDataSourceContext.Builder newContextForFetchingList()
+		{
+			return LookupDataSourceContext.builderWithoutTableName()
+					.requiresParameter(PARAM_ProductType);
+		}
+
+		@Override
+		public LookupValue retrieveLookupValueById(final LookupDataSourceContext evalCtx)
+		{
+			final int productId = evalCtx.getIdToFilterAsInt(-1);
+			return productTypesById.containsKey(productId) ? createLookupValue(productId) : LOOKUPVALUE_NULL;
+		}
+
+		@Override
+		public LookupValuesList retrieveEntities(final LookupDataSourceContext evalCtx)
+		{
+			final String productType = evalCtx.get_ValueAsString(FIELDNAME_ProductType);
+			return productTypesById.keySet()
+					.stream()
+					.filter(productId -> "ALL".equals(productType) || productTypesById.get(productId).equals(productType))
+					.map(ProductsByTypeLookupDescriptor::createLookupValue)
+					.collect(LookupValuesList.collect());
+		}
+
+		private static LookupValue createLookupValue(final int productId)
+		{
+			return IntegerLookupValue.of(productId, "Product" + productId);
+		}
+	}
+}
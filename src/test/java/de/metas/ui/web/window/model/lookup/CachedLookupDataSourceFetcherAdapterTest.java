@@ -0,0 +1,194 @@
+package de.metas.ui.web.window.model.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CachedLookupDataSourceFetcherAdapterTest
+{
+	private MockedLookupDataSourceFetcher delegate;
+	private CachedLookupDataSourceFetcherAdapter fetcher;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		delegate = new MockedLookupDataSourceFetcher(ImmutableMap.of(1, "one", 2, "two", 3, "three"));
+		fetcher = CachedLookupDataSourceFetcherAdapter.of(delegate);
+	}
+
+	private LookupValuesList retrieveByIds(final Integer... ids)
+	{
+		final LookupDataSourceContext evalCtx = fetcher.newContextForFetchingList()
+				.putFilterByIds(ImmutableList.copyOf(ids))
+				.build();
+		return fetcher.retrieveLookupValueByIdsInOrder(evalCtx);
+	}
+
+	private static List<Integer> extractIds(final LookupValuesList lookupValues)
+	{
+		return lookupValues.stream()
+				.map(LookupValue::getIdAsInt)
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void test_keepsOrderAndSkipsMissingIds()
+	{
+		final LookupValuesList lookupValues = retrieveByIds(3, 99, 1);
+
+		assertThat(extractIds(lookupValues)).containsExactly(3, 1);
+		assertThat(lookupValues.getById(3).getDisplayName()).isEqualTo("three");
+		assertThat(delegate.getRequestedIds()).containsExactly(ImmutableList.of(3, 99, 1));
+	}
+
+	@Test
+	public void test_fetchesOnlyNotCachedIds()
+	{
+		retrieveByIds(3, 99, 1);
+
+		final LookupValuesList lookupValues = retrieveByIds(1, 2, 99, 3);
+
+		assertThat(extractIds(lookupValues)).containsExactly(1, 2, 3);
+		assertThat(delegate.getRequestedIds()).containsExactly(
+				ImmutableList.of(3, 99, 1),
+				ImmutableList.of(2)); // 99 was cached as not found
+	}
+
+	@Test
+	public void test_allCached_delegateNotCalled()
+	{
+		retrieveByIds(1, 2);
+
+		final LookupValuesList lookupValues = retrieveByIds(2, 1);
+
+		assertThat(extractIds(lookupValues)).containsExactly(2, 1);
+		assertThat(delegate.getRequestedIds()).hasSize(1);
+	}
+
+	private static class MockedLookupDataSourceFetcher implements LookupDataSourceFetcher
+	{
+		private final Map<Integer, String> displayNamesById;
+		private final List<List<Object>> requestedIds = new ArrayList<>();
+
+		private MockedLookupDataSourceFetcher(final Map<Integer, String> displayNamesById)
+		{
+			this.displayNamesById = displayNamesById;
+		}
+
+		public List<List<Object>> getRequestedIds()
+		{
+			return requestedIds;
+		}
+
+		@Override
+		public LookupValuesList retrieveLookupValueByIdsInOrder(final LookupDataSourceContext evalCtx)
+		{
+			requestedIds.add(evalCtx.getIdsToFilter());
+
+			return evalCtx.getIdsToFilter()
+					.stream()
+					.filter(displayNamesById::containsKey)
+					.map(id -> IntegerLookupValue.of((Integer)id, displayNamesById.get(id)))
+					.collect(LookupValuesList.collect());
+		}
+
+		@Override
+		public LookupValue retrieveLookupValueById(final LookupDataSourceContext evalCtx)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isNumericKey()
+		{
+			return true;
+		}
+
+		@Override
+		public LookupDataSourceContext.Builder newContextForFetchingById(final Object id)
+		{
+			return LookupDataSourceContext.builder("Test").putFilterById(id);
+		}
+
+		@Override
+		public LookupDataSourceContext.Builder newContextForFetchingList()
+		{
+			return LookupDataSourceContext.builder("Test");
+		}
+
+		@Override
+		public LookupValuesList retrieveEntities(final LookupDataSourceContext evalCtx)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isCached()
+		{
+			return false;
+		}
+
+		@Override
+		public String getCachePrefix()
+		{
+			return "Test";
+		}
+
+		@Override
+		public Optional<String> getLookupTableName()
+		{
+			return Optional.of("Test");
+		}
+
+		@Override
+		public Optional<WindowId> getZoomIntoWindowId()
+		{
+			return Optional.empty();
+		}
+
+		@Override
+		public void cacheInvalidate()
+		{
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package de.metas.ui.web.window.model.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SqlDocumentsRepository_computeMaxRowsToFetch_Test
+{
+	private static final int LOAD_LIMIT_MAX = 300;
+
+	@Test
+	public void noPaging_loadLimitMaxIsEnforced()
+	{
+		assertThat(SqlDocumentsRepository.computeMaxRowsToFetch(-1, LOAD_LIMIT_MAX)).isEqualTo(LOAD_LIMIT_MAX);
+		assertThat(SqlDocumentsRepository.computeMaxRowsToFetch(0, LOAD_LIMIT_MAX)).isEqualTo(LOAD_LIMIT_MAX);
+	}
+
+	@Test
+	public void pageSmallerThanLoadLimitMax()
+	{
+		assertThat(SqlDocumentsRepository.computeMaxRowsToFetch(50, LOAD_LIMIT_MAX)).isEqualTo(50);
+		assertThat(SqlDocumentsRepository.computeMaxRowsToFetch(LOAD_LIMIT_MAX, LOAD_LIMIT_MAX)).isEqualTo(LOAD_LIMIT_MAX);
+	}
+
+	@Test
+	public void pageBiggerThanLoadLimitMax_isCapped()
+	{
+		assertThat(SqlDocumentsRepository.computeMaxRowsToFetch(1000000, LOAD_LIMIT_MAX)).isEqualTo(LOAD_LIMIT_MAX);
+	}
+
+	@Test
+	public void noLoadLimitMax()
+	{
+		assertThat(SqlDocumentsRepository.computeMaxRowsToFetch(1000000, -1)).isEqualTo(1000000);
+		assertThat(SqlDocumentsRepository.computeMaxRowsToFetch(-1, -1)).isLessThanOrEqualTo(0);
+	}
+}